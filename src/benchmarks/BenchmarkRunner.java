@@ -0,0 +1,169 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs small operations over and over for a fixed time, in the way of JMH: a few warmup iterations whose results are
+ * thrown away, then measured iterations. For every operation it reports the throughput, the average time of one call
+ * and how much it allocates, both per second and per call (what JMH reports with -prof gc).
+ * Allocation is read from the JVM's count of the bytes allocated by the running thread, so the operations must run on
+ * the thread that calls run().
+ */
+public class BenchmarkRunner {
+    /**
+     * One call of the operation measured. The index counts the calls, so that the operation can go through its inputs
+     * in turn. Whatever is returned is kept so the JIT cannot drop the call.
+     */
+    public interface Operation {
+        Object run(int index) throws Exception;
+    }
+
+    /**
+     * The results of one operation, averaged over the measured iterations
+     */
+    public static class Result {
+        private final String name;
+        private final int size;
+        private final double opsPerSecond;
+        private final double opsPerSecondError;
+        private final double nanosPerOp;
+        private final double allocMbPerSecond;
+        private final double allocBytesPerOp;
+
+        Result(String name, int size, double opsPerSecond, double opsPerSecondError, double nanosPerOp,
+               double allocMbPerSecond, double allocBytesPerOp) {
+            this.name = name;
+            this.size = size;
+            this.opsPerSecond = opsPerSecond;
+            this.opsPerSecondError = opsPerSecondError;
+            this.nanosPerOp = nanosPerOp;
+            this.allocMbPerSecond = allocMbPerSecond;
+            this.allocBytesPerOp = allocBytesPerOp;
+        }
+
+        /**
+         * @return the name of the operation
+         */
+        public String getName() { return name; }
+
+        /**
+         * @return the size of the dataset the operation ran on
+         */
+        public int getSize() { return size; }
+
+        /**
+         * @return the number of calls per second
+         */
+        public double getOpsPerSecond() { return opsPerSecond; }
+
+        /**
+         * @return the standard deviation of the calls per second between iterations
+         */
+        public double getOpsPerSecondError() { return opsPerSecondError; }
+
+        /**
+         * @return the average time of one call, in nanoseconds
+         */
+        public double getNanosPerOp() { return nanosPerOp; }
+
+        /**
+         * @return the megabytes allocated per second
+         */
+        public double getAllocMbPerSecond() { return allocMbPerSecond; }
+
+        /**
+         * @return the bytes allocated by one call
+         */
+        public double getAllocBytesPerOp() { return allocBytesPerOp; }
+    }
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private long sink;
+
+    /**
+     * Creates a runner
+     * @param warmupIterations the number of iterations run before measuring
+     * @param measuredIterations the number of iterations measured
+     * @param iterationMillis how long each iteration runs, in milliseconds
+     */
+    public BenchmarkRunner(int warmupIterations, int measuredIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Runs an operation and measures it
+     * @param name the name of the operation
+     * @param size the size of the dataset the operation runs on
+     * @param operation the operation
+     * @return the results of the measured iterations
+     * @throws Exception If the operation throws
+     */
+    public Result run(String name, int size, Operation operation) throws Exception {
+        return run(name, size, operation, null);
+    }
+
+    /**
+     * Runs an operation and measures it, undoing what it changed after every iteration, outside of the time measured
+     * @param name the name of the operation
+     * @param size the size of the dataset the operation runs on
+     * @param operation the operation
+     * @param afterIteration run after every iteration, or null
+     * @return the results of the measured iterations
+     * @throws Exception If the operation throws
+     */
+    public Result run(String name, int size, Operation operation, Runnable afterIteration) throws Exception {
+        long threadId = Thread.currentThread().getId();
+        int index = 0;
+        List<double[]> measured = new ArrayList<>();
+        for (int iteration = 0; iteration < warmupIterations + measuredIterations; iteration++) {
+            long calls = 0;
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                Object result = operation.run(index++);
+                if (result != null) sink += result.hashCode();
+                calls++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < iterationNanos);
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            if (afterIteration != null) afterIteration.run();
+            if (iteration >= warmupIterations) measured.add(new double[]{calls, elapsed, allocated});
+        }
+
+        double[] opsPerSecond = new double[measured.size()];
+        double calls = 0;
+        double nanos = 0;
+        double allocated = 0;
+        for (int i = 0; i < measured.size(); i++) {
+            double[] iteration = measured.get(i);
+            opsPerSecond[i] = iteration[0] * 1e9 / iteration[1];
+            calls += iteration[0];
+            nanos += iteration[1];
+            allocated += iteration[2];
+        }
+        double mean = calls * 1e9 / nanos;
+        double variance = 0;
+        for (double ops : opsPerSecond) variance += (ops - mean) * (ops - mean);
+        double error = opsPerSecond.length > 1 ? Math.sqrt(variance / (opsPerSecond.length - 1)) : 0;
+        return new Result(name, size, mean, error, nanos / calls, allocated / (1024.0 * 1024.0) * 1e9 / nanos,
+                allocated / calls);
+    }
+
+    /**
+     * Getter for a value made of every result returned so far, so that printing it keeps the results alive
+     * @return the value
+     */
+    public long getSink() {
+        return sink;
+    }
+}
@@ -0,0 +1,509 @@
+package benchmarks;
+
+import entities.Admin;
+import entities.FreezeRequest;
+import entities.GlobalInventory;
+import entities.GlobalWishlist;
+import entities.Item;
+import entities.Message;
+import entities.NewItemRequest;
+import entities.PendingMeetings;
+import entities.PermTrade;
+import entities.PrivateMessage;
+import entities.ReportRequest;
+import entities.SystemMessage;
+import entities.TempTrade;
+import entities.Trade;
+import entities.TradeRequest;
+import entities.UnbanRequest;
+import entities.UnfreezeRequest;
+import entities.User;
+import entities.UsernameTable;
+import frontend.mainMenuGUI.listeners.StartupPipeline;
+import gateways.AdminAccountGateways;
+import gateways.AdminMessageGateway;
+import gateways.GlobalInventoryGateways;
+import gateways.GlobalWishlistGateway;
+import gateways.PendingMeetingsGateway;
+import gateways.UserGateway;
+import gateways.UserTradesGateway;
+import gateways.UsernameTableGateway;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Writes a complete data folder, in the format the gateways read, for a system of any size, so that the program can be
+ * tried on as much data as it would hold in production. The same seed and settings always give the same data, with its
+ * dates relative to the time it is generated.
+ *
+ * Every user owns a number of items that follows a Zipf distribution: users are ranked at random, and the user of rank
+ * r owns items in proportion to 1 / r^zipfExponent, itemsPerUser on average. Users wish for items of any user, trade
+ * with users close to them in the order they are generated, and have system messages, private messages and trade
+ * requests in their inbox. The admin inbox holds freeze, unfreeze, unban, report and new item requests about a few of
+ * the users, whose accounts are frozen or banned to match.
+ * Trades are permanent and temporary, one-way and two-way, and not started yet, waiting for a confirmation, half
+ * confirmed, completed or failed.
+ *
+ * Users, their trades and the items are written out as they are made, through the same gateways the program uses, so
+ * only the users whose trades are not written yet are held in memory. The wishlist and the admin inbox are each saved
+ * as one object, and are built in memory first.
+ * Usage: java benchmarks.DataDirectoryGenerator folder [name=value ...], with the names of the setters below, for
+ * example: java benchmarks.DataDirectoryGenerator data/ users=1000000 itemsPerUser=10 seed=7
+ */
+public class DataDirectoryGenerator {
+    private static final int FIRST_ITEM_ID = 100000000;
+    private static final int MAX_ITEMS = 900000000;
+    private static final String[] ADJECTIVES = {"old", "new", "red", "blue", "small", "large", "vintage", "signed",
+            "rare", "used", "wooden", "electric", "green", "broken", "shiny", "folding"};
+    private static final String[] NOUNS = {"book", "bike", "lamp", "guitar", "camera", "chair", "jacket", "phone",
+            "table", "board game", "watch", "kettle", "skateboard", "poster", "speaker", "tent", "drill", "mug"};
+    private static final String[] PLACES = {"library", "cafeteria", "main entrance", "gym", "park", "station"};
+
+    private final String folder;
+    private final long seed;
+    private int users = 1000;
+    private int itemsPerUser = 10;
+    private double zipfExponent = 0.8;
+    private int wishesPerUser = 10;
+    private int tradesPerUser = 6;
+    private int messagesPerUser = 5;
+    private int partnerWindow = 1000;
+    private double frozenRate = 0.02;
+    private double bannedRate = 0.005;
+    private double requestRate = 0.01;
+    private double removedItemRate = 0.005;
+    private int admins = 3;
+    private Boolean mappedInventory;
+
+    private final Map<String, Long> counts = new HashMap<>();
+    private int[] firstItem;
+    // the meetings of the trade requests put in the inboxes, saved next to them
+    private PendingMeetings pendingMeetings;
+    private UsernameTable usernames;
+
+    /**
+     * Creates a generator with the default settings
+     * @param folder the data folder to write, which must be empty or not exist yet, ending with "/"
+     * @param seed the seed of every random choice
+     */
+    public DataDirectoryGenerator(String folder, long seed) {
+        this.folder = folder.endsWith("/") ? folder : folder + "/";
+        this.seed = seed;
+    }
+
+    /**
+     * @param users the number of users
+     * @return this generator
+     */
+    public DataDirectoryGenerator setUsers(int users) { this.users = users; return this; }
+
+    /**
+     * @param itemsPerUser the average number of items a user owns
+     * @return this generator
+     */
+    public DataDirectoryGenerator setItemsPerUser(int itemsPerUser) { this.itemsPerUser = itemsPerUser; return this; }
+
+    /**
+     * @param zipfExponent how skewed the number of items per user is, 0 for every user owning as many
+     * @return this generator
+     */
+    public DataDirectoryGenerator setZipfExponent(double zipfExponent) { this.zipfExponent = zipfExponent; return this; }
+
+    /**
+     * @param wishesPerUser the average number of items a user wishes for
+     * @return this generator
+     */
+    public DataDirectoryGenerator setWishesPerUser(int wishesPerUser) { this.wishesPerUser = wishesPerUser; return this; }
+
+    /**
+     * @param tradesPerUser the average number of trades a user is in
+     * @return this generator
+     */
+    public DataDirectoryGenerator setTradesPerUser(int tradesPerUser) { this.tradesPerUser = tradesPerUser; return this; }
+
+    /**
+     * @param messagesPerUser the average number of messages in the inbox of a user
+     * @return this generator
+     */
+    public DataDirectoryGenerator setMessagesPerUser(int messagesPerUser) {
+        this.messagesPerUser = messagesPerUser;
+        return this;
+    }
+
+    /**
+     * @param partnerWindow how far apart, in the order they are generated, users who trade or message can be
+     * @return this generator
+     */
+    public DataDirectoryGenerator setPartnerWindow(int partnerWindow) { this.partnerWindow = partnerWindow; return this; }
+
+    /**
+     * @param frozenRate the share of users whose account is frozen
+     * @return this generator
+     */
+    public DataDirectoryGenerator setFrozenRate(double frozenRate) { this.frozenRate = frozenRate; return this; }
+
+    /**
+     * @param bannedRate the share of users whose account is banned
+     * @return this generator
+     */
+    public DataDirectoryGenerator setBannedRate(double bannedRate) { this.bannedRate = bannedRate; return this; }
+
+    /**
+     * @param requestRate the share of users with a freeze request, a report or a new item request about them
+     * @return this generator
+     */
+    public DataDirectoryGenerator setRequestRate(double requestRate) { this.requestRate = requestRate; return this; }
+
+    /**
+     * @param removedItemRate the share of items deleted by their owner, which can still be brought back
+     * @return this generator
+     */
+    public DataDirectoryGenerator setRemovedItemRate(double removedItemRate) {
+        this.removedItemRate = removedItemRate;
+        return this;
+    }
+
+    /**
+     * @param admins the number of admin accounts besides the default one
+     * @return this generator
+     */
+    public DataDirectoryGenerator setAdmins(int admins) { this.admins = admins; return this; }
+
+    /**
+     * @param mappedInventory whether the items are kept in a memory-mapped file; by default they are when there are
+     *                        more than a million of them
+     * @return this generator
+     */
+    public DataDirectoryGenerator setMappedInventory(boolean mappedInventory) {
+        this.mappedInventory = mappedInventory;
+        return this;
+    }
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if (args.length == 0) {
+            System.out.println("Usage: java benchmarks.DataDirectoryGenerator folder [name=value ...]");
+            return;
+        }
+        Map<String, String> settings = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String[] setting = args[i].split("=", 2);
+            if (setting.length != 2) throw new IllegalArgumentException("Not a setting: " + args[i]);
+            settings.put(setting[0], setting[1]);
+        }
+        DataDirectoryGenerator generator = new DataDirectoryGenerator(args[0],
+                Long.parseLong(settings.getOrDefault("seed", "42")));
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            String value = setting.getValue();
+            switch (setting.getKey()) {
+                case "seed": break;
+                case "users": generator.setUsers(Integer.parseInt(value)); break;
+                case "itemsPerUser": generator.setItemsPerUser(Integer.parseInt(value)); break;
+                case "zipfExponent": generator.setZipfExponent(Double.parseDouble(value)); break;
+                case "wishesPerUser": generator.setWishesPerUser(Integer.parseInt(value)); break;
+                case "tradesPerUser": generator.setTradesPerUser(Integer.parseInt(value)); break;
+                case "messagesPerUser": generator.setMessagesPerUser(Integer.parseInt(value)); break;
+                case "partnerWindow": generator.setPartnerWindow(Integer.parseInt(value)); break;
+                case "frozenRate": generator.setFrozenRate(Double.parseDouble(value)); break;
+                case "bannedRate": generator.setBannedRate(Double.parseDouble(value)); break;
+                case "requestRate": generator.setRequestRate(Double.parseDouble(value)); break;
+                case "removedItemRate": generator.setRemovedItemRate(Double.parseDouble(value)); break;
+                case "admins": generator.setAdmins(Integer.parseInt(value)); break;
+                case "mappedInventory": generator.setMappedInventory(Boolean.parseBoolean(value)); break;
+                default: throw new IllegalArgumentException("Unknown setting: " + setting.getKey());
+            }
+        }
+        long start = System.nanoTime();
+        Map<String, Long> counts = generator.generate();
+        for (Map.Entry<String, Long> count : new TreeMap<>(counts).entrySet()) {
+            System.out.printf("%-20s %,d%n", count.getKey(), count.getValue());
+        }
+        System.out.printf("%-20s %,d ms%n", "time", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes the data folder
+     * @return how many of every kind of record were written, and the bytes of the folder
+     * @throws IOException If the folder is not empty or a file cannot be written
+     * @throws ClassNotFoundException If a gateway fails to read a file it just created
+     */
+    public Map<String, Long> generate() throws IOException, ClassNotFoundException {
+        File directory = new File(folder);
+        directory.mkdirs();
+        String[] existing = directory.list();
+        if (existing == null || existing.length > 0) throw new IOException("Not an empty folder: " + folder);
+        counts.clear();
+        pendingMeetings = new PendingMeetings();
+
+        // the usernames get their IDs in order, before any other file is written
+        UsernameTableGateway usernameTableGateway = new UsernameTableGateway(folder + StartupPipeline.USERNAMES_FILE);
+        usernames = usernameTableGateway.getUsernameTable();
+        for (int i = 0; i < users; i++) usernames.intern(username(i));
+
+        writeItems(new Random(seed));
+        GlobalWishlist wishlist = writeWishlist(new Random(seed + 1));
+        List<Message> adminMessages = writeUsersAndTrades(new Random(seed + 2));
+
+        new AdminMessageGateway(folder + StartupPipeline.ADMIN_MESSAGES_FILE, usernames)
+                .writeToFile(folder + StartupPipeline.ADMIN_MESSAGES_FILE, adminMessages);
+        AdminAccountGateways adminGateway = new AdminAccountGateways(folder + StartupPipeline.ADMINS_FILE);
+        adminGateway.beginAdminMap();
+        Map<String, Admin> adminMap = adminGateway.getAdminMap();
+        for (int i = 1; i <= admins; i++) adminMap.put("admin" + i, new Admin("admin" + i, "admin" + i));
+        adminGateway.saveToFile(adminMap);
+        count("admins", adminMap.size());
+        count("admin messages", adminMessages.size());
+        count("wished items", wishlist.getWantedItems().size());
+        new PendingMeetingsGateway(folder + StartupPipeline.PENDING_MEETINGS_FILE)
+                .writeToFile(folder + StartupPipeline.PENDING_MEETINGS_FILE, pendingMeetings);
+        usernameTableGateway.writeToFile(folder + StartupPipeline.USERNAMES_FILE);
+
+        long bytes = 0;
+        File[] files = directory.listFiles();
+        if (files != null) for (File file : files) bytes += file.length();
+        count("bytes", bytes);
+        return new HashMap<>(counts);
+    }
+
+    //----------------Helpers----------------//
+    private static String username(int user) {
+        return "user" + user;
+    }
+
+    // the item at an index, made the same way every time it is needed
+    private Item item(int index, String owner) {
+        int hash = index * 0x9E3779B9;
+        String name = ADJECTIVES[(hash >>> 8) % ADJECTIVES.length] + " " + NOUNS[(hash >>> 16) % NOUNS.length];
+        Item item = new Item(name, owner, "a " + name + ", item number " + index, usernames);
+        item.setItemID(Integer.toString(FIRST_ITEM_ID + index));
+        return item;
+    }
+
+    private int itemCount(int user) {
+        return firstItem[user + 1] - firstItem[user];
+    }
+
+    // a random item of a user, in a list as trades hold them, or an empty list if they have none
+    private List<Item> randomItemOf(int user, Random random) {
+        int count = itemCount(user);
+        if (count == 0) return new ArrayList<>();
+        return new ArrayList<>(Collections.singletonList(item(firstItem[user] + random.nextInt(count),
+                username(user))));
+    }
+
+    private int randomPartner(int user, Random random) {
+        int partner = user + 1 + random.nextInt(partnerWindow);
+        return partner < users ? partner : -1;
+    }
+
+    private void count(String kind, long n) {
+        counts.merge(kind, n, Long::sum);
+    }
+
+    // gives every user their number of items, then writes the items of every user in turn
+    private void writeItems(Random random) throws IOException, ClassNotFoundException {
+        int[] ranks = new int[users];
+        for (int i = 0; i < users; i++) ranks[i] = i;
+        for (int i = users - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int rank = ranks[i];
+            ranks[i] = ranks[j];
+            ranks[j] = rank;
+        }
+        double harmonic = 0;
+        for (int rank = 1; rank <= users; rank++) harmonic += Math.pow(rank, -zipfExponent);
+        double total = (double) users * itemsPerUser;
+        firstItem = new int[users + 1];
+        for (int user = 0; user < users; user++) {
+            double expected = total * Math.pow(ranks[user] + 1, -zipfExponent) / harmonic;
+            // rounded at random, so the counts add up to the total on average
+            int count = (int) expected + (random.nextDouble() < expected - (int) expected ? 1 : 0);
+            if ((long) firstItem[user] + count > MAX_ITEMS) throw new IllegalArgumentException("Too many items");
+            firstItem[user + 1] = firstItem[user] + count;
+        }
+
+        boolean mapped = mappedInventory != null ? mappedInventory : firstItem[users] > 1_000_000;
+        GlobalInventoryGateways gateway = new GlobalInventoryGateways(
+                folder + StartupPipeline.GLOBAL_INVENTORY_FILE, mapped, usernames);
+        GlobalInventory inventory = gateway.getGlobalInventory();
+        for (int user = 0; user < users; user++) {
+            for (int index = firstItem[user]; index < firstItem[user + 1]; index++) {
+                Item item = item(index, username(user));
+                inventory.addItemIdToCollection(item.getItemID());
+                inventory.addItem(item.getItemID(), item);
+                if (random.nextDouble() < removedItemRate) {
+                    inventory.removeItemAndAddToGarbageBin(item.getItemID());
+                    count("removed items", 1);
+                }
+            }
+        }
+        gateway.writeToFile(inventory);
+        count("items", firstItem[users]);
+    }
+
+    private GlobalWishlist writeWishlist(Random random) throws IOException, ClassNotFoundException {
+        GlobalWishlistGateway gateway = new GlobalWishlistGateway(folder + StartupPipeline.GLOBAL_WISHLIST_FILE,
+                usernames);
+        GlobalWishlist wishlist = gateway.getWishlistItems();
+        int items = firstItem[users];
+        if (items > 0) {
+            for (int user = 0; user < users; user++) {
+                int wishes = random.nextInt(2 * wishesPerUser + 1);
+                for (int i = 0; i < wishes; i++) {
+                    int index = random.nextInt(items);
+                    // users do not wish for their own items
+                    if (index >= firstItem[user] && index < firstItem[user + 1]) continue;
+                    wishlist.addWish(Integer.toString(FIRST_ITEM_ID + index), username(user));
+                    count("wishes", 1);
+                }
+            }
+        }
+        gateway.writeToFile(folder + StartupPipeline.GLOBAL_WISHLIST_FILE, wishlist);
+        return wishlist;
+    }
+
+    // writes every user with their inbox, and their trades, in order; a trade is made by the first of its traders, and
+    // kept until the second one is written
+    private List<Message> writeUsersAndTrades(Random random) throws IOException, ClassNotFoundException {
+        UserGateway userGateway = new UserGateway(folder + StartupPipeline.USERS_FILE, usernames);
+        UserTradesGateway tradesGateway = new UserTradesGateway(folder + StartupPipeline.USER_TRADES_FILE,
+                usernames);
+        Map<String, User> userMap = userGateway.getMapOfUsers();
+        Map<String, List<Trade>> tradeMap = tradesGateway.getUserTrades();
+        Map<Integer, List<Trade>> pending = new HashMap<>();
+        List<Message> adminMessages = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int user = 0; user < users; user++) {
+            String username = username(user);
+            User account = new User(username, "password");
+            double state = random.nextDouble();
+            if (state < bannedRate) {
+                account.setBanned();
+                if (random.nextBoolean()) adminMessages.add(new UnbanRequest(username + " asks to be unbanned",
+                        username, usernames));
+            } else if (state < bannedRate + frozenRate) {
+                account.setFrozen();
+                if (random.nextBoolean()) adminMessages.add(new UnfreezeRequest(username + " asks to be unfrozen",
+                        username, usernames));
+            }
+            addAdminRequests(user, random, adminMessages);
+
+            List<Message> inbox = new ArrayList<>();
+            int messages = random.nextInt(2 * messagesPerUser + 1);
+            for (int i = 0; i < messages; i++) {
+                Message message = randomMessage(user, random, now);
+                if (message != null) inbox.add(message);
+            }
+            account.setMessages(inbox);
+            count("messages", inbox.size());
+            userMap.put(username, account);
+
+            List<Trade> trades = pending.remove(user);
+            if (trades == null) trades = new ArrayList<>();
+            // each trade is made by one of its two traders, so every user makes half of their trades
+            int made = random.nextInt(tradesPerUser + 1);
+            for (int i = 0; i < made; i++) {
+                int partner = randomPartner(user, random);
+                if (partner < 0) continue;
+                Trade trade = randomTrade(user, partner, random, now);
+                if (trade == null) continue;
+                trades.add(trade);
+                pending.computeIfAbsent(partner, key -> new ArrayList<>()).add(trade);
+                count("trades", 1);
+            }
+            if (!trades.isEmpty()) tradeMap.put(username, trades);
+        }
+        userGateway.writeToFile(folder + StartupPipeline.USERS_FILE, userMap);
+        tradesGateway.writeToFile(folder + StartupPipeline.USER_TRADES_FILE, tradeMap);
+        count("users", users);
+        return adminMessages;
+    }
+
+    private void addAdminRequests(int user, Random random, List<Message> adminMessages) {
+        String username = username(user);
+        if (random.nextDouble() < requestRate) {
+            adminMessages.add(new FreezeRequest(username + " has too many incomplete trades", username,
+                    usernames));
+        }
+        if (random.nextDouble() < requestRate) {
+            int reported = randomPartner(user, random);
+            if (reported >= 0) adminMessages.add(new ReportRequest(username + " reported " + username(reported),
+                    username, "did not show up to the meeting", username(reported), usernames));
+        }
+        if (random.nextDouble() < requestRate) {
+            Item item = new Item(NOUNS[random.nextInt(NOUNS.length)], username, "waiting for approval",
+                    usernames);
+            adminMessages.add(new NewItemRequest(username + " wants to add " + item.getName(), item));
+        }
+    }
+
+    private Message randomMessage(int user, Random random, LocalDateTime now) {
+        int kind = random.nextInt(20);
+        if (kind < 8) return new SystemMessage("Your trade has been confirmed.", usernames);
+        int sender = randomPartner(user, random);
+        if (sender < 0) return null;
+        if (kind < 15) return new PrivateMessage("Hi, is your item still available?", username(sender),
+                usernames);
+        List<Item> itemA = randomItemOf(sender, random);
+        List<Item> itemB = randomItemOf(user, random);
+        if (itemA.isEmpty() && itemB.isEmpty()) return null;
+        TradeRequest request = new TradeRequest("A trade is requested", username(sender), username(sender),
+                username(user), itemA, itemB, random.nextBoolean(), usernames);
+        request.setDate(now.plusHours(1 + random.nextInt(24 * 14)));
+        pendingMeetings.add(new PendingMeetings.Meeting(request.getUserA(), request.getUserB(), request.getDate()));
+        request.setPlace(PLACES[random.nextInt(PLACES.length)]);
+        return request;
+    }
+
+    // a trade with its meetings spread over the last two months and the next one, at a stage of its life that fits them
+    private Trade randomTrade(int traderA, int traderB, Random random, LocalDateTime now) {
+        List<Item> itemsA = randomItemOf(traderA, random);
+        // about half the trades are one-way
+        List<Item> itemsB = random.nextBoolean() ? randomItemOf(traderB, random) : new ArrayList<>();
+        if (itemsA.isEmpty() && itemsB.isEmpty()) return null;
+        LocalDateTime start = now.plusHours(random.nextInt(24 * 90) - 24 * 60);
+        boolean temporary = random.nextInt(3) == 0;
+        LocalDateTime finish = start.plusDays(30);
+        Trade trade = temporary
+                ? new TempTrade(username(traderA), username(traderB), itemsA, itemsB, start, finish, usernames)
+                : new PermTrade(username(traderA), username(traderB), itemsA, itemsB, start, usernames);
+        if (start.isAfter(now)) {
+            count("unstarted trades", 1);
+            return trade;
+        }
+        switch (random.nextInt(5)) {
+            case 0:
+                count("unconfirmed trades", 1);
+                break;
+            case 1:
+                trade.addTraderAConfirmTimes();
+                count("half confirmed trades", 1);
+                break;
+            case 2:
+                trade.addTraderAConfirmTimes();
+                trade.setFailed(true);
+                count("failed trades", 1);
+                break;
+            default:
+                trade.addTraderAConfirmTimes();
+                trade.addTraderBConfirmTimes();
+                // the items of a temporary trade are given back once its second meeting has passed
+                if (temporary && finish.isBefore(now) && random.nextBoolean()) {
+                    trade.addTraderAConfirmTimes();
+                    trade.addTraderBConfirmTimes();
+                }
+                count(trade.getCompleted() ? "completed trades" : "lent trades", 1);
+                break;
+        }
+        return trade;
+    }
+}
@@ -0,0 +1,180 @@
+package benchmarks;
+
+import entities.Message;
+import entities.Trade;
+import entities.User;
+import frontend.mainMenuGUI.listeners.StartupPipeline;
+import frontend.mainMenuGUI.listeners.UseCaseBuilder;
+import use_cases.AdminManager;
+import use_cases.GlobalInventoryManager;
+import use_cases.GlobalWishlistManager;
+import use_cases.TradeManager;
+import use_cases.UserManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that a data folder saved by an earlier version of the program still loads, by default the data folder
+ * checked in with the program. A copy of the folder is loaded the way MainMenuController.deserialize() loads it, every
+ * user and every list of trades is read, and the counts are compared with those of the copy once it has been saved
+ * and loaded again. The users and trades files of an older version must still be there after the first load, and
+ * be gone once it is saved. The folder itself is never changed. A startup that fails on a saved folder resets the data, so
+ * this must pass before a change to a serialized class is merged.
+ * Usage: java benchmarks.DataFolderLoadTest [name=value ...], with the settings: data (the folder to load, ending
+ * with "/") and work (the folder the copy is made in). It exits with status 1 when the folder does not load.
+ */
+public class DataFolderLoadTest {
+    /**
+     * Runs the check
+     * @param args the settings, as name=value
+     * @throws IOException If the copy cannot be made
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> settings = new HashMap<>();
+        for (String arg : args) {
+            String[] setting = arg.split("=", 2);
+            if (setting.length != 2) throw new IllegalArgumentException("Not a setting: " + arg);
+            settings.put(setting[0], setting[1]);
+        }
+        String data = settings.getOrDefault("data", "data/");
+        File work = Files.createTempDirectory(new File(settings.getOrDefault("work",
+                System.getProperty("java.io.tmpdir"))).toPath(), "data-load").toFile();
+        String copy = work.getPath() + "/";
+        try {
+            copyFolder(new File(data), work);
+            Counts loaded = load(copy, true);
+            System.out.println("loaded " + data + ": " + loaded);
+            Counts reloaded = load(copy, false);
+            System.out.println("saved and loaded again: " + reloaded);
+            check(loaded.equals(reloaded), "the folder changed when it was saved: " + loaded + " then " + reloaded);
+            System.out.println("OK");
+        } catch (RuntimeException | AssertionError e) {
+            System.out.println("FAILED: " + e);
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            deleteFolder(work);
+        }
+    }
+
+    private static Counts load(String folder, boolean checkFiles) {
+        boolean hadUsers = new File(folder + StartupPipeline.USERS_FILE).length() > 0;
+        boolean hadTrades = new File(folder + StartupPipeline.USER_TRADES_FILE).length() > 0;
+
+        StartupPipeline startupPipeline = new StartupPipeline(folder);
+        startupPipeline.load().join();
+        UseCaseBuilder useCaseBuilder = new UseCaseBuilder();
+        AdminManager adminManager = useCaseBuilder.getAdminManager(
+                startupPipeline.getAdminAccountGateways().join().getAdminMap(),
+                startupPipeline.getAdminMessageGateway().join().getMessages());
+        UserManager userManager = useCaseBuilder.getUserManager(startupPipeline.getUserGateway().join().getMapOfUsers(),
+                startupPipeline.getUsernameTable(), startupPipeline.getUserLimitsGateway().join().getUserLimits());
+        TradeManager tradeManager =
+                useCaseBuilder.getTradeManager(startupPipeline.getUserTradesGateway().join().getUserTrades());
+        GlobalInventoryManager globalInventoryManager = useCaseBuilder.getGlobalInventoryManager(
+                startupPipeline.getGlobalInventoryGateways().join().getGlobalInventory());
+        GlobalWishlistManager globalWishlistManager = useCaseBuilder.getGlobalWishlistManager(
+                startupPipeline.getGlobalWishlistGateway().join().getWishlistItems());
+
+        Counts counts = new Counts();
+        Map<String, User> users = userManager.getUserData();
+        for (String username : users.keySet()) {
+            User user = users.get(username);
+            check(user != null && username.equals(user.getUsername()), "the user " + username + " does not load");
+            counts.users++;
+            counts.messages += user.getMessages().size();
+        }
+        Map<String, List<Trade>> trades = tradeManager.getTradeData();
+        for (String username : trades.keySet()) {
+            List<Trade> userTrades = trades.get(username);
+            check(userTrades != null, "the trades of " + username + " do not load");
+            for (Trade trade : userTrades) {
+                check(trade.getTraderA() != null && trade.getTraderB() != null,
+                        "a trade of " + username + " lost its traders");
+            }
+            counts.trades += userTrades.size();
+        }
+        for (Message message : adminManager.getAdminMessages()) {
+            check(message != null, "an admin message does not load");
+            counts.adminMessages++;
+        }
+        counts.admins = adminManager.getAdminData().size();
+        for (String itemID : globalInventoryManager.getGlobalInventoryData().getItemIdCollection()) {
+            if (globalInventoryManager.getItemFromGI(itemID) != null) counts.items++;
+        }
+        if (checkFiles) {
+            check(!hadUsers || counts.users > 0, "the users file loaded no users");
+            check(!hadTrades || !trades.isEmpty(), "the trades file loaded no trades");
+            check(hadUsers == new File(folder + StartupPipeline.USERS_FILE).exists()
+                    && hadTrades == new File(folder + StartupPipeline.USER_TRADES_FILE).exists(),
+                    "the files of an older version were deleted before they were saved again");
+        }
+
+        try {
+            startupPipeline.save(userManager, tradeManager, globalInventoryManager, globalWishlistManager,
+                    adminManager);
+            startupPipeline.getAuditLogGateway().join().close();
+        } catch (IOException e) {
+            throw new AssertionError("the folder cannot be saved", e);
+        }
+        check(!new File(folder + StartupPipeline.USERS_FILE).exists()
+                && !new File(folder + StartupPipeline.USER_TRADES_FILE).exists(),
+                "the files of an older version were kept after they were saved again");
+        return counts;
+    }
+
+    private static void check(boolean condition, String failure) {
+        if (!condition) throw new AssertionError(failure);
+    }
+
+    private static void copyFolder(File from, File to) throws IOException {
+        File[] files = from.listFiles();
+        if (files == null) throw new IOException("There is no data folder at " + from);
+        to.mkdirs();
+        for (File file : files) {
+            File target = new File(to, file.getName());
+            if (file.isDirectory()) copyFolder(file, target);
+            else Files.copy(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteFolder(File folder) {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            for (File file : files) deleteFolder(file);
+        }
+        folder.delete();
+    }
+
+    private static class Counts {
+        private int admins;
+        private int users;
+        private int messages;
+        private int trades;
+        private int adminMessages;
+        private int items;
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Counts)) return false;
+            Counts other = (Counts) o;
+            return admins == other.admins && users == other.users && messages == other.messages
+                    && trades == other.trades && adminMessages == other.adminMessages && items == other.items;
+        }
+
+        @Override
+        public int hashCode() { return users * 31 + trades; }
+
+        @Override
+        public String toString() {
+            return admins + " admins, " + users + " users with " + messages + " messages, " + trades + " trades, "
+                    + adminMessages + " admin messages, " + items + " items";
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import entities.GlobalInventory;
+import entities.Item;
+import entities.UsernameTable;
+import gateways.MappedGlobalInventory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the heap-backed GlobalInventory with MappedGlobalInventory: heap used once all items are added, and the
+ * latency of looking items up by ID.
+ * Usage: java benchmarks.InventoryBenchmark [number of items] [number of lookups]
+ */
+public class InventoryBenchmark {
+    private static final int BATCH = 1000;
+
+    private final int itemCount;
+    private final int lookupCount;
+    private final UsernameTable usernames = new UsernameTable();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    /**
+     * Creates a benchmark for the given sizes
+     * @param itemCount the number of items added to each inventory
+     * @param lookupCount the number of random lookups timed on each inventory
+     */
+    public InventoryBenchmark(int itemCount, int lookupCount) {
+        this.itemCount = itemCount;
+        this.lookupCount = lookupCount;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        new InventoryBenchmark(items, lookups).run();
+    }
+
+    /**
+     * Runs the benchmark on both inventories and prints the results
+     * @throws IOException If the mapped file cannot be created
+     */
+    public void run() throws IOException {
+        System.out.println("items: " + itemCount + ", lookups: " + lookupCount);
+
+        long before = usedHeap();
+        GlobalInventory heap = fill(new GlobalInventory());
+        report("heap", usedHeap() - before, heap);
+        heap = null;
+
+        File file = Files.createTempFile("inventory", ".items").toFile();
+        file.deleteOnExit();
+        before = usedHeap();
+        MappedGlobalInventory mapped = (MappedGlobalInventory) fill(MappedGlobalInventory.copyOf(
+                new GlobalInventory(), file.getPath(), usernames));
+        mapped.force();
+        report("mapped", usedHeap() - before, mapped);
+    }
+
+    private GlobalInventory fill(GlobalInventory inventory) {
+        for (int i = 0; i < itemCount; i++) {
+            String itemID = Integer.toString(100000000 + i);
+            Item item = new Item("item " + i, "user" + (i % 5000), "description of item number " + i,
+                    usernames);
+            item.setItemID(itemID);
+            inventory.addItem(itemID, item);
+        }
+        return inventory;
+    }
+
+    private void report(String name, long heapBytes, GlobalInventory inventory) {
+        Random random = new Random(42);
+        long[] batches = new long[Math.max(1, lookupCount / BATCH)];
+        long found = 0;
+        for (int b = 0; b < batches.length; b++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BATCH; i++) {
+                Item item = inventory.getItem(Integer.toString(100000000 + random.nextInt(itemCount)));
+                if (item != null) found++;
+            }
+            batches[b] = (System.nanoTime() - start) / BATCH;
+        }
+        Arrays.sort(batches);
+        System.out.printf("%-7s heap %8.1f MB   lookup p50 %6d ns   p99 %6d ns   (%d found)%n", name,
+                heapBytes / (1024.0 * 1024.0), batches[batches.length / 2],
+                batches[Math.min(batches.length - 1, batches.length * 99 / 100)], found);
+    }
+
+    private long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,442 @@
+package benchmarks;
+
+import entities.Item;
+import entities.Message;
+import entities.Trade;
+import entities.TradeRequest;
+import exceptions.InvalidUsernameException;
+import exceptions.RateLimitExceededException;
+import exceptions.UserFrozenException;
+import frontend.mainMenuGUI.listeners.StartupPipeline;
+import frontend.mainMenuGUI.listeners.UseCaseBuilder;
+import metrics.LatencyHistogram;
+import use_cases.AdminManager;
+import use_cases.GlobalInventoryManager;
+import use_cases.GlobalWishlistManager;
+import use_cases.MessageBuilder;
+import use_cases.TradeManager;
+import use_cases.TradeRequestManager;
+import use_cases.UserManager;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the use cases the way many people using the program at once would, without any window, and reports how long
+ * each action took. Every session logs in as a user, then does actions picked at random from a mix, waiting a random
+ * think time between them: signing up, browsing the global inventory, wishing for an item, requesting a trade,
+ * confirming a trade request from their inbox, confirming a meeting, and reporting a user.
+ *
+ * The use cases are not thread-safe and the program only calls them from the JavaFX thread, so the sessions take turns
+ * on them through one lock, as the events of the windows do. The latency of an action includes the time it waited for
+ * its turn, which is what a user would see.
+ *
+ * In the steady mode, the sessions run for a warmup that is not measured, then for the measured duration. The soak
+ * mode runs much longer, and the report follows the throughput, the latencies and the heap used over time, so that a
+ * slowdown or a leak shows up. The report is written as a CSV file of the actions, a CSV file of the time windows, and
+ * an HTML page with both.
+ *
+ * The data is a folder the program can load, which the run changes as the program would: by default a new one is
+ * generated with DataDirectoryGenerator, in which every user's password is "password", and deleted after the run.
+ * Usage: java benchmarks.LoadTest [name=value ...], with the settings: data, users, sessions, think (ms), mode
+ * (steady or soak), warmup (s), duration (s), window (s), mix (for example browse=40,wish=20), seed, report (the
+ * path of the report files, without extension). For example: java benchmarks.LoadTest sessions=64 think=200
+ */
+public class LoadTest {
+    /**
+     * The actions of the sessions, and how often each is picked by default
+     */
+    public static final Map<String, Integer> DEFAULT_MIX = new LinkedHashMap<>();
+    static {
+        DEFAULT_MIX.put("signUp", 3);
+        DEFAULT_MIX.put("browse", 35);
+        DEFAULT_MIX.put("browseAll", 2);
+        DEFAULT_MIX.put("wish", 20);
+        DEFAULT_MIX.put("request", 12);
+        DEFAULT_MIX.put("confirm", 12);
+        DEFAULT_MIX.put("meet", 12);
+        DEFAULT_MIX.put("report", 4);
+    }
+    private static final String PASSWORD = "password";
+    private static final String[] PLACES = {"library", "cafeteria", "main entrance", "gym", "park", "station"};
+    private static final int ACTIONS_PER_VISIT = 10;
+    private static final int TRENDING_SHOWN = 10;
+
+    private final Object turn = new Object();
+    private final StartupPipeline startupPipeline;
+    private final UserManager userManager;
+    private final TradeManager tradeManager;
+    private final GlobalInventoryManager globalInventoryManager;
+    private final GlobalWishlistManager globalWishlistManager;
+    private final AdminManager adminManager;
+    private final List<String> usernames = new ArrayList<>();
+    private final AtomicLong signUps = new AtomicLong();
+
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    private final long thinkMillis;
+    private final long seed;
+    private final String dataFolder;
+    private final Map<String, LoadTestReport.Action> actions = new LinkedHashMap<>();
+    private volatile LatencyHistogram window = new LatencyHistogram();
+    private volatile boolean measuring;
+    private volatile boolean running;
+
+    /**
+     * Creates a load test on the use cases of a data folder
+     * @param dataFolder the folder, ending with "/"
+     * @param mix the actions to do and how often each is picked
+     * @param thinkMillis the average time a session waits between two actions, in milliseconds
+     * @param seed the seed of the random choices of the sessions
+     */
+    public LoadTest(String dataFolder, Map<String, Integer> mix, long thinkMillis, long seed) {
+        startupPipeline = new StartupPipeline(dataFolder);
+        startupPipeline.load().join();
+        UseCaseBuilder useCaseBuilder = new UseCaseBuilder();
+        adminManager = useCaseBuilder.getAdminManager(startupPipeline.getAdminAccountGateways().join().getAdminMap(),
+                startupPipeline.getAdminMessageGateway().join().getMessages());
+        userManager = useCaseBuilder.getUserManager(startupPipeline.getUserGateway().join().getMapOfUsers(),
+                startupPipeline.getUsernameTable(), startupPipeline.getUserLimitsGateway().join().getUserLimits());
+        tradeManager =
+                useCaseBuilder.getTradeManager(startupPipeline.getUserTradesGateway().join().getUserTrades());
+        globalInventoryManager = useCaseBuilder.getGlobalInventoryManager(
+                startupPipeline.getGlobalInventoryGateways().join().getGlobalInventory());
+        globalWishlistManager = useCaseBuilder.getGlobalWishlistManager(
+                startupPipeline.getGlobalWishlistGateway().join().getWishlistItems());
+        usernames.addAll(userManager.getUserData().keySet());
+
+        int weights = 0;
+        for (Map.Entry<String, Integer> action : mix.entrySet()) {
+            if (!DEFAULT_MIX.containsKey(action.getKey())) {
+                throw new IllegalArgumentException("Unknown action: " + action.getKey());
+            }
+            weights += action.getValue();
+        }
+        if (weights <= 0) throw new IllegalArgumentException("No action to do");
+        this.mix = mix;
+        this.totalWeight = weights;
+        this.thinkMillis = thinkMillis;
+        this.seed = seed;
+        this.dataFolder = dataFolder;
+        actions.put("login", new LoadTestReport.Action("login"));
+        for (String action : mix.keySet()) actions.put(action, new LoadTestReport.Action(action));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new HashMap<>();
+        for (String arg : args) {
+            String[] setting = arg.split("=", 2);
+            if (setting.length != 2) throw new IllegalArgumentException("Not a setting: " + arg);
+            settings.put(setting[0], setting[1]);
+        }
+        boolean soak = settings.getOrDefault("mode", "steady").equals("soak");
+        long seed = Long.parseLong(settings.getOrDefault("seed", "42"));
+        int sessions = Integer.parseInt(settings.getOrDefault("sessions", "16"));
+        long think = Long.parseLong(settings.getOrDefault("think", "500"));
+        long warmup = Long.parseLong(settings.getOrDefault("warmup", soak ? "60" : "10"));
+        long duration = Long.parseLong(settings.getOrDefault("duration", soak ? "3600" : "60"));
+        long window = Long.parseLong(settings.getOrDefault("window", soak ? "60" : "5"));
+        String report = settings.getOrDefault("report", "load-test");
+
+        Map<String, Integer> mix = new LinkedHashMap<>(DEFAULT_MIX);
+        if (settings.containsKey("mix")) {
+            mix.clear();
+            for (String action : settings.get("mix").split(",")) {
+                String[] weight = action.split("=", 2);
+                mix.put(weight[0].trim(), weight.length > 1 ? Integer.parseInt(weight[1].trim()) : 1);
+            }
+        }
+
+        String data = settings.get("data");
+        boolean generated = data == null;
+        if (generated) {
+            data = Files.createTempDirectory("load-test").toString() + "/";
+            int users = Integer.parseInt(settings.getOrDefault("users", "10000"));
+            System.out.println("Generating " + users + " users in " + data);
+            new DataDirectoryGenerator(data, seed).setUsers(users).generate();
+        }
+        LoadTest loadTest = new LoadTest(data.endsWith("/") ? data : data + "/", mix, think, seed);
+        System.out.printf("%s run: %d sessions, %d ms think time, %d s warmup, %d s measured%n",
+                soak ? "Soak" : "Steady", sessions, think, warmup, duration);
+        LoadTestReport result = loadTest.run(sessions, warmup * 1000, duration * 1000, window * 1000);
+        result.setSettings(soak ? "soak" : "steady", sessions, think, data);
+        result.print();
+        result.writeCsv(report + ".csv", report + "-windows.csv");
+        result.writeHtml(report + ".html");
+        System.out.println("Report written to " + report + ".html");
+        if (generated) loadTest.deleteData();
+    }
+
+    /**
+     * Runs the sessions, and measures them once the warmup is over
+     * @param sessions the number of sessions at once
+     * @param warmupMillis how long the sessions run before being measured, in milliseconds
+     * @param durationMillis how long the sessions are measured, in milliseconds
+     * @param windowMillis how long each time window of the report is, in milliseconds
+     * @return the report of the measured part of the run
+     * @throws InterruptedException If the thread is interrupted while the sessions run
+     */
+    public LoadTestReport run(int sessions, long warmupMillis, long durationMillis, long windowMillis)
+            throws InterruptedException {
+        running = true;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < sessions; i++) {
+            Session session = new Session(new Random(seed * 31 + i));
+            Thread thread = new Thread(session, "session-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        Thread.sleep(warmupMillis);
+
+        LoadTestReport report = new LoadTestReport(actions.values());
+        window = new LatencyHistogram();
+        long start = System.currentTimeMillis();
+        long errorsBefore = countErrors();
+        measuring = true;
+        long end = start + durationMillis;
+        long windowStart = start;
+        while (windowStart < end) {
+            long windowEnd = Math.min(end, windowStart + windowMillis);
+            Thread.sleep(Math.max(0, windowEnd - System.currentTimeMillis()));
+            LatencyHistogram finished = window;
+            window = new LatencyHistogram();
+            long errors = countErrors();
+            Runtime runtime = Runtime.getRuntime();
+            report.addWindow(windowStart - start, System.currentTimeMillis() - windowStart, finished,
+                    errors - errorsBefore, runtime.totalMemory() - runtime.freeMemory());
+            errorsBefore = errors;
+            windowStart = windowEnd;
+        }
+        measuring = false;
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        running = false;
+        for (Thread thread : threads) thread.join(5000);
+        return report;
+    }
+
+    /**
+     * Deletes the data folder and every file in it
+     */
+    public void deleteData() {
+        startupPipeline.reset();
+        new File(dataFolder).delete();
+    }
+
+    //----------------Helpers----------------//
+    private long countErrors() {
+        long errors = 0;
+        for (LoadTestReport.Action action : actions.values()) errors += action.getErrors();
+        return errors;
+    }
+
+    /**
+     * One person using the program: logs in, does a few actions with think time between them, and starts over as
+     * another user
+     */
+    private class Session implements Runnable {
+        private final Random random;
+        private final MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
+        private String user;
+
+        private Session(Random random) {
+            this.random = random;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    act("login");
+                    for (int i = 0; i < ACTIONS_PER_VISIT && running; i++) {
+                        think();
+                        act(pickAction());
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void think() throws InterruptedException {
+            if (thinkMillis <= 0) return;
+            // exponential, as the time between the clicks of many people is
+            Thread.sleep((long) (-Math.log(1 - random.nextDouble()) * thinkMillis));
+        }
+
+        private String pickAction() {
+            int pick = random.nextInt(totalWeight);
+            for (Map.Entry<String, Integer> action : mix.entrySet()) {
+                pick -= action.getValue();
+                if (pick < 0) return action.getKey();
+            }
+            throw new IllegalStateException();
+        }
+
+        private void act(String name) {
+            LoadTestReport.Action action = actions.get(name);
+            long start = System.nanoTime();
+            boolean done;
+            try {
+                synchronized (turn) {
+                    done = doAction(name);
+                }
+            } catch (RuntimeException ex) {
+                if (measuring) action.error(ex);
+                return;
+            }
+            long nanos = System.nanoTime() - start;
+            if (!measuring) return;
+            action.record(nanos, done);
+            window.record(nanos);
+        }
+
+        // does an action, returning false if the use cases turned it down or there was nothing to do
+        private boolean doAction(String name) {
+            switch (name) {
+                case "login": return login();
+                case "signUp": return signUp();
+                case "browse": return browse();
+                case "browseAll": return browseAll();
+                case "wish": return wish();
+                case "request": return request();
+                case "confirm": return confirm();
+                case "meet": return meet();
+                case "report": return report();
+                default: throw new IllegalStateException("Unknown action: " + name);
+            }
+        }
+
+        private String otherUser() {
+            String other = usernames.get(random.nextInt(usernames.size()));
+            return other.equals(user) ? usernames.get(random.nextInt(usernames.size())) : other;
+        }
+
+        private boolean login() {
+            user = usernames.get(random.nextInt(usernames.size()));
+            return userManager.login(user, PASSWORD);
+        }
+
+        private boolean signUp() {
+            String username = "loadtest" + seed + "_" + signUps.incrementAndGet();
+            try {
+                if (!userManager.createNewUser(username, PASSWORD)) return false;
+            } catch (InvalidUsernameException ex) {
+                return false;
+            }
+            usernames.add(username);
+            user = username;
+            return userManager.login(user, PASSWORD);
+        }
+
+        // as the global inventory window shows: the trending items, then the items of another user, with the ones
+        // this user wants
+        private boolean browse() {
+            for (String itemID : globalWishlistManager.trending(TRENDING_SHOWN)) {
+                globalInventoryManager.getItemFromGI(itemID);
+            }
+            List<Item> items = globalInventoryManager.getPersonInventory(otherUser());
+            globalWishlistManager.getInterestedItems(items, user);
+            return !items.isEmpty();
+        }
+
+        // as the global inventory window does when it opens: every item, in a table
+        private boolean browseAll() {
+            List<String> itemIDs = globalInventoryManager.getGlobalInventoryData().getItemIdCollection();
+            return !globalInventoryManager.getItemsFromGI(new ArrayList<>(itemIDs)).isEmpty();
+        }
+
+        private boolean wish() {
+            List<Item> items = globalInventoryManager.getPersonInventory(otherUser());
+            if (items.isEmpty()) return false;
+            Item item = items.get(random.nextInt(items.size()));
+            if (globalWishlistManager.getPersonWishlist(user).contains(item.getItemID())) return false;
+            globalWishlistManager.addWish(item.getItemID(), user);
+            return true;
+        }
+
+        // as the trade windows do: checks this user can trade, then sends a request for an item of another user,
+        // offering one of their own half the time
+        private boolean request() {
+            String partner = otherUser();
+            List<Item> partnerItems = globalInventoryManager.getPersonInventory(partner);
+            if (partnerItems.isEmpty() || !canTrade(user)) return false;
+            List<Item> itemA = new ArrayList<>();
+            List<Item> ownItems = globalInventoryManager.getPersonInventory(user);
+            if (!ownItems.isEmpty() && random.nextBoolean()) {
+                itemA.add(ownItems.get(random.nextInt(ownItems.size())));
+            }
+            List<Item> itemB = new ArrayList<>();
+            itemB.add(partnerItems.get(random.nextInt(partnerItems.size())));
+            TradeRequestManager tradeRequest = new TradeRequestManager("User " + user + " wants to trade with you.",
+                    user, user, partner, itemA, itemB, random.nextBoolean(), userManager.getUsernameTable());
+            tradeRequest.setDateAndPlaceFirst(LocalDateTime.now().plusHours(1 + random.nextInt(24 * 14)),
+                    PLACES[random.nextInt(PLACES.length)]);
+            try {
+                userManager.sendUserMessage(user, partner, tradeRequest.getTradeRequest());
+            } catch (RateLimitExceededException ex) {
+                return false;
+            }
+            return true;
+        }
+
+        // as the reply to a trade request does: the first request in this user's inbox is confirmed if both traders
+        // can trade, and the items traded leave the global inventory
+        private boolean confirm() {
+            TradeRequest request = null;
+            for (Message message : userManager.getUserMessages(user)) {
+                if (message instanceof TradeRequest && !((TradeRequest) message).getSender().equals(user)) {
+                    request = (TradeRequest) message;
+                    break;
+                }
+            }
+            if (request == null) return false;
+            userManager.getUserMessages(user).remove(request);
+            if (!canTrade(request.getUserA()) || !canTrade(request.getUserB())) return false;
+            for (Item item : request.getItemA()) if (!globalInventoryManager.contains(item)) return false;
+            for (Item item : request.getItemB()) if (!globalInventoryManager.contains(item)) return false;
+            Trade trade = new TradeRequestManager(request, userManager.getUsernameTable()).setConfirmation();
+            tradeManager.addTrade(trade);
+            for (Item item : new ArrayList<>(trade.getTraderAItemsToTrade())) {
+                globalInventoryManager.removeItemOnly(item.getItemID());
+            }
+            for (Item item : new ArrayList<>(trade.getTraderBItemsToTrade())) {
+                globalInventoryManager.removeItemOnly(item.getItemID());
+            }
+            return true;
+        }
+
+        // confirms that the meeting of one of this user's trades happened
+        private boolean meet() {
+            List<Trade> trades = tradeManager.tradesToConfirm(user);
+            if (trades.isEmpty()) return false;
+            tradeManager.setConfirm(user, trades.get(random.nextInt(trades.size())), true);
+            return true;
+        }
+
+        private boolean report() {
+            String reported = otherUser();
+            adminManager.addMessage(messageBuilder.getReportRequest("did not show up to the meeting", user,
+                    "Hi, is your item still available?", reported));
+            return true;
+        }
+
+        private boolean canTrade(String username) {
+            try {
+                return userManager.getCanTrade(username, tradeManager.getBorrowedTimes(username),
+                        tradeManager.getLendTimes(username), tradeManager.getIncompleteTimes(username),
+                        tradeManager.numberOfTradesCreatedThisWeek(username));
+            } catch (UserFrozenException ex) {
+                return false;
+            }
+        }
+    }
+}
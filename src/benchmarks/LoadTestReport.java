@@ -0,0 +1,319 @@
+package benchmarks;
+
+import metrics.LatencyHistogram;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The results of a load test: for every action, how many were done, turned down and failed, and their latencies; and
+ * for every time window of the run, the throughput, the latencies and the heap used at its end. Prints them, and writes
+ * them as CSV files and an HTML page.
+ */
+public class LoadTestReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * The results of one action. Any number of sessions can record into it at once.
+     */
+    public static class Action {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong turnedDown = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final Map<String, AtomicLong> errorTypes = new ConcurrentHashMap<>();
+
+        /**
+         * Creates the results of an action
+         * @param name the name of the action
+         */
+        public Action(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records an action that ran to the end
+         * @param nanos how long it took, in nanoseconds
+         * @param done false if the use cases turned it down or there was nothing to do
+         */
+        public void record(long nanos, boolean done) {
+            latency.record(nanos);
+            if (!done) turnedDown.incrementAndGet();
+        }
+
+        /**
+         * Records an action that threw
+         * @param ex what it threw
+         */
+        public void error(Throwable ex) {
+            errors.incrementAndGet();
+            errorTypes.computeIfAbsent(ex.getClass().getSimpleName(), type -> new AtomicLong()).incrementAndGet();
+        }
+
+        /**
+         * @return the name of the action
+         */
+        public String getName() { return name; }
+
+        /**
+         * @return the latencies of the actions that ran to the end
+         */
+        public LatencyHistogram getLatency() { return latency; }
+
+        /**
+         * @return the number of actions the use cases turned down or that had nothing to do
+         */
+        public long getTurnedDown() { return turnedDown.get(); }
+
+        /**
+         * @return the number of actions that threw
+         */
+        public long getErrors() { return errors.get(); }
+
+        /**
+         * @return the number of actions that threw, by the simple name of what they threw
+         */
+        public Map<String, Long> getErrorTypes() {
+            Map<String, Long> types = new TreeMap<>();
+            for (Map.Entry<String, AtomicLong> type : errorTypes.entrySet()) types.put(type.getKey(), type.getValue().get());
+            return types;
+        }
+    }
+
+    private static class Window {
+        private final long startMillis;
+        private final double throughput;
+        private final LatencyHistogram latency;
+        private final long errors;
+        private final long heapBytes;
+
+        private Window(long startMillis, double throughput, LatencyHistogram latency, long errors, long heapBytes) {
+            this.startMillis = startMillis;
+            this.throughput = throughput;
+            this.latency = latency;
+            this.errors = errors;
+            this.heapBytes = heapBytes;
+        }
+    }
+
+    private final List<Action> actions;
+    private final List<Window> windows = new ArrayList<>();
+    private long elapsedMillis;
+    private String mode = "steady";
+    private int sessions;
+    private long thinkMillis;
+    private String dataFolder = "";
+
+    /**
+     * Creates the report of the actions of a run
+     * @param actions the results of the actions, recorded into while the run goes on
+     */
+    public LoadTestReport(Collection<Action> actions) {
+        this.actions = new ArrayList<>(actions);
+    }
+
+    /**
+     * Adds a time window of the run, in the order they happen
+     * @param startMillis when it started, in milliseconds since the start of the measured run
+     * @param lengthMillis how long it lasted, in milliseconds
+     * @param latency the latencies of every action that ended during it
+     * @param errors the number of actions that threw during it
+     * @param heapBytes the bytes of heap used at its end
+     */
+    public void addWindow(long startMillis, long lengthMillis, LatencyHistogram latency, long errors, long heapBytes) {
+        double throughput = lengthMillis > 0 ? latency.getCount() * 1000.0 / lengthMillis : 0;
+        windows.add(new Window(startMillis, throughput, latency, errors, heapBytes));
+    }
+
+    /**
+     * @param elapsedMillis how long the measured run lasted, in milliseconds
+     */
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Sets how the run was made, to be shown with the results
+     * @param mode steady or soak
+     * @param sessions the number of sessions at once
+     * @param thinkMillis the average think time, in milliseconds
+     * @param dataFolder the data folder
+     */
+    public void setSettings(String mode, int sessions, long thinkMillis, String dataFolder) {
+        this.mode = mode;
+        this.sessions = sessions;
+        this.thinkMillis = thinkMillis;
+        this.dataFolder = dataFolder;
+    }
+
+    /**
+     * Prints the results of every action, and what changed from the first time window to the last
+     */
+    public void print() {
+        System.out.printf("%-10s %10s %10s %8s %10s %10s %10s %10s %10s %10s%n", "action", "count", "turned down",
+                "errors", "ops/s", "mean ms", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Action action : actions) {
+            LatencyHistogram latency = action.getLatency();
+            System.out.printf(Locale.ROOT, "%-10s %10d %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                    action.getName(), latency.getCount(), action.getTurnedDown(), action.getErrors(),
+                    throughput(action), millis(latency.getMean()), millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMax()));
+            for (Map.Entry<String, Long> type : action.getErrorTypes().entrySet()) {
+                System.out.printf("    %s: %d%n", type.getKey(), type.getValue());
+            }
+        }
+        if (windows.size() > 1) {
+            Window first = windows.get(0);
+            Window last = windows.get(windows.size() - 1);
+            System.out.printf(Locale.ROOT, "first window: %.1f ops/s, p99 %.3f ms, heap %d MB%n", first.throughput,
+                    millis(first.latency.getValueAtPercentile(99)), first.heapBytes >> 20);
+            System.out.printf(Locale.ROOT, "last window:  %.1f ops/s, p99 %.3f ms, heap %d MB%n", last.throughput,
+                    millis(last.latency.getValueAtPercentile(99)), last.heapBytes >> 20);
+        }
+    }
+
+    /**
+     * Writes the results of the actions and of the time windows as two CSV files
+     * @param actionsPath the path of the file of the actions
+     * @param windowsPath the path of the file of the time windows
+     * @throws IOException If a file cannot be written
+     */
+    public void writeCsv(String actionsPath, String windowsPath) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(actionsPath))) {
+            out.println("action,count,turned_down,errors,ops_per_s,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            for (Action action : actions) {
+                LatencyHistogram latency = action.getLatency();
+                StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%s,%d,%d,%d,%.3f,%.3f",
+                        action.getName(), latency.getCount(), action.getTurnedDown(), action.getErrors(),
+                        throughput(action), millis(latency.getMean())));
+                for (double percentile : PERCENTILES) {
+                    line.append(String.format(Locale.ROOT, ",%.3f", millis(latency.getValueAtPercentile(percentile))));
+                }
+                line.append(String.format(Locale.ROOT, ",%.3f", millis(latency.getMax())));
+                out.println(line);
+            }
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(windowsPath))) {
+            out.println("start_s,ops_per_s,errors,p50_ms,p99_ms,max_ms,heap_mb");
+            for (Window window : windows) {
+                out.println(String.format(Locale.ROOT, "%.1f,%.3f,%d,%.3f,%.3f,%.3f,%.1f", window.startMillis / 1000.0,
+                        window.throughput, window.errors, millis(window.latency.getValueAtPercentile(50)),
+                        millis(window.latency.getValueAtPercentile(99)), millis(window.latency.getMax()),
+                        window.heapBytes / (1024.0 * 1024.0)));
+            }
+        }
+    }
+
+    /**
+     * Writes the results as an HTML page, with a chart of the throughput and the 99th percentile over time
+     * @param path the path of the page
+     * @throws IOException If the page cannot be written
+     */
+    public void writeHtml(String path) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+            out.println("<!DOCTYPE html>");
+            out.println("<html><head><meta charset=\"utf-8\"><title>Load test</title><style>");
+            out.println("body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin-bottom:2em}");
+            out.println("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child"
+                    + "{text-align:left}.errors{color:#b00}");
+            out.println("</style></head><body>");
+            out.printf(Locale.ROOT, "<h1>Load test (%s)</h1>%n", mode);
+            out.printf(Locale.ROOT, "<p>%d sessions, %d ms average think time, %.1f s measured, data in %s</p>%n",
+                    sessions, thinkMillis, elapsedMillis / 1000.0, escape(dataFolder));
+
+            out.println("<h2>Actions</h2><table><tr><th>action</th><th>count</th><th>turned down</th>"
+                    + "<th>errors</th><th>ops/s</th><th>mean ms</th><th>p50 ms</th><th>p90 ms</th><th>p99 ms</th>"
+                    + "<th>p99.9 ms</th><th>max ms</th></tr>");
+            for (Action action : actions) {
+                LatencyHistogram latency = action.getLatency();
+                out.printf(Locale.ROOT, "<tr><td>%s</td><td>%d</td><td>%d</td><td%s>%d</td><td>%.1f</td><td>%.3f</td>",
+                        escape(action.getName()), latency.getCount(), action.getTurnedDown(),
+                        action.getErrors() > 0 ? " class=\"errors\"" : "", action.getErrors(), throughput(action),
+                        millis(latency.getMean()));
+                for (double percentile : PERCENTILES) {
+                    out.printf(Locale.ROOT, "<td>%.3f</td>", millis(latency.getValueAtPercentile(percentile)));
+                }
+                out.printf(Locale.ROOT, "<td>%.3f</td></tr>%n", millis(latency.getMax()));
+            }
+            out.println("</table>");
+
+            boolean anyErrors = false;
+            for (Action action : actions) anyErrors |= action.getErrors() > 0;
+            if (anyErrors) {
+                out.println("<h2>Errors</h2><table><tr><th>action</th><th>thrown</th><th>count</th></tr>");
+                for (Action action : actions) {
+                    for (Map.Entry<String, Long> type : action.getErrorTypes().entrySet()) {
+                        out.printf("<tr><td>%s</td><td>%s</td><td>%d</td></tr>%n", escape(action.getName()),
+                                escape(type.getKey()), type.getValue());
+                    }
+                }
+                out.println("</table>");
+            }
+
+            out.println("<h2>Over time</h2>");
+            writeChart(out);
+            out.println("<table><tr><th>start s</th><th>ops/s</th><th>errors</th><th>p50 ms</th><th>p99 ms</th>"
+                    + "<th>max ms</th><th>heap MB</th></tr>");
+            for (Window window : windows) {
+                out.printf(Locale.ROOT, "<tr><td>%.1f</td><td>%.1f</td><td>%d</td><td>%.3f</td><td>%.3f</td>"
+                                + "<td>%.3f</td><td>%.1f</td></tr>%n", window.startMillis / 1000.0,
+                        window.throughput, window.errors, millis(window.latency.getValueAtPercentile(50)),
+                        millis(window.latency.getValueAtPercentile(99)), millis(window.latency.getMax()),
+                        window.heapBytes / (1024.0 * 1024.0));
+            }
+            out.println("</table></body></html>");
+        }
+    }
+
+    //----------------Helpers----------------//
+    private double throughput(Action action) {
+        return elapsedMillis > 0 ? action.getLatency().getCount() * 1000.0 / elapsedMillis : 0;
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    // the throughput in blue and the 99th percentile in red, each scaled to the height of the chart
+    private void writeChart(PrintWriter out) {
+        if (windows.size() < 2) return;
+        int width = 800;
+        int height = 200;
+        double maxThroughput = 0;
+        double maxP99 = 0;
+        for (Window window : windows) {
+            maxThroughput = Math.max(maxThroughput, window.throughput);
+            maxP99 = Math.max(maxP99, window.latency.getValueAtPercentile(99));
+        }
+        StringBuilder throughput = new StringBuilder();
+        StringBuilder p99 = new StringBuilder();
+        for (int i = 0; i < windows.size(); i++) {
+            Window window = windows.get(i);
+            double x = (double) i * width / (windows.size() - 1);
+            throughput.append(String.format(Locale.ROOT, "%.1f,%.1f ", x,
+                    height - (maxThroughput > 0 ? window.throughput / maxThroughput * height : 0)));
+            p99.append(String.format(Locale.ROOT, "%.1f,%.1f ", x,
+                    height - (maxP99 > 0 ? window.latency.getValueAtPercentile(99) / maxP99 * height : 0)));
+        }
+        out.printf(Locale.ROOT, "<p><span style=\"color:#06c\">ops/s (max %.1f)</span>, "
+                + "<span style=\"color:#c00\">p99 ms (max %.3f)</span></p>%n", maxThroughput, millis(maxP99));
+        out.printf("<svg width=\"%d\" height=\"%d\" style=\"border:1px solid #ccc;margin-bottom:1em\">%n", width, height);
+        out.printf("<polyline fill=\"none\" stroke=\"#06c\" stroke-width=\"2\" points=\"%s\"/>%n", throughput);
+        out.printf("<polyline fill=\"none\" stroke=\"#c00\" stroke-width=\"2\" points=\"%s\"/>%n", p99);
+        out.println("</svg>");
+    }
+}
@@ -0,0 +1,416 @@
+package benchmarks;
+
+import frontend.mainMenuGUI.listeners.StartupPipeline;
+import frontend.mainMenuGUI.listeners.UseCaseBuilder;
+import metrics.Metrics;
+import metrics.Timer;
+import use_cases.AdminManager;
+import use_cases.GlobalInventoryManager;
+import use_cases.GlobalWishlistManager;
+import use_cases.ItemRecommender;
+import use_cases.TradeCycleFinder;
+import use_cases.TradeManager;
+import use_cases.UserManager;
+import use_cases.WantGraph;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Measures the persistence of the program from end to end, on generated data folders of growing size: how long it
+ * takes from starting the JVM until the first user can log in, loading the data as MainMenuController.deserialize()
+ * does; how much heap that load needs; and how long the save of MainMenuController.serialize() takes and how much it
+ * writes. UseCaseBenchmark times queries on data already in memory, whereas here every run is a new JVM, so class
+ * loading and the JIT are as cold as they are when the program starts.
+ *
+ * Every size is run page-cache-cold, with the page cache of the operating system dropped before each run so that the
+ * files are read from the disk, and then page-cache-warm, after a run that is not measured has read them into the
+ * cache. Dropping the page cache needs root; the command that does it can be changed, and when it fails the cold runs
+ * are skipped. The bytes read and written are those the JVM asked the operating system for, and those that actually
+ * went to the disk, from /proc/self/io; they are -1 where that file does not exist. They count everything the JVM read
+ * or wrote meanwhile, so a cold load also reads the classes of the JDK and of the program.
+ *
+ * The data folders are written by DataDirectoryGenerator, with a number of users worked out from the size of a small
+ * folder generated first, and are deleted after their runs unless they are kept. Every run is one row of a CSV
+ * report, labelled so that the reports of two gateway implementations can be put side by side.
+ * Usage: java benchmarks.PersistenceBenchmark [name=value ...], with the settings: sizes (comma separated, with a
+ * unit of B, KB, MB or GB), runs (of each size, cold and warm), work (the folder the data folders are written in),
+ * keep (true to keep the data folders and use them again on the next run), label, jvm (the options of the JVMs of
+ * the runs, space separated), dropCaches (the shell command that drops the page cache), seed, calibrationUsers and
+ * report (the path of the CSV file). For example:
+ * java benchmarks.PersistenceBenchmark sizes=10MB,1GB runs=5 jvm="-Xmx16g" label=mapped-inventory
+ */
+public class PersistenceBenchmark {
+    private static final String DEFAULT_SIZES = "10MB,100MB,1GB,10GB";
+    private static final String DEFAULT_DROP_CACHES = "sync && echo 3 > /proc/sys/vm/drop_caches";
+    // the generated users all have this password, see DataDirectoryGenerator
+    private static final String PASSWORD = "password";
+    private static final String FIRST_USER = "user0";
+    private static final String RESULT = "result ";
+    // the phases StartupPipeline.load() times, in the order of the columns of the report
+    private static final String[] LOAD_PHASES = {"admin messages", "admins", "audit log", "global inventory",
+            "global wishlist", "pending meetings", "user limits", "user trades", "usernames", "users"};
+
+    private final String work;
+    private final int runs;
+    private final boolean keep;
+    private final String label;
+    private final List<String> jvmOptions;
+    private final String dropCaches;
+    private final long seed;
+    private final int calibrationUsers;
+    private final List<Map<String, String>> rows = new ArrayList<>();
+    private double bytesPerUser;
+    private boolean coldRuns;
+
+    /**
+     * Creates a benchmark
+     * @param work the folder the data folders are written in, ending with "/"
+     * @param runs how many runs to measure of every size, both cold and warm
+     * @param keep whether to keep the data folders, and use those already there
+     * @param label what every row of the report is labelled with
+     * @param jvmOptions the options of the JVMs of the runs
+     * @param dropCaches the shell command that drops the page cache, or an empty string to only run warm
+     * @param seed the seed of the generated data
+     * @param calibrationUsers the number of users of the folder generated to work out the number of users of a size
+     */
+    public PersistenceBenchmark(String work, int runs, boolean keep, String label, List<String> jvmOptions,
+                                String dropCaches, long seed, int calibrationUsers) {
+        this.work = work;
+        this.runs = runs;
+        this.keep = keep;
+        this.label = label;
+        this.jvmOptions = jvmOptions;
+        this.dropCaches = dropCaches;
+        this.seed = seed;
+        this.calibrationUsers = calibrationUsers;
+        this.coldRuns = !dropCaches.isEmpty();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new HashMap<>();
+        for (String arg : args) {
+            String[] setting = arg.split("=", 2);
+            if (setting.length != 2) throw new IllegalArgumentException("Not a setting: " + arg);
+            settings.put(setting[0], setting[1]);
+        }
+        // the runs themselves, started by the benchmark in new JVMs
+        if (settings.containsKey("run")) {
+            run(settings.get("run"));
+            return;
+        }
+
+        String work = settings.getOrDefault("work", "persistence-benchmark/");
+        String jvm = settings.getOrDefault("jvm", "").trim();
+        PersistenceBenchmark benchmark = new PersistenceBenchmark(work.endsWith("/") ? work : work + "/",
+                Integer.parseInt(settings.getOrDefault("runs", "3")),
+                Boolean.parseBoolean(settings.getOrDefault("keep", "false")),
+                settings.getOrDefault("label", "default"),
+                jvm.isEmpty() ? new ArrayList<>() : Arrays.asList(jvm.split("\\s+")),
+                settings.getOrDefault("dropCaches", DEFAULT_DROP_CACHES),
+                Long.parseLong(settings.getOrDefault("seed", "42")),
+                Integer.parseInt(settings.getOrDefault("calibrationUsers", "2000")));
+        for (String size : settings.getOrDefault("sizes", DEFAULT_SIZES).split(",")) {
+            benchmark.measure(size.trim());
+        }
+        String report = settings.getOrDefault("report", "persistence-benchmark.csv");
+        benchmark.writeCsv(report);
+        benchmark.printSummary();
+        // only removed if empty, so not when the data folders are kept
+        new File(benchmark.work).delete();
+        System.out.println("Report written to " + report);
+    }
+
+    /**
+     * Measures the runs of one size of data folder, generating it first if needed
+     * @param size the size, with a unit of B, KB, MB or GB, such as 100MB
+     * @throws IOException If the folder cannot be generated or a run fails
+     * @throws ClassNotFoundException If a gateway fails to read a file it just generated
+     * @throws InterruptedException If the thread is interrupted while waiting for a run
+     */
+    public void measure(String size) throws IOException, ClassNotFoundException, InterruptedException {
+        String folder = work + size + "/";
+        String[] existing = new File(folder).list();
+        if (!keep || existing == null || existing.length == 0) {
+            deleteFolder(folder);
+            int users = (int) Math.max(1, Math.round(parseSize(size) / bytesPerUser()));
+            System.out.printf("Generating %s: %,d users in %s%n", size, users, folder);
+            new DataDirectoryGenerator(folder, seed).setUsers(users).generate();
+        }
+        long dataBytes = folderSize(new File(folder));
+        System.out.printf("%s: %,d bytes%n", size, dataBytes);
+
+        for (int i = 1; i <= runs && coldRuns; i++) {
+            if (!dropPageCache()) break;
+            addRow(size, dataBytes, "cold", i, runOnce(folder));
+        }
+        // reads every file into the page cache
+        runOnce(folder);
+        for (int i = 1; i <= runs; i++) {
+            addRow(size, dataBytes, "warm", i, runOnce(folder));
+        }
+        if (!keep) deleteFolder(folder);
+    }
+
+    /**
+     * Writes every run measured so far to a CSV file, one row per run
+     * @param path the path of the file
+     * @throws IOException If the file cannot be written
+     */
+    public void writeCsv(String path) throws IOException {
+        if (rows.isEmpty()) return;
+        try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+            List<String> columns = new ArrayList<>(rows.get(0).keySet());
+            out.println(String.join(",", columns));
+            for (Map<String, String> row : rows) {
+                List<String> values = new ArrayList<>();
+                for (String column : columns) values.add(row.get(column));
+                out.println(String.join(",", values));
+            }
+        }
+    }
+
+    /**
+     * Prints the median of the main measures of every size, cold and warm
+     */
+    public void printSummary() {
+        System.out.printf("%n%-8s %-5s %14s %16s %10s %10s %14s %14s%n", "size", "cache", "data MB",
+                "first login ms", "load ms", "save ms", "save MB", "peak heap MB");
+        Map<String, List<Map<String, String>>> groups = new LinkedHashMap<>();
+        for (Map<String, String> row : rows) {
+            groups.computeIfAbsent(row.get("size") + " " + row.get("cache"), key -> new ArrayList<>()).add(row);
+        }
+        for (List<Map<String, String>> group : groups.values()) {
+            Map<String, String> first = group.get(0);
+            System.out.printf(Locale.ROOT, "%-8s %-5s %14.1f %16.0f %10.0f %10.0f %14.1f %14.1f%n",
+                    first.get("size"), first.get("cache"), Long.parseLong(first.get("data_bytes")) / 1e6,
+                    median(group, "time_to_first_login_ms"), median(group, "load_ms"), median(group, "save_ms"),
+                    median(group, "save_written_bytes") / 1e6, median(group, "peak_heap_bytes") / 1e6);
+        }
+        if (!coldRuns) System.out.println("No page-cache-cold runs: the page cache could not be dropped");
+    }
+
+    //----------------Helpers----------------//
+    // one run, in its own JVM: loads the data folder as the program does when it starts, logs in, then saves
+    private static void run(String folder) throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jvm_startup_ms", ManagementFactory.getRuntimeMXBean().getUptime());
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+        long readBefore = procIo("rchar");
+        long diskReadBefore = procIo("read_bytes");
+
+        long start = System.nanoTime();
+        StartupPipeline startupPipeline = new StartupPipeline(folder);
+        startupPipeline.load().join();
+        result.put("load_ms", millisSince(start));
+        // every run is a new JVM, so each timer of the startup holds this load only
+        for (String phase : LOAD_PHASES) {
+            Timer timer = Metrics.timer("StartupPipeline." + phase);
+            result.put("load_" + phase.replace(' ', '_') + "_ms", timer.getLatency().getMax() / 1_000_000);
+        }
+
+        // the same use cases as MainMenuController.buildUseCases(), built in the same order
+        long buildStart = System.nanoTime();
+        UseCaseBuilder useCaseBuilder = new UseCaseBuilder();
+        AdminManager adminManager = useCaseBuilder.getAdminManager(
+                startupPipeline.getAdminAccountGateways().join().getAdminMap(),
+                startupPipeline.getAdminMessageGateway().join().getMessages());
+        UserManager userManager = useCaseBuilder.getUserManager(startupPipeline.getUserGateway().join().getMapOfUsers(),
+                startupPipeline.getUsernameTable(), startupPipeline.getUserLimitsGateway().join().getUserLimits());
+        TradeManager tradeManager =
+                useCaseBuilder.getTradeManager(startupPipeline.getUserTradesGateway().join().getUserTrades());
+        GlobalInventoryManager globalInventoryManager = useCaseBuilder.getGlobalInventoryManager(
+                startupPipeline.getGlobalInventoryGateways().join().getGlobalInventory());
+        GlobalWishlistManager globalWishlistManager = useCaseBuilder.getGlobalWishlistManager(
+                startupPipeline.getGlobalWishlistGateway().join().getWishlistItems());
+        WantGraph wantGraph = useCaseBuilder.getWantGraph(globalInventoryManager, globalWishlistManager,
+                userManager.getUsernameTable());
+        TradeCycleFinder tradeCycleFinder = useCaseBuilder.getTradeCycleFinder(wantGraph, globalInventoryManager);
+        useCaseBuilder.getMutualMatchIndex(wantGraph);
+        useCaseBuilder.getLoanAllocator(wantGraph, userManager, tradeManager);
+        ItemRecommender itemRecommender = useCaseBuilder.getItemRecommender(wantGraph, tradeManager);
+        useCaseBuilder.getDuplicateItemIndex(globalInventoryManager);
+        useCaseBuilder.getFuzzyLookup(userManager, globalInventoryManager);
+        useCaseBuilder.getUsernameCompleter(userManager, globalInventoryManager);
+        useCaseBuilder.getReputationTracker(tradeManager, userManager.getUsernameTable());
+        useCaseBuilder.getTradeNetworkAnalyzer(tradeManager, userManager);
+        useCaseBuilder.getAbuseDetector(userManager, adminManager, tradeManager);
+        useCaseBuilder.getMeetingScheduler(tradeManager, userManager,
+                startupPipeline.getPendingMeetingsGateway().join().getPendingMeetings());
+        useCaseBuilder.getAuditLogManager(startupPipeline.getAuditLogGateway().join());
+        CompletableFuture<?> background = CompletableFuture.allOf(tradeCycleFinder.findAll(),
+                itemRecommender.refreshAll());
+        result.put("build_ms", millisSince(buildStart));
+
+        long loginStart = System.nanoTime();
+        if (!userManager.login(FIRST_USER, PASSWORD)) throw new IllegalStateException("Cannot log in as " + FIRST_USER);
+        result.put("first_login_ms", millisSince(loginStart));
+        result.put("time_to_first_login_ms", ManagementFactory.getRuntimeMXBean().getUptime());
+        result.put("load_read_bytes", difference(readBefore, procIo("rchar")));
+        result.put("load_disk_read_bytes", difference(diskReadBefore, procIo("read_bytes")));
+
+        // what the program looks for in the background once it is ready, which still counts towards the heap it needs
+        background.join();
+        result.put("background_ms", millisSince(start));
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peakHeap += pool.getPeakUsage().getUsed();
+        }
+        // the sum of the peaks of every heap pool, which may not all have been reached at the same time
+        result.put("peak_heap_bytes", peakHeap);
+
+        long writtenBefore = procIo("wchar");
+        long diskWrittenBefore = procIo("write_bytes");
+        long saveStart = System.nanoTime();
+        startupPipeline.save(userManager, tradeManager, globalInventoryManager, globalWishlistManager, adminManager);
+        result.put("save_ms", millisSince(saveStart));
+        result.put("save_written_bytes", difference(writtenBefore, procIo("wchar")));
+        result.put("save_disk_written_bytes", difference(diskWrittenBefore, procIo("write_bytes")));
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        result.put("retained_heap_bytes", runtime.totalMemory() - runtime.freeMemory());
+        result.put("users", userManager.getUserData().size());
+        result.put("items", globalInventoryManager.getGlobalInventoryData().getItemIdCollection().size());
+
+        StringBuilder line = new StringBuilder(RESULT);
+        for (Map.Entry<String, Object> entry : result.entrySet()) {
+            line.append(entry.getKey()).append('=').append(entry.getValue()).append(' ');
+        }
+        System.out.println(line.toString().trim());
+    }
+
+    // starts a run in a new JVM, and returns what it measured
+    private Map<String, String> runOnce(String folder) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PersistenceBenchmark.class.getName());
+        command.add("run=" + folder);
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Map<String, String> result = new LinkedHashMap<>();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (!line.startsWith(RESULT)) continue;
+                for (String field : line.substring(RESULT.length()).split(" ")) {
+                    String[] value = field.split("=", 2);
+                    result.put(value[0], value[1]);
+                }
+            }
+        }
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || result.isEmpty()) {
+            throw new IOException("The run on " + folder + " failed with exit code " + exitCode);
+        }
+        return result;
+    }
+
+    private void addRow(String size, long dataBytes, String cache, int run, Map<String, String> result) {
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("label", label.replace(',', ';'));
+        row.put("size", size);
+        row.put("data_bytes", Long.toString(dataBytes));
+        row.put("cache", cache);
+        row.put("run", Integer.toString(run));
+        row.putAll(result);
+        rows.add(row);
+        System.out.printf("%s %s run %d: first login after %s ms, saved in %s ms%n", size, cache, run,
+                result.get("time_to_first_login_ms"), result.get("save_ms"));
+    }
+
+    // the average bytes of a user in a generated folder, worked out once from a small folder
+    private double bytesPerUser() throws IOException, ClassNotFoundException {
+        if (bytesPerUser > 0) return bytesPerUser;
+        String folder = work + "calibration/";
+        deleteFolder(folder);
+        Map<String, Long> counts = new DataDirectoryGenerator(folder, seed).setUsers(calibrationUsers).generate();
+        bytesPerUser = (double) counts.get("bytes") / calibrationUsers;
+        deleteFolder(folder);
+        return bytesPerUser;
+    }
+
+    private boolean dropPageCache() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("sh", "-c", dropCaches).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        if (process.waitFor() == 0) return true;
+        System.out.println("Cannot drop the page cache with \"" + dropCaches + "\", skipping the cold runs");
+        coldRuns = false;
+        return false;
+    }
+
+    private static long parseSize(String size) {
+        String upper = size.toUpperCase(Locale.ROOT);
+        String[] units = {"GB", "MB", "KB", "B"};
+        long[] multipliers = {1L << 30, 1L << 20, 1L << 10, 1};
+        for (int i = 0; i < units.length; i++) {
+            if (upper.endsWith(units[i])) {
+                return (long) (Double.parseDouble(upper.substring(0, upper.length() - units[i].length()))
+                        * multipliers[i]);
+            }
+        }
+        throw new IllegalArgumentException("Not a size: " + size);
+    }
+
+    private static double median(List<Map<String, String>> rows, String key) {
+        double[] values = new double[rows.size()];
+        for (int i = 0; i < values.length; i++) values[i] = Double.parseDouble(rows.get(i).get(key));
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+
+    // a count of /proc/self/io, or -1 if it cannot be read
+    private static long procIo(String name) {
+        try (BufferedReader in = new BufferedReader(new FileReader("/proc/self/io"))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(name + ":")) return Long.parseLong(line.substring(name.length() + 1).trim());
+            }
+        } catch (IOException | NumberFormatException ex) {
+            // not on Linux, or not allowed to read it
+        }
+        return -1;
+    }
+
+    private static long difference(long before, long after) {
+        return before < 0 || after < 0 ? -1 : after - before;
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long folderSize(File folder) {
+        long bytes = 0;
+        File[] files = folder.listFiles();
+        if (files != null) for (File file : files) bytes += file.isDirectory() ? folderSize(file) : file.length();
+        return bytes;
+    }
+
+    private static void deleteFolder(String folder) {
+        // the pipeline knows every file of a data folder, the audit log folder included
+        if (new File(folder).exists()) new StartupPipeline(folder).reset();
+        new File(folder).delete();
+    }
+}
@@ -0,0 +1,140 @@
+package benchmarks;
+
+import entities.GlobalInventory;
+import entities.GlobalWishlist;
+import entities.Item;
+import use_cases.GlobalInventoryManager;
+import use_cases.TradeManager;
+import use_cases.UserManager;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the queries the screens run most, on generated systems of growing size, so that a change to one of them
+ * can be compared against a baseline. For every operation and size it prints the throughput, the average time and the
+ * allocation rate, and can write them to a CSV file to keep as the baseline.
+ * Usage: java benchmarks.UseCaseBenchmark [sizes, comma separated] [regex of the operations to run] [CSV file]
+ * The sizes default to 1000,10000,100000,1000000 and the operations to all of them. Run with at least -Xmx4g for the
+ * largest size.
+ */
+public class UseCaseBenchmark {
+    private static final long SEED = 42;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final long ITERATION_MILLIS = 1000;
+    // the inputs of the operations go through the users and items by this stride, so they are not in order
+    private static final int STRIDE = 7919;
+
+    private final BenchmarkRunner runner = new BenchmarkRunner(WARMUP_ITERATIONS, MEASURED_ITERATIONS,
+            ITERATION_MILLIS);
+    private final Pattern filter;
+    private final List<BenchmarkRunner.Result> results = new ArrayList<>();
+
+    /**
+     * Creates a benchmark that runs the operations whose name matches a pattern
+     * @param filter the pattern
+     */
+    public UseCaseBenchmark(Pattern filter) {
+        this.filter = filter;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "1000,10000,100000,1000000").split(",");
+        UseCaseBenchmark benchmark = new UseCaseBenchmark(Pattern.compile(args.length > 1 ? args[1] : ".*"));
+        System.out.printf("%-48s %8s %14s %12s %14s %10s %12s%n", "Benchmark", "size", "ops/s", "error",
+                "ns/op", "MB/s", "B/op");
+        for (String size : sizes) {
+            benchmark.run(new UseCaseFixture(Integer.parseInt(size.trim()), SEED));
+        }
+        if (args.length > 2) benchmark.writeCsv(args[2]);
+        System.out.println("(" + benchmark.runner.getSink() + ")");
+    }
+
+    /**
+     * Runs every operation that matches the filter on one system, and prints the results
+     * @param fixture the system
+     * @throws Exception If an operation throws
+     */
+    public void run(UseCaseFixture fixture) throws Exception {
+        int size = fixture.getSize();
+        GlobalInventory globalInventory = fixture.getGlobalInventory();
+        GlobalWishlist globalWishlist = fixture.getGlobalWishlist();
+        GlobalInventoryManager globalInventoryManager = fixture.getGlobalInventoryManager();
+        TradeManager tradeManager = fixture.getTradeManager();
+        UserManager userManager = fixture.getUserManager();
+
+        measure("GlobalInventory.searchByOwnerName", size,
+                i -> globalInventory.searchByOwnerName(fixture.getUsername(i * STRIDE)), null);
+        measure("GlobalWishlist.getPersonWishlist", size,
+                i -> globalWishlist.getPersonWishlist(fixture.getUsername(i * STRIDE)), null);
+        // as when one user offers a trade to another: the items of the one the other wants
+        measure("GlobalWishlist.getInterestedItems", size, i -> globalWishlist.getInterestedItems(
+                globalInventory.searchByOwnerName(fixture.getUsername(i * STRIDE)),
+                fixture.getUsername(i * STRIDE + 1)), null);
+
+        measure("TradeManager.getBorrowedTimes", size,
+                i -> tradeManager.getBorrowedTimes(fixture.getUsername(i * STRIDE)), null);
+        measure("TradeManager.numberOfTradesCreatedThisWeek", size,
+                i -> tradeManager.numberOfTradesCreatedThisWeek(fixture.getUsername(i * STRIDE)), null);
+        measure("TradeManager.getFrequentTradingPartners", size,
+                i -> tradeManager.getFrequentTradingPartners(fixture.getUsername(i * STRIDE), 3), null);
+        measure("TradeManager.tradesToConfirm", size,
+                i -> tradeManager.tradesToConfirm(fixture.getUsername(i * STRIDE)), null);
+
+        // with the counts from the trade manager, as the screens check it
+        measure("UserManager.getCanTrade", size, i -> {
+            String user = fixture.getUsername(i * STRIDE);
+            return userManager.getCanTrade(user, tradeManager.getBorrowedTimes(user),
+                    tradeManager.getLendTimes(user), tradeManager.getIncompleteTimes(user),
+                    tradeManager.numberOfTradesCreatedThisWeek(user));
+        }, null);
+
+        // every item added is removed again after each iteration, so the inventory keeps its size; this also times
+        // the ID generator, which is private to the manager. It runs last, as the inventory's table stays as large
+        // as it grew during an iteration, which would slow down the scans measured after it
+        List<String> added = new ArrayList<>();
+        measure("GlobalInventoryManager.addItemToHashMap", size, i -> {
+            Item item = new Item("new item", fixture.getUsername(i * STRIDE), "new item description",
+                    fixture.getUserManager().getUsernameTable());
+            item.setItemID("");
+            globalInventoryManager.addItemToHashMap(item);
+            added.add(item.getItemID());
+            return item;
+        }, () -> {
+            for (String itemID : added) globalInventoryManager.removeItemOnly(itemID);
+            added.clear();
+        });
+    }
+
+    /**
+     * Writes every result so far to a CSV file
+     * @param path the path of the file
+     * @throws IOException If the file cannot be written
+     */
+    public void writeCsv(String path) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+            out.println("benchmark,size,ops_per_s,ops_per_s_error,ns_per_op,alloc_mb_per_s,alloc_bytes_per_op");
+            for (BenchmarkRunner.Result result : results) {
+                out.println(String.format(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.1f", result.getName(),
+                        result.getSize(), result.getOpsPerSecond(), result.getOpsPerSecondError(),
+                        result.getNanosPerOp(), result.getAllocMbPerSecond(), result.getAllocBytesPerOp()));
+            }
+        }
+    }
+
+    private void measure(String name, int size, BenchmarkRunner.Operation operation, Runnable afterIteration)
+            throws Exception {
+        if (!filter.matcher(name).find()) return;
+        BenchmarkRunner.Result result = runner.run(name, size, operation, afterIteration);
+        results.add(result);
+        System.out.printf("%-48s %8d %14.1f %12.1f %14.1f %10.1f %12.1f%n", name, size, result.getOpsPerSecond(),
+                result.getOpsPerSecondError(), result.getNanosPerOp(), result.getAllocMbPerSecond(),
+                result.getAllocBytesPerOp());
+    }
+}
@@ -0,0 +1,174 @@
+package benchmarks;
+
+import entities.GlobalInventory;
+import entities.GlobalWishlist;
+import entities.Item;
+import entities.PermTrade;
+import entities.TempTrade;
+import entities.Trade;
+import entities.UsernameTable;
+import exceptions.InvalidUsernameException;
+import use_cases.GlobalInventoryManager;
+import use_cases.GlobalWishlistManager;
+import use_cases.TradeManager;
+import use_cases.UserManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A synthetic system for the benchmarks, made from a seed so that every run measures the same data. The size is the
+ * number of items; there are a tenth as many users, as many wishes as items, and half as many trades, so that every
+ * user owns about ten items, wishes for about ten, and is in about ten trades. Trades are permanent and temporary,
+ * one-way and two-way, with meetings in the past and the future, and some of them confirmed or failed.
+ */
+public class UseCaseFixture {
+    /**
+     * The ID of the first item, the others following in order
+     */
+    public static final int FIRST_ITEM_ID = 100000000;
+
+    private final int size;
+    private final String[] usernames;
+    private final UsernameTable usernameTable = new UsernameTable();
+    private final List<Item> items = new ArrayList<>();
+    private final GlobalInventory globalInventory = new GlobalInventory();
+    private final GlobalWishlist globalWishlist = new GlobalWishlist(usernameTable);
+    private final UserManager userManager = new UserManager(new HashMap<>(), usernameTable);
+    private final TradeManager tradeManager = new TradeManager(new HashMap<>());
+    private final GlobalInventoryManager globalInventoryManager;
+    private final GlobalWishlistManager globalWishlistManager;
+
+    /**
+     * Generates a system
+     * @param size the number of items
+     * @param seed the seed of the random choices
+     */
+    public UseCaseFixture(int size, long seed) {
+        this.size = size;
+        Random random = new Random(seed);
+        usernames = new String[Math.max(20, size / 10)];
+        for (int i = 0; i < usernames.length; i++) {
+            usernames[i] = "user" + i;
+            try {
+                userManager.createNewUser(usernames[i], "password");
+            } catch (InvalidUsernameException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            String itemID = Integer.toString(FIRST_ITEM_ID + i);
+            Item item = new Item("item " + i, randomUser(random), "description of item number " + i,
+                    usernameTable);
+            item.setItemID(itemID);
+            globalInventory.addItemIdToCollection(itemID);
+            globalInventory.addItem(itemID, item);
+            items.add(item);
+        }
+
+        for (int i = 0; i < size; i++) {
+            Item item = randomItem(random);
+            String user = randomUser(random);
+            if (!user.equals(item.getOwnerName())) globalWishlist.addWish(item.getItemID(), user);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size / 2; i++) {
+            String traderA = randomUser(random);
+            String traderB = randomUser(random);
+            if (traderA.equals(traderB)) continue;
+            List<Item> itemsA = Collections.singletonList(randomItem(random));
+            // about half the trades are one-way, traderB lending nothing
+            List<Item> itemsB = random.nextBoolean() ? Collections.singletonList(randomItem(random)) :
+                    new ArrayList<>();
+            LocalDateTime start = now.plusHours(random.nextInt(24 * 44) - 24 * 30);
+            Trade trade = random.nextInt(3) == 0 ? new TempTrade(traderA, traderB, itemsA, itemsB, start,
+                    start.plusDays(30), usernameTable) : new PermTrade(traderA, traderB, itemsA, itemsB, start,
+                    usernameTable);
+            // meetings in the past are confirmed by both, one, or neither trader, or failed
+            switch (random.nextInt(4)) {
+                case 0:
+                    trade.setConfirm(traderA, true);
+                    trade.setConfirm(traderB, true);
+                    break;
+                case 1:
+                    trade.setConfirm(traderA, true);
+                    break;
+                case 2:
+                    trade.setConfirm(traderB, false);
+                    break;
+                default:
+                    break;
+            }
+            tradeManager.addTrade(trade);
+        }
+
+        globalInventoryManager = new GlobalInventoryManager(globalInventory);
+        globalWishlistManager = new GlobalWishlistManager(globalWishlist);
+    }
+
+    /**
+     * @return the number of items
+     */
+    public int getSize() { return size; }
+
+    /**
+     * @return the number of users
+     */
+    public int getUserCount() { return usernames.length; }
+
+    /**
+     * @param index any number, taken modulo the number of users
+     * @return the username of a user
+     */
+    public String getUsername(int index) { return usernames[Math.floorMod(index, usernames.length)]; }
+
+    /**
+     * @param index any number, taken modulo the number of items
+     * @return an item
+     */
+    public Item getItem(int index) { return items.get(Math.floorMod(index, items.size())); }
+
+    /**
+     * @return the global inventory
+     */
+    public GlobalInventory getGlobalInventory() { return globalInventory; }
+
+    /**
+     * @return the global wishlist
+     */
+    public GlobalWishlist getGlobalWishlist() { return globalWishlist; }
+
+    /**
+     * @return the user manager
+     */
+    public UserManager getUserManager() { return userManager; }
+
+    /**
+     * @return the trade manager
+     */
+    public TradeManager getTradeManager() { return tradeManager; }
+
+    /**
+     * @return the global inventory manager
+     */
+    public GlobalInventoryManager getGlobalInventoryManager() { return globalInventoryManager; }
+
+    /**
+     * @return the global wishlist manager
+     */
+    public GlobalWishlistManager getGlobalWishlistManager() { return globalWishlistManager; }
+
+    private String randomUser(Random random) {
+        return usernames[random.nextInt(usernames.length)];
+    }
+
+    private Item randomItem(Random random) {
+        return items.get(random.nextInt(items.size()));
+    }
+}
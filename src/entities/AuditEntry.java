@@ -0,0 +1,92 @@
+package entities;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One action an admin took, as kept in the audit log. Entries are never changed once written.
+ */
+public class AuditEntry {
+    /**
+     * The target of actions that apply to every user, such as changing a default limit
+     */
+    public static final String ALL_USERS = "*";
+
+    /**
+     * The kinds of actions admins take
+     */
+    public enum Action {
+        BAN, UNBAN, FREEZE, UNFREEZE, CHANGE_LIMIT, RESTORE_ITEM, UNDO_TRADE, APPROVE_ITEM, REJECT_ITEM,
+        DISMISS_REQUEST
+    }
+
+    private final long timeMillis;
+    private final String admin;
+    private final Action action;
+    private final String target;
+    private final String details;
+
+    /**
+     * Class constructor.
+     * @param timeMillis the time the action was taken, in milliseconds since the epoch
+     * @param admin the username of the admin who took the action
+     * @param action the kind of action
+     * @param target the username of the user the action was taken on, or ALL_USERS
+     * @param details what was changed, in words
+     */
+    public AuditEntry(long timeMillis, String admin, Action action, String target, String details) {
+        this.timeMillis = timeMillis;
+        this.admin = admin;
+        this.action = action;
+        this.target = target;
+        this.details = details;
+    }
+
+    /**
+     * @return the time the action was taken, in milliseconds since the epoch
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return the time the action was taken, in the time zone of the system
+     */
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * @return the username of the admin who took the action
+     */
+    public String getAdmin() {
+        return admin;
+    }
+
+    /**
+     * @return the kind of action
+     */
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * @return the username of the user the action was taken on, or ALL_USERS
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return what was changed, in words
+     */
+    public String getDetails() {
+        return details;
+    }
+
+    @Override
+    public String toString() {
+        return getTime() + " " + admin + " " + action + " " + target + (details.isEmpty() ? "" : ": " + details);
+    }
+}
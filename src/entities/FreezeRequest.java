@@ -3,6 +3,8 @@ package entities;
 import java.io.Serializable;
 
 public class FreezeRequest extends Request implements Serializable {
+    private static final long serialVersionUID = -5364536743191065780L;
+
     private String username;
 
     /**
@@ -10,9 +12,10 @@ public class FreezeRequest extends Request implements Serializable {
      * A message sent to the Admins from the system that request to freeze a User
      * @param content is the content of the message
      * @param username the user that might be frozen's username
+     * @param usernames the table the sender's username is kept in
      */
-    public FreezeRequest(String content, String username) {
-        super(content, new String[]{"Freeze", "Ignore"});
+    public FreezeRequest(String content, String username, UsernameTable usernames) {
+        super(content, new String[]{"Freeze", "Ignore"}, usernames);
         this.username = username;
     }
 
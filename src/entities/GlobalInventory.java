@@ -1,14 +1,26 @@
 package entities;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.*;
 
 public class GlobalInventory implements Serializable {
-
-    private Map<String, Item> itemMap;
-    private List<String> itemIdCollection;
+    private static final long serialVersionUID = 9054160843848016687L;
+    // the items are still written as a Map<String, Item> and a List<String>, so files saved before can be read
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("itemMap", Map.class),
+            new ObjectStreamField("itemIdCollection", List.class),
+            new ObjectStreamField("removedItems", List.class)
+    };
+
+    private transient IntObjectMap<Item> itemMap;
+    private transient IntSet itemIdCollection;
     private List<Item> removedItems;
     /**
      * Create a HashMap to store the information of item within the GlobalInventory
@@ -20,8 +32,8 @@ public class GlobalInventory implements Serializable {
 
     public GlobalInventory(){
         removedItems = new ArrayList<>();
-        itemMap = new HashMap<>();
-        itemIdCollection = new ArrayList<>();
+        itemMap = new IntObjectMap<>();
+        itemIdCollection = new IntSet();
     }
 
     /**
@@ -31,18 +43,40 @@ public class GlobalInventory implements Serializable {
      */
 
     public void addItemIdToCollection(String itemID){
-        itemIdCollection.add(itemID);
+        itemIdCollection.add(checkedKey(itemID));
+    }
+
+    /**
+     * @param itemID the itemID to check
+     * @return true if this itemID has ever been assigned to an Item
+     */
+
+    public boolean isItemIdUsed(String itemID){
+        return itemIdCollection.contains(ItemId.toKey(itemID));
     }
 
 
     /**
      * getter for the Arraylist of itemID that have ever existed in the program.
-     * @return the ArrayList of all ID that has ever been assigned to Item
+     * @return a new ArrayList of all ID that has ever been assigned to Item, in the order they were assigned
      */
 
 
     public List<String> getItemIdCollection() {
-        return itemIdCollection;
+        ArrayList<String> ids = new ArrayList<>(itemIdCollection.size());
+        for (int i = 0; i < itemIdCollection.size(); i++) {
+            ids.add(ItemId.toId(itemIdCollection.get(i)));
+        }
+        return ids;
+    }
+
+    /**
+     * getter for the items that have been removed and can still be brought back by undoDeleteItem.
+     * @return the ArrayList of removed Items, the most recently removed one last
+     */
+
+    public List<Item> getRemovedItems() {
+        return removedItems;
     }
 
     /**
@@ -55,7 +89,7 @@ public class GlobalInventory implements Serializable {
 
     public Item getItem(String itemID) {
 
-            return itemMap.get(itemID);
+            return itemMap.get(ItemId.toKey(itemID));
 
 
     }
@@ -67,7 +101,7 @@ public class GlobalInventory implements Serializable {
      */
 
     public void addItem(String itemID, Item item){
-        itemMap.put(itemID, item);
+        itemMap.put(checkedKey(itemID), item);
     }
 
     /**
@@ -77,8 +111,7 @@ public class GlobalInventory implements Serializable {
      */
 
     public void removeItemAndAddToGarbageBin(String itemID){
-        removedItems.add(itemMap.get(itemID));
-        itemMap.remove(itemID);
+        removedItems.add(itemMap.remove(ItemId.toKey(itemID)));
     }
 
     /**
@@ -88,7 +121,7 @@ public class GlobalInventory implements Serializable {
      */
 
     public void removeItemOnly(String itemID){
-        itemMap.remove(itemID);
+        itemMap.remove(ItemId.toKey(itemID));
     }
 
     /**
@@ -99,7 +132,7 @@ public class GlobalInventory implements Serializable {
         for (int j = removedItems.size() - 1; j >= 0; j--) {
             if (removedItems.get(j).getOwnerName().equals(userid)){
                 Item restore = removedItems.get(j);
-                itemMap.put(restore.getItemID(), restore);
+                itemMap.put(checkedKey(restore.getItemID()), restore);
                 removedItems.remove(restore);
                 break;
             }
@@ -113,7 +146,7 @@ public class GlobalInventory implements Serializable {
      */
 
     public boolean containsKey(String itemID){
-        return itemMap.containsKey(itemID);
+        return itemMap.containsKey(ItemId.toKey(itemID));
     }
 
     /**
@@ -124,13 +157,11 @@ public class GlobalInventory implements Serializable {
 
     public List<Item> searchByOwnerName(String ownerName){
         ArrayList<Item> personalInventory = new ArrayList<>();
-        for (int i = 0; i < itemMap.size(); i++){
-            Set<String> keys = itemMap.keySet();
-            String f = new ArrayList<>(keys).get(i);
-            if (itemMap.get(f).getOwnerName().equals(ownerName)){
-                personalInventory.add(itemMap.get(f));
+        itemMap.forEach((key, item) -> {
+            if (ownerName.equals(item.getOwnerName())){
+                personalInventory.add(item);
             }
-        }
+        });
         return personalInventory;
     }
 
@@ -143,10 +174,7 @@ public class GlobalInventory implements Serializable {
 
     public String toString() {
         StringBuilder i = new StringBuilder();
-        for (String key : itemMap.keySet()) {
-            i.append(key).append(itemMap.get(key)).append("\n");
-        }
-        // from https://stackoverflow.com/questions/46898/how-do-i-efficiently-iterate-over-each-entry-in-a-java-map
+        itemMap.forEach((key, item) -> i.append(ItemId.toId(key)).append(item).append("\n"));
         return i.toString();
     }
 
@@ -160,4 +188,43 @@ public class GlobalInventory implements Serializable {
         return itemMap.size() == 0;
     }
 
+    private static int checkedKey(String itemID) {
+        int key = ItemId.toKey(itemID);
+        if (key == ItemId.INVALID) throw new IllegalArgumentException("Item ID is not a number: " + itemID);
+        return key;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<String, Item> items = new HashMap<>();
+        itemMap.forEach((key, item) -> items.put(ItemId.toId(key), item));
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("itemMap", items);
+        fields.put("itemIdCollection", getItemIdCollection());
+        fields.put("removedItems", removedItems);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Map<String, Item> items = (Map<String, Item>) fields.get("itemMap", null);
+        List<String> ids = (List<String>) fields.get("itemIdCollection", null);
+        removedItems = (List<Item>) fields.get("removedItems", null);
+        if (removedItems == null) removedItems = new ArrayList<>();
+
+        try {
+            itemMap = new IntObjectMap<>(items == null ? 0 : items.size());
+            if (items != null) {
+                for (Map.Entry<String, Item> entry : items.entrySet()) {
+                    itemMap.put(checkedKey(entry.getKey()), entry.getValue());
+                }
+            }
+            itemIdCollection = new IntSet(ids == null ? 0 : ids.size());
+            if (ids != null) {
+                for (String id : ids) itemIdCollection.add(checkedKey(id));
+            }
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidObjectException(ex.getMessage());
+        }
+    }
+
 }
@@ -1,19 +1,34 @@
 package entities;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class GlobalWishlist implements Serializable {
-    private Map<String, List<String>> wishMap;
+    private static final long serialVersionUID = 5142447773097621490L;
+    // still written as a Map<String, List<String>>, so files saved before can be read
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("wishMap", Map.class)
+    };
 
-    /*
-    * Constructor just creates a new empty hashmap.
-    */
-    public GlobalWishlist(){
-        wishMap = new HashMap<>();
+    // item ID to the IDs of the users who want it, in the order they added their wish
+    private transient IntObjectMap<IntSet> wishMap;
+    private transient UsernameTable usernames;
+
+    /**
+     * Constructor just creates a new empty map.
+     * @param usernames the table the usernames of the users who want items are kept in
+     */
+    public GlobalWishlist(UsernameTable usernames){
+        wishMap = new IntObjectMap<>();
+        this.usernames = usernames;
     }
 
 
@@ -25,10 +40,14 @@ public class GlobalWishlist implements Serializable {
      */
 
     public void addWish(String itemid, String userid){
-        if (wishMap.get(itemid) == null) {
-            wishMap.put(itemid, new ArrayList<>());
+        int key = ItemId.toKey(itemid);
+        if (key == ItemId.INVALID) throw new IllegalArgumentException("Item ID is not a number: " + itemid);
+        IntSet users = wishMap.get(key);
+        if (users == null) {
+            users = new IntSet(2);
+            wishMap.put(key, users);
         }
-        wishMap.get(itemid).add(userid);
+        users.add(usernames.intern(userid));
     }
 
 
@@ -40,9 +59,11 @@ public class GlobalWishlist implements Serializable {
      */
 
     public void removeWish(String itemid, String userid){
-        wishMap.get(itemid).remove(userid);
-        if (wishMap.get(itemid).isEmpty()){
-            wishMap.remove(itemid);
+        int key = ItemId.toKey(itemid);
+        IntSet users = wishMap.get(key);
+        users.remove(usernames.idOf(userid));
+        if (users.isEmpty()){
+            wishMap.remove(key);
         }
     }
 
@@ -53,19 +74,27 @@ public class GlobalWishlist implements Serializable {
      */
 
     public void removeItem(String itemid) {
-        if (wishMap.get(itemid) != null) {
-            wishMap.remove(itemid);
-        }
+        wishMap.remove(ItemId.toKey(itemid));
     }
 
 
+    /**
+     * Return the number of users who want an item
+     * @param itemid - id of the item
+     * @return the number of users who want it, 0 if no one does
+     */
+    public int getInterestCount(String itemid){
+        IntSet users = wishMap.get(ItemId.toKey(itemid));
+        return users == null ? 0 : users.size();
+    }
+
      /**
      * Return if an item is wanted by anyone
      * @param itemid - id of item that is wanted
       * @return Whether or not anyone wants the item
      */
     public boolean isItemWanted(String itemid){
-        return wishMap.containsKey(itemid);
+        return wishMap.containsKey(ItemId.toKey(itemid));
     }
 
 
@@ -75,7 +104,7 @@ public class GlobalWishlist implements Serializable {
      * @return first userid of whoever wants the item
      */
     public String getFirstInterestedUser(String itemid){
-        return wishMap.get(itemid).get(0);
+        return usernames.name(wishMap.get(ItemId.toKey(itemid)).get(0));
     }
 
     /**
@@ -85,10 +114,32 @@ public class GlobalWishlist implements Serializable {
      * @return - arraylist of all users who want this item
      */
     public List<String> getAllInterestedUsers(String itemid){
-        if (isItemWanted(itemid)) {
-            return wishMap.get(itemid);
+        IntSet ids = wishMap.get(ItemId.toKey(itemid));
+        return ids == null ? new ArrayList<>() : usernames(ids);
+    }
+
+    /**
+     * Return the IDs in the UsernameTable of all users that want the item, as a set of bits
+     * @param itemid - id of the item
+     * @return - a BitSet where the bit of every user who wants this item is set
+     */
+    public BitSet getInterestedUserIds(String itemid){
+        BitSet users = new BitSet(usernames.size());
+        IntSet ids = wishMap.get(ItemId.toKey(itemid));
+        if (ids != null) {
+            for (int i = 0; i < ids.size(); i++) users.set(ids.get(i));
         }
-        else { return new ArrayList<>();}
+        return users;
+    }
+
+    /**
+     * Return the ids of all items that at least one user wants
+     * @return - arraylist of the ids of all wanted items
+     */
+    public List<String> getWantedItems(){
+        List<String> items = new ArrayList<>(wishMap.size());
+        for (int key : wishMap.keys()) items.add(ItemId.toId(key));
+        return items;
     }
 
     /**
@@ -97,12 +148,9 @@ public class GlobalWishlist implements Serializable {
      */
     @Override
     public String toString(){
-        String i = "";
-        for (String key : wishMap.keySet()) {
-            i += key + wishMap.get(key)+ "\n";
-        }
-        // from https://stackoverflow.com/questions/46898/how-do-i-efficiently-iterate-over-each-entry-in-a-java-map
-        return i;
+        StringBuilder i = new StringBuilder();
+        wishMap.forEach((key, users) -> i.append(ItemId.toId(key)).append(usernames(users)).append("\n"));
+        return i.toString();
     }
 
 
@@ -114,13 +162,12 @@ public class GlobalWishlist implements Serializable {
      */
     public List<String> getPersonWishlist(String userid){
         List<String> wishlist = new ArrayList<>();
-        for (Map.Entry<String, List<String>> entry : wishMap.entrySet()) {
-            String item = entry.getKey();
-            List<String> interestedusers = entry.getValue();
-            if (interestedusers.contains(userid)){
-                wishlist.add(item);
-            }
+        int user = usernames.idOf(userid);
+        wishMap.forEach((item, interestedusers) -> {
+            if (interestedusers.contains(user)){
+                wishlist.add(ItemId.toId(item));
             }
+        });
         return wishlist;
         }
 
@@ -133,13 +180,41 @@ public class GlobalWishlist implements Serializable {
      */
     public List<String> getInterestedItems(List<Item> allItems, String userB){
         List<String> interested = new ArrayList<>();
+        int user = usernames.idOf(userB);
         for (Item allItem : allItems) {
             String currentItemid = allItem.getItemID();
-            if (wishMap.containsKey(currentItemid)) {
-                if (wishMap.get(currentItemid).contains(userB)){ interested.add(currentItemid); }
-            }
+            IntSet users = wishMap.get(ItemId.toKey(currentItemid));
+            if (users != null && users.contains(user)){ interested.add(currentItemid); }
         }
         return interested;
     }
-}
 
+    private List<String> usernames(IntSet ids) {
+        List<String> users = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) users.add(usernames.name(ids.get(i)));
+        return users;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<String, List<String>> wishes = new HashMap<>();
+        wishMap.forEach((key, users) -> wishes.put(ItemId.toId(key), usernames(users)));
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("wishMap", wishes);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        usernames = UsernameTable.of(in);
+        Map<String, List<String>> wishes = (Map<String, List<String>>) in.readFields().get("wishMap", null);
+        wishMap = new IntObjectMap<>(wishes == null ? 0 : wishes.size());
+        if (wishes != null) {
+            for (Map.Entry<String, List<String>> entry : wishes.entrySet()) {
+                int key = ItemId.toKey(entry.getKey());
+                if (key == ItemId.INVALID) throw new IOException("Item ID is not a number: " + entry.getKey());
+                IntSet users = new IntSet(entry.getValue().size());
+                for (String user : entry.getValue()) users.add(usernames.intern(user));
+                wishMap.put(key, users);
+            }
+        }
+    }
+}
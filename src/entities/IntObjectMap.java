@@ -0,0 +1,209 @@
+package entities;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from int keys to objects that stores the keys as primitives, using open addressing with linear probing.
+ * Looking a key up does not allocate. Used for maps keyed by item ID, which are always numbers.
+ * @param <V> the type of the values
+ */
+public class IntObjectMap<V> {
+    private static final int FREE = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    // key 0 marks a free slot, so a value stored under 0 is kept aside
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    /**
+     * Creates an empty map
+     */
+    public IntObjectMap() { this(MIN_CAPACITY); }
+
+    /**
+     * Creates an empty map that can hold the given number of keys without resizing
+     * @param expectedSize the expected number of keys
+     */
+    public IntObjectMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) capacity <<= 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Getter of the value stored under a key
+     * @param key the key
+     * @return the value stored under this key, or null if there is none
+     */
+    public V get(int key) {
+        if (key == FREE) return hasZeroKey ? zeroValue : null;
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * @param key the key
+     * @return true if a value is stored under this key
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE) return hasZeroKey;
+        return find(key) >= 0;
+    }
+
+    /**
+     * Stores a value under a key, replacing the previous one
+     * @param key the key
+     * @param value the value to store
+     * @return the previous value stored under this key, or null if there was none
+     */
+    public V put(int key, V value) {
+        if (key == FREE) {
+            V old = zeroValue;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return old;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size * 2 > keys.length) resize(keys.length * 2);
+        return null;
+    }
+
+    /**
+     * Removes the value stored under a key
+     * @param key the key
+     * @return the value that was removed, or null if there was none
+     */
+    public V remove(int key) {
+        if (key == FREE) {
+            V old = zeroValue;
+            if (hasZeroKey) size--;
+            hasZeroKey = false;
+            zeroValue = null;
+            return old;
+        }
+        int slot = find(key);
+        if (slot < 0) return null;
+        V old = (V) values[slot];
+        size--;
+
+        // shift the following entries back so that no probe sequence is broken
+        int mask = keys.length - 1;
+        int free = slot;
+        int next = (slot + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[free] = FREE;
+        values[free] = null;
+        return old;
+    }
+
+    /**
+     * @return the number of keys in this map
+     */
+    public int size() { return size; }
+
+    /**
+     * @return true if this map has no keys
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Removes every key from this map
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Getter for a copy of all keys in this map, in no particular order
+     * @return an array of all keys
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int i = 0;
+        if (hasZeroKey) result[i++] = FREE;
+        for (int key : keys) {
+            if (key != FREE) result[i++] = key;
+        }
+        return result;
+    }
+
+    /**
+     * Calls the action once for every key and value in this map, in no particular order.
+     * The map must not be changed by the action.
+     * @param action the action to call
+     */
+    public void forEach(EntryConsumer<V> action) {
+        if (hasZeroKey) action.accept(FREE, zeroValue);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) action.accept(keys[slot], (V) values[slot]);
+        }
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != FREE) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * An action called with a key and its value
+     * @param <V> the type of the values
+     */
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+}
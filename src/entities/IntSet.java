@@ -0,0 +1,172 @@
+package entities;
+
+import java.util.Arrays;
+
+/**
+ * A set of ints that stores its elements as primitives and remembers the order they were added in.
+ * Adding, removing and checking for an element take constant time on average. A removed element leaves a hole in
+ * the order until the next call to get() or toArray() closes all holes at once, so removing many elements in a row
+ * stays linear. An empty set does not allocate its arrays.
+ */
+public class IntSet {
+    private static final int[] EMPTY = new int[0];
+    private static final int MIN_CAPACITY = 2;
+
+    // the elements in the order they were added, the ones removed since the last compaction still take a position
+    private int[] elements = EMPTY;
+    // open-addressing table holding the position of every element plus one, 0 marks a free slot
+    private int[] table = EMPTY;
+    // the number of positions used in elements, holes included
+    private int end;
+    private int size;
+
+    /**
+     * Creates an empty set
+     */
+    public IntSet() { }
+
+    /**
+     * Creates an empty set that can hold the given number of elements without resizing
+     * @param expectedSize the expected number of elements
+     */
+    public IntSet(int expectedSize) {
+        if (expectedSize > 0) allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param element the element to look for
+     * @return true if the element is in this set
+     */
+    public boolean contains(int element) {
+        return slotOf(element) >= 0;
+    }
+
+    /**
+     * Adds an element at the end of this set if it is not already in it
+     * @param element the element to add
+     * @return true if the element was added
+     */
+    public boolean add(int element) {
+        if (contains(element)) return false;
+        if (end == elements.length) {
+            // only grow when closing the holes would not free at least half of the positions
+            int capacity = size <= elements.length / 2 && size < end ? elements.length
+                    : Math.max(MIN_CAPACITY, elements.length * 2);
+            compact(capacity);
+        }
+        elements[end++] = element;
+        insert(element, end);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an element from this set
+     * @param element the element to remove
+     * @return true if the element was in this set
+     */
+    public boolean remove(int element) {
+        int slot = slotOf(element);
+        if (slot < 0) return false;
+        int position = table[slot] - 1;
+        delete(slot);
+        size--;
+        if (size == 0 || position == end - 1) {
+            end = size == 0 ? 0 : end - 1;
+        }
+        return true;
+    }
+
+    /**
+     * Getter of the element at a position, in the order the elements were added
+     * @param position the position, from 0 to size() - 1
+     * @return the element at this position
+     */
+    public int get(int position) {
+        if (position >= size) throw new IndexOutOfBoundsException(position + " >= " + size);
+        if (end != size) compact(elements.length);
+        return elements[position];
+    }
+
+    /**
+     * @return the number of elements in this set
+     */
+    public int size() { return size; }
+
+    /**
+     * @return true if this set has no elements
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Getter for a copy of the elements of this set in the order they were added
+     * @return an array of all elements
+     */
+    public int[] toArray() {
+        if (end != size) compact(elements.length);
+        return Arrays.copyOf(elements, size);
+    }
+
+    private int slotOf(int element) {
+        if (size == 0) return -1;
+        int mask = table.length - 1;
+        int slot = IntObjectMap.hash(element) & mask;
+        while (table[slot] != 0) {
+            if (elements[table[slot] - 1] == element) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int element, int positionPlusOne) {
+        int mask = table.length - 1;
+        int slot = IntObjectMap.hash(element) & mask;
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = positionPlusOne;
+    }
+
+    private void delete(int slot) {
+        // backward-shift deletion: move up every following entry of the run that may not be found past the gap
+        int mask = table.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[next] != 0) {
+            int home = IntObjectMap.hash(elements[table[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    private boolean isLive(int position) {
+        // a removed element is no longer in the table, and one added again is found at its new position
+        int slot = slotOf(elements[position]);
+        return slot >= 0 && table[slot] - 1 == position;
+    }
+
+    private void compact(int capacity) {
+        int[] kept = new int[capacity];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (isLive(i)) kept[count++] = elements[i];
+        }
+        elements = kept;
+        table = new int[capacity * 2];
+        end = count;
+        for (int i = 0; i < count; i++) insert(elements[i], i + 1);
+    }
+
+    private void allocate(int capacity) {
+        elements = new int[capacity];
+        table = new int[capacity * 2];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize) capacity <<= 1;
+        return capacity;
+    }
+}
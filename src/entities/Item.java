@@ -1,24 +1,39 @@
 package entities;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 public class Item implements Serializable {
+    private static final long serialVersionUID = 1310252055640674361L;
+    // the owner is still written as its username
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("itemID", String.class),
+            new ObjectStreamField("description", String.class),
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("ownerName", String.class)
+    };
 
     private String itemID = "";
-    private final String description;
-    private final String name;
-    private String ownerName;
+    private String description;
+    private String name;
+    private transient int ownerId;
+    private transient UsernameTable usernames;
 
     /**
      * constructor to create a new Item
      * @param description is the String that the user sets to describe the Item condition
      * @param name is the name of this Item
      * @param ownerName refers who this Item belongs to.
+     * @param usernames the table the owner's username is kept in
      */
 
-    public Item(String name, String ownerName, String description){
+    public Item(String name, String ownerName, String description, UsernameTable usernames){
         this.name = name;
-        this.ownerName = ownerName;
+        this.usernames = usernames;
+        this.ownerId = usernames.intern(ownerName);
         this.description = description;
 
     }
@@ -29,7 +44,7 @@ public class Item implements Serializable {
      */
 
     public void setOwnerName(String newOwnerName){
-        ownerName = newOwnerName;
+        ownerId = usernames.intern(newOwnerName);
     }
 
     /**
@@ -87,7 +102,21 @@ public class Item implements Serializable {
      */
 
     public String getOwnerName() {
-        return ownerName;
+        return usernames.name(ownerId);
+    }
+
+    /**
+     * Getter to get the ID of the owner's username in the UsernameTable
+     * @return the ID of the owner
+     */
+
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    // the table the owner's username is kept in, for the messages built from this item
+    UsernameTable usernames() {
+        return usernames;
     }
 
     public boolean hasID() {
@@ -104,7 +133,21 @@ public class Item implements Serializable {
         return (item.getItemID().equals(itemID));
     }
 
-}
-
-
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("itemID", itemID);
+        fields.put("description", description);
+        fields.put("name", name);
+        fields.put("ownerName", getOwnerName());
+        out.writeFields();
+    }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        itemID = (String) fields.get("itemID", "");
+        description = (String) fields.get("description", null);
+        name = (String) fields.get("name", null);
+        usernames = UsernameTable.of(in);
+        ownerId = usernames.intern((String) fields.get("ownerName", null));
+    }
+}
@@ -0,0 +1,41 @@
+package entities;
+
+/**
+ * Converts item IDs between the String form used by the rest of the program and the int form used as key inside
+ * the inventory and wishlist. Item IDs are generated as 9-digit numbers, so they always fit in an int.
+ */
+public final class ItemId {
+    /**
+     * Returned by toKey for an ID that is not a number, it never matches a stored item
+     */
+    public static final int INVALID = -1;
+
+    private ItemId() {}
+
+    /**
+     * Converts an item ID to its int key, without allocating
+     * @param itemID the item ID
+     * @return the int key of this ID, or INVALID if the ID is not a number
+     */
+    public static int toKey(String itemID) {
+        if (itemID == null || itemID.isEmpty() || itemID.length() > 10) return INVALID;
+        // a leading zero would not survive the round trip back to a String
+        if (itemID.length() > 1 && itemID.charAt(0) == '0') return INVALID;
+        long key = 0;
+        for (int i = 0; i < itemID.length(); i++) {
+            char c = itemID.charAt(i);
+            if (c < '0' || c > '9') return INVALID;
+            key = key * 10 + (c - '0');
+        }
+        return key > Integer.MAX_VALUE ? INVALID : (int) key;
+    }
+
+    /**
+     * Converts an int key back to the item ID
+     * @param key the int key
+     * @return the item ID
+     */
+    public static String toId(int key) {
+        return Integer.toString(key);
+    }
+}
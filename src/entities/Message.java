@@ -1,18 +1,31 @@
 package entities;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 public abstract class Message implements Serializable {
+    private static final long serialVersionUID = 92138205276316560L;
+    private static final String SYSTEM_SENDER = "System Messages";
+    // the sender is still written as its username
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("content", String.class),
+            new ObjectStreamField("senderUsername", String.class)
+    };
+
     private String content;
-    private String senderUsername;
+    private transient int senderId;
+    private transient UsernameTable usernames;
     /**
      * Class constructor
      * A message sent by the system with some content
      * @param content is the content of the message
+     * @param usernames the table the sender's username is kept in
      */
-    public Message(String content){
-        this.content = content;
-        senderUsername = "System Messages";
+    public Message(String content, UsernameTable usernames){
+        this(content, SYSTEM_SENDER, usernames);
     }
 
     /**
@@ -20,10 +33,12 @@ public abstract class Message implements Serializable {
      * A message sent by an account with some content
      * @param content is the content of the message
      * @param username is the sender of this message's username
+     * @param usernames the table the sender's username is kept in
      */
-    public Message(String content, String username){
+    public Message(String content, String username, UsernameTable usernames){
         this.content = content;
-        senderUsername = username;
+        this.usernames = usernames;
+        senderId = usernames.intern(username);
     }
 
     /**
@@ -39,7 +54,7 @@ public abstract class Message implements Serializable {
      * @param senderUsername the new sender's username
      */
     public void setSenderUsername(String senderUsername) {
-        this.senderUsername = senderUsername;
+        this.senderId = usernames.intern(senderUsername);
     }
 
     /**
@@ -55,11 +70,24 @@ public abstract class Message implements Serializable {
      * @return the sender of the message
      */
     public String getSender() {
-        return senderUsername;
+        return usernames.name(senderId);
+    }
+
+    /**
+     * Getter of the ID of the sender's username in the UsernameTable
+     * @return the ID of the sender
+     */
+    public int getSenderId() {
+        return senderId;
+    }
+
+    // the table the usernames of this message are kept in, for the messages built from it
+    UsernameTable usernames() {
+        return usernames;
     }
 
     public boolean isSystemMessage() {
-        return senderUsername.equals("System Messages");
+        return senderId == usernames.idOf(SYSTEM_SENDER);
     }
 
     /**
@@ -68,6 +96,20 @@ public abstract class Message implements Serializable {
      */
     @Override
     public String toString() {
-        return "From " + senderUsername+":\n "+content;
+        return "From " + getSender()+":\n "+content;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("content", content);
+        fields.put("senderUsername", getSender());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        content = (String) fields.get("content", null);
+        usernames = UsernameTable.of(in);
+        senderId = usernames.intern((String) fields.get("senderUsername", null));
     }
 }
@@ -3,6 +3,8 @@ package entities;
 import java.io.Serializable;
 
 public class NewItemRequest extends Request implements Serializable {
+    private static final long serialVersionUID = -8385961251818037921L;
+
     private Item newItem;
 
     /**
@@ -12,7 +14,7 @@ public class NewItemRequest extends Request implements Serializable {
      * @param item is the new item created and belonging to the user
      */
     public NewItemRequest(String content, Item item) {
-        super(content, new String[]{"Confirm", "Deny"}, item.getOwnerName());
+        super(content, new String[]{"Confirm", "Deny"}, item.getOwnerName(), item.usernames());
         this.newItem = item;
     }
 
@@ -0,0 +1,111 @@
+package entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The meetings asked for in the trade requests that are not answered yet, kept apart from the inboxes the requests
+ * are in, so that they can be checked without reading every inbox. A meeting is kept as its two users and its time,
+ * once for every trade request asking for it.
+ */
+public class PendingMeetings implements Serializable {
+    /**
+     * The meeting of a trade request, equal to the meeting of any other trade request between the same users at the
+     * same time
+     */
+    public static final class Meeting implements Serializable {
+        private final String userA;
+        private final String userB;
+        private final LocalDateTime time;
+
+        /**
+         * Creates the meeting of a trade request
+         * @param userA the user who started the trade request
+         * @param userB the other user of the trade request
+         * @param time the time of the meeting
+         */
+        public Meeting(String userA, String userB, LocalDateTime time) {
+            this.userA = userA;
+            this.userB = userB;
+            this.time = time;
+        }
+
+        /**
+         * @return the user who started the trade request
+         */
+        public String getUserA() { return userA; }
+
+        /**
+         * @return the other user of the trade request
+         */
+        public String getUserB() { return userB; }
+
+        /**
+         * @return the time of the meeting
+         */
+        public LocalDateTime getTime() { return time; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Meeting)) return false;
+            Meeting other = (Meeting) o;
+            return userA.equals(other.userA) && userB.equals(other.userB) && time.equals(other.time);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(userA, userB, time); }
+    }
+
+    // how many trade requests ask for each meeting
+    private final Map<Meeting, Integer> counts = new HashMap<>();
+
+    /**
+     * Counts the meeting of a trade request once more
+     * @param meeting the meeting
+     */
+    public void add(Meeting meeting) {
+        counts.merge(meeting, 1, Integer::sum);
+    }
+
+    /**
+     * Counts the meeting of a trade request once less
+     * @param meeting the meeting
+     * @return true if the meeting was counted
+     */
+    public boolean remove(Meeting meeting) {
+        Integer count = counts.get(meeting);
+        if (count == null) return false;
+        if (count == 1) counts.remove(meeting);
+        else counts.put(meeting, count - 1);
+        return true;
+    }
+
+    /**
+     * Forgets every meeting before a time, which can no longer get in the way of a new one
+     * @param time the time
+     */
+    public void removeBefore(LocalDateTime time) {
+        Iterator<Meeting> meetings = counts.keySet().iterator();
+        while (meetings.hasNext()) {
+            if (meetings.next().time.isBefore(time)) meetings.remove();
+        }
+    }
+
+    /**
+     * Getter for every meeting, as many times as it is counted
+     * @return a list of the meetings
+     */
+    public List<Meeting> getMeetings() {
+        List<Meeting> meetings = new ArrayList<>();
+        for (Map.Entry<Meeting, Integer> entry : counts.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) meetings.add(entry.getKey());
+        }
+        return meetings;
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import entities.Item;
 
 public class PermTrade extends Trade implements Serializable {
+    private static final long serialVersionUID = -6783348600169087519L;
 
     /**
      * Creates a trade with an item that both the seller wants to sell
@@ -20,13 +21,15 @@ public class PermTrade extends Trade implements Serializable {
      * @param userBItemsToTrade takes in items that want to be traded to userA.
      * @param startDate is a LocalDateTime that follows a start date of a trade.
      *                  Note: this can be used for invoicing once a trade is completed.
+     * @param usernames the table the usernames of both traders are kept in.
      */
     public PermTrade(String traderA,
                      String traderB,
                      List<Item> userAItemsToTrade,
                      List<Item> userBItemsToTrade,
-                     LocalDateTime startDate) {
-        super(traderA, traderB, userAItemsToTrade, userBItemsToTrade, startDate);
+                     LocalDateTime startDate,
+                     UsernameTable usernames) {
+        super(traderA, traderB, userAItemsToTrade, userBItemsToTrade, startDate, usernames);
     }
 
     /**
@@ -3,14 +3,17 @@ package entities;
 import java.io.Serializable;
 
 public class PrivateMessage extends Message implements Serializable {
+    private static final long serialVersionUID = 3503535848660668335L;
+
     /**
      * Class constructor
      * A message sent by an account with only information/a content
      * @param content is the content of the message
      * @param username is the sender of this message's username
+     * @param usernames the table the sender's username is kept in
      */
-    public PrivateMessage(String content, String username){
-        super(content, username);
+    public PrivateMessage(String content, String username, UsernameTable usernames){
+        super(content, username, usernames);
     }
 
 }
@@ -3,6 +3,8 @@ package entities;
 import java.io.Serializable;
 
 public class ReportRequest extends Request implements Serializable {
+    private static final long serialVersionUID = 8634851772904921714L;
+
     private String contentReported;
     private String reportedPerson;
 
@@ -13,9 +15,11 @@ public class ReportRequest extends Request implements Serializable {
      * @param sender the reporter's username
      * @param contentReported the content that is being reported
      * @param reportedPerson the username of the account that created the message with the contentReported
+     * @param usernames the table the sender's username is kept in
      */
-    public ReportRequest(String content, String sender, String contentReported, String reportedPerson){
-        super(content, new String[]{"Ban", "Ignore", "Ban Reporter"}, sender);
+    public ReportRequest(String content, String sender, String contentReported, String reportedPerson,
+                         UsernameTable usernames){
+        super(content, new String[]{"Ban", "Ignore", "Ban Reporter"}, sender, usernames);
         this.contentReported = contentReported;
         this.reportedPerson = reportedPerson;
     }
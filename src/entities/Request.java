@@ -4,6 +4,8 @@ package entities;
 import java.io.Serializable;
 
 public abstract class Request extends Message implements Serializable {
+    private static final long serialVersionUID = -4178442438582029175L;
+
     private String[] options;
 
     /**
@@ -11,9 +13,10 @@ public abstract class Request extends Message implements Serializable {
      * A message sent by the system with a content and some decisions a person can make based on the content
      * @param content is the content of the message
      * @param options the options that can be made
+     * @param usernames the table the sender's username is kept in
      */
-    Request(String content, String[] options){
-        super(content);
+    Request(String content, String[] options, UsernameTable usernames){
+        super(content, usernames);
         this.options = options;
     }
 
@@ -23,9 +26,10 @@ public abstract class Request extends Message implements Serializable {
      * @param content is the content of the message
      * @param options the options that can be made
      * @param username is the sender's username
+     * @param usernames the table the sender's username is kept in
      */
-    Request(String content, String[] options, String username){
-        super(content, username);
+    Request(String content, String[] options, String username, UsernameTable usernames){
+        super(content, username, usernames);
         this.options = options;
     }
 
@@ -3,13 +3,16 @@ package entities;
 import java.io.Serializable;
 
 public class SystemMessage extends Message implements Serializable {
+    private static final long serialVersionUID = 2328376714499830160L;
+
     /**
      * Class constructor
      * A message sent by the system with only information/a content
      * @param content is the content of the message
+     * @param usernames the table the sender's username is kept in
      */
-    public SystemMessage(String content){
-        super(content);
+    public SystemMessage(String content, UsernameTable usernames){
+        super(content, usernames);
     }
 
 }
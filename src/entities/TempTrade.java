@@ -5,6 +5,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public class TempTrade extends Trade implements Serializable {
+    // the trades file written before getFinishDate was added still reads
+    private static final long serialVersionUID = 4327438125256958513L;
 
     private final LocalDateTime finishDate;
 
@@ -18,16 +20,26 @@ public class TempTrade extends Trade implements Serializable {
      * @param userBItemsToTrade takes in items that want to be traded to userA.
      * @param startDate is a LocalDateTime that follows a specific date format.
      * @param finishDate is a LocalDateTime that indicates the end of a temporary trade.
+     * @param usernames the table the usernames of both traders are kept in.
      */
     public TempTrade(String traderA,
                      String traderB,
                      List<Item> userAItemsToTrade,
                      List<Item> userBItemsToTrade,
                      LocalDateTime startDate,
-                     LocalDateTime finishDate) {
-        super(traderA, traderB, userAItemsToTrade, userBItemsToTrade, startDate);
+                     LocalDateTime finishDate,
+                     UsernameTable usernames) {
+        super(traderA, traderB, userAItemsToTrade, userBItemsToTrade, startDate, usernames);
         this.finishDate = finishDate;
     }
+    /**
+     * Getter for the date of the second meeting, at which the items are returned
+     * @return a LocalDateTime of the second meeting
+     */
+    public LocalDateTime getFinishDate() {
+        return finishDate;
+    }
+
     /**
      * This method provides you with the number of days left after a trade has been processed.
      * @return an integer that indicates the number of days left in the trade.
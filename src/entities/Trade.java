@@ -1,14 +1,33 @@
 package entities;// Written by Thanusun
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
 
 public abstract class Trade implements Serializable {
-    private final LocalDateTime startDate;
-    private final List<Item> traderBItemsToTrade;
-    private final List<Item> traderAItemstoTrade;
-    private final String traderA, traderB;
+    private static final long serialVersionUID = 6577353597001025222L;
+    // the traders are still written as their usernames
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("startDate", LocalDateTime.class),
+            new ObjectStreamField("traderBItemsToTrade", List.class),
+            new ObjectStreamField("traderAItemstoTrade", List.class),
+            new ObjectStreamField("traderA", String.class),
+            new ObjectStreamField("traderB", String.class),
+            new ObjectStreamField("failed", boolean.class),
+            new ObjectStreamField("traderAConfirmTimes", int.class),
+            new ObjectStreamField("traderBConfirmTimes", int.class),
+            new ObjectStreamField("creationDate", LocalDateTime.class)
+    };
+
+    private LocalDateTime startDate;
+    private List<Item> traderBItemsToTrade;
+    private List<Item> traderAItemstoTrade;
+    private transient int traderA, traderB;
+    private transient UsernameTable usernames;
     private boolean failed = false;
     private int traderAConfirmTimes = 0, traderBConfirmTimes = 0;
     private LocalDateTime creationDate = LocalDateTime.now();
@@ -25,10 +44,13 @@ public abstract class Trade implements Serializable {
      * @param traderBItemsToTrade takes in items that tradeB own and want to be borrowed to traderA.
      * @param startDate           is a LocalDateTime type that indicates the start date of a Trade.
      *                            Note: this is also used to identify the rental process if the trade is temporary.
+     * @param usernames           the table the usernames of both traders are kept in.
      */
-    public Trade(String traderA, String traderB, List<Item> traderAItemsToTrade, List<Item> traderBItemsToTrade, LocalDateTime startDate) {
-        this.traderA = traderA;
-        this.traderB = traderB;
+    public Trade(String traderA, String traderB, List<Item> traderAItemsToTrade, List<Item> traderBItemsToTrade,
+                 LocalDateTime startDate, UsernameTable usernames) {
+        this.usernames = usernames;
+        this.traderA = usernames.intern(traderA);
+        this.traderB = usernames.intern(traderB);
         this.startDate = startDate;
         this.traderAItemstoTrade = traderAItemsToTrade;
         this.traderBItemsToTrade = traderBItemsToTrade;
@@ -121,6 +143,14 @@ public abstract class Trade implements Serializable {
      * @return a String that gives traderA
      */
     public String getTraderA() {
+        return usernames.name(traderA);
+    }
+
+    /**
+     * Getter for returning the ID of traderA in the UsernameTable
+     * @return an int that gives the ID of traderA
+     */
+    public int getTraderAId() {
         return traderA;
     }
     /**
@@ -128,6 +158,14 @@ public abstract class Trade implements Serializable {
      * @return a String that gives traderB
      */
     public String getTraderB() {
+        return usernames.name(traderB);
+    }
+
+    /**
+     * Getter for returning the ID of traderB in the UsernameTable
+     * @return an int that gives the ID of traderB
+     */
+    public int getTraderBId() {
         return traderB;
     }
 
@@ -168,11 +206,12 @@ public abstract class Trade implements Serializable {
 
     private boolean trader(String traderName, List<Item> traderAItemstoTrade, List<Item> traderBItemsToTrade) {
         boolean lent = false;
-        if (traderName.equals(traderA)) {
+        int trader = usernames.idOf(traderName);
+        if (trader == traderA) {
             if (!traderAItemstoTrade.isEmpty()) {
                 lent = true;
             }
-        } else if (traderName.equals(traderB)) {
+        } else if (trader == traderB) {
             if (!traderBItemsToTrade.isEmpty()) {
                 lent = true;
             }
@@ -188,12 +227,13 @@ public abstract class Trade implements Serializable {
      */
     public String tradingPartner(String traderName) {
         String otherTrader = null;
+        int trader = usernames.idOf(traderName);
         // if TraderA, then return its partner: traderB
-        if (traderName.equals(traderA)) {
-            otherTrader = traderB;
+        if (trader == traderA) {
+            otherTrader = getTraderB();
             // if traderB, return its partner: traderA.
-        } else if (traderName.equals(traderB)) {
-            otherTrader = traderA;
+        } else if (trader == traderB) {
+            otherTrader = getTraderA();
         }
         return otherTrader;
     }
@@ -209,11 +249,12 @@ public abstract class Trade implements Serializable {
     public boolean needToConfirmMeetingOne(String traderName) {
         boolean meetingConfirmed = false;
         boolean startTimePast = (LocalDateTime.now()).compareTo(startDate) >= 0;
-        if (traderName.equals(traderA)) {
+        int trader = usernames.idOf(traderName);
+        if (trader == traderA) {
             if (!failed && traderAConfirmTimes == 0 && startTimePast) {
                 meetingConfirmed = true;
             }
-        } else if (traderName.equals(traderB)) {
+        } else if (trader == traderB) {
             if (!failed && traderBConfirmTimes == 0 && startTimePast) {
                 meetingConfirmed = true;
             }
@@ -261,8 +302,8 @@ public abstract class Trade implements Serializable {
 
 
     public boolean equals(Trade trade) {
-        if(!traderA.equals(trade.traderA))return false;
-        if(!traderB.equals(trade.traderB))return false;
+        if(traderA != trade.traderA)return false;
+        if(traderB != trade.traderB)return false;
 
         if(traderAItemstoTrade.size() != trade.traderAItemstoTrade.size()) return false;
         if(!traderAItemstoTrade.isEmpty()){
@@ -282,4 +323,32 @@ public abstract class Trade implements Serializable {
 
         return true;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("startDate", startDate);
+        fields.put("traderBItemsToTrade", traderBItemsToTrade);
+        fields.put("traderAItemstoTrade", traderAItemstoTrade);
+        fields.put("traderA", getTraderA());
+        fields.put("traderB", getTraderB());
+        fields.put("failed", failed);
+        fields.put("traderAConfirmTimes", traderAConfirmTimes);
+        fields.put("traderBConfirmTimes", traderBConfirmTimes);
+        fields.put("creationDate", creationDate);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        startDate = (LocalDateTime) fields.get("startDate", null);
+        traderBItemsToTrade = (List<Item>) fields.get("traderBItemsToTrade", null);
+        traderAItemstoTrade = (List<Item>) fields.get("traderAItemstoTrade", null);
+        usernames = UsernameTable.of(in);
+        traderA = usernames.intern((String) fields.get("traderA", null));
+        traderB = usernames.intern((String) fields.get("traderB", null));
+        failed = fields.get("failed", false);
+        traderAConfirmTimes = fields.get("traderAConfirmTimes", 0);
+        traderBConfirmTimes = fields.get("traderBConfirmTimes", 0);
+        creationDate = (LocalDateTime) fields.get("creationDate", null);
+    }
 }
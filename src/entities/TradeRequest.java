@@ -1,13 +1,34 @@
 package entities;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TradeRequest extends Request implements Serializable {
+    private static final long serialVersionUID = -6135839560441572112L;
+    // the users are still written as their usernames
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("userA", String.class),
+            new ObjectStreamField("userB", String.class),
+            new ObjectStreamField("itemA", List.class),
+            new ObjectStreamField("itemB", List.class),
+            new ObjectStreamField("perm", boolean.class),
+            new ObjectStreamField("date", LocalDateTime.class),
+            new ObjectStreamField("place", String.class),
+            new ObjectStreamField("numberOfEditA", int.class),
+            new ObjectStreamField("numberOfEditB", int.class),
+            new ObjectStreamField("cycle", List.class),
+            new ObjectStreamField("cycleId", long.class),
+            new ObjectStreamField("accepted", boolean.class)
+    };
 
-    private String userA; // username of user who initiate the trade request (borrower in one way trade)
-    private String userB; // username of user who gets the trade request (lander in one way trade)
+    private transient int userA; // username ID of user who initiate the trade request (borrower in one way trade)
+    private transient int userB; // username ID of user who gets the trade request (lander in one way trade)
     private List<Item> itemA ; // userA's items
     private List<Item> itemB ;  // userB's items
     private boolean perm;
@@ -15,6 +36,9 @@ public class TradeRequest extends Request implements Serializable {
     private String place = "";
     private int numberOfEditA = 3;
     private int numberOfEditB = 3;
+    private List<String> cycle; // usernames of the trade cycle this request is part of, null if it is not
+    private long cycleId; // shared by the trade requests of one proposal of a cycle, 0 if it is not part of one
+    private boolean accepted; // accepted by its recipient while the rest of its cycle is not yet
 
     /**
      * Class constructor.
@@ -26,12 +50,13 @@ public class TradeRequest extends Request implements Serializable {
      * @param itemA userA's items that userA is lending in this trade
      * @param itemB userB's items that userB is lending in this trade
      * @param perm whether the trade is permanent or not
+     * @param usernames the table the usernames of the sender and both users are kept in
      */
     public TradeRequest(String content, String sender, String userA, String userB, List<Item> itemA,
-                        List<Item> itemB, boolean perm) {
-        super(content, new String[]{"confirm", "deny", "edit"}, sender);
-        this.userA = userA;
-        this.userB = userB;
+                        List<Item> itemB, boolean perm, UsernameTable usernames) {
+        super(content, new String[]{"confirm", "deny", "edit"}, sender, usernames);
+        this.userA = usernames.intern(userA);
+        this.userB = usernames.intern(userB);
         this.itemA = itemA;
         this.itemB = itemB;
         this.perm = perm;
@@ -42,7 +67,7 @@ public class TradeRequest extends Request implements Serializable {
      * @return userA
      */
     public String getUserA() {
-        return userA;
+        return usernames().name(userA);
     }
 
     /**
@@ -50,7 +75,7 @@ public class TradeRequest extends Request implements Serializable {
      * @return userB
      */
     public String getUserB() {
-        return userB;
+        return usernames().name(userB);
     }
 
     /**
@@ -108,6 +133,51 @@ public class TradeRequest extends Request implements Serializable {
         return numberOfEditB;
     }
 
+    /**
+     * get the users of the trade cycle this trade request is part of. Every user in the cycle gets an item from the
+     * next one, and the trade requests of the cycle are only worth confirming together.
+     * @return the usernames of the cycle in order, or an empty list if this request is not part of a cycle
+     */
+    public List<String> getCycle() {
+        return cycle == null ? new ArrayList<>() : cycle;
+    }
+
+    /**
+     * set the users of the trade cycle this trade request is part of
+     * @param cycle the usernames of the cycle in order
+     * @param cycleId the ID shared by every trade request of the same proposal of the cycle, not 0
+     */
+    public void setCycle(List<String> cycle, long cycleId) {
+        this.cycle = cycle;
+        this.cycleId = cycleId;
+    }
+
+    /**
+     * check if another trade request was sent as part of the same proposal of a trade cycle as this one
+     * @param other the other trade request
+     * @return true if both trade requests are part of the same proposal of a trade cycle
+     */
+    public boolean isSameCycle(TradeRequest other) {
+        return cycleId != 0 && cycleId == other.cycleId;
+    }
+
+    /**
+     * check if the recipient of this trade request of a cycle accepted it, the trades of the cycle are only made
+     * once every trade request of it is accepted
+     * @return true if this trade request was accepted
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    /**
+     * set whether the recipient of this trade request of a cycle accepted it
+     * @param accepted true if the recipient accepted it
+     */
+    public void setAccepted(boolean accepted) {
+        this.accepted = accepted;
+    }
+
     /**
      * set the date of the meeting
      * @param date date of the meeting
@@ -181,6 +251,41 @@ public class TradeRequest extends Request implements Serializable {
 
         if(perm) info = info + "\nTrade type: permanent trade";
         else info = info + "\nTrade type: temporary trade";
+        if (cycle != null) info = info + "\nPart of the trade cycle: " + String.join(" -> ", cycle);
+        if (accepted) info = info + "\nAccepted, waiting for the rest of the cycle";
         return info;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("userA", getUserA());
+        fields.put("userB", getUserB());
+        fields.put("itemA", itemA);
+        fields.put("itemB", itemB);
+        fields.put("perm", perm);
+        fields.put("date", date);
+        fields.put("place", place);
+        fields.put("numberOfEditA", numberOfEditA);
+        fields.put("numberOfEditB", numberOfEditB);
+        fields.put("cycle", cycle);
+        fields.put("cycleId", cycleId);
+        fields.put("accepted", accepted);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        userA = usernames().intern((String) fields.get("userA", null));
+        userB = usernames().intern((String) fields.get("userB", null));
+        itemA = (List<Item>) fields.get("itemA", null);
+        itemB = (List<Item>) fields.get("itemB", null);
+        perm = fields.get("perm", false);
+        date = (LocalDateTime) fields.get("date", null);
+        place = (String) fields.get("place", "");
+        numberOfEditA = fields.get("numberOfEditA", 3);
+        numberOfEditB = fields.get("numberOfEditB", 3);
+        cycle = (List<String>) fields.get("cycle", null);
+        cycleId = fields.get("cycleId", 0L);
+        accepted = fields.get("accepted", false);
+    }
 }
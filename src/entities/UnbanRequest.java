@@ -3,14 +3,17 @@ package entities;
 import java.io.Serializable;
 
 public class UnbanRequest extends Request implements Serializable {
+    private static final long serialVersionUID = 8292242166146027646L;
+
     /**
      * Class constructor.
      * A message sent to the Admins from a user that request to be unbanned from the system
      * @param content is the content of the message
      * @param username the username of the user that is requesting to be unbanned
+     * @param usernames the table the sender's username is kept in
      */
-    public UnbanRequest(String content, String username){
-        super(content, new String[]{"Unban", "Ignore"}, username);
+    public UnbanRequest(String content, String username, UsernameTable usernames){
+        super(content, new String[]{"Unban", "Ignore"}, username, usernames);
     }
 
     /**
@@ -3,15 +3,17 @@ package entities;
 import java.io.Serializable;
 
 public class UnfreezeRequest extends Request implements Serializable {
+    private static final long serialVersionUID = -2677593281875395216L;
 
     /**
      * Class constructor.
      * A message sent to a Admin from a User that request to unfreeze themselves
      * @param content is the content of the message
      * @param username is the user wanted to be unfrozen's username
+     * @param usernames the table the sender's username is kept in
      */
-    public UnfreezeRequest(String content, String username) {
-        super(content, new String[]{"Unfreeze", "Ignore"}, username);
+    public UnfreezeRequest(String content, String username, UsernameTable usernames) {
+        super(content, new String[]{"Unfreeze", "Ignore"}, username, usernames);
     }
 
     /**
@@ -1,24 +1,46 @@
 package entities;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.io.Serializable;
 
 public class User extends Account implements Serializable{
+    /**
+     * The number of private messages a user can send in an hour, unless an admin changed it
+     */
+    public static final int DEFAULT_MESSAGES_PER_HOUR = 30;
+    /**
+     * The number of trade requests a user can send in an hour, unless an admin changed it
+     */
+    public static final int DEFAULT_TRADE_REQUESTS_PER_HOUR = 10;
+
+    // the users file written before the hourly limits were added still reads
+    private static final long serialVersionUID = 4520759959829397530L;
+
     private List<Message> messages = new ArrayList<>();
     private Status status = Status.UNFROZEN;
+    // the limits an admin set for this user only, which only count while limitGenerations says so
     private int tradePerWeek = 5;
     private int threshold = 1;
     private int limitOfIncompleteTrade = 5;
+    // 0 for users read from a file written before the hourly limits were added, who have the defaults
+    private int messagesPerHour = DEFAULT_MESSAGES_PER_HOUR;
+    private int tradeRequestsPerHour = DEFAULT_TRADE_REQUESTS_PER_HOUR;
+    // by limit, the generation of the limit for every user that this user's own limit was set in, or -1 if it was
+    // never set; null for users read from a file written before the limits for every user were kept apart, whose
+    // own limits were all set in the first generation
+    private int[] limitGenerations = newLimitGenerations();
 
 
     /**
      * Class constructor.
      * Creates an User with the given username and password.
-     * This User has the default values:
+     * This User has the limits of every user until an admin sets their own, by default:
      * - Limit of 5 trades per week
      * - Must have 1 more lent than borrow in their trade history
      * - Limit of 5 incomplete trades at once
+     * - Limit of 30 private messages and 10 trade requests sent per hour
      * @param username is the username of this User
      * @param password is the password of this User
      */
@@ -27,27 +49,35 @@ public class User extends Account implements Serializable{
     }
 
     /**
-     * Getter of the threshold (how many more times must you lend items before you can borrow) value of this user
-     * @return the threshold value
+     * Getter of a limit of this user, their own one if an admin set it after the limit last changed for every user
+     * @param limit the limit
+     * @param limits the limits of every user
+     * @return the value of this limit for this user
      */
-    public int getThreshold() {
-        return threshold;
+    public int getLimit(UserLimits.Limit limit, UserLimits limits) {
+        int generation = limitGenerations == null ? 0 : limitGenerations[limit.ordinal()];
+        int own = ownLimit(limit);
+        // an own limit below the minimum was never set, like the hourly limits of the oldest files
+        return generation == limits.getGeneration(limit) && own >= limit.getMinimum() ? own : limits.get(limit);
     }
 
     /**
-     * Getter of the limit of imcomplete trades this user can have
-     * @return the value of the limit of imcomplete trades
+     * Changing a limit for this user only, until it is changed for every user
+     * @param limit the limit
+     * @param value the new value, raised to the minimum of the limit
+     * @param limits the limits of every user
      */
-    public int getLimitOfIncompleteTrade() {
-        return limitOfIncompleteTrade;
-    }
-
-    /**
-     * Getter of the limited of times the user can trade in a week of this account
-     * @return the limited of times the user can trade of this account
-     */
-    public int getTradePerWeek(){
-        return tradePerWeek;
+    public void setLimit(UserLimits.Limit limit, int value, UserLimits limits) {
+        value = Math.max(limit.getMinimum(), value);
+        switch (limit) {
+            case TRADES_PER_WEEK: tradePerWeek = value; break;
+            case INCOMPLETE_TRADES: limitOfIncompleteTrade = value; break;
+            case THRESHOLD: threshold = value; break;
+            case MESSAGES_PER_HOUR: messagesPerHour = value; break;
+            case TRADE_REQUESTS_PER_HOUR: tradeRequestsPerHour = value; break;
+        }
+        if (limitGenerations == null) limitGenerations = new int[UserLimits.Limit.values().length];
+        limitGenerations[limit.ordinal()] = limits.getGeneration(limit);
     }
 
     /**
@@ -112,37 +142,15 @@ public class User extends Account implements Serializable{
         this.messages = messages;
     }
 
-    /**
-     * Changing the threshold (how many more times must you lend items before you can borrow) that this user has
-     * @param newThreshold the new theshold value
-     */
-    public void setThreshold(int newThreshold){
-        threshold = newThreshold;
-    }
-
-    /**
-     * Changing the limit of incomplete trades this user can have
-     * @param newLimit the new limit
-     */
-    public void setLimitOfIncompleteTrade(int newLimit){
-        limitOfIncompleteTrade = newLimit;
-    }
-
-    /**
-     * Changing the limited of times that this user can trade in a week
-     * @param tradePerWeek the new trade per week value
-     */
-    public void setTradePerWeek(int tradePerWeek){
-        this.tradePerWeek = tradePerWeek;
-    }
-
     /**
      * Returns all the information of this account information all at once in a string representation
+     * @param limits the limits of every user
      * @return the string representation of all information in this account
      */
-    public String accountInfo(){
+    public String accountInfo(UserLimits limits){
         String info = String.format("   ----- Account info for %s -----", this.toString());
-        info = String.format("%s\n Current lend until borrow threshold: %d", info, this.threshold);
+        info = String.format("%s\n Current lend until borrow threshold: %d", info,
+                getLimit(UserLimits.Limit.THRESHOLD, limits));
         switch (status){
             case BANNED:
                 info = String.format("%s\n Status: BANNED", info);
@@ -154,9 +162,30 @@ public class User extends Account implements Serializable{
                 info = String.format("%s\n Status: FROZEN", info);
                 break;
         }
-        info = String.format("%s\n Limit for trades per week: %d", info, this.tradePerWeek);
-        info = String.format("%s\n Limit for incomplete trades per week: %d", info, this.limitOfIncompleteTrade);
+        info = String.format("%s\n Limit for trades per week: %d", info,
+                getLimit(UserLimits.Limit.TRADES_PER_WEEK, limits));
+        info = String.format("%s\n Limit for incomplete trades per week: %d", info,
+                getLimit(UserLimits.Limit.INCOMPLETE_TRADES, limits));
+        info = String.format("%s\n Limit for messages per hour: %d", info,
+                getLimit(UserLimits.Limit.MESSAGES_PER_HOUR, limits));
+        info = String.format("%s\n Limit for trade requests per hour: %d", info,
+                getLimit(UserLimits.Limit.TRADE_REQUESTS_PER_HOUR, limits));
         return info;
     }
-}
 
+    private int ownLimit(UserLimits.Limit limit) {
+        switch (limit) {
+            case TRADES_PER_WEEK: return tradePerWeek;
+            case INCOMPLETE_TRADES: return limitOfIncompleteTrade;
+            case THRESHOLD: return threshold;
+            case MESSAGES_PER_HOUR: return messagesPerHour;
+            default: return tradeRequestsPerHour;
+        }
+    }
+
+    private static int[] newLimitGenerations() {
+        int[] generations = new int[UserLimits.Limit.values().length];
+        Arrays.fill(generations, -1);
+        return generations;
+    }
+}
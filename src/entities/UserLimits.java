@@ -0,0 +1,77 @@
+package entities;
+
+import java.io.Serializable;
+
+/**
+ * The limits every user has unless an admin set their own. Changing a limit for every user starts a new generation
+ * of that limit, and the limits of single users set before then no longer count, so it takes constant time however
+ * many users there are, instead of reading and writing every one of them.
+ */
+public class UserLimits implements Serializable {
+    /**
+     * The limits a user has, with their values before an admin changes them
+     */
+    public enum Limit {
+        TRADES_PER_WEEK(5, Integer.MIN_VALUE),
+        INCOMPLETE_TRADES(5, Integer.MIN_VALUE),
+        THRESHOLD(1, Integer.MIN_VALUE),
+        MESSAGES_PER_HOUR(User.DEFAULT_MESSAGES_PER_HOUR, 1),
+        TRADE_REQUESTS_PER_HOUR(User.DEFAULT_TRADE_REQUESTS_PER_HOUR, 1);
+
+        private final int defaultValue;
+        private final int minimum;
+
+        Limit(int defaultValue, int minimum) {
+            this.defaultValue = defaultValue;
+            this.minimum = minimum;
+        }
+
+        /**
+         * @return the value of this limit until an admin changes it
+         */
+        public int getDefaultValue() { return defaultValue; }
+
+        /**
+         * @return the smallest value this limit can be set to
+         */
+        public int getMinimum() { return minimum; }
+    }
+
+    private final int[] values = new int[Limit.values().length];
+    private final int[] generations = new int[Limit.values().length];
+
+    /**
+     * Creates the limits of a system where no admin changed them yet
+     */
+    public UserLimits() {
+        for (Limit limit : Limit.values()) values[limit.ordinal()] = limit.getDefaultValue();
+    }
+
+    /**
+     * Getter for the value of a limit for every user who does not have their own
+     * @param limit the limit
+     * @return the value of this limit
+     */
+    public int get(Limit limit) {
+        return values[limit.ordinal()];
+    }
+
+    /**
+     * Getter for the generation of a limit, how many times it was changed for every user
+     * @param limit the limit
+     * @return the generation of this limit
+     */
+    public int getGeneration(Limit limit) {
+        return generations[limit.ordinal()];
+    }
+
+    /**
+     * Changes a limit for every user, including the ones who had their own
+     * @param limit the limit
+     * @param value the new value, raised to the minimum of the limit
+     */
+    public void set(Limit limit, int value) {
+        values[limit.ordinal()] = Math.max(limit.getMinimum(), value);
+        generations[limit.ordinal()]++;
+    }
+}
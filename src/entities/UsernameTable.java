@@ -0,0 +1,146 @@
+package entities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The symbol table that gives every username a dense int ID, starting at 0 in the order names are first seen.
+ * Entities store these IDs instead of the username Strings, together with the table they come from, and only turn
+ * them back into names when asked for one; their serialized form still holds the names, which are interned again
+ * into the table of the stream they are read from (see objectInput()).
+ * Because the IDs are dense they can be used as indexes into arrays and BitSets of users.
+ * Looking up a name or an ID never locks: the names are published as an immutable snapshot that adding a name
+ * replaces, and only adding a name is synchronized.
+ */
+public final class UsernameTable {
+    /**
+     * The ID standing for no username (a null name)
+     */
+    public static final int NONE = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Names names = new Names(new String[64], 0);
+
+    /**
+     * Creates an empty table
+     */
+    public UsernameTable() {}
+
+    /**
+     * Creates a table holding the usernames of a saved table, each one with the ID it was saved with
+     * @param usernames the usernames in the order of their IDs
+     */
+    public UsernameTable(List<String> usernames) {
+        for (String username : usernames) intern(username);
+    }
+
+    /**
+     * Returns the ID of a username, giving it the next free ID if it has none yet
+     * @param username the username
+     * @return the ID of this username, or NONE if the username is null
+     */
+    public int intern(String username) {
+        if (username == null) return NONE;
+        Integer id = ids.get(username);
+        return id != null ? id : add(username);
+    }
+
+    /**
+     * Returns the ID of a username without adding it to the table
+     * @param username the username
+     * @return the ID of this username, or NONE if it has no ID
+     */
+    public int idOf(String username) {
+        if (username == null) return NONE;
+        Integer id = ids.get(username);
+        return id == null ? NONE : id;
+    }
+
+    /**
+     * Returns the username of an ID
+     * @param id the ID
+     * @return the username with this ID, or null for NONE
+     */
+    public String name(int id) {
+        if (id == NONE) return null;
+        Names current = names;
+        if (id < 0 || id >= current.size) throw new IllegalArgumentException("Unknown username ID: " + id);
+        return current.array[id];
+    }
+
+    /**
+     * @return the number of usernames in the table, every ID is below this number
+     */
+    public int size() { return names.size; }
+
+    /**
+     * Getter for every username in the table, in the order of their IDs, for saving the table
+     * @return a list where the username with ID i is at index i
+     */
+    public List<String> getUsernames() {
+        Names current = names;
+        return new ArrayList<>(Arrays.asList(current.array).subList(0, current.size));
+    }
+
+    /**
+     * Wraps a stream of serialized entities so that the usernames they hold are interned into this table
+     * @param in the stream to read the entities from
+     * @return the stream to read the entities with
+     * @throws IOException If the stream header cannot be read
+     */
+    public ObjectInputStream objectInput(InputStream in) throws IOException {
+        return new Input(in, this);
+    }
+
+    /**
+     * Getter for the table of a stream created by objectInput(), for the entities read from it
+     * @param in the stream an entity is read from
+     * @return the table of this stream
+     * @throws InvalidObjectException If the stream was not created by objectInput()
+     */
+    static UsernameTable of(ObjectInputStream in) throws InvalidObjectException {
+        if (!(in instanceof Input)) {
+            throw new InvalidObjectException("Entities with usernames must be read through UsernameTable.objectInput");
+        }
+        return ((Input) in).usernames;
+    }
+
+    private synchronized int add(String username) {
+        Integer id = ids.get(username);
+        if (id != null) return id;
+        // the names below the size of a snapshot never change, so the next snapshot shares the array until it is full
+        Names current = names;
+        String[] array = current.array;
+        if (current.size == array.length) array = Arrays.copyOf(array, array.length * 2);
+        array[current.size] = username;
+        // published before the ID, so whoever finds the ID also finds the name
+        names = new Names(array, current.size + 1);
+        ids.put(username, current.size);
+        return current.size;
+    }
+
+    private static final class Names {
+        private final String[] array;
+        private final int size;
+
+        private Names(String[] array, int size) {
+            this.array = array;
+            this.size = size;
+        }
+    }
+
+    private static final class Input extends ObjectInputStream {
+        private final UsernameTable usernames;
+
+        private Input(InputStream in, UsernameTable usernames) throws IOException {
+            super(in);
+            this.usernames = usernames;
+        }
+    }
+}
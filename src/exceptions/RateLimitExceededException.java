@@ -0,0 +1,22 @@
+package exceptions;
+
+public class RateLimitExceededException extends Exception {
+    private final long retryAfterMillis;
+
+    /**
+     * Class constructor.
+     * Thrown when a user sends too many messages of a kind too quickly
+     * @param retryAfterMillis the time until the user can send one again, in milliseconds
+     */
+    public RateLimitExceededException(long retryAfterMillis) {
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Getter for the time until the user can send one again
+     * @return the time in milliseconds
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -1,6 +1,8 @@
 package frontend.adminGUI.listeners;
 
+import entities.AuditEntry;
 import frontend.adminGUI.presenters.AdminBrowsingUsersPresenter;
+import frontend.popUp.AutocompletePopUp;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -10,8 +12,12 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
+import use_cases.AuditLogManager;
+import use_cases.FuzzyLookup;
 import use_cases.GlobalInventoryManager;
+import use_cases.ReputationTracker;
 import use_cases.UserManager;
+import use_cases.UsernameCompleter;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -27,8 +33,12 @@ public class AdminBrowsingUsersController implements Initializable {
     @FXML private Button banButton;
     @FXML private Button weeklyButton;
     @FXML private Button incompleteButton;
+    @FXML private Button messageLimitButton;
+    @FXML private Button tradeRequestLimitButton;
     @FXML private Button optionButton;
     @FXML private Button undoButton;
+    @FXML private Button reliableButton;
+    @FXML private Button historyButton;
     @FXML private Label mainLabel;
     @FXML private Label userLabel;
     @FXML private Label allLabel;
@@ -37,10 +47,20 @@ public class AdminBrowsingUsersController implements Initializable {
     private UserManager users;
     private AdminBrowsingUsersPresenter browse;
     private GlobalInventoryManager globalinventory;
+    private FuzzyLookup fuzzyLookup;
+    private UsernameCompleter usernameCompleter;
+    private ReputationTracker reputationTracker;
+    private AuditLogManager auditLogManager;
+    private String admin;
+    private final int reliableShown = 10;
+    private final int historyDays = 30;
+    private final int historyShown = 8;
     private String user = "";
     private boolean lendingLimit = false;
     private boolean weeklyLimit = false;
     private boolean incompleteLimit = false;
+    private boolean messageLimit = false;
+    private boolean tradeRequestLimit = false;
     private boolean allLimit;
 
     /**
@@ -48,8 +68,21 @@ public class AdminBrowsingUsersController implements Initializable {
      *
      * @param system usermanager instance
      * @param globalinventory globalinventory instance
+     * @param fuzzyLookup fuzzyLookup instance, to suggest usernames when one is not found
+     * @param usernameCompleter usernameCompleter instance, to complete usernames as they are typed
+     * @param reputationTracker reputationTracker instance, to show how reliable users have been
+     * @param auditLogManager auditLogManager instance, to record the changes made and show the ones made lately
+     * @param admin the username of the admin making the changes
      */
-    public AdminBrowsingUsersController(UserManager system, GlobalInventoryManager globalinventory) {
+    public AdminBrowsingUsersController(UserManager system, GlobalInventoryManager globalinventory,
+                                        FuzzyLookup fuzzyLookup, UsernameCompleter usernameCompleter,
+                                        ReputationTracker reputationTracker, AuditLogManager auditLogManager,
+                                        String admin) {
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
+        this.reputationTracker = reputationTracker;
+        this.fuzzyLookup = fuzzyLookup;
+        this.usernameCompleter = usernameCompleter;
         this.browse = new AdminBrowsingUsersPresenter();
         this.users = system;
         this.globalinventory = globalinventory;
@@ -66,21 +99,27 @@ public class AdminBrowsingUsersController implements Initializable {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         userLabel.setText(browse.enterUsername());
+        new AutocompletePopUp(usernameText, usernameCompleter::complete);
         searchButton.setText(browse.searchText());
         banButton.setText(browse.banUnbanText());
         freezeButton.setText(browse.freezeText());
         weeklyButton.setText(browse.weeklyText());
         incompleteButton.setText(browse.incompleteText());
         lendingButton.setText(browse.lendingText());
+        messageLimitButton.setText(browse.messageLimitText());
+        tradeRequestLimitButton.setText(browse.tradeRequestLimitText());
         optionButton.setText(browse.enterText());
         exitButton.setText(browse.exitText());
         undoButton.setText(browse.undoText());
+        reliableButton.setText(browse.reliableText());
+        historyButton.setText(browse.historyText());
         allLabel.setText(browse.thresholdText());
         usernameLabel.setText(browse.enterUsername());
 
         allLimit = true;
         allLabel.setVisible(true);
         undoButton.setVisible(false);
+        historyButton.setVisible(false);
         freezeButton.setVisible(false);
         banButton.setVisible(false);
         userLabel.setVisible(false);
@@ -90,9 +129,13 @@ public class AdminBrowsingUsersController implements Initializable {
         lendingButton.setOnAction(e -> lending());
         freezeButton.setOnAction(e -> freeze());
         searchButton.setOnAction(e -> search());
+        reliableButton.setOnAction(e -> mostReliable());
+        historyButton.setOnAction(e -> history());
         banButton.setOnAction(e -> ban());
         weeklyButton.setOnAction(e -> weeklyLimit());
         incompleteButton.setOnAction(e -> incompleteLimit());
+        messageLimitButton.setOnAction(e -> messageLimit());
+        tradeRequestLimitButton.setOnAction(e -> tradeRequestLimit());
         optionButton.setOnAction(e -> optionInput());
         allLabel.setAlignment(Pos.CENTER);
         usernameLabel.setAlignment(Pos.CENTER);
@@ -106,26 +149,48 @@ public class AdminBrowsingUsersController implements Initializable {
             user = input;
             allLabel.setVisible(false);
             undoButton.setVisible(true);
+            historyButton.setVisible(true);
             lendingButton.setVisible(true);
             freezeButton.setVisible(true);
             weeklyButton.setVisible(true);
             incompleteButton.setVisible(true);
             banButton.setVisible(true);
-            userLabel.setText(users.getUserInfo(user));
+            userLabel.setText(userInfo());
             userLabel.setVisible(true);
             mainLabel.setText(browse.optionPrompt());
         } else {
-            mainLabel.setText(browse.invalidName());
+            mainLabel.setText(browse.invalidName(fuzzyLookup.suggestUsernames(input)));
         }
         mainLabel.setAlignment(Pos.CENTER);
 
     }
 
 
+    @FXML
+    private void mostReliable() {
+        userLabel.setText(browse.mostReliable(reputationTracker.mostReliable(reliableShown)));
+        userLabel.setVisible(true);
+        mainLabel.setText("");
+    }
+
+    @FXML
+    private void history() {
+        userLabel.setText(browse.auditHistory(auditLogManager.getRecentActionsOn(user, historyDays, historyShown),
+                historyDays));
+        userLabel.setVisible(true);
+        mainLabel.setText("");
+    }
+
+    private String userInfo() {
+        return users.getUserInfo(user) + "\n" + browse.reputation(reputationTracker.getReputation(user));
+    }
+
     @FXML
     private void incompleteLimit() {
         mainLabel.setText(browse.enterValuePrompt());
         incompleteLimit = true;
+        messageLimit = false;
+        tradeRequestLimit = false;
         mainLabel.setAlignment(Pos.CENTER);
     }
 
@@ -133,6 +198,24 @@ public class AdminBrowsingUsersController implements Initializable {
     private void weeklyLimit() {
         mainLabel.setText(browse.enterValuePrompt());
         weeklyLimit = true;
+        messageLimit = false;
+        tradeRequestLimit = false;
+        mainLabel.setAlignment(Pos.CENTER);
+    }
+
+    @FXML
+    private void messageLimit() {
+        mainLabel.setText(browse.enterValuePrompt());
+        messageLimit = true;
+        tradeRequestLimit = false;
+        mainLabel.setAlignment(Pos.CENTER);
+    }
+
+    @FXML
+    private void tradeRequestLimit() {
+        mainLabel.setText(browse.enterValuePrompt());
+        tradeRequestLimit = true;
+        messageLimit = false;
         mainLabel.setAlignment(Pos.CENTER);
     }
 
@@ -140,11 +223,13 @@ public class AdminBrowsingUsersController implements Initializable {
     private void ban() {
         if (users.getUserIsBanned(user)) {
             users.unFreezeUserAccount(user);
+            auditLogManager.record(admin, AuditEntry.Action.UNBAN, user, "");
         } else {
             users.banUserAccount(user);
+            auditLogManager.record(admin, AuditEntry.Action.BAN, user, "");
         }
         mainLabel.setText(browse.banStateChangeSuccess());
-        userLabel.setText(users.getUserInfo(user));
+        userLabel.setText(userInfo());
         mainLabel.setAlignment(Pos.CENTER);
     }
 
@@ -152,11 +237,13 @@ public class AdminBrowsingUsersController implements Initializable {
     private void freeze() {
         if (users.getUserFrozenStatus(user)) {
             users.unFreezeUserAccount(user);
+            auditLogManager.record(admin, AuditEntry.Action.UNFREEZE, user, "");
         } else {
             users.freezeUserAccount(user);
+            auditLogManager.record(admin, AuditEntry.Action.FREEZE, user, "");
         }
         mainLabel.setText(browse.freezeStateChangeSuccess());
-        userLabel.setText(users.getUserInfo(user));
+        userLabel.setText(userInfo());
         mainLabel.setAlignment(Pos.CENTER);
     }
 
@@ -164,12 +251,15 @@ public class AdminBrowsingUsersController implements Initializable {
     private void lending() {
         mainLabel.setText(browse.enterValuePrompt());
         lendingLimit = true;
+        messageLimit = false;
+        tradeRequestLimit = false;
         mainLabel.setAlignment(Pos.CENTER);
     }
 
     @FXML
     private void undoDelete() {
         globalinventory.undoDeleteItem(user);
+        auditLogManager.record(admin, AuditEntry.Action.RESTORE_ITEM, user, "");
         mainLabel.setText(browse.deletedItemRestored());
         mainLabel.setAlignment(Pos.CENTER);
     }
@@ -177,40 +267,70 @@ public class AdminBrowsingUsersController implements Initializable {
     @FXML
     private void optionInput() {
         String limit = optionText.getText();
-        if (limit.matches("\\d+")) {
+        if (limit.matches("\\d+") && (messageLimit || tradeRequestLimit)) {
+            // the hourly limits are checked first, as choosing one of them is the last thing the admin did
+            if (Integer.parseInt(limit) < 1) mainLabel.setText(browse.wrongFormat());
+            else if (messageLimit) {
+                if (allLimit) users.setMessagesPerHour(Integer.parseInt(limit));
+                else users.setMessagesPerHourForOneUser(user, Integer.parseInt(limit));
+                limitChanged("messages per hour", limit);
+                mainLabel.setText(browse.messageLimitChangeSuccess());
+            } else {
+                if (allLimit) users.setTradeRequestsPerHour(Integer.parseInt(limit));
+                else users.setTradeRequestsPerHourForOneUser(user, Integer.parseInt(limit));
+                limitChanged("trade requests per hour", limit);
+                mainLabel.setText(browse.tradeRequestLimitChangeSuccess());
+            }
+            messageLimit = false;
+            tradeRequestLimit = false;
+            if (!allLimit) userLabel.setText(userInfo());
+        }
+        else if (limit.matches("\\d+")) {
             if (allLimit && weeklyLimit) {
                 users.setWeeklyTrades(Integer.parseInt(limit));
+                limitChanged("weekly trades", limit);
                 mainLabel.setText(browse.weeklyLimitChangeSuccess());
             }
             else if (allLimit && incompleteLimit) {
                 users.setLimitOfIncompleteTrades(Integer.parseInt(limit));
+                limitChanged("incomplete trades", limit);
                 mainLabel.setText(browse.incompleteLimitChangeSuccess());
             }
             else if (allLimit && lendingLimit) {
                 users.setNewThreshold(Integer.parseInt(limit));
+                limitChanged("lending threshold", limit);
                 mainLabel.setText(browse.incompleteLimitChangeSuccess());
                 mainLabel.setText(browse.thresholdChangeSuccess());
             }
             else if (weeklyLimit) {
                 users.setWeeklyTradesForOneUser(user, Integer.parseInt(limit));
+                limitChanged("weekly trades", limit);
                 mainLabel.setText(browse.weeklyLimitChangeSuccess());
                 incompleteLimit = false;
-                userLabel.setText(users.getUserInfo(user));
+                userLabel.setText(userInfo());
             } else if (incompleteLimit) {
                 users.setLimitOfIncompleteTradesForOneUser(user, Integer.parseInt(limit));
+                limitChanged("incomplete trades", limit);
                 mainLabel.setText(browse.incompleteLimitChangeSuccess());
                 incompleteLimit = false;
-                userLabel.setText(users.getUserInfo(user));
+                userLabel.setText(userInfo());
             } else if (lendingLimit) {
                 users.setNewThresholdForOneUser(user, Integer.parseInt(limit));
+                limitChanged("lending threshold", limit);
                 mainLabel.setText(browse.thresholdChangeSuccess());
                 lendingLimit = false;
-                userLabel.setText(users.getUserInfo(user));
+                userLabel.setText(userInfo());
             }
         }
         else { mainLabel.setText(browse.wrongFormat());}
         mainLabel.setAlignment(Pos.CENTER);
     }
+
+    // records a change of a limit, of every user when no user was searched for
+    private void limitChanged(String limitName, String value) {
+        auditLogManager.record(admin, AuditEntry.Action.CHANGE_LIMIT, allLimit ? AuditEntry.ALL_USERS : user,
+                limitName + " = " + value);
+    }
         @FXML
         private void exit (ActionEvent actionEvent){
             Stage window = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
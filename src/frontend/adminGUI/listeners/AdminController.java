@@ -2,6 +2,7 @@ package frontend.adminGUI.listeners;
 import entities.Admin;
 import frontend.adminGUI.presenters.AdminGUIPresenter;
 import frontend.messageReplyGUI.listeners.AdminMessageReplyGUI;
+import frontend.tradeGUI.listeners.TradeCycleMenuController;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -14,8 +15,16 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import use_cases.AdminManager;
+import use_cases.AuditLogManager;
+import use_cases.DuplicateItemIndex;
+import use_cases.FuzzyLookup;
+import use_cases.ReputationTracker;
+import use_cases.UsernameCompleter;
 import use_cases.GlobalInventoryManager;
+import use_cases.MeetingScheduler;
+import use_cases.TradeCycleFinder;
 import use_cases.TradeManager;
+import use_cases.TradeNetworkAnalyzer;
 import use_cases.UserManager;
 
 import java.io.IOException;
@@ -28,12 +37,22 @@ public class AdminController implements Initializable{
     @FXML private Button manageAdminAccountButton;
     @FXML private Button userBrowsingButton;
     @FXML private Button tradeUndoButton;
+    @FXML private Button tradeCycleButton;
+    @FXML private Button tradeNetworkButton;
     @FXML private Button exitButton;
     private Admin admin;
 
     AdminGUIPresenter adminGUIPresenter;
     private AdminManager adminManager;
     private TradeManager tradeManager;
+    private TradeCycleFinder tradeCycleFinder;
+    private DuplicateItemIndex duplicateItemIndex;
+    private FuzzyLookup fuzzyLookup;
+    private UsernameCompleter usernameCompleter;
+    private ReputationTracker reputationTracker;
+    private TradeNetworkAnalyzer tradeNetworkAnalyzer;
+    private AuditLogManager auditLogManager;
+    private MeetingScheduler meetingScheduler;
 
 
     private UserManager userManager;
@@ -44,6 +63,8 @@ public class AdminController implements Initializable{
     private String TradeUndoFXML = "/frontend/adminGUI/fxml_files/TradeUndoMenu.fxml";
     private String AdminMessageGUI = "/frontend/messageReplyGUI/fxml_files/MessageGUI.fxml";
     private String AdminBrowsing = "/frontend/adminGUI/fxml_files/AdminBrowsingUsers.fxml";
+    private String TradeCycleFXML = "/frontend/tradeGUI/fxml_files/TradeCycleMenu.fxml";
+    private String TradeNetworkFXML = "/frontend/adminGUI/fxml_files/TradeNetwork.fxml";
     /**
      * Class constructor.
      * Create a new AdminSystem that allows admins to manage their message, to manage admin accounts, to manage User
@@ -53,18 +74,38 @@ public class AdminController implements Initializable{
      * @param userManager the UserManager will be used to change user account information
      * @param globalInventoryManager the GlobalInventory will be used to change item in GlobalInventory
      * @param tradeManager the TradeManager will be used to modify the on-going trades.
+     * @param tradeCycleFinder the TradeCycleFinder will be used to propose trade cycles to Users.
+     * @param duplicateItemIndex the DuplicateItemIndex will be used to show duplicates of new items.
+     * @param fuzzyLookup the FuzzyLookup will be used to suggest usernames when browsing users.
+     * @param usernameCompleter the UsernameCompleter will be used to complete usernames when browsing users.
+     * @param reputationTracker the ReputationTracker will be used to show how reliable users are when browsing users.
+     * @param tradeNetworkAnalyzer the TradeNetworkAnalyzer will be used to show who trades with whom.
+     * @param auditLogManager the AuditLogManager will be used to record what the admin does, and to show it.
+     * @param meetingScheduler the MeetingScheduler will be used to check the meetings of proposed trade cycles.
      */
 
 
 
     public AdminController(Admin admin, AdminManager adminManager,
-                       UserManager userManager, GlobalInventoryManager globalInventoryManager, TradeManager tradeManager) {
+                       UserManager userManager, GlobalInventoryManager globalInventoryManager, TradeManager tradeManager,
+                       TradeCycleFinder tradeCycleFinder, DuplicateItemIndex duplicateItemIndex,
+                       FuzzyLookup fuzzyLookup, UsernameCompleter usernameCompleter,
+                       ReputationTracker reputationTracker, TradeNetworkAnalyzer tradeNetworkAnalyzer,
+                       AuditLogManager auditLogManager, MeetingScheduler meetingScheduler) {
         this.admin = admin;
 
         this.adminManager = adminManager;
         this.userManager = userManager;
         this.globalInventoryManager = globalInventoryManager;
         this.tradeManager = tradeManager;
+        this.tradeCycleFinder = tradeCycleFinder;
+        this.duplicateItemIndex = duplicateItemIndex;
+        this.fuzzyLookup = fuzzyLookup;
+        this.usernameCompleter = usernameCompleter;
+        this.reputationTracker = reputationTracker;
+        this.tradeNetworkAnalyzer = tradeNetworkAnalyzer;
+        this.auditLogManager = auditLogManager;
+        this.meetingScheduler = meetingScheduler;
         adminGUIPresenter = new AdminGUIPresenter();
 
 
@@ -81,7 +122,7 @@ public class AdminController implements Initializable{
         FXMLLoader loader = new FXMLLoader(getClass().getResource(AdminMessageGUI));
 
         loader.setController(new AdminMessageReplyGUI(adminManager,globalInventoryManager,
-                userManager, admin.getUsername()));
+                userManager, admin.getUsername(), duplicateItemIndex, auditLogManager));
         window.initStyle(StageStyle.UNDECORATED);
 
         Parent parent = loader.load();
@@ -130,7 +171,8 @@ public class AdminController implements Initializable{
         FXMLLoader loader = new FXMLLoader(getClass().getResource(AdminBrowsing)
         );
 
-        loader.setController(new AdminBrowsingUsersController(userManager, globalInventoryManager));
+        loader.setController(new AdminBrowsingUsersController(userManager, globalInventoryManager, fuzzyLookup,
+                usernameCompleter, reputationTracker, auditLogManager, admin.getUsername()));
 
         Parent parent = loader.load();
         Scene scene = new Scene(parent);
@@ -151,7 +193,8 @@ public class AdminController implements Initializable{
         window.initStyle(StageStyle.UNDECORATED);
         FXMLLoader loader = new FXMLLoader(getClass().getResource(TradeUndoFXML));
 
-        loader.setController(new TradeUndoController(tradeManager, userManager));
+        loader.setController(new TradeUndoController(tradeManager, userManager, auditLogManager,
+                admin.getUsername()));
 
         Parent parent = loader.load();
         Scene scene = new Scene(parent);
@@ -168,6 +211,47 @@ public class AdminController implements Initializable{
 
 
 
+    private void tradeCycleButtonPushed(ActionEvent actionEvent) throws IOException {
+        Stage window = new Stage();
+        window.initModality(Modality.APPLICATION_MODAL);
+        window.setTitle(adminGUIPresenter.tradeCycleWindow());
+        window.setMinWidth(600);
+        window.setMinHeight(400);
+        window.initStyle(StageStyle.UNDECORATED);
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(TradeCycleFXML));
+
+        loader.setController(new TradeCycleMenuController(tradeCycleFinder, userManager, null, admin.getUsername(),
+                meetingScheduler));
+
+        Parent parent = loader.load();
+        Scene scene = new Scene(parent);
+
+        window.setScene(scene);
+
+        window.show();
+
+    }
+
+    private void tradeNetworkButtonPushed(ActionEvent actionEvent) throws IOException {
+        Stage window = new Stage();
+        window.initModality(Modality.APPLICATION_MODAL);
+        window.setTitle(adminGUIPresenter.tradeNetworkWindow());
+        window.setMinWidth(600);
+        window.setMinHeight(400);
+        window.initStyle(StageStyle.UNDECORATED);
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(TradeNetworkFXML));
+
+        loader.setController(new AdminTradeNetworkController(tradeNetworkAnalyzer));
+
+        Parent parent = loader.load();
+        Scene scene = new Scene(parent);
+
+        window.setScene(scene);
+
+        window.show();
+
+    }
+
     private void close(ActionEvent actionEvent){
         Stage window = (Stage)((Node)actionEvent.getSource()).getScene().getWindow();
         window.close();
@@ -184,6 +268,8 @@ public class AdminController implements Initializable{
         manageAdminAccountButton.setText(adminGUIPresenter.adminAccountButton());
         userBrowsingButton.setText(adminGUIPresenter.userBrowsingButton());
         tradeUndoButton.setText(adminGUIPresenter.tradeUndoButton());
+        tradeCycleButton.setText(adminGUIPresenter.tradeCycleButton());
+        tradeNetworkButton.setText(adminGUIPresenter.tradeNetworkButton());
         messageInboxButton.setOnAction(e -> {
             try {
                 messageInboxButtonPushed(e);
@@ -208,6 +294,22 @@ public class AdminController implements Initializable{
             }
         });
 
+        tradeCycleButton.setOnAction(e -> {
+            try {
+                tradeCycleButtonPushed(e);
+            } catch (IOException ioException) {
+                ioException.printStackTrace();
+            }
+        });
+
+        tradeNetworkButton.setOnAction(e -> {
+            try {
+                tradeNetworkButtonPushed(e);
+            } catch (IOException ioException) {
+                ioException.printStackTrace();
+            }
+        });
+
         userBrowsingButton.setOnAction(e -> {
             try {
                 userBrowsingButtonPushed(e);
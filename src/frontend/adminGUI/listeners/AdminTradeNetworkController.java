@@ -0,0 +1,72 @@
+package frontend.adminGUI.listeners;
+
+import frontend.adminGUI.presenters.AdminTradeNetworkPresenter;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.stage.Stage;
+import use_cases.TradeNetworkAnalyzer;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+
+public class AdminTradeNetworkController implements Initializable {
+    @FXML private Label titleScreen;
+    @FXML private TextArea reportArea;
+    @FXML private Label systemMessage;
+    @FXML private Button refresh;
+    @FXML private Button exit;
+
+    private TradeNetworkAnalyzer tradeNetworkAnalyzer;
+    private AdminTradeNetworkPresenter presenter;
+
+    /**
+     * Class constructor.
+     * A controller for TradeNetwork.fxml, which shows admins who trades with whom: the separate trading groups, how
+     * many partners traders have, the most central traders, and the users who never traded.
+     * @param tradeNetworkAnalyzer the TradeNetworkAnalyzer will be used to analyse the trading network
+     */
+    AdminTradeNetworkController(TradeNetworkAnalyzer tradeNetworkAnalyzer){
+        this.tradeNetworkAnalyzer = tradeNetworkAnalyzer;
+        presenter = new AdminTradeNetworkPresenter();
+    }
+
+    /**
+     * Called to initialize a controller after its root element has been completely processed. (Java doc from Initializable)
+     * @param location The location used to resolve relative paths for the root object, or null if the location is not known.
+     * @param resources The resources used to localize the root object, or null if the root object was not localized.
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        titleScreen.setText(presenter.title());
+        refresh.setText(presenter.refreshButton());
+        exit.setText(presenter.exitButton());
+        refresh.setOnAction(e -> analyze());
+        exit.setOnAction(this::close);
+        analyze();
+    }
+
+    private void analyze() {
+        systemMessage.setText(presenter.analysing());
+        refresh.setDisable(true);
+        tradeNetworkAnalyzer.analyze().whenComplete((report, error) -> Platform.runLater(() -> {
+            refresh.setDisable(false);
+            if (error != null) {
+                systemMessage.setText(presenter.analysisFailed());
+                return;
+            }
+            reportArea.setText(presenter.report(report));
+            systemMessage.setText(presenter.analysed(report));
+        }));
+    }
+
+    private void close(ActionEvent actionEvent){
+        Stage window = (Stage)((Node)actionEvent.getSource()).getScene().getWindow();
+        window.close();
+    }
+}
@@ -13,6 +13,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import use_cases.AuditLogManager;
 import use_cases.TradeManager;
 import use_cases.UserManager;
 
@@ -30,6 +31,8 @@ public class TradeUndoController implements Initializable {
     private UserManager usermanager;
     private TradeManager tradeManager;
     private AdminGUIPresenter adminGUIPresenter;
+    private AuditLogManager auditLogManager;
+    private String admin;
 
     /**
      * Class constructor.
@@ -37,8 +40,13 @@ public class TradeUndoController implements Initializable {
      * of that User.
      * @param userManager the UserManager will be used to change user account information
      * @param tradeManager the TradeManager will be used to modify the on-going trades.
+     * @param auditLogManager the AuditLogManager will be used to record the trades undone.
+     * @param admin the username of the admin undoing the trades.
      */
-    TradeUndoController(TradeManager tradeManager, UserManager userManager){
+    TradeUndoController(TradeManager tradeManager, UserManager userManager, AuditLogManager auditLogManager,
+                        String admin){
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
         this.usermanager = userManager;
         this.tradeManager = tradeManager;
         adminGUIPresenter = new AdminGUIPresenter();
@@ -53,7 +61,8 @@ public class TradeUndoController implements Initializable {
         window.setMinHeight(400);
         FXMLLoader loader = new FXMLLoader(getClass().getResource(UndoUnstartedTradeMenuFXML));
 
-        loader.setController(new UndoUnstartedTradeMenuController(userNameField.getText(), tradeManager, usermanager));
+        loader.setController(new UndoUnstartedTradeMenuController(userNameField.getText(), tradeManager, usermanager,
+                auditLogManager, admin));
 
         Parent parent = loader.load();
         Scene scene = new Scene(parent);
@@ -14,6 +14,7 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
+import use_cases.AuditLogManager;
 import use_cases.TradeManager;
 import use_cases.UserManager;
 
@@ -39,6 +40,8 @@ public class UndoUnstartedTradeMenuController implements Initializable {
 
     private UserManager usermanager;
     private TradeManager tradeManager;
+    private AuditLogManager auditLogManager;
+    private String admin;
     /**
      * Class constructor.
      * Create a new AdminSystem that allows admins to undo the on-going trade of that User.
@@ -46,8 +49,13 @@ public class UndoUnstartedTradeMenuController implements Initializable {
      *                        undo the on-going trade.
      * @param userManager the UserManager will be used to change user account information
      * @param tradeManager the TradeManager will be used to modify the on-going trades.
+     * @param auditLogManager the AuditLogManager will be used to record the trades undone.
+     * @param admin the username of the admin undoing the trades.
      */
-    UndoUnstartedTradeMenuController(String currentUserName, TradeManager tradeManager, UserManager userManager){
+    UndoUnstartedTradeMenuController(String currentUserName, TradeManager tradeManager, UserManager userManager,
+                                     AuditLogManager auditLogManager, String admin){
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
         this.currentUserName = currentUserName;
         this.usermanager = userManager;
         this.tradeManager = tradeManager;
@@ -64,9 +72,15 @@ public class UndoUnstartedTradeMenuController implements Initializable {
 
         allTrades.remove(selectedRow);
         tradeManager.removeTrade(selectedRow);
-        Message tradeDeletedNotification = new SystemMessage("Your trade has been deleted.");
+        Message tradeDeletedNotification = new SystemMessage("Your trade has been deleted.",
+                usermanager.getUsernameTable());
         usermanager.addUserMessage(selectedRow.getTraderA(), tradeDeletedNotification);
         usermanager.addUserMessage(selectedRow.getTraderB(), tradeDeletedNotification);
+        // recorded on both traders, so it shows up in the history of either
+        auditLogManager.record(admin, AuditEntry.Action.UNDO_TRADE, selectedRow.getTraderA(),
+                "trade with " + selectedRow.getTraderB() + " on " + selectedRow.getStartDate());
+        auditLogManager.record(admin, AuditEntry.Action.UNDO_TRADE, selectedRow.getTraderB(),
+                "trade with " + selectedRow.getTraderA() + " on " + selectedRow.getStartDate());
     }
 
     private void close(ActionEvent actionEvent){
@@ -1,5 +1,11 @@
 package frontend.adminGUI.presenters;
 
+import entities.AuditEntry;
+import use_cases.Reputation;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
 public class AdminBrowsingUsersPresenter {
     /**
      * Returns a string that prompts the user to choose an option
@@ -17,6 +23,16 @@ public class AdminBrowsingUsersPresenter {
         return "Invalid username, try again";
     }
 
+    /**
+     * Returns a string telling the user they entered an invalid username, with the closest usernames
+     * @param usernames the usernames close to the one entered
+     * @return the string
+     */
+    public String invalidName(List<String> usernames){
+        if (usernames.isEmpty()) return invalidName();
+        return "Invalid username, did you mean " + String.join(", ", usernames) + "?";
+    }
+
     /**
      * Returns a string telling the user to enter the new limit somewhere
      * @return the string
@@ -65,6 +81,22 @@ public class AdminBrowsingUsersPresenter {
         return "Threshold successfully changed";
     }
 
+    /**
+     * Returns a string telling the user they changed the user's hourly message limit
+     * @return the string
+     */
+    public String messageLimitChangeSuccess(){
+        return "Hourly message limit successfully changed";
+    }
+
+    /**
+     * Returns a string telling the user they changed the user's hourly trade request limit
+     * @return the string
+     */
+    public String tradeRequestLimitChangeSuccess(){
+        return "Hourly trade request limit successfully changed";
+    }
+
     /**
      * Returns a string telling the user they entered the wrong format
      * @return the string
@@ -119,6 +151,18 @@ public class AdminBrowsingUsersPresenter {
      */
     public String lendingText(){ return "Change lending threshold"; }
 
+    /**
+     * Returns a string for hourly message limit button
+     * @return the string
+     */
+    public String messageLimitText(){ return "Change hourly message limit"; }
+
+    /**
+     * Returns a string for hourly trade request limit button
+     * @return the string
+     */
+    public String tradeRequestLimitText(){ return "Change hourly trade request limit"; }
+
     /**
      * Returns a string for enter button
      * @return the string
@@ -143,4 +187,62 @@ public class AdminBrowsingUsersPresenter {
      */
     public String undoText(){ return "Undo user deleting items"; }
 
+    /**
+     * Returns the text for the button showing the most reliable traders
+     * @return the string
+     */
+    public String reliableText(){ return "Most reliable traders"; }
+
+    /**
+     * Returns the text for the button showing what admins did to the user lately
+     * @return the string
+     */
+    public String historyText(){ return "Admin history"; }
+
+    /**
+     * Returns what admins did to a user lately, one action per line
+     * @param entries the actions, the latest first
+     * @param days how many days back the actions were looked for
+     * @return the string
+     */
+    public String auditHistory(List<AuditEntry> entries, int days){
+        if (entries.isEmpty()) return "No admin actions on this user in the last " + days + " days";
+        StringBuilder s = new StringBuilder("Admin actions, latest first:");
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        for (AuditEntry entry : entries) {
+            s.append(String.format("%n%s %s by %s", entry.getTime().format(format),
+                    entry.getAction().name().toLowerCase().replace('_', ' '), entry.getAdmin()));
+            if (!entry.getDetails().isEmpty()) s.append(": ").append(entry.getDetails());
+        }
+        return s.toString();
+    }
+
+    /**
+     * Returns how reliable a user has been, shown with their information
+     * @param reputation the reputation of the user
+     * @return the string
+     */
+    public String reputation(Reputation reputation){
+        if (!reputation.hasTrades()) return "Reputation: no trades yet";
+        return String.format("Reputation: %.0f%% reliable%n%.1f completed, %.1f failed, %.1f overdue recently",
+                reputation.getReliability() * 100, reputation.getCompleted(), reputation.getFailed(),
+                reputation.getOverdue());
+    }
+
+    /**
+     * Returns the most reliable traders, one per line
+     * @param reputations the reputations of the traders, most reliable first
+     * @return the string
+     */
+    public String mostReliable(List<Reputation> reputations){
+        if (reputations.isEmpty()) return "No user has traded yet";
+        StringBuilder s = new StringBuilder("Most reliable traders:");
+        for (int i = 0; i < reputations.size(); i++) {
+            Reputation reputation = reputations.get(i);
+            s.append(String.format("%n%d. %s, %.0f%%", i + 1, reputation.getUsername(),
+                    reputation.getReliability() * 100));
+        }
+        return s.toString();
+    }
+
 }
@@ -67,6 +67,22 @@ public class AdminGUIPresenter {
     public String adminMessageWindow(){
         return "Admin Message Inbox";
     }
+    /**
+     * Name of the Trade Cycle Window
+     * @return the name of the Trade Cycle Window
+     */
+
+    public String tradeCycleWindow(){
+        return "Trade Cycles";
+    }
+    /**
+     * Name of the Trading Network Window
+     * @return the name of the Trading Network Window
+     */
+
+    public String tradeNetworkWindow(){
+        return "Trading Network";
+    }
 
     //Label and Text
 
@@ -206,6 +222,22 @@ public class AdminGUIPresenter {
     public String tradeUndoButton(){
         return "Undo the trade of Users";
     }
+    /**
+     * Button Text
+     * @return the button name that allows admin to see and propose trade cycles.
+     */
+
+    public String tradeCycleButton(){
+        return "Propose trade cycles";
+    }
+    /**
+     * Button Text
+     * @return the button name that allows admin to see who trades with whom.
+     */
+
+    public String tradeNetworkButton(){
+        return "See who trades with whom";
+    }
     /**
      * Button Text
      * @return the button name that allows admin to delete the on-going trade.
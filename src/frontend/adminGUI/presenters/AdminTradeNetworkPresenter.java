@@ -0,0 +1,98 @@
+package frontend.adminGUI.presenters;
+
+import use_cases.TradeNetworkReport;
+
+import java.util.List;
+
+public class AdminTradeNetworkPresenter {
+    /**
+     * Returns the title of the trading network screen
+     * @return the string
+     */
+    public String title(){
+        return "Who trades with whom";
+    }
+
+    /**
+     * Button Text
+     * @return the name of the button used to analyse the network again.
+     */
+    public String refreshButton(){
+        return "Refresh";
+    }
+
+    /**
+     * Button Text
+     * @return the name of the button used to exit the current window.
+     */
+    public String exitButton(){
+        return "Back";
+    }
+
+    /**
+     * Returns a string telling the admin the network is being analysed
+     * @return the string
+     */
+    public String analysing(){
+        return "Analysing the trading network...";
+    }
+
+    /**
+     * Returns a string telling the admin the analysis failed
+     * @return the string
+     */
+    public String analysisFailed(){
+        return "The trading network could not be analysed, try again";
+    }
+
+    /**
+     * Returns a string telling the admin how long the analysis took
+     * @param report the report of the analysis
+     * @return the string
+     */
+    public String analysed(TradeNetworkReport report){
+        return "Analysed in " + report.getMillis() + " ms";
+    }
+
+    /**
+     * Returns the report of the trading network, section by section
+     * @param report the report of the analysis
+     * @return the string
+     */
+    public String report(TradeNetworkReport report){
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("%d users, %d of whom have traded, in %d separate trading groups%n",
+                report.getUserCount(), report.getTraderCount(), report.getComponentCount()));
+
+        s.append(String.format("%nLargest trading groups:"));
+        List<Integer> sizes = report.getComponentSizes();
+        if (sizes.isEmpty()) s.append(String.format("%n  none yet"));
+        for (int i = 0; i < sizes.size(); i++) {
+            s.append(String.format("%n  %d. %d users, including %s", i + 1, sizes.get(i),
+                    String.join(", ", report.getComponentSamples().get(i))));
+        }
+
+        s.append(String.format("%n%nTraders by number of trading partners:"));
+        long[] histogram = report.getDegreeHistogram();
+        if (histogram.length == 0) s.append(String.format("%n  none yet"));
+        for (int i = 0; i < histogram.length; i++) {
+            long low = 1L << i, high = (1L << (i + 1)) - 1;
+            String partners = low == high ? String.valueOf(low) : low + " to " + high;
+            s.append(String.format("%n  %s: %d", partners, histogram[i]));
+        }
+
+        s.append(String.format("%n%nMost central traders, by the share of trading paths through them:"));
+        List<String> hubs = report.getHubs();
+        if (hubs.isEmpty()) s.append(String.format("%n  none yet"));
+        for (int i = 0; i < hubs.size(); i++) {
+            s.append(String.format("%n  %d. %s, %.1f%%, %d partners", i + 1, hubs.get(i),
+                    report.getHubCentralities().get(i) * 100, report.getHubDegrees().get(i)));
+        }
+
+        s.append(String.format("%n%n%d users never traded", report.getIsolatedCount()));
+        if (!report.getIsolatedSample().isEmpty()) {
+            s.append(", including ").append(String.join(", ", report.getIsolatedSample()));
+        }
+        return s.toString();
+    }
+}
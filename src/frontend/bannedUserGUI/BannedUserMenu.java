@@ -1,6 +1,7 @@
 package frontend.bannedUserGUI;
 
 import entities.Message;
+import entities.UsernameTable;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -30,12 +31,13 @@ public class BannedUserMenu implements Initializable {
      * Sets up a BannedUserMenu listener.
      * @param currUser the String current user
      * @param adminManager the AdminManager object
+     * @param usernames the UsernameTable of the system
      */
-    public BannedUserMenu(String currUser, AdminManager adminManager) {
+    public BannedUserMenu(String currUser, AdminManager adminManager, UsernameTable usernames) {
         this.currUser = currUser;
         this.adminManager = adminManager;
         this.bannedUserPresenter = new BannedUserPresenter();
-        this.messageBuilder = new MessageBuilder();
+        this.messageBuilder = new MessageBuilder(usernames);
     }
 
     /**
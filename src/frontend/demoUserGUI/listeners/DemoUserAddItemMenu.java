@@ -60,7 +60,8 @@ public class DemoUserAddItemMenu implements Initializable {
      * Add new items to demo user's personal inventory
      */
     private void demoAddItem(){
-        Item item = new Item(nameInput.getText(), "Demo", descriptionInput.getText());
+        Item item = new Item(nameInput.getText(), "Demo", descriptionInput.getText(),
+                demoUserManager.getUsernameTable());
         demoUserManager.addToInventory(item);
         errorMessage.setText(demoUserPresenter.demoaddingitem());
         errorMessage.setWrapText(true);
@@ -19,6 +19,7 @@ import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import metrics.SceneSwitchEvent;
 import use_cases.DemoUserManager;
 import use_cases.GlobalInventoryManager;
 
@@ -85,6 +86,7 @@ public class DemoUserGlobalInventoryMenu implements Initializable {
      * @throws IOException something went wrong
      */
     private void switchScene(String filename) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filename));
         loader.setController(new DemoUserTradeMenu());// call trademenu
         Parent root = loader.load();
@@ -93,6 +95,7 @@ public class DemoUserGlobalInventoryMenu implements Initializable {
         window.initModality(Modality.APPLICATION_MODAL);
         window.setScene(newScene);
         window.show();
+        sceneSwitch.commit(this, filename, loader.getController());
     }
 
     /**
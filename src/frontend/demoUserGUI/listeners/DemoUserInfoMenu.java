@@ -13,6 +13,7 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import metrics.SceneSwitchEvent;
 import use_cases.DemoUserManager;
 
 import java.io.IOException;
@@ -79,6 +80,7 @@ public class DemoUserInfoMenu implements Initializable {
      * @throws IOException for a funky input
      */
     private void switchScene(String filename) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filename));
         switch(this.type) {
             case INVENTORY:
@@ -95,6 +97,7 @@ public class DemoUserInfoMenu implements Initializable {
         window.initModality(Modality.APPLICATION_MODAL);
         window.setScene(newScene);
         window.show();
+        sceneSwitch.commit(this, filename, loader.getController());
     }
 
     /**
@@ -14,6 +14,7 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import metrics.SceneSwitchEvent;
 import use_cases.DemoUserManager;
 import use_cases.GlobalInventoryManager;
 
@@ -180,6 +181,7 @@ public class DemoUserMenuGUI  implements Initializable {
      * @throws IOException for a funky input
      */
     private void switchScene(String filename) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filename));
         // access account info
         switch (this.type) {
@@ -203,6 +205,7 @@ public class DemoUserMenuGUI  implements Initializable {
         window.initModality(Modality.APPLICATION_MODAL);
         window.setScene(newScene);
         window.show();
+        sceneSwitch.commit(this, filename, loader.getController());
     }
 
 }
@@ -15,22 +15,32 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Tab;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import metrics.SceneSwitchEvent;
+import use_cases.FuzzyLookup;
 import use_cases.GlobalInventoryManager;
 import use_cases.GlobalWishlistManager;
+import use_cases.ItemRecommender;
+import use_cases.MeetingScheduler;
 import use_cases.TradeManager;
 import use_cases.UserManager;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 public class GlobalInventoryMenuController implements Initializable {
     @FXML private TableView<Item> tableView;
@@ -41,6 +51,12 @@ public class GlobalInventoryMenuController implements Initializable {
     @FXML private Button trade;
     @FXML private Button exit;
     @FXML private Label message;
+    @FXML private Tab recommendedTab;
+    @FXML private ListView<String> recommendedList;
+    @FXML private Tab trendingTab;
+    @FXML private ListView<String> trendingList;
+    @FXML private TextField searchField;
+    @FXML private Button search;
 
     private GlobalInventoryManager globalInventoryManager;
     private GlobalInventoryMenuPresenter globalInventoryMenuPresenter= new GlobalInventoryMenuPresenter();
@@ -48,6 +64,13 @@ public class GlobalInventoryMenuController implements Initializable {
     private String user;
     private TradeManager tradeManager;
     private GlobalWishlistManager globalWishlistManager;
+    private ItemRecommender itemRecommender;
+    private FuzzyLookup fuzzyLookup;
+    private MeetingScheduler meetingScheduler;
+    private ObservableList<Item> allItems;
+    private List<Item> recommendedItems = new ArrayList<>();
+    private List<Item> trendingItems = new ArrayList<>();
+    private final int trendingShown = 10;
     private String MultiItemMenuFXML = "/frontend/globalInventoryGUI/fxml_files/MultiItemMenu.fxml";
 
     /**
@@ -57,13 +80,21 @@ public class GlobalInventoryMenuController implements Initializable {
      * @param userManager UserManager object
      * @param tradeManager TradeManager object
      * @param globalWishlistManager GlobalWishlistManager object
+     * @param itemRecommender ItemRecommender object
+     * @param fuzzyLookup FuzzyLookup object
+     * @param meetingScheduler MeetingScheduler object
      */
     public GlobalInventoryMenuController(String user, GlobalInventoryManager globalInventoryManager, UserManager userManager,
-                                         TradeManager tradeManager, GlobalWishlistManager globalWishlistManager) {
+                                         TradeManager tradeManager, GlobalWishlistManager globalWishlistManager,
+                                         ItemRecommender itemRecommender, FuzzyLookup fuzzyLookup,
+                                         MeetingScheduler meetingScheduler) {
         this.globalInventoryManager = globalInventoryManager;
         this.userManager = userManager;
         this.tradeManager = tradeManager;
         this.globalWishlistManager = globalWishlistManager;
+        this.itemRecommender = itemRecommender;
+        this.fuzzyLookup = fuzzyLookup;
+        this.meetingScheduler = meetingScheduler;
         this.user = user;
     }
 
@@ -80,6 +111,10 @@ public class GlobalInventoryMenuController implements Initializable {
         addToWishlist.setText(globalInventoryMenuPresenter.addToWishlist());
         trade.setText(globalInventoryMenuPresenter.sendTradeReqeust());
         exit.setText(globalInventoryMenuPresenter.menuPromptExit());
+        recommendedTab.setText(globalInventoryMenuPresenter.recommendedForYou());
+        trendingTab.setText(globalInventoryMenuPresenter.trending());
+        search.setText(globalInventoryMenuPresenter.search());
+        searchField.setPromptText(globalInventoryMenuPresenter.searchPrompt());
 
         itemName.setCellValueFactory(new PropertyValueFactory<Item, String>(globalInventoryMenuPresenter.name()));
         itemOwner.setCellValueFactory(new PropertyValueFactory<Item, String>(globalInventoryMenuPresenter.ownerName()));
@@ -87,7 +122,14 @@ public class GlobalInventoryMenuController implements Initializable {
 
         tableView.setOnMouseClicked(this::selected);
         //load data
-        tableView.setItems(getItem());
+        allItems = getItem();
+        tableView.setItems(allItems);
+        showRecommendations();
+        showTrending();
+        recommendedList.setOnMouseClicked(e-> listSelected(recommendedList, recommendedItems));
+        trendingList.setOnMouseClicked(e-> listSelected(trendingList, trendingItems));
+        search.setOnAction(e-> search());
+        searchField.setOnAction(e-> search());
         addToWishlist.setOnAction(e-> addToWishlist());
         exit.setOnAction(this::exit);
         trade.setOnAction(e-> {
@@ -113,6 +155,79 @@ public class GlobalInventoryMenuController implements Initializable {
         }
     }
 
+    /**
+     * Selects the recommended or trending item the user clicked on in the table, so it can be added to the wish-list
+     * or traded for
+     * @param list the list the user clicked on
+     * @param items the items shown in the list
+     */
+    private void listSelected(ListView<String> list, List<Item> items) {
+        int selected = list.getSelectionModel().getSelectedIndex();
+        if (selected < 0 || selected >= items.size()) return;
+        Item item = items.get(selected);
+        tableView.getSelectionModel().select(item);
+        tableView.scrollTo(item);
+        message.setText(globalInventoryMenuPresenter.whatToDo(item));
+    }
+
+    /**
+     * Shows the items whose name contains what the user typed in the search field, ignoring case. If there are none,
+     * shows the items whose name is closest to it instead, in case it has a typo
+     */
+    private void search() {
+        String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            tableView.setItems(allItems);
+            return;
+        }
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        ObservableList<Item> found = FXCollections.observableArrayList();
+        for (Item item : allItems) {
+            if (item.getName().toLowerCase(Locale.ROOT).contains(lowerQuery)) found.add(item);
+        }
+        if (found.isEmpty()) {
+            List<String> closest = fuzzyLookup.suggestItemNames(query);
+            Set<String> closestNames = new HashSet<>(closest);
+            for (Item item : allItems) {
+                if (closestNames.contains(item.getName())) found.add(item);
+            }
+            message.setText(globalInventoryMenuPresenter.noItemsFound(query, closest));
+        }
+        tableView.setItems(found);
+    }
+
+    /**
+     * Shows the items recommended to the user that are still in the global inventory
+     */
+    private void showRecommendations() {
+        recommendedItems = new ArrayList<>();
+        recommendedList.getItems().clear();
+        for (String itemId : itemRecommender.getRecommendations(user)) {
+            Item item = globalInventoryManager.getItemFromGI(itemId);
+            if (item != null) {
+                recommendedItems.add(item);
+                recommendedList.getItems().add(item.getName());
+            }
+        }
+        if (recommendedItems.isEmpty()) recommendedList.setPlaceholder(new Label(globalInventoryMenuPresenter.noRecommendations()));
+    }
+
+    /**
+     * Shows the items the most users have wished for lately that are still in the global inventory
+     */
+    private void showTrending() {
+        trendingItems = new ArrayList<>();
+        trendingList.getItems().clear();
+        for (String itemId : globalWishlistManager.trending(trendingShown)) {
+            Item item = globalInventoryManager.getItemFromGI(itemId);
+            if (item != null) {
+                trendingItems.add(item);
+                trendingList.getItems().add(item.getName());
+            }
+        }
+        if (trendingItems.isEmpty()) trendingList.setPlaceholder(new Label(globalInventoryMenuPresenter.noTrending()));
+    }
+
     /**
      * to switch to MultiItemMenu when user clicked on trade button
      * @param filename file name of the MultiItemMenu FXML file
@@ -120,8 +235,10 @@ public class GlobalInventoryMenuController implements Initializable {
      * @throws IOException some thing went wrong
      */
     private void switchScene(String filename, Item item) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filename));
-        loader.setController(new MultiItemMenu(item, user, globalInventoryManager, userManager, globalWishlistManager));// call Multimenu
+        loader.setController(new MultiItemMenu(item, user, globalInventoryManager, userManager, globalWishlistManager,
+                meetingScheduler));// call Multimenu
         Parent root = loader.load();
         Scene newScene= new Scene(root);
         Stage window = new Stage();
@@ -129,6 +246,7 @@ public class GlobalInventoryMenuController implements Initializable {
         window.initModality(Modality.APPLICATION_MODAL);
         window.setScene(newScene);
         window.show();
+        sceneSwitch.commit(this, filename, loader.getController());
     }
 
     /**
@@ -163,6 +281,8 @@ public class GlobalInventoryMenuController implements Initializable {
         else {
             message.setText(globalInventoryMenuPresenter.addedToWishlist(itemselected));
             globalWishlistManager.addWish(itemselected.getItemID(), user);
+            showRecommendations();
+            showTrending();
         }
 
 
@@ -20,8 +20,10 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import metrics.SceneSwitchEvent;
 import use_cases.GlobalInventoryManager;
 import use_cases.GlobalWishlistManager;
+import use_cases.MeetingScheduler;
 import use_cases.UserManager;
 
 import java.io.IOException;
@@ -36,6 +38,7 @@ public class MultiItemMenu implements Initializable {
     private GlobalInventoryManager globalInventoryManager;
     private GlobalWishlistManager globalWishlistManager;
     private UserManager userManager;
+    private MeetingScheduler meetingScheduler;
     private Item item;
     private ObservableList<Item> selectedItems = FXCollections.observableArrayList();
     private ObservableList<Item> userItems = FXCollections.observableArrayList();
@@ -48,14 +51,16 @@ public class MultiItemMenu implements Initializable {
      * @param globalInventoryManager globalInventoryManager object
      * @param userManager userManager Object
      * @param globalWishlistManager globalWishlistManager object
+     * @param meetingScheduler meetingScheduler object
      */
     public MultiItemMenu(Item item, String user, GlobalInventoryManager globalInventoryManager, UserManager userManager,
-                         GlobalWishlistManager globalWishlistManager) {
+                         GlobalWishlistManager globalWishlistManager, MeetingScheduler meetingScheduler) {
         this.user = user;
         this.globalInventoryManager = globalInventoryManager;
         this.item = item;
         this.userManager = userManager;
         this.globalWishlistManager = globalWishlistManager;
+        this.meetingScheduler = meetingScheduler;
     }
 
 
@@ -200,12 +205,16 @@ public class MultiItemMenu implements Initializable {
      * @throws IOException something went wrong
      */
     private void switchScene(String filename, List<Item> items, ActionEvent e) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filename));
-        loader.setController(new TradeMenuMainController(globalInventoryManager, globalWishlistManager, userManager, items, user));// call tradeParent root = loader.load();
+        loader.setController(new TradeMenuMainController(globalInventoryManager, globalWishlistManager, userManager, items, user,
+                meetingScheduler));// call tradeParent root = loader.load();
         Scene newScene= new Scene(loader.load());
         Stage window = new Stage();
         window.initStyle(StageStyle.UNDECORATED);
         window.setScene(newScene);
+        // before the window is shown, as showAndWait() only returns once it is closed again
+        sceneSwitch.commit(this, filename, loader.getController());
         window.showAndWait();
         ((Stage)((Node) e.getSource()).getScene().getWindow()).close();
     }
@@ -2,6 +2,8 @@ package frontend.globalInventoryGUI.presenters;
 
 import entities.Item;
 
+import java.util.List;
+
 public class GlobalInventoryMenuPresenter {
 
     /**
@@ -178,6 +180,65 @@ public class GlobalInventoryMenuPresenter {
         return "Sorry, your account is frozen.";
     }
 
+    /**
+     * setup label above the recommended items in globalInventoryMenu
+     * @return Recommended for you
+     */
+    public String recommendedForYou(){
+        return "Recommended for you";
+    }
+
+    /**
+     * setup tab of the trending items in globalInventoryMenu
+     * @return Trending
+     */
+    public String trending(){
+        return "Trending";
+    }
+
+    /**
+     * shown in the trending items when there are none
+     * @return No one has wished for an item yet
+     */
+    public String noTrending(){
+        return "No one has wished for an item yet";
+    }
+
+    /**
+     * shown in the recommended items when there are none
+     * @return a message saying how to get recommendations
+     */
+    public String noRecommendations(){
+        return "Add items to your wish-list\nto get recommendations";
+    }
+
+    /**
+     * setup search button in globalInventoryMenu
+     * @return Search
+     */
+    public String search(){
+        return "Search";
+    }
+
+    /**
+     * setup prompt of the search field in globalInventoryMenu
+     * @return Search items by name
+     */
+    public String searchPrompt(){
+        return "Search items by name";
+    }
+
+    /**
+     * prints when no item name contains what the user searched for
+     * @param query what the user searched for
+     * @param closest the item names closest to the search, shown instead
+     * @return a message saying nothing was found, and what is shown instead
+     */
+    public String noItemsFound(String query, List<String> closest){
+        if (closest.isEmpty()) return "No items found for \"" + query + "\"";
+        return "No items found for \"" + query + "\", did you mean " + String.join(", ", closest) + "?";
+    }
+
     /**
      * set up column name for multiItemMenu and globalInventory
      * @return name
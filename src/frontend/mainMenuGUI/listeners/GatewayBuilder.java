@@ -1,4 +1,5 @@
 package frontend.mainMenuGUI.listeners;
+import entities.UsernameTable;
 import gateways.*;
 
 import java.io.IOException;
@@ -16,49 +17,97 @@ public class GatewayBuilder {
     }
     /**
      * @param filepath path where specific file is stored
+     * @param usernames the table the usernames in the file are kept in
      * @return AdminMessageGateway based on filepath
      * @throws IOException error if file moved
      * @throws ClassNotFoundException if class not found in filepath
      */
-    public AdminMessageGateway getAdminMessageGateways(String filepath) throws IOException, ClassNotFoundException {
-        return new AdminMessageGateway(filepath);
+    public AdminMessageGateway getAdminMessageGateways(String filepath, UsernameTable usernames)
+            throws IOException, ClassNotFoundException {
+        return new AdminMessageGateway(filepath, usernames);
     }
     /**
      * @param filepath path where specific file is stored
+     * @param usernames the table the usernames in the file are kept in
      * @return UserGateway object based on filepath
      * @throws IOException error if file moved
      * @throws ClassNotFoundException if class not found in filepath
      */
-    public UserGateway getUserGateway(String filepath) throws IOException, ClassNotFoundException {
-        return new UserGateway(filepath);
+    public UserGateway getUserGateway(String filepath, UsernameTable usernames)
+            throws IOException, ClassNotFoundException {
+        return new UserGateway(filepath, usernames);
     }
     /**
      * @param filepath path where specific file is stored
+     * @param usernames the table the usernames in the file are kept in
      * @return getUserGateway object based on filepath
      * @throws IOException error if file moved
      * @throws ClassNotFoundException if class not found in filepath
      */
-    public UserTradesGateway getUserTradesGateway(String filepath) throws IOException, ClassNotFoundException {
-        return new UserTradesGateway(filepath);
+    public UserTradesGateway getUserTradesGateway(String filepath, UsernameTable usernames)
+            throws IOException, ClassNotFoundException {
+        return new UserTradesGateway(filepath, usernames);
     }
     /**
      * @param filepath path where specific file is stored
+     * @param usernames the table the usernames in the file are kept in
      * @return getGlobalWishlistGateway object based on filepath
      * @throws IOException error if file moved
      * @throws ClassNotFoundException if class not found in filepath
      */
-    public GlobalWishlistGateway getGlobalWishlistGateway(String filepath) throws IOException, ClassNotFoundException {
-        return new GlobalWishlistGateway(filepath);
+    public GlobalWishlistGateway getGlobalWishlistGateway(String filepath, UsernameTable usernames)
+            throws IOException, ClassNotFoundException {
+        return new GlobalWishlistGateway(filepath, usernames);
     }
     /**
      * @param filepath path where specific file is stored
+     * @param usernames the table the usernames in the file are kept in
      * @return getGlobalInventoryGateways based on filepath
      * @throws IOException error if file moved
      * @throws ClassNotFoundException if class not found in filepath
      */
-    public GlobalInventoryGateways getGlobalInventoryGateways(String filepath) throws IOException, ClassNotFoundException {
-        return new GlobalInventoryGateways(filepath);
+    public GlobalInventoryGateways getGlobalInventoryGateways(String filepath, UsernameTable usernames)
+            throws IOException, ClassNotFoundException {
+        return new GlobalInventoryGateways(filepath, usernames);
     }
 
+    /**
+     * @param filepath path where specific file is stored
+     * @return UsernameTableGateway based on filepath
+     * @throws IOException error if file moved
+     * @throws ClassNotFoundException if class not found in filepath
+     */
+    public UsernameTableGateway getUsernameTableGateway(String filepath) throws IOException, ClassNotFoundException {
+        return new UsernameTableGateway(filepath);
+    }
 
+    /**
+     * @param filepath path where specific file is stored
+     * @return UserLimitsGateway based on filepath
+     * @throws IOException error if file moved
+     * @throws ClassNotFoundException if class not found in filepath
+     */
+    public UserLimitsGateway getUserLimitsGateway(String filepath) throws IOException, ClassNotFoundException {
+        return new UserLimitsGateway(filepath);
+    }
+
+    /**
+     * @param filepath path where specific file is stored
+     * @return PendingMeetingsGateway based on filepath
+     * @throws IOException error if file moved
+     * @throws ClassNotFoundException if class not found in filepath
+     */
+    public PendingMeetingsGateway getPendingMeetingsGateway(String filepath)
+            throws IOException, ClassNotFoundException {
+        return new PendingMeetingsGateway(filepath);
+    }
+
+    /**
+     * @param folderPath path of the folder where the audit log is stored
+     * @return AuditLogGateway based on folderPath
+     * @throws IOException error if the log cannot be read or written
+     */
+    public AuditLogGateway getAuditLogGateway(String folderPath) throws IOException {
+        return new AuditLogGateway(folderPath);
+    }
 }
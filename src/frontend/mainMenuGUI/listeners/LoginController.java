@@ -19,6 +19,7 @@ import javafx.scene.control.TextField;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import metrics.SceneSwitchEvent;
 import use_cases.*;
 
 import java.io.IOException;
@@ -39,6 +40,17 @@ public class LoginController implements Initializable {
     private AdminManager adminManager;
     private GlobalInventoryManager globalInventoryManager;
     private GlobalWishlistManager globalWishlistManager;
+    private TradeCycleFinder tradeCycleFinder;
+    private MutualMatchIndex mutualMatchIndex;
+    private LoanAllocator loanAllocator;
+    private ItemRecommender itemRecommender;
+    private DuplicateItemIndex duplicateItemIndex;
+    private FuzzyLookup fuzzyLookup;
+    private UsernameCompleter usernameCompleter;
+    private ReputationTracker reputationTracker;
+    private TradeNetworkAnalyzer tradeNetworkAnalyzer;
+    private MeetingScheduler meetingScheduler;
+    private AuditLogManager auditLogManager;
 
     private final String userMenuGUIFile = "/frontend/userGUI/fxml_files/UserMenuGUI.fxml";
     private final String adminMenuGUIFile = "/frontend/adminGUI/fxml_files/AdminMenu.fxml";
@@ -58,17 +70,45 @@ public class LoginController implements Initializable {
      * @param globalInventoryManager use case storing all methods by which a user can modify the items stored by
      *                               themselves and other users
      * @param globalWishlistManager use case storing all items that user and other users want in their inventory
+     * @param tradeCycleFinder use case finding groups of users who can all get an item they want from each other
+     * @param mutualMatchIndex use case storing the pairs of users who want an item from each other
+     * @param loanAllocator use case suggesting who each wanted item should be lent to
+     * @param itemRecommender use case recommending items from what similar users wanted
+     * @param duplicateItemIndex use case finding items that are probably the same as a new item
+     * @param fuzzyLookup use case suggesting usernames and item names close to ones with a typo
+     * @param usernameCompleter use case completing usernames as they are typed
+     * @param reputationTracker use case keeping how reliable every trader has been
+     * @param tradeNetworkAnalyzer use case working out who trades with whom
+     * @param meetingScheduler use case checking new meetings against the ones users already have
+     * @param auditLogManager use case recording what admins do
      */
 
     public LoginController(SelectedOption selectedOption, UserManager userManager, TradeManager tradeManager,
                            AdminManager adminManager,
-                           GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager){
+                           GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager,
+                           TradeCycleFinder tradeCycleFinder, MutualMatchIndex mutualMatchIndex,
+                           LoanAllocator loanAllocator, ItemRecommender itemRecommender,
+                           DuplicateItemIndex duplicateItemIndex, FuzzyLookup fuzzyLookup,
+                           UsernameCompleter usernameCompleter, ReputationTracker reputationTracker,
+                           TradeNetworkAnalyzer tradeNetworkAnalyzer, MeetingScheduler meetingScheduler,
+                           AuditLogManager auditLogManager){
         this.userSelectedOption = selectedOption;
         this.userManager = userManager;
         this.tradeManager = tradeManager;
         this.adminManager = adminManager;
         this.globalInventoryManager = globalInventoryManager;
         this.globalWishlistManager = globalWishlistManager;
+        this.tradeCycleFinder = tradeCycleFinder;
+        this.mutualMatchIndex = mutualMatchIndex;
+        this.loanAllocator = loanAllocator;
+        this.itemRecommender = itemRecommender;
+        this.duplicateItemIndex = duplicateItemIndex;
+        this.fuzzyLookup = fuzzyLookup;
+        this.usernameCompleter = usernameCompleter;
+        this.reputationTracker = reputationTracker;
+        this.tradeNetworkAnalyzer = tradeNetworkAnalyzer;
+        this.meetingScheduler = meetingScheduler;
+        this.auditLogManager = auditLogManager;
     }
 
     // code for method changeScreenButtonPushed is similar to: https://www.youtube.com/watch?v=
@@ -80,22 +120,27 @@ public class LoginController implements Initializable {
 
     // code for method goToOtherScene is similar to: https://www.youtube.com/watch?v=XCgcQTQCfJQ
 
-    private void goToOtherScene(String otherScene, OpenMenu MenuToOpen, String username)
+    private Stage goToOtherScene(String otherScene, OpenMenu MenuToOpen, String username)
             throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(otherScene));
 
         if (MenuToOpen.equals(OpenMenu.USER_MENU)) {
             loader.setController(new UserMenuGUI(username, userManager, tradeManager,
-                    globalInventoryManager, globalWishlistManager, adminManager));
+                    globalInventoryManager, globalWishlistManager, adminManager, tradeCycleFinder,
+                    mutualMatchIndex, loanAllocator, itemRecommender, fuzzyLookup,
+                    usernameCompleter, reputationTracker, meetingScheduler));
         }
 
         if (MenuToOpen.equals(OpenMenu.ADMIN_MENU)) {
             loader.setController(new AdminController(adminManager.getAdmin(username), adminManager,
-                    userManager, globalInventoryManager, tradeManager));
+                    userManager, globalInventoryManager, tradeManager, tradeCycleFinder, duplicateItemIndex,
+                    fuzzyLookup, usernameCompleter, reputationTracker, tradeNetworkAnalyzer, auditLogManager,
+                    meetingScheduler));
         }
 
         if (MenuToOpen.equals(OpenMenu.BANNED_USER_MENU)) {
-            loader.setController(new BannedUserMenu(username, adminManager));
+            loader.setController(new BannedUserMenu(username, adminManager, userManager.getUsernameTable()));
         }
 
 
@@ -112,7 +157,8 @@ public class LoginController implements Initializable {
         Scene scene = new Scene(root);
         window.setScene(scene);
         window.show();
-
+        sceneSwitch.commit(this, otherScene, loader.getController());
+        return window;
     }
 
     /**
@@ -172,12 +218,21 @@ public class LoginController implements Initializable {
         String password = this.password.getText();
 
         if (userManager.login(username, password)) {
+            // users and their trades are only read from disk when needed, and the least used ones are dropped again;
+            // keep this user's while the menus hold on to their messages and trades
+            userManager.pinUser(username);
+            tradeManager.pinTradeHistory(username);
+            Stage menu;
             if (!userManager.getUserIsBanned(username)) {
-                goToOtherScene(userMenuGUIFile, OpenMenu.USER_MENU, username);
+                menu = goToOtherScene(userMenuGUIFile, OpenMenu.USER_MENU, username);
             }
             else {
-                goToOtherScene(bannedUserMenuGUIFile, OpenMenu.BANNED_USER_MENU, username);
+                menu = goToOtherScene(bannedUserMenuGUIFile, OpenMenu.BANNED_USER_MENU, username);
             }
+            menu.setOnHidden(e -> {
+                userManager.unpinUser(username);
+                tradeManager.unpinTradeHistory(username);
+            });
         }
         else errorMessage.setText(mainMenuPresenter.wrongLogin());
     }
@@ -1,7 +1,7 @@
 package frontend.mainMenuGUI.listeners;
 
 import frontend.mainMenuGUI.presenters.MainMenuPresenter;
-import gateways.*;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -14,14 +14,19 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.scene.control.*;
 import javafx.stage.StageStyle;
+import metrics.Metrics;
+import metrics.SceneSwitchEvent;
+import metrics.Timer;
 import use_cases.*;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 public class MainMenuController implements Initializable {
+    private static final Timer SERIALIZE_TIMER = Metrics.timer("MainMenuController.serialize");
+
     @FXML private Button userLoginButton;
     @FXML private Button userSignUpButton;
     @FXML private Button adminLoginButton;
@@ -34,22 +39,24 @@ public class MainMenuController implements Initializable {
     private TradeManager tradeManager;
     private GlobalInventoryManager globalInventoryManager;
     private GlobalWishlistManager globalWishlistManager;
+    private TradeCycleFinder tradeCycleFinder;
+    private MutualMatchIndex mutualMatchIndex;
+    private LoanAllocator loanAllocator;
+    private ItemRecommender itemRecommender;
+    private DuplicateItemIndex duplicateItemIndex;
+    private FuzzyLookup fuzzyLookup;
+    private UsernameCompleter usernameCompleter;
+    private ReputationTracker reputationTracker;
+    private TradeNetworkAnalyzer tradeNetworkAnalyzer;
+    private AbuseDetector abuseDetector;
+    private MeetingScheduler meetingScheduler;
+    private AuditLogManager auditLogManager;
 
     private final String loginFXMLFile = "/frontend/mainMenuGUI/fxml_files/Login.fxml";
 
-    private final String adminFilePath = "data/serializedAdmins.ser";
-    private final String userFilePath = "data/serializedUsers.ser";
-    private final String globalInventoryFilePath = "data/serializedGlobalInventory.ser";
-    private final String adminMessagesFilePath = "data/serializedAdminMessages.ser";
-    private final String globalWishlistFilePath = "data/serializedGlobalWishlist.ser";
-    private final String tradeFilePath = "data/serializedUserTrades.ser";
     private final String dataFolderPath = "data/";
-    private AdminAccountGateways adminAccountGateways;
-    private UserGateway userGateway;
-    private GlobalInventoryGateways globalInventoryGateways;
-    private UserTradesGateway userTradesGateway;
-    private GlobalWishlistGateway globalWishlistGateway;
-    private AdminMessageGateway adminMessageGateway;
+    private StartupPipeline startupPipeline;
+    private boolean loaded = false;
 
     private MainMenuPresenter mainMenuPresenter = new MainMenuPresenter();
 
@@ -61,10 +68,14 @@ public class MainMenuController implements Initializable {
      */
     // code for method goToOtherScene is similar to: https://www.youtube.com/watch?v=XCgcQTQCfJQ
     public void goToOtherScene(String otherScene, SelectedOption selectedOption) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(otherScene));
 
         loader.setController(new LoginController(selectedOption, userManager, tradeManager, adminManager,
-                globalInventoryManager, globalWishlistManager));
+                globalInventoryManager, globalWishlistManager, tradeCycleFinder, mutualMatchIndex,
+                loanAllocator, itemRecommender, duplicateItemIndex, fuzzyLookup,
+                usernameCompleter, reputationTracker, tradeNetworkAnalyzer, meetingScheduler,
+                auditLogManager));
 
         Stage window = new Stage();
         window.initModality(Modality.APPLICATION_MODAL);
@@ -73,6 +84,7 @@ public class MainMenuController implements Initializable {
         Scene scene = new Scene(root);
         window.setScene(scene);
         window.show();
+        sceneSwitch.commit(this, otherScene, loader.getController());
     }
 
     /**
@@ -123,11 +135,15 @@ public class MainMenuController implements Initializable {
     private void closeButtonIsPushed(ActionEvent actionEvent) {
         Stage stage = (Stage) ((Node)actionEvent.getSource()).getScene().getWindow();
         stage.close();
-        serialize();
+        if (loaded) {
+            serialize();
+        }
     }
 
     /**
      * Initialize the scene's labels and buttons with desired text.
+     * The menu is shown right away; the data is loaded in the background and the login buttons are enabled as soon
+     * as the stores they need are ready.
      * @param location stores location of path storing buttons and labels.
      * @param resources ResourceBundle to localize root object
      */
@@ -140,67 +156,160 @@ public class MainMenuController implements Initializable {
         exitButton.setText(mainMenuPresenter.exitOption());
         errorMessage.setAlignment(Pos.CENTER);;
 
-        deserialize();
-        serialize();
+        deserialize(false);
     }
 
     /**
      * attempts to deserialize all previously stored objects including Admins, Users, the GlobalInventory, Messages
-     * shared by all admins, the GlobalWishList, all UserTrades
+     * shared by all admins, the GlobalWishList, all UserTrades.
+     * All files are read in parallel and the use cases are built from them, off the JavaFX thread, which only gets
+     * the finished use cases.
+     * @param afterReset whether the data was just reset because it was corrupted
      */
-    private void deserialize(){
-        try {
-
-            GatewayBuilder gatewayBuilder = new GatewayBuilder();
-            //deserialize admins
-            adminAccountGateways = gatewayBuilder.getAdminAccountGateways(adminFilePath);
-
-            if (adminAccountGateways.getAdminMap().isEmpty()){
-                adminAccountGateways.beginAdminMap();
+    private void deserialize(boolean afterReset){
+        setLoginButtonsDisabled(true);
+        demoLoginButton.setDisable(true);
+        errorMessage.setText(mainMenuPresenter.loadingData());
+
+        StartupPhaseEvent ready = StartupPhaseEvent.start();
+        StartupPhaseEvent loading = StartupPhaseEvent.start();
+        startupPipeline = new StartupPipeline(dataFolderPath);
+        CompletableFuture<Void> allLoaded = startupPipeline.load();
+
+        // the program demo only needs the global inventory, which the other use cases share
+        CompletableFuture<GlobalInventoryManager> inventory = startupPipeline.getGlobalInventoryGateways()
+                .thenApply(gateway -> new UseCaseBuilder().getGlobalInventoryManager(gateway.getGlobalInventory()));
+        inventory.thenAccept(manager -> Platform.runLater(() -> {
+            globalInventoryManager = manager;
+            demoLoginButton.setDisable(false);
+        }));
+
+        allLoaded.whenCompleteAsync((ignored, error) -> {
+            if (error != null) {
+                Platform.runLater(() -> {
+                    if (afterReset) {
+                        errorMessage.setText(mainMenuPresenter.loadingError());
+                        return;
+                    }
+                    startupPipeline.reset();
+                    deserialize(true);
+                    errorMessage.setWrapText(true);
+                    errorMessage.setText(mainMenuPresenter.corruptedData());
+                });
+                return;
             }
-            //deserialize users
-            userGateway = gatewayBuilder.getUserGateway(userFilePath);
-
-            //deserialize global inventory
-            globalInventoryGateways = gatewayBuilder.getGlobalInventoryGateways(globalInventoryFilePath);
-
-            //deserialize all user trades
-            userTradesGateway = gatewayBuilder.getUserTradesGateway(tradeFilePath);
+            startupPipeline.recordTiming("load all gateways", loading);
+            UseCases useCases;
+            try {
+                useCases = buildUseCases(inventory.join());
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> errorMessage.setText(mainMenuPresenter.loadingError()));
+                throw e;
+            }
+            Platform.runLater(() -> {
+                useCases.install(this);
+                startupPipeline.recordTiming("ready to log in", ready);
+
+                loaded = true;
+                setLoginButtonsDisabled(false);
+                if (!afterReset) {
+                    errorMessage.setText(mainMenuPresenter.stringReset());
+                }
+            });
+        });
+    }
 
-            //deserialize GlobalWishlistGateway
-            globalWishlistGateway = gatewayBuilder.getGlobalWishlistGateway(globalWishlistFilePath);
+    // runs off the JavaFX thread, on use cases no other thread can reach until they are installed
+    private UseCases buildUseCases(GlobalInventoryManager inventory) {
+        StartupPhaseEvent event = StartupPhaseEvent.start();
+        UseCaseBuilder useCaseBuilder = new UseCaseBuilder();
+        UseCases useCases = new UseCases();
+
+        useCases.adminManager = useCaseBuilder.getAdminManager(
+                startupPipeline.getAdminAccountGateways().join().getAdminMap(),
+                startupPipeline.getAdminMessageGateway().join().getMessages());
+        useCases.userManager = useCaseBuilder.getUserManager(startupPipeline.getUserGateway().join().getMapOfUsers(),
+                startupPipeline.getUsernameTable(), startupPipeline.getUserLimitsGateway().join().getUserLimits());
+        useCases.tradeManager =
+                useCaseBuilder.getTradeManager(startupPipeline.getUserTradesGateway().join().getUserTrades());
+        useCases.globalInventoryManager = inventory;
+        useCases.globalWishlistManager = useCaseBuilder.getGlobalWishlistManager(
+                startupPipeline.getGlobalWishlistGateway().join().getWishlistItems());
+        WantGraph wantGraph = useCaseBuilder.getWantGraph(inventory, useCases.globalWishlistManager,
+                useCases.userManager.getUsernameTable());
+        useCases.tradeCycleFinder = useCaseBuilder.getTradeCycleFinder(wantGraph, inventory);
+        useCases.mutualMatchIndex = useCaseBuilder.getMutualMatchIndex(wantGraph);
+        useCases.loanAllocator = useCaseBuilder.getLoanAllocator(wantGraph, useCases.userManager,
+                useCases.tradeManager);
+        useCases.itemRecommender = useCaseBuilder.getItemRecommender(wantGraph, useCases.tradeManager);
+        useCases.duplicateItemIndex = useCaseBuilder.getDuplicateItemIndex(inventory);
+        useCases.fuzzyLookup = useCaseBuilder.getFuzzyLookup(useCases.userManager, inventory);
+        useCases.usernameCompleter = useCaseBuilder.getUsernameCompleter(useCases.userManager, inventory);
+        useCases.reputationTracker = useCaseBuilder.getReputationTracker(useCases.tradeManager,
+                useCases.userManager.getUsernameTable());
+        useCases.tradeNetworkAnalyzer = useCaseBuilder.getTradeNetworkAnalyzer(useCases.tradeManager,
+                useCases.userManager);
+        useCases.abuseDetector = useCaseBuilder.getAbuseDetector(useCases.userManager, useCases.adminManager,
+                useCases.tradeManager);
+        useCases.meetingScheduler = useCaseBuilder.getMeetingScheduler(useCases.tradeManager, useCases.userManager,
+                startupPipeline.getPendingMeetingsGateway().join().getPendingMeetings());
+        useCases.auditLogManager = useCaseBuilder.getAuditLogManager(startupPipeline.getAuditLogGateway().join());
+        // look for trade cycles and recommendations in the background so they are ready when someone asks, loans and
+        // reputations are only looked for when a user asks for one
+        useCases.tradeCycleFinder.findAll();
+        useCases.itemRecommender.refreshAll();
+        startupPipeline.recordTiming("build use cases", event);
+        return useCases;
+    }
 
-            //deserialize AdminMessageGateway
-            adminMessageGateway = gatewayBuilder.getAdminMessageGateways(adminMessagesFilePath);
-        }
-        catch(IOException | ClassNotFoundException ex) {
-            deleteFile(adminFilePath);
-            deleteFile(userFilePath);
-            deleteFile(globalInventoryFilePath);
-            deleteFile(adminMessagesFilePath);
-            deleteFile(globalWishlistFilePath);
-            deleteFile(tradeFilePath);
-
-            deleteFile(dataFolderPath);
-            new File(dataFolderPath).mkdirs();
-
-            deserialize();
-            errorMessage.setWrapText(true);
-            errorMessage.setText(mainMenuPresenter.corruptedData());
-            return;
+    /**
+     * The use cases built from the loaded data, handed to the JavaFX thread once they are all built
+     */
+    private static class UseCases {
+        private AdminManager adminManager;
+        private UserManager userManager;
+        private TradeManager tradeManager;
+        private GlobalInventoryManager globalInventoryManager;
+        private GlobalWishlistManager globalWishlistManager;
+        private TradeCycleFinder tradeCycleFinder;
+        private MutualMatchIndex mutualMatchIndex;
+        private LoanAllocator loanAllocator;
+        private ItemRecommender itemRecommender;
+        private DuplicateItemIndex duplicateItemIndex;
+        private FuzzyLookup fuzzyLookup;
+        private UsernameCompleter usernameCompleter;
+        private ReputationTracker reputationTracker;
+        private TradeNetworkAnalyzer tradeNetworkAnalyzer;
+        private AbuseDetector abuseDetector;
+        private MeetingScheduler meetingScheduler;
+        private AuditLogManager auditLogManager;
+
+        // must be called on the JavaFX thread
+        private void install(MainMenuController controller) {
+            controller.adminManager = adminManager;
+            controller.userManager = userManager;
+            controller.tradeManager = tradeManager;
+            controller.globalInventoryManager = globalInventoryManager;
+            controller.globalWishlistManager = globalWishlistManager;
+            controller.tradeCycleFinder = tradeCycleFinder;
+            controller.mutualMatchIndex = mutualMatchIndex;
+            controller.loanAllocator = loanAllocator;
+            controller.itemRecommender = itemRecommender;
+            controller.duplicateItemIndex = duplicateItemIndex;
+            controller.fuzzyLookup = fuzzyLookup;
+            controller.usernameCompleter = usernameCompleter;
+            controller.reputationTracker = reputationTracker;
+            controller.tradeNetworkAnalyzer = tradeNetworkAnalyzer;
+            controller.abuseDetector = abuseDetector;
+            controller.meetingScheduler = meetingScheduler;
+            controller.auditLogManager = auditLogManager;
         }
+    }
 
-        UseCaseBuilder useCaseBuilder = new UseCaseBuilder();
-
-        adminManager = useCaseBuilder.getAdminManager(adminAccountGateways.getAdminMap(),
-                adminMessageGateway.getMessages());
-        userManager = useCaseBuilder.getUserManager(userGateway.getMapOfUsers());
-        tradeManager =
-                useCaseBuilder.getTradeManager(userTradesGateway.getUserTrades());
-        globalInventoryManager =
-                useCaseBuilder.getGlobalInventoryManager(globalInventoryGateways.getGlobalInventory());
-        globalWishlistManager =
-                useCaseBuilder.getGlobalWishlistManager(globalWishlistGateway.getWishlistItems());
+    private void setLoginButtonsDisabled(boolean disabled) {
+        userLoginButton.setDisable(disabled);
+        userSignUpButton.setDisable(disabled);
+        adminLoginButton.setDisable(disabled);
     }
 
 
@@ -209,25 +318,17 @@ public class MainMenuController implements Initializable {
      * shared by all admins, the GlobalWishList, all UserTrades
      */
     private void serialize() {
-
+        long started = SERIALIZE_TIMER.start();
         try {
-            userGateway.writeToFile(userFilePath, userManager.getUserData());
-            globalInventoryGateways.writeToFile(globalInventoryManager.getGlobalInventoryData());
-            userTradesGateway.writeToFile(tradeFilePath, tradeManager.getTradeData());
-            globalWishlistGateway.writeToFile(globalWishlistFilePath, globalWishlistManager.getGlobalWishlistData());
-            adminAccountGateways.saveToFile(adminManager.getAdminData());
-            adminMessageGateway.writeToFile(adminMessagesFilePath, adminManager.getAdminMessages());
+            startupPipeline.save(userManager, tradeManager, globalInventoryManager, globalWishlistManager,
+                    adminManager);
         }
         catch (IOException e) {
             errorMessage.setText(mainMenuPresenter.savingError());
         }
-    }
-
-    // code for deleteFile is similar to: https://www.w3schools.com/java/java_files_delete.asp
-
-    private boolean deleteFile (String fileToDelete) {
-        File myObj = new File(fileToDelete);
-        return myObj.delete();
+        finally {
+            SERIALIZE_TIMER.stop(started);
+        }
     }
 
 }
@@ -0,0 +1,33 @@
+package frontend.mainMenuGUI.listeners;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one phase of the startup, like loading a gateway or building the use cases. Started with
+ * start() when the phase starts and ended by StartupPipeline.recordTiming.
+ */
+@Name("tradeprogram.StartupPhase")
+@Label("Startup Phase")
+@Category({"TradeProgram", "Startup"})
+@Description("A phase of loading the data and getting the program ready to log in")
+class StartupPhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    // what System.nanoTime() returned when the phase started; transient, so it is not recorded
+    transient long started;
+
+    /**
+     * Starts timing a phase
+     * @return the event to pass to StartupPipeline.recordTiming once the phase is done
+     */
+    static StartupPhaseEvent start() {
+        StartupPhaseEvent event = new StartupPhaseEvent();
+        event.started = System.nanoTime();
+        event.begin();
+        return event;
+    }
+}
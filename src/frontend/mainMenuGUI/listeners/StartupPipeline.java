@@ -0,0 +1,295 @@
+package frontend.mainMenuGUI.listeners;
+
+import entities.UsernameTable;
+import gateways.*;
+import metrics.Metrics;
+import use_cases.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class StartupPipeline {
+    /**
+     * The names of the files and folders of every gateway inside the data folder
+     */
+    public static final String ADMINS_FILE = "serializedAdmins.ser";
+    public static final String USERS_FILE = "serializedUsers.ser";
+    public static final String GLOBAL_INVENTORY_FILE = "serializedGlobalInventory.ser";
+    public static final String ADMIN_MESSAGES_FILE = "serializedAdminMessages.ser";
+    public static final String GLOBAL_WISHLIST_FILE = "serializedGlobalWishlist.ser";
+    public static final String USER_TRADES_FILE = "serializedUserTrades.ser";
+    public static final String USERNAMES_FILE = "serializedUsernames.ser";
+    public static final String USER_LIMITS_FILE = "serializedUserLimits.ser";
+    public static final String PENDING_MEETINGS_FILE = "serializedPendingMeetings.ser";
+    public static final String AUDIT_LOG_FOLDER = "auditLog";
+    /**
+     * The name of the file inside the data folder that a snapshot of the metrics is written to on every save
+     */
+    public static final String METRICS_FILE = "metrics.txt";
+    /**
+     * The extension reset() adds to the files of an older version instead of deleting them
+     */
+    public static final String BACKUP_EXTENSION = ".bak";
+
+    private final String adminFilePath;
+    private final String userFilePath;
+    private final String globalInventoryFilePath;
+    private final String adminMessagesFilePath;
+    private final String globalWishlistFilePath;
+    private final String tradeFilePath;
+    private final String usernamesFilePath;
+    private final String userLimitsFilePath;
+    private final String pendingMeetingsFilePath;
+    private final String auditLogFolderPath;
+    private final String metricsFilePath;
+    private final String dataFolderPath;
+
+    private final GatewayBuilder gatewayBuilder = new GatewayBuilder();
+    private ExecutorService executor;
+
+    private CompletableFuture<AdminAccountGateways> adminAccountGateways;
+    private CompletableFuture<UserGateway> userGateway;
+    private CompletableFuture<GlobalInventoryGateways> globalInventoryGateways;
+    private CompletableFuture<UserTradesGateway> userTradesGateway;
+    private CompletableFuture<GlobalWishlistGateway> globalWishlistGateway;
+    private CompletableFuture<AdminMessageGateway> adminMessageGateway;
+    private CompletableFuture<UsernameTableGateway> usernameTableGateway;
+    private CompletableFuture<UserLimitsGateway> userLimitsGateway;
+    private CompletableFuture<PendingMeetingsGateway> pendingMeetingsGateway;
+    private CompletableFuture<AuditLogGateway> auditLogGateway;
+
+    /**
+     * Creates a pipeline that loads every gateway stored in the given data folder.
+     * @param dataFolderPath the folder (ending with "/") where all the .ser files are stored
+     */
+    public StartupPipeline(String dataFolderPath) {
+        this.dataFolderPath = dataFolderPath;
+        this.adminFilePath = dataFolderPath + ADMINS_FILE;
+        this.userFilePath = dataFolderPath + USERS_FILE;
+        this.globalInventoryFilePath = dataFolderPath + GLOBAL_INVENTORY_FILE;
+        this.adminMessagesFilePath = dataFolderPath + ADMIN_MESSAGES_FILE;
+        this.globalWishlistFilePath = dataFolderPath + GLOBAL_WISHLIST_FILE;
+        this.tradeFilePath = dataFolderPath + USER_TRADES_FILE;
+        this.usernamesFilePath = dataFolderPath + USERNAMES_FILE;
+        this.userLimitsFilePath = dataFolderPath + USER_LIMITS_FILE;
+        this.pendingMeetingsFilePath = dataFolderPath + PENDING_MEETINGS_FILE;
+        this.auditLogFolderPath = dataFolderPath + AUDIT_LOG_FOLDER;
+        this.metricsFilePath = dataFolderPath + METRICS_FILE;
+    }
+
+    /**
+     * Starts loading all gateways at the same time, each one on its own thread, so the total load time is bounded
+     * by the slowest file rather than the sum of all files. The usernames are loaded first so that every username
+     * gets back its saved ID before the other files intern theirs into the same table.
+     * @return a future that completes once every gateway has been loaded
+     */
+    public CompletableFuture<Void> load() {
+        new File(dataFolderPath).mkdirs();
+        executor = Executors.newFixedThreadPool(6, runnable -> {
+            Thread thread = new Thread(runnable, "gateway-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        usernameTableGateway = timed(CompletableFuture.completedFuture(null), "usernames",
+                () -> gatewayBuilder.getUsernameTableGateway(usernamesFilePath));
+        adminAccountGateways = timed("admins", () -> {
+            AdminAccountGateways gateway = gatewayBuilder.getAdminAccountGateways(adminFilePath);
+            if (gateway.getAdminMap().isEmpty()) {
+                gateway.beginAdminMap();
+            }
+            return gateway;
+        });
+        userGateway = timed("users", () -> gatewayBuilder.getUserGateway(userFilePath, getUsernameTable()));
+        globalInventoryGateways = timed("global inventory",
+                () -> gatewayBuilder.getGlobalInventoryGateways(globalInventoryFilePath, getUsernameTable()));
+        userTradesGateway = timed("user trades",
+                () -> gatewayBuilder.getUserTradesGateway(tradeFilePath, getUsernameTable()));
+        globalWishlistGateway = timed("global wishlist",
+                () -> gatewayBuilder.getGlobalWishlistGateway(globalWishlistFilePath, getUsernameTable()));
+        adminMessageGateway = timed("admin messages",
+                () -> gatewayBuilder.getAdminMessageGateways(adminMessagesFilePath, getUsernameTable()));
+        userLimitsGateway = timed("user limits", () -> gatewayBuilder.getUserLimitsGateway(userLimitsFilePath));
+        pendingMeetingsGateway = timed("pending meetings",
+                () -> gatewayBuilder.getPendingMeetingsGateway(pendingMeetingsFilePath));
+        auditLogGateway = timed("audit log", () -> gatewayBuilder.getAuditLogGateway(auditLogFolderPath));
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(usernameTableGateway, adminAccountGateways, userGateway,
+                globalInventoryGateways, userTradesGateway, globalWishlistGateway, adminMessageGateway,
+                userLimitsGateway, pendingMeetingsGateway, auditLogGateway);
+        all.whenComplete((ignored, error) -> executor.shutdown());
+        return all;
+    }
+
+    /**
+     * Deletes every data file, including the record and index files of the users and trades, so that the next call to
+     * load() starts from an empty system. The users and trades files of an older version are the only copy of what
+     * they hold until it is saved again, so they are moved aside to a .bak file instead. The audit log is append-only
+     * and is kept as it is, or moved aside to a .bak folder if it is what could not be loaded.
+     */
+    public void reset() {
+        new File(userFilePath).renameTo(new File(userFilePath + BACKUP_EXTENSION));
+        new File(tradeFilePath).renameTo(new File(tradeFilePath + BACKUP_EXTENSION));
+        if (auditLogGateway != null && auditLogGateway.isDone() && !auditLogGateway.isCompletedExceptionally()) {
+            try {
+                // the next load opens the log again
+                auditLogGateway.join().close();
+            } catch (IOException ignored) {
+                // no admin can have acted before the load failed, so the buffer of the log is empty
+            }
+        } else if (auditLogGateway != null) {
+            new File(auditLogFolderPath).renameTo(
+                    new File(auditLogFolderPath + "." + System.currentTimeMillis() + BACKUP_EXTENSION));
+        }
+        File[] dataFiles = new File(dataFolderPath).listFiles();
+        if (dataFiles != null) {
+            for (File dataFile : dataFiles) {
+                if (!dataFile.isDirectory() && !dataFile.getName().endsWith(BACKUP_EXTENSION)) {
+                    deleteFile(dataFile.getPath());
+                }
+            }
+        }
+        new File(dataFolderPath).mkdirs();
+    }
+
+    /**
+     * Serializes all objects used by the program back into the files they were loaded from, writes the audit
+     * log entries still in its buffer to disk, and writes a snapshot of the metrics next to them. The users and trades
+     * files of an older version are deleted once all of this has succeeded.
+     * Must only be called once load() has completed.
+     * @param userManager the UserManager holding all users
+     * @param tradeManager the TradeManager holding all user trades
+     * @param globalInventoryManager the GlobalInventoryManager holding the global inventory
+     * @param globalWishlistManager the GlobalWishlistManager holding the global wishlist
+     * @param adminManager the AdminManager holding all admins and their shared messages
+     * @throws IOException when an error occur when serializing
+     */
+    public void save(UserManager userManager, TradeManager tradeManager, GlobalInventoryManager globalInventoryManager,
+                     GlobalWishlistManager globalWishlistManager, AdminManager adminManager) throws IOException {
+        userGateway.join().writeToFile(userFilePath, userManager.getUserData());
+        globalInventoryGateways.join().writeToFile(globalInventoryManager.getGlobalInventoryData());
+        userTradesGateway.join().writeToFile(tradeFilePath, tradeManager.getTradeData());
+        globalWishlistGateway.join().writeToFile(globalWishlistFilePath, globalWishlistManager.getGlobalWishlistData());
+        adminAccountGateways.join().saveToFile(adminManager.getAdminData());
+        adminMessageGateway.join().writeToFile(adminMessagesFilePath, adminManager.getAdminMessages());
+        usernameTableGateway.join().writeToFile(usernamesFilePath);
+        userLimitsGateway.join().writeToFile(userLimitsFilePath, userManager.getUserLimits());
+        // the MeetingScheduler keeps the meetings up to date in the object it was given by the gateway
+        pendingMeetingsGateway.join().writeToFile(pendingMeetingsFilePath,
+                pendingMeetingsGateway.join().getPendingMeetings());
+        auditLogGateway.join().flush();
+        Metrics.writeSnapshot(metricsFilePath);
+        // only now is everything the files of an older version held saved again
+        userGateway.join().deleteOldFile(userFilePath);
+        userTradesGateway.join().deleteOldFile(tradeFilePath);
+    }
+
+    /**
+     * Records how long a phase of the startup took, in the timer "StartupPipeline." + phase of the metrics, and as a
+     * flight recorder event
+     * @param phase the name of the phase
+     * @param event the event started when the phase started
+     */
+    void recordTiming(String phase, StartupPhaseEvent event) {
+        long nanos = System.nanoTime() - event.started;
+        Metrics.timer("StartupPipeline." + phase).record(nanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.commit();
+        }
+    }
+
+    /**
+     * Getter for the table of all usernames, which every other gateway reads its file into.
+     * Must only be called once the usernames are loaded, which every other gateway waits for.
+     * @return the UsernameTable of the loaded data
+     */
+    public UsernameTable getUsernameTable() { return usernameTableGateway.join().getUsernameTable(); }
+
+    /**
+     * Getter for the gateway of all admin accounts
+     * @return future of the AdminAccountGateways
+     */
+    public CompletableFuture<AdminAccountGateways> getAdminAccountGateways() { return adminAccountGateways; }
+
+    /**
+     * Getter for the gateway of all users
+     * @return future of the UserGateway
+     */
+    public CompletableFuture<UserGateway> getUserGateway() { return userGateway; }
+
+    /**
+     * Getter for the gateway of the global inventory
+     * @return future of the GlobalInventoryGateways
+     */
+    public CompletableFuture<GlobalInventoryGateways> getGlobalInventoryGateways() { return globalInventoryGateways; }
+
+    /**
+     * Getter for the gateway of all user trades
+     * @return future of the UserTradesGateway
+     */
+    public CompletableFuture<UserTradesGateway> getUserTradesGateway() { return userTradesGateway; }
+
+    /**
+     * Getter for the gateway of the global wishlist
+     * @return future of the GlobalWishlistGateway
+     */
+    public CompletableFuture<GlobalWishlistGateway> getGlobalWishlistGateway() { return globalWishlistGateway; }
+
+    /**
+     * Getter for the gateway of the messages shared by all admins
+     * @return future of the AdminMessageGateway
+     */
+    public CompletableFuture<AdminMessageGateway> getAdminMessageGateway() { return adminMessageGateway; }
+
+    /**
+     * Getter for the gateway of the limits of every user who does not have their own
+     * @return future of the UserLimitsGateway
+     */
+    public CompletableFuture<UserLimitsGateway> getUserLimitsGateway() { return userLimitsGateway; }
+
+    /**
+     * Getter for the gateway of the meetings of the trade requests that are not answered yet
+     * @return future of the PendingMeetingsGateway
+     */
+    public CompletableFuture<PendingMeetingsGateway> getPendingMeetingsGateway() { return pendingMeetingsGateway; }
+
+    /**
+     * Getter for the gateway of the audit log of admin actions
+     * @return future of the AuditLogGateway
+     */
+    public CompletableFuture<AuditLogGateway> getAuditLogGateway() { return auditLogGateway; }
+
+    private <T> CompletableFuture<T> timed(String phase, GatewayLoader<T> loader) {
+        return timed(usernameTableGateway, phase, loader);
+    }
+
+    private <T> CompletableFuture<T> timed(CompletableFuture<?> after, String phase, GatewayLoader<T> loader) {
+        return after.thenApplyAsync(ignored -> {
+            StartupPhaseEvent event = StartupPhaseEvent.start();
+            try {
+                T gateway = loader.load();
+                recordTiming(phase, event);
+                return gateway;
+            } catch (IOException | ClassNotFoundException ex) {
+                throw new CompletionException(ex);
+            }
+        }, executor);
+    }
+
+    // code for deleteFile is similar to: https://www.w3schools.com/java/java_files_delete.asp
+
+    private boolean deleteFile(String fileToDelete) {
+        File myObj = new File(fileToDelete);
+        return myObj.delete();
+    }
+
+    private interface GatewayLoader<T> {
+        T load() throws IOException, ClassNotFoundException;
+    }
+}
@@ -18,10 +18,12 @@ public class UseCaseBuilder {
     /**
      * build the UserManager use case
      * @param userList list of all users
+     * @param usernames the UsernameTable of the system
+     * @param userLimits the limits of every user who does not have their own
      * @return UserManager use case
      */
-    public UserManager getUserManager(Map<String, User> userList){
-        return new UserManager(userList);
+    public UserManager getUserManager(Map<String, User> userList, UsernameTable usernames, UserLimits userLimits){
+        return new UserManager(userList, usernames, userLimits);
     }
     /**
      * builds the TradeManager use case
@@ -47,6 +49,128 @@ public class UseCaseBuilder {
     public GlobalWishlistManager getGlobalWishlistManager(GlobalWishlist globalWishlist){
         return new GlobalWishlistManager(globalWishlist);
     }
+    /**
+     * builds the WantGraph use case, which keeps itself up to date with the wishlist and global inventory
+     * @param globalInventoryManager the GlobalInventoryManager use case
+     * @param globalWishlistManager the GlobalWishlistManager use case
+     * @param usernames the UsernameTable of the system
+     * @return WantGraph use case
+     */
+    public WantGraph getWantGraph(GlobalInventoryManager globalInventoryManager,
+                                  GlobalWishlistManager globalWishlistManager, UsernameTable usernames){
+        return new WantGraph(globalInventoryManager, globalWishlistManager, usernames);
+    }
+    /**
+     * builds the TradeCycleFinder use case
+     * @param wantGraph the WantGraph use case
+     * @param globalInventoryManager the GlobalInventoryManager use case
+     * @return TradeCycleFinder use case
+     */
+    public TradeCycleFinder getTradeCycleFinder(WantGraph wantGraph, GlobalInventoryManager globalInventoryManager){
+        return new TradeCycleFinder(wantGraph, globalInventoryManager);
+    }
+    /**
+     * builds the MutualMatchIndex use case
+     * @param wantGraph the WantGraph use case
+     * @return MutualMatchIndex use case
+     */
+    public MutualMatchIndex getMutualMatchIndex(WantGraph wantGraph){
+        return new MutualMatchIndex(wantGraph);
+    }
+    /**
+     * builds the LoanAllocator use case, limited by the trading rules of every user
+     * @param wantGraph the WantGraph use case
+     * @param userManager the UserManager use case
+     * @param tradeManager the TradeManager use case
+     * @return LoanAllocator use case
+     */
+    public LoanAllocator getLoanAllocator(WantGraph wantGraph, UserManager userManager, TradeManager tradeManager){
+        return new LoanAllocator(wantGraph, LoanAllocator.limitOf(userManager, tradeManager));
+    }
+    /**
+     * builds the DuplicateItemIndex use case
+     * @param globalInventoryManager the GlobalInventoryManager use case
+     * @return DuplicateItemIndex use case
+     */
+    public DuplicateItemIndex getDuplicateItemIndex(GlobalInventoryManager globalInventoryManager){
+        return new DuplicateItemIndex(globalInventoryManager);
+    }
+    /**
+     * builds the FuzzyLookup use case
+     * @param userManager the UserManager use case
+     * @param globalInventoryManager the GlobalInventoryManager use case
+     * @return FuzzyLookup use case
+     */
+    public FuzzyLookup getFuzzyLookup(UserManager userManager, GlobalInventoryManager globalInventoryManager){
+        return new FuzzyLookup(userManager, globalInventoryManager);
+    }
+    /**
+     * builds the UsernameCompleter use case
+     * @param userManager the UserManager use case
+     * @param globalInventoryManager the GlobalInventoryManager use case
+     * @return UsernameCompleter use case
+     */
+    public UsernameCompleter getUsernameCompleter(UserManager userManager,
+                                                  GlobalInventoryManager globalInventoryManager){
+        return new UsernameCompleter(userManager, globalInventoryManager);
+    }
+    /**
+     * builds the ReputationTracker use case
+     * @param tradeManager the TradeManager use case
+     * @param usernames the UsernameTable of the system
+     * @return ReputationTracker use case
+     */
+    public ReputationTracker getReputationTracker(TradeManager tradeManager, UsernameTable usernames){
+        return new ReputationTracker(tradeManager, usernames);
+    }
+    /**
+     * builds the TradeNetworkAnalyzer use case
+     * @param tradeManager the TradeManager use case
+     * @param userManager the UserManager use case
+     * @return TradeNetworkAnalyzer use case
+     */
+    public TradeNetworkAnalyzer getTradeNetworkAnalyzer(TradeManager tradeManager, UserManager userManager){
+        return new TradeNetworkAnalyzer(tradeManager, userManager);
+    }
+    /**
+     * builds the AbuseDetector use case
+     * @param userManager the UserManager use case
+     * @param adminManager the AdminManager use case
+     * @param tradeManager the TradeManager use case
+     * @return AbuseDetector use case
+     */
+    public AbuseDetector getAbuseDetector(UserManager userManager, AdminManager adminManager,
+                                          TradeManager tradeManager){
+        return new AbuseDetector(userManager, adminManager, tradeManager);
+    }
+    /**
+     * builds the MeetingScheduler use case
+     * @param tradeManager the TradeManager use case
+     * @param userManager the UserManager use case
+     * @param pendingMeetings the meetings of the trade requests that are not answered yet
+     * @return MeetingScheduler use case
+     */
+    public MeetingScheduler getMeetingScheduler(TradeManager tradeManager, UserManager userManager,
+                                                PendingMeetings pendingMeetings){
+        return new MeetingScheduler(tradeManager, userManager, pendingMeetings);
+    }
+    /**
+     * builds the AuditLogManager use case
+     * @param store where the audit log is kept
+     * @return AuditLogManager use case
+     */
+    public AuditLogManager getAuditLogManager(AuditLogStore store){
+        return new AuditLogManager(store);
+    }
+    /**
+     * builds the ItemRecommender use case
+     * @param wantGraph the WantGraph use case
+     * @param tradeManager the TradeManager use case
+     * @return ItemRecommender use case
+     */
+    public ItemRecommender getItemRecommender(WantGraph wantGraph, TradeManager tradeManager){
+        return new ItemRecommender(wantGraph, tradeManager);
+    }
     /**
      * builds the DemoUserManager use case
      * @param username user's entered username
@@ -51,6 +51,22 @@ public class MainMenuPresenter {
         return "Exit";
     }
 
+    /**
+     * Tells user that their data is still being loaded.
+     * @return String telling user "Loading data..."
+     */
+    public String loadingData(){
+        return "Loading data...";
+    }
+
+    /**
+     * Tells user that their data files could not be loaded even after being reset.
+     * @return String telling user "The data folder could not be loaded."
+     */
+    public String loadingError(){
+        return "The data folder could not be loaded.";
+    }
+
     /**
      * Tells user there was an issue in saving to their data files.
      * @return String telling user "An error has occurred with saving."
@@ -2,6 +2,8 @@ package frontend.messageReplyGUI.listeners;
 
 import entities.Message;
 import use_cases.AdminManager;
+import use_cases.AuditLogManager;
+import use_cases.DuplicateItemIndex;
 import use_cases.GlobalInventoryManager;
 import use_cases.UserManager;
 
@@ -16,10 +18,14 @@ public class AdminMessageReplyGUI extends MessageReplyGUI{
      * @param userManager the user manager of the system
      * @param adminManager the admin manager of the system
      * @param globalInventoryManager the global inventory manager of the system
+     * @param duplicateItemIndex the index of similar items, used to show the duplicates of new item requests
+     * @param auditLogManager the audit log, where the replies to requests are recorded
      */
     public AdminMessageReplyGUI(AdminManager adminManager, GlobalInventoryManager globalInventoryManager,
-                               UserManager userManager, String accountUsername){
-        super(adminManager, globalInventoryManager, null, userManager, accountUsername);
+                               UserManager userManager, String accountUsername,
+                               DuplicateItemIndex duplicateItemIndex, AuditLogManager auditLogManager){
+        super(adminManager, globalInventoryManager, null, userManager, accountUsername, duplicateItemIndex, null,
+                null, auditLogManager);
     }
 
     /**
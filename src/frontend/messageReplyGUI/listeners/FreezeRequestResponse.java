@@ -1,8 +1,10 @@
 package frontend.messageReplyGUI.listeners;
 
+import entities.AuditEntry;
 import entities.FreezeRequest;
 import entities.Message;
 import frontend.messageReplyGUI.presenters.MessageReplyPresenter;
+import use_cases.AuditLogManager;
 import use_cases.MessageBuilder;
 import use_cases.UserManager;
 
@@ -13,6 +15,8 @@ public class FreezeRequestResponse implements MessageResponse {
     private FreezeRequest message;
     private List<Message> messageList;
     private UserManager userManager;
+    private AuditLogManager auditLogManager;
+    private String admin;
 
     /**
      * Class constructor.
@@ -20,8 +24,13 @@ public class FreezeRequestResponse implements MessageResponse {
      * @param message the freeze request message
      * @param userManager the user manager of the system
      * @param messageList the copyed message list from the source of the freeze request
+     * @param auditLogManager the audit log of the system, or null to not record the replies
+     * @param admin the username of the admin replying
      */
-    FreezeRequestResponse(FreezeRequest message, List<Message> messageList, UserManager userManager){
+    FreezeRequestResponse(FreezeRequest message, List<Message> messageList, UserManager userManager,
+                          AuditLogManager auditLogManager, String admin){
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
         this.message = message;
         this.messageList = messageList;
         this.userManager = userManager;
@@ -49,15 +58,22 @@ public class FreezeRequestResponse implements MessageResponse {
             String username = message.getUser();
             userManager.freezeUserAccount(username);
             messageList.remove(message);
+            record(AuditEntry.Action.FREEZE, username, "asked for");
 
             //informing the other user
-            MessageBuilder messageBuilder = new MessageBuilder();
+            MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
             userManager.addUserMessage(username,
                     messageBuilder.getSystemMessage("Your account is frozen"));
         }
         //Action: Ignore
         else if(action.equals(validActions[1])){
             messageList.remove(message);
+            record(AuditEntry.Action.DISMISS_REQUEST, message.getUser(), "freeze request");
         }
     }
+
+    // records what the admin did, when replying to the requests as an admin
+    private void record(AuditEntry.Action action, String target, String details) {
+        if (auditLogManager != null) auditLogManager.record(admin, action, target, details);
+    }
 }
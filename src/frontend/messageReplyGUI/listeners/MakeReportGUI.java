@@ -1,6 +1,7 @@
 package frontend.messageReplyGUI.listeners;
 
 import entities.Message;
+import entities.UsernameTable;
 import frontend.messageReplyGUI.presenters.MessageReplyPresenter;
 import frontend.popUp.PopUp;
 import javafx.event.ActionEvent;
@@ -28,6 +29,7 @@ public class MakeReportGUI implements Initializable {
     private MessageReplyPresenter messageReplyPresenter = new MessageReplyPresenter();
     private Message message;
     private AdminManager adminManager;
+    private UsernameTable usernames;
     private String accountName;
 
     /**
@@ -35,11 +37,13 @@ public class MakeReportGUI implements Initializable {
      * Create a new MessageReplyPresenter that allows the user to make a report
      * @param message the message
      * @param adminManager the admin manager of the system
+     * @param usernames the UsernameTable of the system
      * @param accountName the username of the current user using the system
      */
-    MakeReportGUI(Message message, AdminManager adminManager, String accountName){
+    MakeReportGUI(Message message, AdminManager adminManager, UsernameTable usernames, String accountName){
         this.message = message;
         this.adminManager = adminManager;
+        this.usernames = usernames;
         this.accountName = accountName;
     }
 
@@ -64,7 +68,7 @@ public class MakeReportGUI implements Initializable {
     }
 
     private void makeReport(ActionEvent e){
-        MessageBuilder messageBuilder = new MessageBuilder();
+        MessageBuilder messageBuilder = new MessageBuilder(usernames);
         String reason = userInput.getText();
 
         //checking if the reason the user enter is valid
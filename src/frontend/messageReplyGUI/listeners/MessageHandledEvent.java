@@ -0,0 +1,61 @@
+package frontend.messageReplyGUI.listeners;
+
+import entities.Message;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one reply to a message, as an admin answering a request or as a user answering a trade
+ * request or a private message.
+ */
+@Name("tradeprogram.MessageHandled")
+@Label("Message Handled")
+@Category({"TradeProgram", "Messages"})
+@Description("An admin or a user replying to one of their messages")
+class MessageHandledEvent extends jdk.jfr.Event {
+    @Label("Screen")
+    @Description("AdminMessageReplyGUI for the messages of the admins, UserMessageReplyGUI for those of a user")
+    String screen;
+
+    @Label("Account")
+    String account;
+
+    @Label("Message Type")
+    String messageType;
+
+    @Label("Sender")
+    String sender;
+
+    @Label("Action")
+    String action;
+
+    /**
+     * Starts timing a reply
+     * @return the event to commit once the reply is done
+     */
+    static MessageHandledEvent start() {
+        MessageHandledEvent event = new MessageHandledEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and records it, if the flight recorder wants it
+     * @param screen the screen the reply was made on
+     * @param account the username of the admin or user replying
+     * @param message the message replied to
+     * @param action the action chosen as the reply
+     */
+    void commit(MessageReplyGUI screen, String account, Message message, String action) {
+        end();
+        if (!shouldCommit()) return;
+        this.screen = screen.getClass().getSimpleName();
+        this.account = account;
+        this.messageType = message.getClass().getSimpleName();
+        this.sender = message.getSender();
+        this.action = action;
+        commit();
+    }
+}
@@ -7,6 +7,8 @@ import javafx.scene.control.*;
 import javafx.scene.Node;
 import javafx.stage.Stage;
 import javafx.event.ActionEvent;
+import metrics.Metrics;
+import metrics.Timer;
 
 import java.net.URL;
 import java.util.HashMap;
@@ -15,7 +17,11 @@ import java.util.ResourceBundle;
 
 import entities.*;
 import use_cases.AdminManager;
+import use_cases.AuditLogManager;
+import use_cases.DuplicateItemIndex;
+import use_cases.ReputationTracker;
 import use_cases.GlobalInventoryManager;
+import use_cases.MeetingScheduler;
 import use_cases.TradeManager;
 import use_cases.UserManager;
 
@@ -43,16 +49,23 @@ public abstract class MessageReplyGUI implements Initializable{
      * @param userManager the user manager of the system
      * @param tradeManager the trade manager of the system
      * @param globalInventoryManager the global inventory manager of the system
+     * @param duplicateItemIndex the index of similar items of the system, or null to not look for duplicates
+     * @param reputationTracker the reputations of the traders of the system, or null to not show them
+     * @param meetingScheduler the meetings the users of the system have, or null to not check edited trade requests
+     * @param auditLogManager the audit log of the system, or null to not record the replies to requests
      */
     MessageReplyGUI(AdminManager adminManager, GlobalInventoryManager globalInventoryManager,
-                           TradeManager tradeManager, UserManager userManager, String accountUsername){
+                           TradeManager tradeManager, UserManager userManager, String accountUsername,
+                           DuplicateItemIndex duplicateItemIndex, ReputationTracker reputationTracker,
+                           MeetingScheduler meetingScheduler, AuditLogManager auditLogManager){
         this.adminManager = adminManager;
         this.userManager = userManager;
         this.accountUsername = accountUsername;
 
         //Setting up the message response factory
         factory = new MessageResponseFactory(adminManager, globalInventoryManager, tradeManager,
-                userManager, accountUsername);
+                userManager, accountUsername, duplicateItemIndex, reputationTracker, meetingScheduler,
+                auditLogManager);
         factory.setMessageList(getMessage());
     }
 
@@ -97,7 +110,7 @@ public abstract class MessageReplyGUI implements Initializable{
 
             messageResponse = factory.getMessageResponse(message);
             String[] s = messageResponse.getActions();
-            messageContent.setText(messageReplyPresenter.messageString(message));
+            messageContent.setText(messageReplyPresenter.messageString(message) + messageResponse.getDetails());
             messageContent.setWrapText(true);
 
             //Adding the buttons for the unqiue actions
@@ -108,7 +121,17 @@ public abstract class MessageReplyGUI implements Initializable{
                 buttons[i] = new Button(action);
                 buttons[i].setWrapText(true);
                 buttons[i].setOnAction(e -> {
-                    messageResponse.doAction(action);
+                    //Timed here rather than in each response, the one place every reply goes through
+                    Timer timer = Metrics.timer("MessageResponse." + messageResponse.getClass().getSimpleName()
+                            + ".doAction");
+                    long started = timer.start();
+                    MessageHandledEvent event = MessageHandledEvent.start();
+                    try {
+                        messageResponse.doAction(action);
+                    } finally {
+                        timer.stop(started);
+                        event.commit(this, accountUsername, message, action);
+                    }
                     refresh();
                     setUp();
                 });
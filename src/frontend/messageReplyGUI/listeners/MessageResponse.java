@@ -12,4 +12,12 @@ public interface MessageResponse {
      * @param action the action passed in
      */
     void doAction(String action);
+
+    /**
+     * Method to get anything worth knowing about the message that is not in the message itself
+     * @return the details in string, or an empty string if there are none
+     */
+    default String getDetails() {
+        return "";
+    }
 }
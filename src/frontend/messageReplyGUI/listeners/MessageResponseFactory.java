@@ -2,7 +2,11 @@ package frontend.messageReplyGUI.listeners;
 
 import entities.*;
 import use_cases.AdminManager;
+import use_cases.AuditLogManager;
+import use_cases.DuplicateItemIndex;
 import use_cases.GlobalInventoryManager;
+import use_cases.MeetingScheduler;
+import use_cases.ReputationTracker;
 import use_cases.TradeManager;
 import use_cases.UserManager;
 
@@ -15,6 +19,10 @@ public class MessageResponseFactory {
     private String accountUsername;
     private AdminManager adminManager;
     private List<Message> messageList;
+    private DuplicateItemIndex duplicateItemIndex;
+    private ReputationTracker reputationTracker;
+    private MeetingScheduler meetingScheduler;
+    private AuditLogManager auditLogManager;
 
     /**
      * Class constructor.
@@ -24,15 +32,25 @@ public class MessageResponseFactory {
      * @param userManager the user manager of the system
      * @param tradeManager the trade manager of the system
      * @param globalInventoryManager the global inventory manager of the system
+     * @param duplicateItemIndex the index of similar items of the system, or null to not look for duplicates
+     * @param reputationTracker the reputations of the traders of the system, or null to not show them
+     * @param meetingScheduler the meetings the users of the system have, or null to not check edited trade requests
+     * @param auditLogManager the audit log of the system, or null to not record the replies to requests
      */
     MessageResponseFactory(AdminManager adminManager, GlobalInventoryManager globalInventoryManager,
                                   TradeManager tradeManager, UserManager userManager,
-                                  String accountUsername){
+                                  String accountUsername, DuplicateItemIndex duplicateItemIndex,
+                                  ReputationTracker reputationTracker, MeetingScheduler meetingScheduler,
+                                  AuditLogManager auditLogManager){
         this.adminManager = adminManager;
         this.globalInventoryManager = globalInventoryManager;
         this.tradeManager = tradeManager;
         this.userManager = userManager;
         this.accountUsername = accountUsername;
+        this.duplicateItemIndex = duplicateItemIndex;
+        this.reputationTracker = reputationTracker;
+        this.meetingScheduler = meetingScheduler;
+        this.auditLogManager = auditLogManager;
     }
 
     /**
@@ -61,26 +79,32 @@ public class MessageResponseFactory {
             return new SystemMessageResponse(message, messageList);
         }
         else if(message instanceof PrivateMessage){
-            return new PrivateMessageResponse(message, adminManager, messageList, accountUsername);
+            return new PrivateMessageResponse(message, adminManager, userManager.getUsernameTable(), messageList,
+                    accountUsername);
         }
         else if(message instanceof FreezeRequest){
-            return new FreezeRequestResponse((FreezeRequest) message, messageList, userManager);
+            return new FreezeRequestResponse((FreezeRequest) message, messageList, userManager, auditLogManager,
+                    accountUsername);
         }
         else if(message instanceof UnfreezeRequest){
-            return new UnfreezeRequestResponse((UnfreezeRequest) message, messageList, userManager);
+            return new UnfreezeRequestResponse((UnfreezeRequest) message, messageList, userManager, auditLogManager,
+                    accountUsername);
         }
         else if(message instanceof ReportRequest){
-            return new ReportRequestResponse((ReportRequest) message, messageList, userManager);
+            return new ReportRequestResponse((ReportRequest) message, messageList, userManager, auditLogManager,
+                    accountUsername);
         }
         else if(message instanceof UnbanRequest){
-            return new UnbanRequestResponse((UnbanRequest) message, messageList, userManager);
+            return new UnbanRequestResponse((UnbanRequest) message, messageList, userManager, auditLogManager,
+                    accountUsername);
         }
         else if(message instanceof NewItemRequest){
-            return new NewItemRequestResponse((NewItemRequest)message, messageList, userManager, globalInventoryManager);
+            return new NewItemRequestResponse((NewItemRequest)message, messageList, userManager, globalInventoryManager,
+                    duplicateItemIndex, auditLogManager, accountUsername);
         }
         else {
             return new TradeRequestResponse((TradeRequest)message, messageList, userManager, globalInventoryManager,
-                    tradeManager, accountUsername);
+                    tradeManager, accountUsername, reputationTracker, meetingScheduler);
         }
     }
 }
@@ -1,13 +1,17 @@
 package frontend.messageReplyGUI.listeners;
 
+import entities.AuditEntry;
 import entities.Item;
 import entities.NewItemRequest;
 import entities.Message;
 import frontend.messageReplyGUI.presenters.MessageReplyPresenter;
+import use_cases.AuditLogManager;
+import use_cases.DuplicateItemIndex;
 import use_cases.GlobalInventoryManager;
 import use_cases.MessageBuilder;
 import use_cases.UserManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class NewItemRequestResponse implements MessageResponse {
@@ -15,7 +19,10 @@ public class NewItemRequestResponse implements MessageResponse {
     private NewItemRequest message;
     private List<Message> messageList;
     private UserManager userManager;
+    private AuditLogManager auditLogManager;
+    private String admin;
     private GlobalInventoryManager globalInventoryManager;
+    private DuplicateItemIndex duplicateItemIndex;
 
     /**
      * Class constructor.
@@ -24,13 +31,38 @@ public class NewItemRequestResponse implements MessageResponse {
      * @param userManager the user manager of the system
      * @param messageList the copyed message list from the source of the new item request
      * @param globalInventoryManager the global inventory manager of the system
+     * @param duplicateItemIndex the index of similar items of the system, or null to not look for duplicates
+     * @param auditLogManager the audit log of the system, or null to not record the replies
+     * @param admin the username of the admin replying
      */
     NewItemRequestResponse(NewItemRequest message, List<Message> messageList, UserManager userManager,
-                           GlobalInventoryManager globalInventoryManager){
+                           GlobalInventoryManager globalInventoryManager, DuplicateItemIndex duplicateItemIndex,
+                           AuditLogManager auditLogManager, String admin){
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
         this.message = message;
         this.messageList = messageList;
         this.userManager = userManager;
         this.globalInventoryManager = globalInventoryManager;
+        this.duplicateItemIndex = duplicateItemIndex;
+    }
+
+    /**
+     * Method to get the items already in the system or in other new item requests that are probably the same item
+     * @return the probable duplicates in string
+     */
+    @Override
+    public String getDetails() {
+        if(duplicateItemIndex == null) return messageReplyPresenter.emptyString();
+        Item item = message.getNewItem();
+        List<Item> requested = new ArrayList<>();
+        for(Message m: messageList){
+            if(m != message && m instanceof NewItemRequest &&
+                    duplicateItemIndex.isDuplicate(item, ((NewItemRequest) m).getNewItem())){
+                requested.add(((NewItemRequest) m).getNewItem());
+            }
+        }
+        return messageReplyPresenter.possibleDuplicates(duplicateItemIndex.findDuplicates(item), requested);
     }
 
     /**
@@ -52,10 +84,11 @@ public class NewItemRequestResponse implements MessageResponse {
         //Action: Approval
         if(action.equals(validActions[0])){
             messageList.remove(message);
-            MessageBuilder messageBuilder = new MessageBuilder();
+            MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
 
             Item item = message.getNewItem();
             globalInventoryManager.addItemToHashMap(item);
+            record(AuditEntry.Action.APPROVE_ITEM, item.getOwnerName(), item.getName());
             //Informing the other user
             userManager.addUserMessage(item.getOwnerName(),
                     messageBuilder.getSystemMessage("Your Item: "+item+
@@ -64,9 +97,10 @@ public class NewItemRequestResponse implements MessageResponse {
         //Action: Rejection
         else if(action.equals(validActions[1])){
             messageList.remove(message);
-            MessageBuilder messageBuilder = new MessageBuilder();
+            MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
 
             Item item = message.getNewItem();
+            record(AuditEntry.Action.REJECT_ITEM, item.getOwnerName(), item.getName());
 
             //Informing the other user
             userManager.addUserMessage(item.getOwnerName(),
@@ -74,4 +108,9 @@ public class NewItemRequestResponse implements MessageResponse {
                             "\nHas been rejected"));
         }
     }
+
+    // records what the admin did, when replying to the requests as an admin
+    private void record(AuditEntry.Action action, String target, String details) {
+        if (auditLogManager != null) auditLogManager.record(admin, action, target, details);
+    }
 }
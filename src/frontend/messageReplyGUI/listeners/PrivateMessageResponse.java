@@ -13,14 +13,15 @@ import java.util.List;
 
 import javafx.stage.StageStyle;
 import entities.Message;
+import entities.UsernameTable;
 import use_cases.AdminManager;
 
 public class PrivateMessageResponse implements MessageResponse {
-
     private MessageReplyPresenter messageReplyPresenter = new MessageReplyPresenter();
     private Message message;
     private List<Message> messageList;
     private AdminManager adminManager;
+    private UsernameTable usernames;
     private String accountName;
 
     private final String reportCreationFilepath = "/frontend/messageReplyGUI/fxml_files/MakeReport.fxml";
@@ -30,12 +31,15 @@ public class PrivateMessageResponse implements MessageResponse {
      * Create a new PrivateMessageResponse that responses to the user's action for a private message
      * @param message the message
      * @param adminManager the admin manager of the system
+     * @param usernames the UsernameTable of the system
      * @param messageList the copyed message list from the source of the new item request
      * @param accountName the username of the current user using the system
      */
-    PrivateMessageResponse(Message message, AdminManager adminManager, List<Message> messageList, String accountName){
+    PrivateMessageResponse(Message message, AdminManager adminManager, UsernameTable usernames,
+                           List<Message> messageList, String accountName){
         this.message = message;
         this.adminManager = adminManager;
+        this.usernames = usernames;
         this.messageList = messageList;
         this.accountName = accountName;
     }
@@ -66,7 +70,7 @@ public class PrivateMessageResponse implements MessageResponse {
             try {
                 Stage window = new Stage();
                 FXMLLoader reportLoader = new FXMLLoader(getClass().getResource(reportCreationFilepath));
-                reportLoader.setController(new MakeReportGUI(message, adminManager, accountName));
+                reportLoader.setController(new MakeReportGUI(message, adminManager, usernames, accountName));
                 Parent root = reportLoader.load();
 
                 window.initModality(Modality.APPLICATION_MODAL);
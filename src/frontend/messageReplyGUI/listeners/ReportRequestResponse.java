@@ -1,8 +1,10 @@
 package frontend.messageReplyGUI.listeners;
 
+import entities.AuditEntry;
 import entities.ReportRequest;
 import entities.Message;
 import frontend.messageReplyGUI.presenters.MessageReplyPresenter;
+import use_cases.AuditLogManager;
 import use_cases.UserManager;
 
 import java.util.List;
@@ -12,6 +14,8 @@ public class ReportRequestResponse implements MessageResponse {
     private ReportRequest message;
     private List<Message> messageList;
     private UserManager userManager;
+    private AuditLogManager auditLogManager;
+    private String admin;
 
     /**
      * Class constructor.
@@ -19,8 +23,13 @@ public class ReportRequestResponse implements MessageResponse {
      * @param message the message
      * @param userManager the user manager of the system
      * @param messageList the copyed message list from the source of the new item request
+     * @param auditLogManager the audit log of the system, or null to not record the replies
+     * @param admin the username of the admin replying
      */
-    ReportRequestResponse(ReportRequest message, List<Message> messageList, UserManager userManager){
+    ReportRequestResponse(ReportRequest message, List<Message> messageList, UserManager userManager,
+                          AuditLogManager auditLogManager, String admin){
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
         this.message = message;
         this.messageList = messageList;
         this.userManager = userManager;
@@ -46,15 +55,24 @@ public class ReportRequestResponse implements MessageResponse {
         if(action.equals(validActions[0])){
             messageList.remove(message);
             userManager.banUserAccount(message.getReportedPerson());
+            record(AuditEntry.Action.BAN, message.getReportedPerson(), "reported by " + message.getReporter());
         }
         //Action: Ignore
         else if(action.equals(validActions[1])){
             messageList.remove(message);
+            record(AuditEntry.Action.DISMISS_REQUEST, message.getReportedPerson(),
+                    "report by " + message.getReporter());
         }
         //Action: Ban reporter
         else if(action.equals(validActions[2])){
             messageList.remove(message);
             userManager.banUserAccount(message.getReporter());
+            record(AuditEntry.Action.BAN, message.getReporter(), "reported " + message.getReportedPerson());
         }
     }
+
+    // records what the admin did, when replying to the requests as an admin
+    private void record(AuditEntry.Action action, String target, String details) {
+        if (auditLogManager != null) auditLogManager.record(admin, action, target, details);
+    }
 }
@@ -10,6 +10,7 @@ import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.stage.Stage;
+import use_cases.MeetingScheduler;
 import use_cases.MessageBuilder;
 import use_cases.TradeRequestManager;
 import use_cases.UserManager;
@@ -27,6 +28,7 @@ public class TradeRequestCannotConfirmGUI implements Initializable {
     private TradeRequestManager tradeRequestManager;
     private List<Message> messages;
     private UserManager userManager;
+    private MeetingScheduler meetingScheduler;
 
     private MessageReplyPresenter messageReplyPresenter = new MessageReplyPresenter();
 
@@ -36,12 +38,14 @@ public class TradeRequestCannotConfirmGUI implements Initializable {
      * @param tradeRequestManager the trade request manager with the message in it
      * @param userManager the user manager of the system
      * @param messages the copyed message list from the source of the new item request
+     * @param meetingScheduler the meetings the users of the system have, or null if they are not kept
      */
     TradeRequestCannotConfirmGUI(TradeRequestManager tradeRequestManager, UserManager userManager,
-                                         List<Message> messages){
+                                         List<Message> messages, MeetingScheduler meetingScheduler){
         this.tradeRequestManager = tradeRequestManager;
         this.userManager = userManager;
         this.messages = messages;
+        this.meetingScheduler = meetingScheduler;
     }
 
     private void exit(ActionEvent e){
@@ -65,9 +69,10 @@ public class TradeRequestCannotConfirmGUI implements Initializable {
         button1.setOnAction(this::exit);
         button2.setText(messageReplyPresenter.delete());
         button2.setOnAction(e -> {
-            MessageBuilder messageBuilder = new MessageBuilder();
+            MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
             Message message = tradeRequestManager.getTradeRequest();
             messages.remove(message);
+            if(meetingScheduler != null) meetingScheduler.requestClosed(tradeRequestManager.getTradeRequest());
             userManager.addUserMessage(message.getSender(),
                     messageBuilder.getSystemMessage("You or the other trader cannot create a " +
                             "new trade at this time or the items involved or not for trade at this time. " +
@@ -1,6 +1,7 @@
 package frontend.messageReplyGUI.listeners;
 
 import entities.Message;
+import entities.TradeRequest;
 import frontend.messageReplyGUI.presenters.MessageReplyPresenter;
 import frontend.popUp.PopUp;
 import javafx.event.ActionEvent;
@@ -11,6 +12,7 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
+import use_cases.MeetingScheduler;
 import use_cases.TradeRequestManager;
 import use_cases.UserManager;
 
@@ -33,6 +35,7 @@ public class TradeRequestEditGUI implements Initializable {
     private TradeRequestManager tradeRequestManager;
     private String accountUsername;
     private UserManager userManager;
+    private MeetingScheduler meetingScheduler;
     private List<Message> messages;
     private MessageReplyPresenter messageReplyPresenter = new MessageReplyPresenter();
 
@@ -43,14 +46,16 @@ public class TradeRequestEditGUI implements Initializable {
      * @param userManager the user manager of the system
      * @param accountUsername the username of the user that is currently login
      * @param messages the copyed message list from the source of the new item request
+     * @param meetingScheduler the meetings the users of the system have, or null to not check the new date
      */
     TradeRequestEditGUI (TradeRequestManager tradeRequestManager, UserManager userManager,
                                 List<Message> messages,
-                                String accountUsername){
+                                String accountUsername, MeetingScheduler meetingScheduler){
         this.userManager = userManager;
         this.tradeRequestManager = tradeRequestManager;
         this.accountUsername = accountUsername;
         this.messages =messages;
+        this.meetingScheduler = meetingScheduler;
     }
 
     /**
@@ -96,6 +101,18 @@ public class TradeRequestEditGUI implements Initializable {
                 new PopUp(messageReplyPresenter.enterDateInPast());
                 return;
             }
+
+            //Checking the new date against the other meetings of both users
+            if (meetingScheduler != null) {
+                TradeRequest request = tradeRequestManager.getTradeRequest();
+                List<String> busyUsers = meetingScheduler.getBusyUsers(request.getUserA(), request.getUserB(),
+                        newDate, request);
+                if (!busyUsers.isEmpty()) {
+                    new PopUp(messageReplyPresenter.meetingConflict(busyUsers, meetingScheduler.suggestFreeTimes(
+                            request.getUserA(), request.getUserB(), newDate, request)));
+                    return;
+                }
+            }
         }
 
         else if(place.length() != 0){
@@ -106,6 +123,8 @@ public class TradeRequestEditGUI implements Initializable {
             return;
         }
         messages.remove(tradeRequestManager.getTradeRequest());
+        //The meeting is counted again, at its new time, once the edited request is sent
+        if (meetingScheduler != null) meetingScheduler.requestClosed(tradeRequestManager.getTradeRequest());
         tradeRequestManager.setDateAndPlace(accountUsername, newDate, newPlace);
         userManager.addUserMessage(receiver, tradeRequestManager.getTradeRequest());
         new PopUp(messageReplyPresenter.success());
@@ -15,6 +15,7 @@ import use_cases.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TradeRequestResponse implements MessageResponse {
@@ -25,6 +26,8 @@ public class TradeRequestResponse implements MessageResponse {
     private TradeManager tradeManager;
     private GlobalInventoryManager globalInventoryManager;
     private String accountUsername;
+    private ReputationTracker reputationTracker;
+    private MeetingScheduler meetingScheduler;
 
     private final String tradeRequestCannotConfirmFilepath = "/frontend/messageReplyGUI/fxml_files/TradeRequestCannotConfirm.fxml";
     private final String tradeRequestEditFilepath = "/frontend/messageReplyGUI/fxml_files/TradeRequestEdit.fxml";
@@ -38,16 +41,21 @@ public class TradeRequestResponse implements MessageResponse {
      * @param globalInventoryManager the global inventory manager of the system
      * @param messageList the copyed message list from the source of the new item request
      * @param accountName the username of the current user using the system
+     * @param reputationTracker the reputations of the traders of the system, or null to not show them
+     * @param meetingScheduler the meetings the users of the system have, or null to not check edits against them
      */
     TradeRequestResponse(TradeRequest message, List<Message> messageList, UserManager userManager,
-                         GlobalInventoryManager globalInventoryManager, TradeManager tradeManager, String accountName){
+                         GlobalInventoryManager globalInventoryManager, TradeManager tradeManager, String accountName,
+                         ReputationTracker reputationTracker, MeetingScheduler meetingScheduler){
         this.messageList = messageList;
         this.userManager = userManager;
         this.tradeManager = tradeManager;
         this.globalInventoryManager = globalInventoryManager;
         accountUsername = accountName;
+        this.reputationTracker = reputationTracker;
+        this.meetingScheduler = meetingScheduler;
 
-        tradeRequestManager = new TradeRequestManager(message);
+        tradeRequestManager = new TradeRequestManager(message, userManager.getUsernameTable());
 
         //Creates a popup window to warning the user if they have reached the max number of edits
         if(!tradeRequestManager.canEdit(accountName)&&!tradeRequestManager.canEdit(message.getSender())){
@@ -61,7 +69,25 @@ public class TradeRequestResponse implements MessageResponse {
      */
     @Override
     public String[] getActions() {
-        return messageReplyPresenter.requestAction(tradeRequestManager.getTradeRequest());
+        String[] actions = messageReplyPresenter.requestAction(tradeRequestManager.getTradeRequest());
+        //The meetings of a cycle are set together by its proposer, an edit would only go back to them
+        if(!tradeRequestManager.getTradeRequest().getCycle().isEmpty()) return Arrays.copyOf(actions, 2);
+        return actions;
+    }
+
+    /**
+     * Method to get how reliable the other traders of the trade request have been, to help decide what to do with it
+     * @return the reputations of the other traders, or an empty string if they are not kept
+     */
+    @Override
+    public String getDetails() {
+        if(reputationTracker == null) return messageReplyPresenter.emptyString();
+        TradeRequest message = tradeRequestManager.getTradeRequest();
+        List<Reputation> reputations = new ArrayList<>();
+        for(String user: new String[]{message.getUserA(), message.getUserB()}){
+            if(!user.equals(accountUsername)) reputations.add(reputationTracker.getReputation(user));
+        }
+        return messageReplyPresenter.traderReputations(reputations);
     }
 
     /**
@@ -79,19 +105,37 @@ public class TradeRequestResponse implements MessageResponse {
         //Action: Reject
         else if(action.equals(validActions[1])){
             messageList.remove(tradeRequestManager.getTradeRequest());
+            requestClosed();
+            withdrawCycle();
 
-            //Informing the other user
-            MessageBuilder messageBuilder = new MessageBuilder();
-            userManager.addUserMessage(message.getSender(),
-                    messageBuilder.getSystemMessage("Your trade request:"+message.toString()+
-                            "\n is rejected by "+ accountUsername));
+            MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
+            if(message.getCycle().isEmpty()){
+                //Informing the other user
+                userManager.addUserMessage(message.getSender(),
+                        messageBuilder.getSystemMessage("Your trade request:"+message.toString()+
+                                "\n is rejected by "+ accountUsername));
+            }
+            //Informing the rest of the trade cycle and its proposer, their trade requests were taken back
+            List<String> informed = new ArrayList<>(message.getCycle());
+            if(!informed.isEmpty() && !informed.contains(message.getSender())
+                    && userManager.isValidUser(message.getSender())){
+                informed.add(message.getSender());
+            }
+            for(String user: informed){
+                if(!user.equals(accountUsername)){
+                    userManager.addUserMessage(user, messageBuilder.getSystemMessage(
+                            messageReplyPresenter.tradeCycleBroken(message.getCycle(), accountUsername)));
+                }
+            }
         }
         //Action: Edit
-        else if(action.equals(validActions[2])){
+        else if(validActions.length > 2 && action.equals(validActions[2])){
             //If the max number of edits have been reach, delete the message
             if(!tradeRequestManager.canEdit(accountUsername)&&!tradeRequestManager.canEdit(message.getSender())){
                 new PopUp(messageReplyPresenter.tradeRequestCancel());
                 messageList.remove(message);
+                requestClosed();
+                withdrawCycle();
                 return;
             }
 
@@ -104,14 +148,68 @@ public class TradeRequestResponse implements MessageResponse {
     //----------------Helpers----------------//
     private void confirmTrade(){
         TradeRequest message = tradeRequestManager.getTradeRequest();
+        //The trades of a cycle are only made together, once every trade request of it is accepted
+        if(!message.getCycle().isEmpty()){
+            confirmCycle(message);
+            return;
+        }
         //Checking if the person can confirm
-        if(cannotTrade(message.getUserA(),message.getItemA())||cannotTrade(message.getUserB(), message.getItemB())){
+        if(cannotTrade(message)){
             tradeRequestCannotConfirm();
             return;
         }
         //Confirming the trade
         messageList.remove(message);
-        Trade trade = tradeRequestManager.setConfirmation();
+        requestClosed();
+        makeTrade(tradeRequestManager);
+
+        //Telling the user their action is done successfully
+        new PopUp(messageReplyPresenter.success());
+    }
+
+    private void confirmCycle(TradeRequest message){
+        if(cannotTrade(message)){
+            new PopUp(messageReplyPresenter.tradeCycleCannotConfirm(message));
+            return;
+        }
+        message.setAccepted(true);
+        List<TradeRequest> cycleRequests = userManager.getCycleRequests(message);
+        boolean everyoneAccepted = cycleRequests.size() >= message.getCycle().size();
+        for(TradeRequest request: cycleRequests){
+            if(!request.isAccepted()) everyoneAccepted = false;
+        }
+        if(!everyoneAccepted){
+            new PopUp(messageReplyPresenter.tradeCycleAccepted());
+            return;
+        }
+        //Checking again that every trade can still be made, as the others were accepted a while ago
+        for(TradeRequest request: cycleRequests){
+            if(cannotTrade(request)){
+                new PopUp(messageReplyPresenter.tradeCycleCannotConfirm(request));
+                return;
+            }
+        }
+        //Confirming every trade of the cycle
+        messageList.remove(message);
+        userManager.withdrawCycleRequests(message, accountUsername);
+        for(TradeRequest request: cycleRequests){
+            if(meetingScheduler != null) meetingScheduler.requestClosed(request);
+            makeTrade(new TradeRequestManager(request, userManager.getUsernameTable()));
+        }
+
+        //Informing the rest of the cycle, their trades were made
+        MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
+        for(String user: message.getCycle()){
+            if(!user.equals(accountUsername)){
+                userManager.addUserMessage(user, messageBuilder.getSystemMessage(
+                        messageReplyPresenter.tradeCycleConfirmed(message.getCycle())));
+            }
+        }
+        new PopUp(messageReplyPresenter.success());
+    }
+
+    private void makeTrade(TradeRequestManager request){
+        Trade trade = request.setConfirmation();
         //Add trade to both user's trade history
         tradeManager.addTrade(trade);
 
@@ -124,9 +222,10 @@ public class TradeRequestResponse implements MessageResponse {
         for(Item i:list) {
             globalInventoryManager.removeItemOnly(i.getItemID());
         }
+    }
 
-        //Telling the user their action is done successfully
-        new PopUp(messageReplyPresenter.success());
+    private boolean cannotTrade(TradeRequest request){
+        return cannotTrade(request.getUserA(), request.getItemA()) || cannotTrade(request.getUserB(), request.getItemB());
     }
 
     private boolean cannotTrade(String username, List<Item> userItem){
@@ -151,16 +250,31 @@ public class TradeRequestResponse implements MessageResponse {
         return false;
     }
 
+    private void requestClosed(){
+        //The meeting of the trade request no longer takes up the users' time
+        if(meetingScheduler != null) meetingScheduler.requestClosed(tradeRequestManager.getTradeRequest());
+    }
+
+    private void withdrawCycle(){
+        //The other trade requests of the cycle cannot be confirmed without this one, so they are taken back
+        for(TradeRequest sibling: userManager.withdrawCycleRequests(tradeRequestManager.getTradeRequest(),
+                accountUsername)){
+            if(meetingScheduler != null) meetingScheduler.requestClosed(sibling);
+        }
+    }
+
     private void tradeRequestEdit(){
         //Creating the tradeRequestEdit UI
         setNewWindow(tradeRequestEditFilepath,
-                new TradeRequestEditGUI(tradeRequestManager, userManager, messageList, accountUsername));
+                new TradeRequestEditGUI(tradeRequestManager, userManager, messageList, accountUsername,
+                        meetingScheduler));
     }
 
     private void tradeRequestCannotConfirm(){
         //Creating the tradeRequestCannotConfirm UI
         setNewWindow(tradeRequestCannotConfirmFilepath,
-                new TradeRequestCannotConfirmGUI(tradeRequestManager, userManager, messageList));
+                new TradeRequestCannotConfirmGUI(tradeRequestManager, userManager, messageList,
+                        meetingScheduler));
     }
 
     private void setNewWindow(String filepath, Initializable controller){
@@ -1,8 +1,10 @@
 package frontend.messageReplyGUI.listeners;
 
+import entities.AuditEntry;
 import entities.UnbanRequest;
 import entities.Message;
 import frontend.messageReplyGUI.presenters.MessageReplyPresenter;
+import use_cases.AuditLogManager;
 import use_cases.UserManager;
 
 import java.util.List;
@@ -12,6 +14,8 @@ public class UnbanRequestResponse implements MessageResponse {
     private UnbanRequest message;
     private List<Message> messageList;
     private UserManager userManager;
+    private AuditLogManager auditLogManager;
+    private String admin;
 
     /**
      * Class constructor.
@@ -19,8 +23,13 @@ public class UnbanRequestResponse implements MessageResponse {
      * @param message the message
      * @param userManager the user manager of the system
      * @param messageList the copyed message list from the source of the new item request
+     * @param auditLogManager the audit log of the system, or null to not record the replies
+     * @param admin the username of the admin replying
      */
-    UnbanRequestResponse(UnbanRequest message, List<Message> messageList, UserManager userManager){
+    UnbanRequestResponse(UnbanRequest message, List<Message> messageList, UserManager userManager,
+                         AuditLogManager auditLogManager, String admin){
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
         this.message = message;
         this.messageList = messageList;
         this.userManager = userManager;
@@ -47,11 +56,18 @@ public class UnbanRequestResponse implements MessageResponse {
             messageList.remove(message);
             if(userManager.getUserIsBanned(message.getUser())){
                 userManager.unFreezeUserAccount(message.getUser());
+                record(AuditEntry.Action.UNBAN, message.getUser(), "asked for");
             }
         }
         //Action: Ignore
         else if(action.equals(validActions[1])){
             messageList.remove(message);
+            record(AuditEntry.Action.DISMISS_REQUEST, message.getUser(), "unban request");
         }
     }
+
+    // records what the admin did, when replying to the requests as an admin
+    private void record(AuditEntry.Action action, String target, String details) {
+        if (auditLogManager != null) auditLogManager.record(admin, action, target, details);
+    }
 }
@@ -1,8 +1,10 @@
 package frontend.messageReplyGUI.listeners;
 
+import entities.AuditEntry;
 import entities.UnfreezeRequest;
 import entities.Message;
 import frontend.messageReplyGUI.presenters.MessageReplyPresenter;
+import use_cases.AuditLogManager;
 import use_cases.MessageBuilder;
 import use_cases.UserManager;
 
@@ -13,6 +15,8 @@ public class UnfreezeRequestResponse implements MessageResponse {
     private UnfreezeRequest message;
     private List<Message> messageList;
     private UserManager userManager;
+    private AuditLogManager auditLogManager;
+    private String admin;
 
     /**
      * Class constructor.
@@ -20,8 +24,13 @@ public class UnfreezeRequestResponse implements MessageResponse {
      * @param message the unfreeze request message
      * @param userManager the user manager of the system
      * @param messageList the copyed message list from the source of the freeze request
+     * @param auditLogManager the audit log of the system, or null to not record the replies
+     * @param admin the username of the admin replying
      */
-    UnfreezeRequestResponse(UnfreezeRequest message, List<Message> messageList, UserManager userManager){
+    UnfreezeRequestResponse(UnfreezeRequest message, List<Message> messageList, UserManager userManager,
+                            AuditLogManager auditLogManager, String admin){
+        this.auditLogManager = auditLogManager;
+        this.admin = admin;
         this.message = message;
         this.messageList = messageList;
         this.userManager = userManager;
@@ -48,9 +57,10 @@ public class UnfreezeRequestResponse implements MessageResponse {
             messageList.remove(message);
             String username = message.getUser();
             userManager.unFreezeUserAccount(username);
+            record(AuditEntry.Action.UNFREEZE, username, "asked for");
 
             //informing the other user
-            MessageBuilder messageBuilder = new MessageBuilder();
+            MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
             userManager.addUserMessage(username,
                     messageBuilder.getSystemMessage("Your account is unfrozen"));
         }
@@ -58,13 +68,18 @@ public class UnfreezeRequestResponse implements MessageResponse {
         else if(action.equals(validActions[1])){
             messageList.remove(message);
             String username = message.getUser();
-
+            record(AuditEntry.Action.DISMISS_REQUEST, username, "unfreeze request");
 
             //Informing the other user
-            MessageBuilder messageBuilder = new MessageBuilder();
+            MessageBuilder messageBuilder = new MessageBuilder(userManager.getUsernameTable());
             userManager.addUserMessage(username,
                     messageBuilder.getSystemMessage("Your request is rejected"));
 
         }
     }
+
+    // records what the admin did, when replying to the requests as an admin
+    private void record(AuditEntry.Action action, String target, String details) {
+        if (auditLogManager != null) auditLogManager.record(admin, action, target, details);
+    }
 }
@@ -3,6 +3,8 @@ package frontend.messageReplyGUI.listeners;
 import entities.Message;
 import use_cases.AdminManager;
 import use_cases.GlobalInventoryManager;
+import use_cases.MeetingScheduler;
+import use_cases.ReputationTracker;
 import use_cases.TradeManager;
 import use_cases.UserManager;
 
@@ -17,10 +19,14 @@ public class UserMessageReplyGUI extends MessageReplyGUI{
      * @param userManager the user manager of the system
      * @param tradeManager the trade manager of the system
      * @param globalInventoryManager the global inventory manager of the system
+     * @param reputationTracker the reputations of the traders of the system, shown with trade requests
+     * @param meetingScheduler the meetings the users of the system have, checked when a trade request is edited
      */
     public UserMessageReplyGUI(AdminManager adminManager, GlobalInventoryManager globalInventoryManager,
-                                  TradeManager tradeManager, UserManager userManager, String accountUsername){
-        super(adminManager, globalInventoryManager, tradeManager, userManager, accountUsername);
+                                  TradeManager tradeManager, UserManager userManager, String accountUsername,
+                                  ReputationTracker reputationTracker, MeetingScheduler meetingScheduler){
+        super(adminManager, globalInventoryManager, tradeManager, userManager, accountUsername, null,
+                reputationTracker, meetingScheduler, null);
     }
 
     /**
@@ -1,6 +1,11 @@
 package frontend.messageReplyGUI.presenters;
 
 import entities.*;
+import use_cases.Reputation;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 public class MessageReplyPresenter {
 
@@ -78,6 +83,42 @@ public class MessageReplyPresenter {
         return m.getOptions();
     }
 
+    /**
+     * Return a string listing the items that are probably the same as the item of a new item request
+     * @param inInventory the similar items already in the global inventory
+     * @param requested the similar items in other new item requests
+     * @return the string listing the probable duplicates, or an empty string if there are none
+     */
+    public String possibleDuplicates(List<Item> inInventory, List<Item> requested){
+        if(inInventory.isEmpty() && requested.isEmpty()) return "";
+        StringBuilder s = new StringBuilder("\n\nPossible duplicates:");
+        for(Item item: inInventory){
+            s.append("\n- ").append(item.getName()).append(" of ").append(item.getOwnerName()).append(", in the inventory");
+        }
+        for(Item item: requested){
+            s.append("\n- ").append(item.getName()).append(" of ").append(item.getOwnerName()).append(", also requested");
+        }
+        return s.toString();
+    }
+
+    /**
+     * Return the reputations of the other traders of a trade request, shown with the request
+     * @param reputations the reputations of the other traders
+     * @return the reputations, one trader per line
+     */
+    public String traderReputations(List<Reputation> reputations){
+        if(reputations.isEmpty()) return "";
+        StringBuilder s = new StringBuilder("\n\nReputation:");
+        for(Reputation reputation: reputations){
+            s.append("\n- ").append(reputation.getUsername()).append(": ");
+            if(!reputation.hasTrades()) s.append("no trades yet");
+            else s.append(String.format("%.0f%% reliable (%.1f completed, %.1f failed, %.1f overdue recently)",
+                    reputation.getReliability() * 100, reputation.getCompleted(), reputation.getFailed(),
+                    reputation.getOverdue()));
+        }
+        return s.toString();
+    }
+
     /**
      * Return a string for exit
      * @return the string for exit
@@ -277,4 +318,59 @@ public class MessageReplyPresenter {
         return "Make at least one Edit or Exit";
     }
 
+    /**
+     * Return a string for telling a user that a trade cycle they are part of will not happen
+     * @param cycle the usernames of the cycle
+     * @param rejectedBy the user who rejected their trade in the cycle
+     * @return the string for telling the user the trade cycle is broken
+     */
+    public String tradeCycleBroken(List<String> cycle, String rejectedBy){
+        return "The trade cycle " + String.join(" -> ", cycle) + " will not happen: " + rejectedBy +
+                " rejected their trade, so none of its trades will be made.";
+    }
+
+    /**
+     * Return a string for telling a user that every trade of a trade cycle they are part of was made
+     * @param cycle the usernames of the cycle
+     * @return the string for telling the user the trade cycle will happen
+     */
+    public String tradeCycleConfirmed(List<String> cycle){
+        return "Everyone accepted their trade of the trade cycle " + String.join(" -> ", cycle) +
+                ", so all of its trades were made.";
+    }
+
+    /**
+     * Return a string for telling the user their trade of a cycle is accepted but waits for the rest of the cycle
+     * @return the string for telling the user the trades are made once everyone accepted theirs
+     */
+    public String tradeCycleAccepted(){
+        return "Accepted. The trades of the cycle are made once everyone in it accepted theirs.";
+    }
+
+    /**
+     * Return a string for telling the user a trade of their cycle cannot be made at this time
+     * @param request the trade request of the cycle that cannot be confirmed
+     * @return the string for telling the user the cycle cannot be confirmed yet
+     */
+    public String tradeCycleCannotConfirm(TradeRequest request){
+        return "The trade between " + request.getUserA() + " and " + request.getUserB() + " cannot be made at this " +
+                "time, so the trades of the cycle are not made yet. Reject your trade to cancel the cycle.";
+    }
+
+    /**
+     * Return a string for telling the user the new date is too close to another meeting of the traders
+     * @param busyUsers the traders who already have a meeting around the new date
+     * @param freeTimes the closest times both traders are free, closest first
+     * @return the string for telling the user who is busy and when to meet instead
+     */
+    public String meetingConflict(List<String> busyUsers, List<LocalDateTime> freeTimes){
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        StringBuilder message = new StringBuilder(String.join(" and ", busyUsers) +
+                " already have a meeting around that time.");
+        if (freeTimes.isEmpty()) return message.append(" Try another day.").toString();
+        message.append(" Both traders are free at:");
+        for (LocalDateTime time : freeTimes) message.append("\n").append(formatter.format(time));
+        return message.toString();
+    }
+
 }
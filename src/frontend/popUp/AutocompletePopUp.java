@@ -0,0 +1,67 @@
+package frontend.popUp;
+
+import javafx.animation.PauseTransition;
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class AutocompletePopUp {
+    private static final Duration DEBOUNCE = Duration.millis(150);
+
+    private final TextField field;
+    private final Function<String, List<String>> completions;
+    private final ContextMenu menu = new ContextMenu();
+    private final PauseTransition pause = new PauseTransition(DEBOUNCE);
+    private boolean choosing;
+
+    /**
+     * Create constructor that shows completions in a small pop up under a text field as the user types.
+     * The completions are only looked up once the user stops typing for a moment, not on every key.
+     * @param field the text field
+     * @param completions gives the completions of what has been typed so far
+     */
+    public AutocompletePopUp(TextField field, Function<String, List<String>> completions) {
+        this.field = field;
+        this.completions = completions;
+        pause.setOnFinished(e -> showCompletions());
+        field.textProperty().addListener((observable, oldText, newText) -> {
+            if (choosing) return;
+            pause.playFromStart();
+        });
+        field.focusedProperty().addListener((observable, wasFocused, isFocused) -> {
+            if (!isFocused) {
+                pause.stop();
+                menu.hide();
+            }
+        });
+    }
+
+    private void showCompletions() {
+        String text = field.getText() == null ? "" : field.getText();
+        List<String> found = completions.apply(text);
+        if (found.isEmpty() || (found.size() == 1 && found.get(0).equals(text))) {
+            menu.hide();
+            return;
+        }
+        menu.getItems().clear();
+        for (String completion : found) {
+            MenuItem item = new MenuItem(completion);
+            item.setOnAction(e -> choose(completion));
+            menu.getItems().add(item);
+        }
+        if (!menu.isShowing()) menu.show(field, Side.BOTTOM, 0, 0);
+    }
+
+    private void choose(String completion) {
+        choosing = true;
+        field.setText(completion);
+        field.positionCaret(completion.length());
+        choosing = false;
+        menu.hide();
+    }
+}
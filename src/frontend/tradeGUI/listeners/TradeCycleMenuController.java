@@ -0,0 +1,178 @@
+package frontend.tradeGUI.listeners;
+
+import entities.TradeRequest;
+import exceptions.RateLimitExceededException;
+import frontend.tradeGUI.presenters.TradeMenu;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.*;
+import javafx.stage.Stage;
+import use_cases.MeetingScheduler;
+import use_cases.TradeCycle;
+import use_cases.TradeCycleFinder;
+import use_cases.UserManager;
+
+import java.net.URL;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+
+public class TradeCycleMenuController implements Initializable {
+    private static final int SHOWN_CYCLES = 100;
+
+    private TradeCycleFinder tradeCycleFinder;
+    private UserManager userManager;
+    private MeetingScheduler meetingScheduler;
+    private String username;
+    private String proposer;
+    private List<TradeCycle> shownCycles = new ArrayList<>();
+
+    @FXML private Label titleScreen;
+    @FXML private ListView<String> cycleList;
+    @FXML private DatePicker primaryDate;
+    @FXML private TextField timeOfTrade;
+    @FXML private TextField meetTrade;
+    @FXML private Label systemMessage;
+    @FXML private Button propose;
+    @FXML private Button refresh;
+    @FXML private Button exit;
+
+    /**
+     * A controller for TradeCycleMenu.fxml, which lists the best trade cycles and turns the selected one into trade
+     * requests sent to everyone in it.
+     * @param tradeCycleFinder is the TradeCycleFinder of the program.
+     * @param userManager is a UserManager that contains all the users in the program.
+     * @param username is the current user, only the cycles they are in are listed. Null to list every cycle.
+     * @param proposer is the user or admin using the menu, who sends the trade requests of the cycles they propose.
+     *                 Only a user's trade requests count towards their limits, admins are not limited.
+     * @param meetingScheduler is the MeetingScheduler of the program, the meetings of a cycle have to fit in it.
+     */
+    public TradeCycleMenuController(TradeCycleFinder tradeCycleFinder, UserManager userManager, String username,
+                                    String proposer, MeetingScheduler meetingScheduler) {
+        this.tradeCycleFinder = tradeCycleFinder;
+        this.userManager = userManager;
+        this.meetingScheduler = meetingScheduler;
+        this.username = username;
+        this.proposer = proposer;
+    }
+
+    /**
+     * Called to initialize a controller after its root element has been completely processed. (Java doc from Initializable)
+     * @param location The location used to resolve relative paths for the root object, or null if the location is not known.
+     * @param resources The resources used to localize the root object, or null if the root object was not localized.
+     */
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        titleScreen.setText(TradeMenu.CYCLES);
+        titleScreen.setAlignment(Pos.CENTER);
+        propose.setText(TradeMenu.PROPOSE);
+        refresh.setText(TradeMenu.REFRESH);
+        exit.setText(TradeMenu.EXIT);
+
+        propose.setOnAction(this::proposeAction);
+        refresh.setOnAction(e -> findCycles());
+        exit.setOnAction(this::exitAction);
+
+        if (tradeCycleFinder.hasSearched()) showCycles();
+        else findCycles();
+    }
+
+    private void findCycles() {
+        systemMessage.setText(TradeMenu.SEARCHING);
+        refresh.setDisable(true);
+        tradeCycleFinder.findAll().thenRun(() -> Platform.runLater(() -> {
+            refresh.setDisable(false);
+            showCycles();
+        }));
+    }
+
+    private void showCycles() {
+        shownCycles = tradeCycleFinder.getCycles(username, SHOWN_CYCLES);
+        cycleList.getItems().clear();
+        for (TradeCycle cycle : shownCycles) {
+            cycleList.getItems().add(TradeMenu.tradeCycle(cycle.getUsernames()));
+        }
+        systemMessage.setText(shownCycles.isEmpty() ? TradeMenu.NO_CYCLES : "");
+    }
+
+    private void proposeAction(ActionEvent actionEvent) {
+        int selected = cycleList.getSelectionModel().getSelectedIndex();
+        if (selected < 0) {
+            systemMessage.setText(TradeMenu.SELECT_CYCLE);
+            return;
+        }
+        LocalDateTime tradeDateTime;
+        try {
+            // convert LocalDate to LocalDateTime
+            LocalDate tradeDate = primaryDate.getValue();
+            LocalTime tradeTime = LocalTime.parse(timeOfTrade.getText().replaceAll("\\s+", ""),
+                    DateTimeFormatter.ofPattern("H:mm"));
+            if (tradeDate == null) {
+                systemMessage.setText(TradeMenu.ERROR);
+                return;
+            }
+            tradeDateTime = tradeDate.atTime(tradeTime);
+        } catch (DateTimeParseException ex) {
+            systemMessage.setText(TradeMenu.WRONGFORMAT);
+            return;
+        }
+        if (tradeDateTime.isBefore(LocalDateTime.now())) {
+            systemMessage.setText(TradeMenu.PASTDATE);
+            return;
+        }
+
+        TradeCycle cycle = shownCycles.get(selected);
+        List<TradeRequest> requests = tradeCycleFinder.propose(cycle, proposer, tradeDateTime, meetTrade.getText());
+        if (requests.isEmpty()) {
+            systemMessage.setText(TradeMenu.CYCLE_GONE);
+            return;
+        }
+        // every trade of the cycle has to fit in the meetings both of its users already have
+        for (TradeRequest request : requests) {
+            List<String> busyUsers = meetingScheduler.getBusyUsers(request.getUserA(), request.getUserB(),
+                    request.getDate(), null);
+            if (!busyUsers.isEmpty()) {
+                tradeCycleFinder.withdraw(cycle);
+                systemMessage.setText(TradeMenu.cycleMeetingConflict(busyUsers, request.getDate()));
+                return;
+            }
+        }
+        // every request goes to the owner of the item, who is the one to confirm it, from the proposer
+        for (TradeRequest request : requests) {
+            try {
+                if (username != null && request.getUserB().equals(proposer)) {
+                    // proposing the cycle is agreeing to give one's own item in it
+                    request.setAccepted(true);
+                    userManager.addUserMessage(proposer, request);
+                } else if (username == null) {
+                    userManager.addUserMessage(request.getUserB(), request);
+                } else {
+                    userManager.sendUserMessage(proposer, request.getUserB(), request);
+                }
+            } catch (RateLimitExceededException e) {
+                // the requests sent so far cannot be confirmed without this one
+                for (TradeRequest sent : userManager.withdrawCycleRequests(request, null)) {
+                    meetingScheduler.requestClosed(sent);
+                }
+                tradeCycleFinder.withdraw(cycle);
+                systemMessage.setText(TradeMenu.cycleTooManyRequests(e.getRetryAfterMillis()));
+                return;
+            }
+        }
+        showCycles();
+        systemMessage.setText(TradeMenu.CYCLE_PROPOSED);
+    }
+
+    private void exitAction(ActionEvent actionEvent) {
+        ((Stage) ((Node) actionEvent.getSource()).getScene().getWindow()).close();
+    }
+}
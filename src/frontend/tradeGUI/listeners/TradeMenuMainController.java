@@ -2,6 +2,7 @@ package frontend.tradeGUI.listeners;
 
 import entities.Item;
 import exceptions.IncompleteTradeException;
+import exceptions.RateLimitExceededException;
 import frontend.popUp.PopUp;
 import frontend.tradeGUI.presenters.TradeMenu;
 import javafx.event.ActionEvent;
@@ -15,6 +16,7 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import metrics.SceneSwitchEvent;
 import use_cases.*;
 
 import java.io.IOException;
@@ -36,6 +38,7 @@ public class TradeMenuMainController implements Initializable {
     private List<Item> itemsToTradeA;
     private GlobalWishlistManager globalWishlistManager;
     private String userB;
+    private MeetingScheduler meetingScheduler;
 
     @FXML private Label titleScreen;
     @FXML private TextField timeOfTrade;
@@ -59,14 +62,17 @@ public class TradeMenuMainController implements Initializable {
      * @param allUsers is a UserManager that contains all the users in the program
      * @param itemsToTradeB is a List that contains the items to trade from userB to userA.
      * @param userA is a String that contains the current user.
+     * @param meetingScheduler is a MeetingScheduler that checks the meeting against the ones both users already have
      */
-    public TradeMenuMainController(GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager, UserManager allUsers, List<Item> itemsToTradeB, String userA) {
+    public TradeMenuMainController(GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager, UserManager allUsers, List<Item> itemsToTradeB, String userA,
+                                   MeetingScheduler meetingScheduler) {
         this.itemsToTradeB = itemsToTradeB;
         this.userA = userA;
         this.userB = itemsToTradeB.get(0).getOwnerName();
         this.allUsers = allUsers;
         this.globalInventoryManager = globalInventoryManager;
         this.globalWishlistManager = globalWishlistManager;
+        this.meetingScheduler = meetingScheduler;
     }
 
     /**
@@ -148,6 +154,13 @@ public class TradeMenuMainController implements Initializable {
                 return;
             }
 
+            List<String> busyUsers = meetingScheduler.getBusyUsers(userA, userB, tradeDateTime, null);
+            if(!busyUsers.isEmpty()){
+                new PopUp(TradeMenu.meetingConflict(busyUsers,
+                        meetingScheduler.suggestFreeTimes(userA, userB, tradeDateTime, null)));
+                return;
+            }
+
             // rest of the inputs from the user.
             placeOfMeeting = meetTrade.getText();
             tradeType = typesOfTrade.getText();
@@ -163,10 +176,15 @@ public class TradeMenuMainController implements Initializable {
             perm = true;
         }
 
-        TradeRequestManager tradeRequest = new TradeRequestManager("User " + userA + " wants to trade with you.", userA, userA, userB, itemsToTradeA, itemsToTradeB, perm);
+        TradeRequestManager tradeRequest = new TradeRequestManager("User " + userA + " wants to trade with you.", userA, userA, userB, itemsToTradeA, itemsToTradeB, perm, allUsers.getUsernameTable());
         tradeRequest.setDateAndPlaceFirst(tradeDateTime, placeOfMeeting);
 
-        allUsers.addUserMessage(userB, tradeRequest.getTradeRequest());
+        try {
+            allUsers.sendUserMessage(userA, userB, tradeRequest.getTradeRequest());
+        } catch (RateLimitExceededException e) {
+            new PopUp(TradeMenu.tooManyRequests(e.getRetryAfterMillis()));
+            return;
+        }
 
         new PopUp(TradeMenu.SUCCESS);
         ((Stage)((Node)actionEvent.getSource()).getScene().getWindow()).close();
@@ -221,6 +239,7 @@ public class TradeMenuMainController implements Initializable {
     }
 
     private void switchScene(MultiTradeItemMenu multiItemMenu) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filepath));
         loader.setController(multiItemMenu);
         Parent root = loader.load();
@@ -228,6 +247,8 @@ public class TradeMenuMainController implements Initializable {
         Stage window = new Stage();
         window.initModality(Modality.APPLICATION_MODAL);
         window.setScene(newScene);
+        // before the window is shown, as showAndWait() only returns once it is closed again
+        sceneSwitch.commit(this, filepath, loader.getController());
         window.showAndWait();
     }
 
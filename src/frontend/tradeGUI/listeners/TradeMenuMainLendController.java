@@ -2,6 +2,7 @@ package frontend.tradeGUI.listeners;
 
 import entities.Item;
 import exceptions.IncompleteTradeException;
+import exceptions.RateLimitExceededException;
 import frontend.popUp.PopUp;
 import frontend.tradeGUI.presenters.TradeMenu;
 import javafx.event.ActionEvent;
@@ -10,6 +11,7 @@ import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
+import use_cases.MeetingScheduler;
 import use_cases.TradeRequestManager;
 import use_cases.UserManager;
 
@@ -29,6 +31,7 @@ public class TradeMenuMainLendController implements Initializable {
     private String userA;
     private String userB;
     private UserManager allUsers;
+    private MeetingScheduler meetingScheduler;
 
     private String tradeType;
     private String placeOfMeeting;
@@ -50,14 +53,16 @@ public class TradeMenuMainLendController implements Initializable {
      * @param itemsToTradeA is a List that contains the items that userA have and wants to loan to userB
      * @param userA is a String that contains the current user.
      * @param userB the person this user want to loan his items to
+     * @param meetingScheduler is a MeetingScheduler that checks the meeting against the ones both users already have
      *
      */
     public TradeMenuMainLendController(UserManager allUsers, List<Item> itemsToTradeA, String userA,
-                                       String userB) {
+                                       String userB, MeetingScheduler meetingScheduler) {
         this.itemsToTradeA = itemsToTradeA;
         this.userA = userA;
         this.userB = userB;
         this.allUsers = allUsers;
+        this.meetingScheduler = meetingScheduler;
     }
 
     /**
@@ -120,6 +125,13 @@ public class TradeMenuMainLendController implements Initializable {
                 return;
             }
 
+            List<String> busyUsers = meetingScheduler.getBusyUsers(userA, userB, tradeDateTime, null);
+            if(!busyUsers.isEmpty()){
+                new PopUp(TradeMenu.meetingConflict(busyUsers,
+                        meetingScheduler.suggestFreeTimes(userA, userB, tradeDateTime, null)));
+                return;
+            }
+
             // rest of the inputs from the user.
             placeOfMeeting = meetTrade.getText();
             tradeType = typesOfTrade.getText();
@@ -134,10 +146,15 @@ public class TradeMenuMainLendController implements Initializable {
             perm = true;
         }
 
-        TradeRequestManager tradeRequest = new TradeRequestManager("User " + userA + " wants to trade with you.", userA, userA, userB, itemsToTradeA, new ArrayList<>(), perm);
+        TradeRequestManager tradeRequest = new TradeRequestManager("User " + userA + " wants to trade with you.", userA, userA, userB, itemsToTradeA, new ArrayList<>(), perm, allUsers.getUsernameTable());
         tradeRequest.setDateAndPlaceFirst(tradeDateTime, placeOfMeeting);
 
-        allUsers.addUserMessage(userB, tradeRequest.getTradeRequest());
+        try {
+            allUsers.sendUserMessage(userA, userB, tradeRequest.getTradeRequest());
+        } catch (RateLimitExceededException e) {
+            new PopUp(TradeMenu.tooManyRequests(e.getRetryAfterMillis()));
+            return;
+        }
 
         new PopUp(TradeMenu.SUCCESS);
         exitProgram(actionEvent);
@@ -1,5 +1,9 @@
 package frontend.tradeGUI.presenters;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
 
 public class TradeMenu {
     public final static String TRADE = "Trade";
@@ -20,6 +24,14 @@ public class TradeMenu {
     public final static String PASTDATE = "Entered a date in the past";
     public final static String INVENTORY_PROMPT = "Please select from your items the items you want to trade";
     public final static String SELECT_ITEM = "Items selected";
+    public final static String CYCLES = "Trade cycles: everyone gets an item they want from the next user";
+    public final static String PROPOSE = "Propose";
+    public final static String REFRESH = "Refresh";
+    public final static String SEARCHING = "Looking for trade cycles...";
+    public final static String NO_CYCLES = "No trade cycles found";
+    public final static String SELECT_CYCLE = "Select a trade cycle first";
+    public final static String CYCLE_GONE = "This trade cycle is no longer possible, refresh the list";
+    public final static String CYCLE_PROPOSED = "Trade requests were sent to everyone in the cycle";
 
     /**
      * Presenter for inventory of a given username
@@ -38,4 +50,62 @@ public class TradeMenu {
     public static String itemSelected(String itemName){
         return itemName +" is selected";
     }
+
+    /**
+     * Presenter for a trade cycle in the list of cycles.
+     * @param usernames the users of the cycle, each one wants an item of the next.
+     * @return a String that presents the cycle.
+     */
+    public static String tradeCycle(List<String> usernames){
+        return usernames.size() + " users: " + String.join(" -> ", usernames) + " -> " + usernames.get(0);
+    }
+
+    /**
+     * Presenter for a trade request that was not sent because the user sent too many lately.
+     * @param retryAfterMillis the time until the user can send one again, in milliseconds.
+     * @return a String that tells the user when to try again.
+     */
+    public static String tooManyRequests(long retryAfterMillis){
+        return "You have sent too many trade requests lately, try again in " +
+                Math.max(1, (retryAfterMillis + 59999) / 60000) + " minute(s)";
+    }
+
+    /**
+     * Presenter for a trade cycle that was not proposed because the user proposing it sent too many trade requests
+     * lately.
+     * @param retryAfterMillis the time until the user can send one again, in milliseconds.
+     * @return a String that tells the user when to try the cycle again.
+     */
+    public static String cycleTooManyRequests(long retryAfterMillis){
+        return "You have sent too many trade requests lately, try the cycle again in " +
+                Math.max(1, (retryAfterMillis + 59999) / 60000) + " minute(s)";
+    }
+
+    /**
+     * Presenter for a trade cycle that was not proposed because one of its meetings is too close to another one.
+     * @param busyUsers the users of that meeting who already have a meeting around its time.
+     * @param time the time of that meeting.
+     * @return a String that tells the user who is busy and when.
+     */
+    public static String cycleMeetingConflict(List<String> busyUsers, LocalDateTime time){
+        return String.join(" and ", busyUsers) + " already have a meeting around " +
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").format(time) +
+                ", when their trade in the cycle would be. Try another time.";
+    }
+
+    /**
+     * Presenter for a trade request that was not sent because its meeting is too close to another one.
+     * @param busyUsers the users who already have a meeting around that time.
+     * @param freeTimes the closest times both users are free, closest first.
+     * @return a String that tells the user who is busy and when to meet instead.
+     */
+    public static String meetingConflict(List<String> busyUsers, List<LocalDateTime> freeTimes){
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        StringBuilder message = new StringBuilder(String.join(" and ", busyUsers) +
+                " already have a meeting around that time.");
+        if (freeTimes.isEmpty()) return message.append(" Try another day.").toString();
+        message.append(" Both of you are free at:");
+        for (LocalDateTime time : freeTimes) message.append("\n").append(formatter.format(time));
+        return message.toString();
+    }
 }
@@ -24,6 +24,7 @@ import entities.Trade;
 import javafx.stage.StageStyle;
 import use_cases.GlobalInventoryManager;
 import use_cases.GlobalWishlistManager;
+import use_cases.MeetingScheduler;
 import use_cases.TradeManager;
 import use_cases.UserManager;
 import frontend.userGUI.presenters.UserPresenter;
@@ -38,6 +39,7 @@ public class BrowseThroughUserCollection implements Initializable {
     private TradeManager tradeManager;
     private UserManager userManager;
     private GlobalWishlistManager globalWishlistManager;
+    private MeetingScheduler meetingScheduler;
     private UserPresenter userPresenter;
     private Type type;
     private Item selectedItem;
@@ -121,16 +123,18 @@ public class BrowseThroughUserCollection implements Initializable {
      * @param tradeManager the TradeManager object
      * @param globalInventoryManager the GlobalInventoryManager object
      * @param globalWishlistManager the GlobalWishlistManager object
+     * @param meetingScheduler the MeetingScheduler object
      */
     public BrowseThroughUserCollection(List<Item> userWishlist, String currUser, UserManager userManager,
                                        TradeManager tradeManager, GlobalInventoryManager globalInventoryManager,
-                                     GlobalWishlistManager globalWishlistManager) {
+                                     GlobalWishlistManager globalWishlistManager, MeetingScheduler meetingScheduler) {
         this.userItemCollection = userWishlist;
         this.currUser = currUser;
         this.userManager = userManager;
         this.tradeManager = tradeManager;
         this.globalInventoryManager = globalInventoryManager;
         this.globalWishlistManager = globalWishlistManager;
+        this.meetingScheduler = meetingScheduler;
         this.userPresenter = new UserPresenter();
         this.type = Type.WISHLIST;
         this.selectedItem = null;
@@ -322,7 +326,8 @@ public class BrowseThroughUserCollection implements Initializable {
                         this.tradeManager.numberOfTradesCreatedThisWeek(this.currUser))) {
                     FXMLLoader loader = new FXMLLoader(getClass().getResource(this.multiMenuFXML));
                     loader.setController(new MultiItemMenu(this.selectedItem, this.currUser,
-                            this.globalInventoryManager, this.userManager, this.globalWishlistManager));
+                            this.globalInventoryManager, this.userManager, this.globalWishlistManager,
+                            this.meetingScheduler));
                     Parent root = loader.load();
                     Scene newScene = new Scene(root);
                     Stage window = new Stage();
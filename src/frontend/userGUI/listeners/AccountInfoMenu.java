@@ -16,6 +16,7 @@ import javafx.scene.control.Label;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import metrics.SceneSwitchEvent;
 import use_cases.*;
 import entities.*;
 import java.io.IOException;
@@ -42,6 +43,7 @@ public class AccountInfoMenu implements Initializable {
     private TradeManager tradeManager;
     private GlobalInventoryManager globalInventoryManager;
     private GlobalWishlistManager globalWishlistManager;
+    private MeetingScheduler meetingScheduler;
     private UserPresenter userPresenter;
     private List<Trade> userTrades;
     private List<Item> userInventory;
@@ -65,14 +67,17 @@ public class AccountInfoMenu implements Initializable {
      * @param tradeManager TradeManager object
      * @param globalInventoryManager GlobalInventoryManager object
      * @param globalWishlistManager GlobalWishlistManager object
+     * @param meetingScheduler MeetingScheduler object
      */
     public AccountInfoMenu(String currUser, UserManager userManager, TradeManager tradeManager,
-                           GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager) {
+                           GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager,
+                           MeetingScheduler meetingScheduler) {
         this.currUser = currUser;
         this.userManager = userManager;
         this.tradeManager = tradeManager;
         this.globalInventoryManager = globalInventoryManager;
         this.globalWishlistManager = globalWishlistManager;
+        this.meetingScheduler = meetingScheduler;
         this.userPresenter = new UserPresenter();
     }
 
@@ -112,6 +117,7 @@ public class AccountInfoMenu implements Initializable {
      * @throws IOException for a funky input
      */
     private void switchScene(String filename) throws IOException {
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filename));
         switch(this.type) {
             // view trade history
@@ -139,7 +145,8 @@ public class AccountInfoMenu implements Initializable {
             // view user wishlist
             case WISHLIST:
                 loader.setController(new BrowseThroughUserCollection(this.userWishlist, this.currUser,
-                        this.userManager, this.tradeManager, this.globalInventoryManager, this.globalWishlistManager));
+                        this.userManager, this.tradeManager, this.globalInventoryManager, this.globalWishlistManager,
+                        this.meetingScheduler));
                 break;
         }
         Parent root = loader.load();
@@ -149,6 +156,7 @@ public class AccountInfoMenu implements Initializable {
         window.initModality(Modality.APPLICATION_MODAL);
         window.setScene(newScene);
         window.show();
+        sceneSwitch.commit(this, filename, loader.getController());
     }
 
     /**
@@ -31,6 +31,7 @@ public class LoanMenu implements Initializable {
     private UserManager userManager;
     private TradeManager tradeManager;
     private GlobalWishlistManager globalWishlistManager;
+    private MeetingScheduler meetingScheduler;
     private UserPresenter userPresenter;
     private GlobalInventoryManager globalInventoryManager;
     private List<Item> userItemChoice;
@@ -54,10 +55,11 @@ public class LoanMenu implements Initializable {
      * @param tradeManager the TradeManager object
      * @param globalWishlistManager the GlobalWishlistManager object
      * @param globalInventoryManager the GlobalInventoryManager object
+     * @param meetingScheduler the MeetingScheduler object
      */
     public LoanMenu(List<Item> userInventory, List<String> itemsToLend, String currUser, UserManager userManager,
                     TradeManager tradeManager, GlobalWishlistManager globalWishlistManager,
-                    GlobalInventoryManager globalInventoryManager) {
+                    GlobalInventoryManager globalInventoryManager, MeetingScheduler meetingScheduler) {
         this.userInventory = userInventory;
         this.itemsToLend = itemsToLend;
         this.currUser = currUser;
@@ -65,6 +67,7 @@ public class LoanMenu implements Initializable {
         this.tradeManager = tradeManager;
         this.globalWishlistManager = globalWishlistManager;
         this.globalInventoryManager = globalInventoryManager;
+        this.meetingScheduler = meetingScheduler;
         this.userPresenter = new UserPresenter();
     }
 
@@ -111,7 +114,7 @@ public class LoanMenu implements Initializable {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource(this.tradeRunFromLoanFXML));
             loader.setController(new TradeMenuMainLendController(this.userManager,
-                    this.userItemChoice, this.currUser, this.itemsToLend.get(1)));
+                    this.userItemChoice, this.currUser, this.itemsToLend.get(1), this.meetingScheduler));
             Parent root = loader.load();
             Scene newScene= new Scene(root);
             Stage window = new Stage();
@@ -2,6 +2,7 @@ package frontend.userGUI.listeners;
 
 import entities.Item;
 import entities.Message;
+import entities.UsernameTable;
 import frontend.userGUI.presenters.UserPresenter;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -25,6 +26,7 @@ public class NewItemMenu implements Initializable {
     private UserPresenter userPresenter;
     private AdminManager adminManager;
     private MessageBuilder messageBuilder;
+    private UsernameTable usernames;
     private String currUser;
 
     // FXML stuff
@@ -41,11 +43,13 @@ public class NewItemMenu implements Initializable {
      * Constructs a new NewItemMenu listener
      * @param currUser the current user
      * @param adminManager the AdminManager object
+     * @param usernames the UsernameTable of the system
      */
-    public NewItemMenu(String currUser, AdminManager adminManager) {
+    public NewItemMenu(String currUser, AdminManager adminManager, UsernameTable usernames) {
         this.currUser = currUser;
         this.adminManager = adminManager;
-        this.messageBuilder = new MessageBuilder();
+        this.usernames = usernames;
+        this.messageBuilder = new MessageBuilder(usernames);
         this.userPresenter = new UserPresenter();
     }
 
@@ -84,7 +88,7 @@ public class NewItemMenu implements Initializable {
             List<Message> adminMessages = this.adminManager.getAdminMessages();
             adminMessages.add(this.messageBuilder.getNewItemRequest("User " + this.currUser +
                             " has created a new item that requires approval.",
-                    new Item(itemName, this.currUser, itemDescription)));
+                    new Item(itemName, this.currUser, itemDescription, this.usernames)));
             this.adminManager.setAdminMessages(adminMessages);
             this.userPresenter.newItemMessageSentToAdmin();
             // tell user that it is safe to exit now
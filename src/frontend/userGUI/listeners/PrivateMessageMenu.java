@@ -1,5 +1,7 @@
 package frontend.userGUI.listeners;
 
+import exceptions.RateLimitExceededException;
+import frontend.popUp.AutocompletePopUp;
 import frontend.userGUI.presenters.UserPresenter;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -10,8 +12,10 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
+import use_cases.FuzzyLookup;
 import use_cases.MessageBuilder;
 import use_cases.UserManager;
+import use_cases.UsernameCompleter;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -31,16 +35,23 @@ public class PrivateMessageMenu implements Initializable {
     private MessageBuilder messageBuilder;
     private UserManager userManager;
     private String currUser;
+    private FuzzyLookup fuzzyLookup;
+    private UsernameCompleter usernameCompleter;
 
     /**
      * Constructs a new PrivateMessageMenu listener
      * @param userManager the UserManager object
      * @param currUser the currently logged in user
+     * @param fuzzyLookup the FuzzyLookup object, to suggest usernames when one is not found
+     * @param usernameCompleter the UsernameCompleter object, to complete usernames as they are typed
      */
-    public PrivateMessageMenu(UserManager userManager, String currUser) {
+    public PrivateMessageMenu(UserManager userManager, String currUser, FuzzyLookup fuzzyLookup,
+                              UsernameCompleter usernameCompleter) {
         this.userManager = userManager;
+        this.fuzzyLookup = fuzzyLookup;
+        this.usernameCompleter = usernameCompleter;
         this.userPresenter = new UserPresenter();
-        this.messageBuilder = new MessageBuilder();
+        this.messageBuilder = new MessageBuilder(userManager.getUsernameTable());
         this.currUser = currUser;
     }
 
@@ -60,6 +71,7 @@ public class PrivateMessageMenu implements Initializable {
         // set button functionality
         this.send.setOnAction(e -> sendMessage());
         this.cancel.setOnAction(this::returnToMenu);
+        new AutocompletePopUp(this.usernameInput, this.usernameCompleter::complete);
     }
 
     /**
@@ -77,12 +89,20 @@ public class PrivateMessageMenu implements Initializable {
         else if(!this.userManager.isValidUser(user) && !user.equals(this.currUser)) {
             this.usernameError.setVisible(true);
             this.confirmation.setVisible(false);
-            this.usernameError.setText(this.userPresenter.invalidUsername());
+            this.usernameError.setText(this.userPresenter.invalidUsername() +
+                    this.userPresenter.didYouMean(this.fuzzyLookup.suggestUsernames(user)));
         }
         // otherwise
         else {
-            this.userManager.addUserMessage(user,
-                    this.messageBuilder.getPrivateMessage(this.messageInput.getText(), this.currUser));
+            try {
+                this.userManager.sendUserMessage(this.currUser, user,
+                        this.messageBuilder.getPrivateMessage(this.messageInput.getText(), this.currUser));
+            } catch (RateLimitExceededException e) {
+                this.usernameError.setVisible(true);
+                this.confirmation.setVisible(false);
+                this.usernameError.setText(this.userPresenter.tooManyMessages(e.getRetryAfterMillis()));
+                return;
+            }
             this.usernameError.setVisible(false);
             this.confirmation.setVisible(true);
             this.confirmation.setText(this.userPresenter.userPrivateMessageConfirmation());
@@ -6,6 +6,7 @@ import entities.Trade;
 import exceptions.UserFrozenException;
 import frontend.globalInventoryGUI.listeners.GlobalInventoryMenuController;
 import frontend.messageReplyGUI.listeners.UserMessageReplyGUI;
+import frontend.tradeGUI.listeners.TradeCycleMenuController;
 import frontend.userGUI.AccountInfo.listeners.BrowseThroughUserCollection;
 import frontend.userGUI.presenters.UserPresenter;
 import javafx.event.ActionEvent;
@@ -19,6 +20,7 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import metrics.SceneSwitchEvent;
 import use_cases.*;
 
 import java.io.IOException;
@@ -32,12 +34,14 @@ public class UserMenuGUI implements Initializable {
     @FXML private Button accountInfo;
     @FXML private Button globalInventory;
     @FXML private Button loanItem;
+    @FXML private Button tradeCycles;
     @FXML private Button messageInbox;
     @FXML private Button newItem;
     @FXML private Button unfreezeRequest;
     @FXML private Button privateMessage;
     @FXML private Button logout;
     @FXML private Label systemMessage;
+    @FXML private Label swapPartners;
 
     // instance variables
     private String currUser;
@@ -47,6 +51,15 @@ public class UserMenuGUI implements Initializable {
     private GlobalInventoryManager globalInventoryManager;
     private GlobalWishlistManager globalWishlistManager;
     private TradeManager tradeManager;
+    private TradeCycleFinder tradeCycleFinder;
+    private MutualMatchIndex mutualMatchIndex;
+    private LoanAllocator loanAllocator;
+    private ItemRecommender itemRecommender;
+    private FuzzyLookup fuzzyLookup;
+    private UsernameCompleter usernameCompleter;
+    private ReputationTracker reputationTracker;
+    private MeetingScheduler meetingScheduler;
+    private List<String> itemToLend;
     private MessageBuilder messageBuilder;
     private String[] errorMessages = {" ", " ", " "};
     private List<Trade> incompletes;
@@ -55,6 +68,7 @@ public class UserMenuGUI implements Initializable {
     // FXML locations
     private final String accountFXML = "/frontend/userGUI/fxml_files/AccountInfoGUI.fxml";
     private final String loanFXML = "/frontend/userGUI/fxml_files/LoanMenuGUI.fxml";
+    private final String tradeCycleFXML = "/frontend/tradeGUI/fxml_files/TradeCycleMenu.fxml";
     private final String privateMessageFXML = "/frontend/userGUI/fxml_files/PrivateMessageMenuGUI.fxml";
     private final String newItemFXML = "/frontend/userGUI/fxml_files/NewItemMenuGUI.fxml";
     private final String globalInventoryFXML = "/frontend/globalInventoryGUI/fxml_files/GlobalInventoryMenu.fxml";
@@ -70,18 +84,38 @@ public class UserMenuGUI implements Initializable {
      * @param globalInventoryManager the GlobalInventoryManager object
      * @param globalWishlistManager the GlobalWishlistManager object
      * @param adminManager the AdminManager object
+     * @param tradeCycleFinder the TradeCycleFinder object
+     * @param mutualMatchIndex the MutualMatchIndex object
+     * @param loanAllocator the LoanAllocator object
+     * @param itemRecommender the ItemRecommender object
+     * @param fuzzyLookup the FuzzyLookup object
+     * @param usernameCompleter the UsernameCompleter object
+     * @param reputationTracker the ReputationTracker object
+     * @param meetingScheduler the MeetingScheduler object
      */
     public UserMenuGUI(String currUser, UserManager userManager, TradeManager tradeManager,
                        GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager,
-                       AdminManager adminManager) {
+                       AdminManager adminManager, TradeCycleFinder tradeCycleFinder,
+                       MutualMatchIndex mutualMatchIndex, LoanAllocator loanAllocator,
+                       ItemRecommender itemRecommender, FuzzyLookup fuzzyLookup,
+                       UsernameCompleter usernameCompleter, ReputationTracker reputationTracker,
+                       MeetingScheduler meetingScheduler) {
         this.currUser = currUser;
         this.userManager = userManager;
         this.tradeManager = tradeManager;
         this.globalInventoryManager = globalInventoryManager;
         this.globalWishlistManager = globalWishlistManager;
         this.adminManager = adminManager;
+        this.tradeCycleFinder = tradeCycleFinder;
+        this.mutualMatchIndex = mutualMatchIndex;
+        this.loanAllocator = loanAllocator;
+        this.itemRecommender = itemRecommender;
+        this.fuzzyLookup = fuzzyLookup;
+        this.usernameCompleter = usernameCompleter;
+        this.reputationTracker = reputationTracker;
+        this.meetingScheduler = meetingScheduler;
         this.userPresenter = new UserPresenter();
-        this.messageBuilder = new MessageBuilder();
+        this.messageBuilder = new MessageBuilder(userManager.getUsernameTable());
         this.incompletes = this.tradeManager.tradesToConfirm(this.currUser);
     }
 
@@ -89,7 +123,7 @@ public class UserMenuGUI implements Initializable {
      * The ENUM values for UserMenu
      */
     enum Type {
-        ACCOUNT_INFO, GLOBAL_INVENTORY, USER_MESSAGES, LOAN_MENU, NEW_ITEM, PRIVATE_MESSAGES,
+        ACCOUNT_INFO, GLOBAL_INVENTORY, USER_MESSAGES, LOAN_MENU, TRADE_CYCLES, NEW_ITEM, PRIVATE_MESSAGES,
         UNCONFIRMED_TRADES, USER_STATUS_FROZEN, USER_STATUS_NOT_FROZEN
     }
 
@@ -104,16 +138,19 @@ public class UserMenuGUI implements Initializable {
         this.accountInfo.setText(this.userPresenter.userMenuPromptAccountInfo());
         this.globalInventory.setText(this.userPresenter.userMenuPromptGlobalInventory());
         this.loanItem.setText(this.userPresenter.userMenuPromptLoanMenu());
+        this.tradeCycles.setText(this.userPresenter.userMenuPromptTradeCycles());
         this.messageInbox.setText(this.userPresenter.userMenuPromptMessageMenu());
         this.newItem.setText(this.userPresenter.userMenuPromptNewItem());
         this.unfreezeRequest.setText(this.userPresenter.userMenuPromptUnfreeze());
         this.privateMessage.setText(this.userPresenter.userMenuPromptPrivateMessage());
         this.logout.setText(this.userPresenter.userMenuPromptLogout());
+        showSwapPartners();
 
         // set up button functionality
         this.accountInfo.setOnAction(e -> getAccountInfo());
         this.globalInventory.setOnAction(e -> getGlobalInventory());
         this.loanItem.setOnAction(e -> getLoanMenu());
+        this.tradeCycles.setOnAction(e -> getTradeCycleMenu());
         this.messageInbox.setOnAction(e -> getInbox());
         this.newItem.setOnAction(e -> getNewItemMenu());
         this.unfreezeRequest.setOnAction(e -> getUnfreezeRequest());
@@ -132,37 +169,47 @@ public class UserMenuGUI implements Initializable {
      */
     private void switchScene(String filename) throws IOException {
         // instantiate the FXMLLoader
+        SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
         FXMLLoader loader = new FXMLLoader(getClass().getResource(filename));
         switch (this.type) {
             // access account info
             case ACCOUNT_INFO:
                 loader.setController(new AccountInfoMenu(this.currUser, this.userManager, this.tradeManager,
-                        this.globalInventoryManager, this.globalWishlistManager));
+                        this.globalInventoryManager, this.globalWishlistManager, this.meetingScheduler));
                 break;
             // access global inventory
             case GLOBAL_INVENTORY:
                 loader.setController(new GlobalInventoryMenuController(this.currUser, this.globalInventoryManager,
-                        this.userManager, this.tradeManager, this.globalWishlistManager));
+                        this.userManager, this.tradeManager, this.globalWishlistManager, this.itemRecommender,
+                        this.fuzzyLookup, this.meetingScheduler));
                 break;
             // access loan menu
             case LOAN_MENU:
                 List<Item> userInventory = this.globalInventoryManager.getPersonInventory(this.currUser);
-                loader.setController(new LoanMenu(userInventory, this.globalWishlistManager.userWhoWants(userInventory),
+                loader.setController(new LoanMenu(userInventory, this.itemToLend,
                         this.currUser, this.userManager, this.tradeManager, this.globalWishlistManager,
-                        this.globalInventoryManager));
+                        this.globalInventoryManager, this.meetingScheduler));
+                break;
+            // access trade cycle menu
+            case TRADE_CYCLES:
+                loader.setController(new TradeCycleMenuController(this.tradeCycleFinder, this.userManager,
+                        this.currUser, this.currUser, this.meetingScheduler));
                 break;
             // access user messages
             case USER_MESSAGES:
                 loader.setController(new UserMessageReplyGUI(this.adminManager, this.globalInventoryManager,
-                        this.tradeManager, this.userManager, this.currUser));
+                        this.tradeManager, this.userManager, this.currUser, this.reputationTracker,
+                        this.meetingScheduler));
                 break;
             // access new item menu
             case NEW_ITEM:
-                loader.setController(new NewItemMenu(this.currUser, this.adminManager));
+                loader.setController(new NewItemMenu(this.currUser, this.adminManager,
+                        this.userManager.getUsernameTable()));
                 break;
             // access private messages
             case PRIVATE_MESSAGES:
-                loader.setController(new PrivateMessageMenu(this.userManager, this.currUser));
+                loader.setController(new PrivateMessageMenu(this.userManager, this.currUser, this.fuzzyLookup,
+                        this.usernameCompleter));
                 break;
             // access unconfirmed trades menu
             case UNCONFIRMED_TRADES:
@@ -184,8 +231,20 @@ public class UserMenuGUI implements Initializable {
         Stage window = new Stage();
         window.initStyle(StageStyle.UNDECORATED);
         window.setScene(newScene);
+        // before the window is shown, as showAndWait() only returns once it is closed again
+        sceneSwitch.commit(this, filename, loader.getController());
         window.showAndWait();
         window.close();
+        // wishes and items may have changed in the window that was just closed
+        showSwapPartners();
+    }
+
+    /**
+     * Show the users this user can make a two-way trade with right now
+     */
+    private void showSwapPartners() {
+        this.swapPartners.setText(this.userPresenter.readyToSwapPartners(
+                this.mutualMatchIndex.getPartners(this.currUser)));
     }
 
     /**
@@ -226,7 +285,10 @@ public class UserMenuGUI implements Initializable {
     private void getLoanMenu() {
         // get this user's inventory, the user that wants something and the item that this user wants
         List<Item> userInventory = this.globalInventoryManager.getPersonInventory(this.currUser);
-        List<String> itemsToLend = this.globalWishlistManager.userWhoWants(userInventory);
+        // suggest the loan the allocator picked, so every wanted item goes to someone who can borrow it
+        List<String> itemsToLend = this.loanAllocator.suggestLoan(userInventory);
+        if (itemsToLend.isEmpty()) itemsToLend = this.globalWishlistManager.userWhoWants(userInventory);
+        this.itemToLend = itemsToLend;
         // check to see if they have anything in their inventory
         if(userInventory.size() == 0) {
             // set a label to this text
@@ -259,6 +321,30 @@ public class UserMenuGUI implements Initializable {
         }
     }
 
+    /**
+     * Switch to the trade cycle menu scene
+     */
+    private void getTradeCycleMenu() {
+        try {
+            // the user can be sent trade requests of a cycle, so they have to be allowed to trade
+            if(this.userManager.getCanTradeIgnoreBorrowsLoans(this.currUser,
+                    this.tradeManager.getIncompleteTimes(this.currUser),
+                    this.tradeManager.numberOfTradesCreatedThisWeek(this.currUser))) {
+                try {
+                    this.type = Type.TRADE_CYCLES;
+                    switchScene(this.tradeCycleFXML);
+                }
+                catch(IOException ex) {
+                    this.systemMessage.setText(this.userPresenter.ioErrorMessage());
+                }
+            }
+        }
+        // if this user is frozen
+        catch(UserFrozenException ex) {
+            this.systemMessage.setText(this.userPresenter.userAccountFrozen());
+        }
+    }
+
     /**
      * Switch to the UserMessageResponse whatever window via switchScene
      */
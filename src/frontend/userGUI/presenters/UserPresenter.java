@@ -1,5 +1,7 @@
 package frontend.userGUI.presenters;
 
+import java.util.List;
+
 public class UserPresenter {
 
     /**
@@ -34,6 +36,14 @@ public class UserPresenter {
         return "Browse through the global inventory";
     }
 
+    /**
+     * TradeCycleMenu button
+     * @return trade with a group of users
+     */
+    public String userMenuPromptTradeCycles() {
+        return "Trade in a cycle of users";
+    }
+
     /**
      * LoanMenu button
      * @return loan one of your items
@@ -363,6 +373,16 @@ public class UserPresenter {
         return "Message sent. It is safe to exit.";
     }
 
+    /**
+     * Message not sent because the user sent too many lately
+     * @param retryAfterMillis the time until the user can send one again, in milliseconds
+     * @return too many messages
+     */
+    public String tooManyMessages(long retryAfterMillis) {
+        return "You have sent too many messages lately, try again in " +
+                Math.max(1, (retryAfterMillis + 59999) / 60000) + " minute(s).";
+    }
+
     /**
      * Notify user on return to main menu.
      * @return return to main menu
@@ -395,6 +415,16 @@ public class UserPresenter {
         return "This is not a valid username, please try again.";
     }
 
+    /**
+     * Suggests usernames close to one that was not found
+     * @param usernames the usernames close to the one entered
+     * @return the suggestion, or an empty string if there are no close usernames
+     */
+    public String didYouMean(List<String> usernames) {
+        if (usernames.isEmpty()) return "";
+        return " Did you mean " + String.join(", ", usernames) + "?";
+    }
+
     /**
      * Invalid message input
      * @return fill out both text fields
@@ -442,4 +472,15 @@ public class UserPresenter {
     public String newItemMenuInputErrorPrompt() {
         return "Please fill out both the name and description inputs.";
     }
+
+    /**
+     * Tell the user how many users they can make a two-way trade with
+     * @param partners the usernames of the users who want one of this user's items and own one this user wants
+     * @return You have N ready-to-swap partners
+     */
+    public String readyToSwapPartners(List<String> partners) {
+        if (partners.isEmpty()) return "No one is ready to swap with you yet";
+        String count = partners.size() == 1 ? "1 ready-to-swap partner" : partners.size() + " ready-to-swap partners";
+        return "You have " + count + ": " + String.join(", ", partners);
+    }
 }
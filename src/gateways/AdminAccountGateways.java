@@ -7,6 +7,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class AdminAccountGateways {
+    private static final GatewayMetrics METRICS = new GatewayMetrics("AdminAccountGateways");
+
     private String filePath;
     private Map<String, Admin> adminMap = new HashMap<>();
 
@@ -20,7 +22,7 @@ public class AdminAccountGateways {
     public AdminAccountGateways(String filePath) throws IOException, ClassNotFoundException{
         this.filePath = filePath;
         File file = new File(filePath);
-        if (file.exists()) {
+        if (file.exists() && file.length() > 0) {
             readFromFile();
             if(adminMap == null){
                 adminMap = new HashMap<>();
@@ -38,12 +40,17 @@ public class AdminAccountGateways {
      * @throws ClassNotFoundException If the class cannot be found
      */
     public void readFromFile() throws IOException, ClassNotFoundException {
-        InputStream file = new FileInputStream(filePath);
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            InputStream file = new FileInputStream(filePath);
+            InputStream buffer = new BufferedInputStream(file);
+            ObjectInput input = new ObjectInputStream(buffer);
 
-        adminMap = (Map<String, Admin>) input.readObject();
-        input.close();
+            adminMap = (Map<String, Admin>) input.readObject();
+            input.close();
+        } finally {
+            METRICS.read(io, filePath, new File(filePath).length());
+        }
     }
 
     /**
@@ -53,14 +60,19 @@ public class AdminAccountGateways {
      */
 
     public void saveToFile(Map<String, Admin> adminMap) throws IOException {
-        OutputStream file = new FileOutputStream(filePath);
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutput output = new ObjectOutputStream(buffer);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            OutputStream file = new FileOutputStream(filePath);
+            OutputStream buffer = new BufferedOutputStream(file);
+            ObjectOutput output = new ObjectOutputStream(buffer);
 
-        // serialize the Map
-        this.adminMap = adminMap;
-        output.writeObject(adminMap);
-        output.close();
+            // serialize the Map
+            this.adminMap = adminMap;
+            output.writeObject(adminMap);
+            output.close();
+        } finally {
+            METRICS.written(io, filePath, new File(filePath).length());
+        }
     }
 
     /**
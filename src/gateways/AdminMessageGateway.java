@@ -1,23 +1,29 @@
 package gateways;
 
 import entities.Message;
+import entities.UsernameTable;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class AdminMessageGateway {
+    private static final GatewayMetrics METRICS = new GatewayMetrics("AdminMessageGateway");
+
    private List<Message> messages;
+   private final UsernameTable usernames;
 
     /**
      * Creates a new gateway that loads in the Arraylist of Message objects in a .ser file
      * @param filepath the directory where the .ser file is stored
+     * @param usernames the table the usernames of the senders are kept in
      * @throws IOException If something is wrong with the filepath or file
      * @throws ClassNotFoundException If the class cannot be found
      */
-    public AdminMessageGateway(String filepath) throws IOException, ClassNotFoundException {
+    public AdminMessageGateway(String filepath, UsernameTable usernames) throws IOException, ClassNotFoundException {
+        this.usernames = usernames;
         File file = new File(filepath);
-        if (file.exists()) {
+        if (file.exists() && file.length() > 0) {
             this.messages = readFromFile(filepath);
             if (messages == null) {
                 messages = new ArrayList<Message>();
@@ -36,16 +42,21 @@ public class AdminMessageGateway {
      * @throws ClassNotFoundException If the class cannot be found
      */
     public List<Message> readFromFile(String filepath) throws IOException, ClassNotFoundException{
-        List<Message> messages2;
-        // load in the objects
-        InputStream file = new FileInputStream(filepath);
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            List<Message> messages2;
+            // load in the objects
+            InputStream file = new FileInputStream(filepath);
+            InputStream buffer = new BufferedInputStream(file);
+            ObjectInput input = usernames.objectInput(buffer);
 
-        // deserialize the hashmap of user objects
-        messages2 = (List<Message>) input.readObject();
-        input.close();
-        return messages2;
+            // deserialize the hashmap of user objects
+            messages2 = (List<Message>) input.readObject();
+            input.close();
+            return messages2;
+        } finally {
+            METRICS.read(io, filepath, new File(filepath).length());
+        }
     }
 
     /**
@@ -55,15 +66,20 @@ public class AdminMessageGateway {
      * @throws IOException when an error occur when serializing
      */
     public void writeToFile(String filepath, List <Message> adminMessages) throws IOException {
-        // load allUsers onto the file at designed path
-        FileOutputStream file = new FileOutputStream(filepath);
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutputStream output = new ObjectOutputStream(buffer);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            // load allUsers onto the file at designed path
+            FileOutputStream file = new FileOutputStream(filepath);
+            OutputStream buffer = new BufferedOutputStream(file);
+            ObjectOutputStream output = new ObjectOutputStream(buffer);
 
-        // serialize objects
-        messages = adminMessages;
-        output.writeObject(adminMessages);
-        output.close();
+            // serialize objects
+            messages = adminMessages;
+            output.writeObject(adminMessages);
+            output.close();
+        } finally {
+            METRICS.written(io, filepath, new File(filepath).length());
+        }
     }
 
     /**
@@ -0,0 +1,441 @@
+package gateways;
+
+import entities.AuditEntry;
+import entities.IntSet;
+import metrics.Metrics;
+import metrics.Timer;
+import use_cases.AuditLogStore;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the audit log in a folder of append-only segment files, written through a buffer so every entry is one
+ * sequential write. A segment is closed once it holds SEGMENT_ENTRIES entries or SEGMENT_BYTES bytes, and a new one
+ * is started; nothing is ever rewritten.
+ * Every segment is split into blocks of BLOCK_ENTRIES entries, and has a sparse index of where each block starts, the
+ * earliest and latest time in it, and in which blocks every target user and every admin appear. A query only reads
+ * the blocks that can hold a match, so finding the actions on a user in a month reads a few blocks per segment, however
+ * long the log is. The index of a closed segment is written next to it when it is closed, and only read when a query
+ * needs it; the index of the segment being written is kept in memory, and rebuilt from the segment when the log is
+ * opened again.
+ * Every entry is stored with its length and checksum, so an entry cut short by a crash is found and dropped.
+ */
+public class AuditLogGateway implements AuditLogStore {
+    /**
+     * The number of entries in a block, the smallest part of a segment a query reads
+     */
+    public static final int BLOCK_ENTRIES = 256;
+    /**
+     * The largest number of entries in a segment
+     */
+    public static final int SEGMENT_ENTRIES = 1 << 20;
+    /**
+     * The largest size of a segment, in bytes
+     */
+    public static final long SEGMENT_BYTES = 64L << 20;
+
+    private static final int INDEX_MAGIC = 0x41554458;
+    // the number of indexes of closed segments kept in memory after a query
+    private static final int CACHED_INDEXES = 4;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final GatewayMetrics METRICS = new GatewayMetrics("AuditLogGateway");
+    private static final Timer FLUSH_TIMER = Metrics.timer("gateway.AuditLogGateway.flush");
+
+    private final File folder;
+    // the closed segments, oldest first, with the time ranges read from their index headers
+    private final List<SegmentInfo> closed = new ArrayList<>();
+    private final Map<Integer, SegmentIndex> cache = new LinkedHashMap<Integer, SegmentIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, SegmentIndex> eldest) {
+            return size() > CACHED_INDEXES;
+        }
+    };
+    private SegmentIndex active;
+    private FileOutputStream activeFile;
+    private DataOutputStream output;
+    private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+    private final DataOutputStream entryOutput = new DataOutputStream(entryBytes);
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens the audit log kept in a folder, creating it if it does not exist yet.
+     * @param folderPath the folder of the segment files
+     * @throws IOException If a segment or an index cannot be read or written
+     */
+    public AuditLogGateway(String folderPath) throws IOException {
+        folder = new File(folderPath);
+        folder.mkdirs();
+        List<Integer> ids = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.matches("\\d+\\.log"));
+        if (files != null) {
+            for (File file : files) ids.add(Integer.parseInt(file.getName().substring(0, file.getName().length() - 4)));
+        }
+        ids.sort(null);
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            boolean last = i == ids.size() - 1;
+            if (indexFile(id).exists()) {
+                closed.add(readHeader(id));
+            } else if (!last) {
+                // closed while its index was being written
+                SegmentIndex index = scan(id);
+                writeIndex(index);
+                closed.add(index.info());
+            } else {
+                active = scan(id);
+            }
+        }
+        if (active == null) {
+            active = new SegmentIndex(ids.isEmpty() ? 0 : ids.get(ids.size() - 1) + 1);
+        }
+        openActive();
+    }
+
+    @Override
+    public synchronized void append(AuditEntry entry) {
+        GatewayIOEvent io = METRICS.start();
+        try {
+            entryBytes.reset();
+            entryOutput.writeLong(entry.getTimeMillis());
+            entryOutput.writeUTF(entry.getAdmin());
+            entryOutput.writeUTF(entry.getAction().name());
+            entryOutput.writeUTF(entry.getTarget());
+            entryOutput.writeUTF(entry.getDetails());
+            crc.reset();
+            crc.update(entryBytes.toByteArray(), 0, entryBytes.size());
+            output.writeInt(entryBytes.size());
+            output.writeInt((int) crc.getValue());
+            entryBytes.writeTo(output);
+            METRICS.written(io, folder.getPath(), 8 + entryBytes.size());
+            active.add(entry, 8 + entryBytes.size());
+            if (active.count >= SEGMENT_ENTRIES || active.end >= SEGMENT_BYTES) rotate();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized List<AuditEntry> find(String target, String admin, long fromMillis, long toMillis,
+                                              int limit) {
+        GatewayIOEvent io = METRICS.start();
+        List<AuditEntry> found = new ArrayList<>();
+        try {
+            // entries still in the buffer have to be in the file to be read
+            output.flush();
+            if (!search(active, target, admin, fromMillis, toMillis, limit, found)) return found;
+            for (int i = closed.size() - 1; i >= 0; i--) {
+                SegmentInfo info = closed.get(i);
+                if (info.count == 0 || info.maxTime < fromMillis || info.minTime > toMillis) continue;
+                SegmentIndex index = cache.get(info.id);
+                if (index == null) {
+                    index = readIndex(info.id);
+                    cache.put(info.id, index);
+                }
+                if (!search(index, target, admin, fromMillis, toMillis, limit, found)) return found;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            METRICS.read(io, folder.getPath(), 0);
+        }
+        return found;
+    }
+
+    /**
+     * Writes every entry appended so far to disk.
+     * @throws IOException If the segment cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        long started = FLUSH_TIMER.start();
+        try {
+            output.flush();
+            activeFile.getFD().sync();
+        } finally {
+            FLUSH_TIMER.stop(started);
+        }
+    }
+
+    /**
+     * Writes every entry appended so far to disk and closes the segment being written. The log cannot be used after.
+     * @throws IOException If the segment cannot be written
+     */
+    public synchronized void close() throws IOException {
+        flush();
+        output.close();
+    }
+
+    //----------------Helpers----------------//
+    private static class SegmentInfo {
+        final int id;
+        final int count;
+        final long minTime;
+        final long maxTime;
+
+        SegmentInfo(int id, int count, long minTime, long maxTime) {
+            this.id = id;
+            this.count = count;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+        }
+    }
+
+    // the sparse index of one segment
+    private static class SegmentIndex {
+        final int id;
+        int count;
+        long end;
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        int blocks;
+        long[] blockOffsets = new long[16];
+        long[] blockMinTimes = new long[16];
+        long[] blockMaxTimes = new long[16];
+        // the blocks every target and every admin appear in, in order
+        final Map<String, IntSet> byTarget = new HashMap<>();
+        final Map<String, IntSet> byAdmin = new HashMap<>();
+
+        SegmentIndex(int id) {
+            this.id = id;
+        }
+
+        void add(AuditEntry entry, int length) {
+            long time = entry.getTimeMillis();
+            if (count % BLOCK_ENTRIES == 0) {
+                if (blocks == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+                    blockMinTimes = Arrays.copyOf(blockMinTimes, blocks * 2);
+                    blockMaxTimes = Arrays.copyOf(blockMaxTimes, blocks * 2);
+                }
+                blockOffsets[blocks] = end;
+                blockMinTimes[blocks] = time;
+                blockMaxTimes[blocks] = time;
+                blocks++;
+            }
+            int block = blocks - 1;
+            blockMinTimes[block] = Math.min(blockMinTimes[block], time);
+            blockMaxTimes[block] = Math.max(blockMaxTimes[block], time);
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+            byTarget.computeIfAbsent(entry.getTarget(), key -> new IntSet(2)).add(block);
+            byAdmin.computeIfAbsent(entry.getAdmin(), key -> new IntSet(2)).add(block);
+            count++;
+            end += length;
+        }
+
+        long blockEnd(int block) {
+            return block + 1 < blocks ? blockOffsets[block + 1] : end;
+        }
+
+        SegmentInfo info() {
+            return new SegmentInfo(id, count, minTime, maxTime);
+        }
+    }
+
+    // adds the matches of a segment to found, latest first, and returns whether more are wanted
+    private boolean search(SegmentIndex index, String target, String admin, long fromMillis, long toMillis, int limit,
+                           List<AuditEntry> found) throws IOException {
+        if (found.size() >= limit) return false;
+        if (index.count == 0 || index.maxTime < fromMillis || index.minTime > toMillis) return true;
+        int[] blocks = candidateBlocks(index, target, admin);
+        if (blocks.length == 0) return true;
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(index.id), "r")) {
+            for (int i = blocks.length - 1; i >= 0; i--) {
+                int block = blocks[i];
+                if (index.blockMaxTimes[block] < fromMillis || index.blockMinTimes[block] > toMillis) continue;
+                byte[] bytes = new byte[(int) (index.blockEnd(block) - index.blockOffsets[block])];
+                file.seek(index.blockOffsets[block]);
+                file.readFully(bytes);
+                DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+                List<AuditEntry> entries = new ArrayList<>(BLOCK_ENTRIES);
+                while (input.available() > 0) {
+                    input.readInt();
+                    input.readInt();
+                    entries.add(readEntry(input));
+                }
+                for (int j = entries.size() - 1; j >= 0; j--) {
+                    AuditEntry entry = entries.get(j);
+                    if (entry.getTimeMillis() < fromMillis || entry.getTimeMillis() > toMillis) continue;
+                    if (target != null && !target.equals(entry.getTarget())) continue;
+                    if (admin != null && !admin.equals(entry.getAdmin())) continue;
+                    found.add(entry);
+                    if (found.size() >= limit) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // the blocks that can hold a match, in order: the ones both the target and the admin appear in
+    private static int[] candidateBlocks(SegmentIndex index, String target, String admin) {
+        int[] blocks = null;
+        for (IntSet set : new IntSet[]{target == null ? null : postings(index.byTarget, target),
+                admin == null ? null : postings(index.byAdmin, admin)}) {
+            if (set == null) continue;
+            blocks = blocks == null ? set.toArray() : intersect(blocks, set.toArray());
+        }
+        if (blocks != null) return blocks;
+        blocks = new int[index.blocks];
+        for (int i = 0; i < blocks.length; i++) blocks[i] = i;
+        return blocks;
+    }
+
+    private static IntSet postings(Map<String, IntSet> map, String key) {
+        IntSet set = map.get(key);
+        return set == null ? new IntSet(0) : set;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] both = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                both[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, size);
+    }
+
+    private static AuditEntry readEntry(DataInput input) throws IOException {
+        long time = input.readLong();
+        String admin = input.readUTF();
+        AuditEntry.Action action = AuditEntry.Action.valueOf(input.readUTF());
+        String target = input.readUTF();
+        String details = input.readUTF();
+        return new AuditEntry(time, admin, action, target, details);
+    }
+
+    // closes the segment being written, with its index next to it, and starts a new one
+    private void rotate() throws IOException {
+        flush();
+        output.close();
+        writeIndex(active);
+        closed.add(active.info());
+        cache.put(active.id, active);
+        active = new SegmentIndex(active.id + 1);
+        openActive();
+    }
+
+    private void openActive() throws IOException {
+        activeFile = new FileOutputStream(segmentFile(active.id), true);
+        output = new DataOutputStream(new BufferedOutputStream(activeFile, BUFFER_BYTES));
+    }
+
+    // rebuilds the index of a segment from its entries, and drops an entry cut short at its end
+    private SegmentIndex scan(int id) throws IOException {
+        SegmentIndex index = new SegmentIndex(id);
+        File file = segmentFile(id);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file),
+                BUFFER_BYTES))) {
+            long length = file.length();
+            while (length - index.end >= 8) {
+                int size = input.readInt();
+                int checksum = input.readInt();
+                if (size < 0 || length - index.end - 8 < size) break;
+                byte[] bytes = new byte[size];
+                input.readFully(bytes);
+                crc.reset();
+                crc.update(bytes);
+                if ((int) crc.getValue() != checksum) break;
+                index.add(readEntry(new DataInputStream(new ByteArrayInputStream(bytes))), 8 + size);
+            }
+        }
+        if (index.end < file.length()) {
+            try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+                truncated.setLength(index.end);
+            }
+        }
+        return index;
+    }
+
+    private void writeIndex(SegmentIndex index) throws IOException {
+        File temp = new File(folder, index.id + ".idx.tmp");
+        FileOutputStream file = new FileOutputStream(temp);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, BUFFER_BYTES));
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(index.count);
+        out.writeLong(index.minTime);
+        out.writeLong(index.maxTime);
+        out.writeLong(index.end);
+        out.writeInt(index.blocks);
+        for (int i = 0; i < index.blocks; i++) {
+            out.writeLong(index.blockOffsets[i]);
+            out.writeLong(index.blockMinTimes[i]);
+            out.writeLong(index.blockMaxTimes[i]);
+        }
+        for (Map<String, IntSet> postings : List.of(index.byTarget, index.byAdmin)) {
+            out.writeInt(postings.size());
+            for (Map.Entry<String, IntSet> entry : postings.entrySet()) {
+                out.writeUTF(entry.getKey());
+                int[] blocks = entry.getValue().toArray();
+                out.writeInt(blocks.length);
+                for (int block : blocks) out.writeInt(block);
+            }
+        }
+        out.flush();
+        file.getFD().sync();
+        out.close();
+        Files.move(temp.toPath(), indexFile(index.id).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private SegmentInfo readHeader(int id) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(indexFile(id)), 64))) {
+            if (input.readInt() != INDEX_MAGIC) throw new IOException("Not an audit log index: " + indexFile(id));
+            return new SegmentInfo(id, input.readInt(), input.readLong(), input.readLong());
+        }
+    }
+
+    private SegmentIndex readIndex(int id) throws IOException {
+        SegmentIndex index = new SegmentIndex(id);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(indexFile(id)), BUFFER_BYTES))) {
+            if (input.readInt() != INDEX_MAGIC) throw new IOException("Not an audit log index: " + indexFile(id));
+            index.count = input.readInt();
+            index.minTime = input.readLong();
+            index.maxTime = input.readLong();
+            index.end = input.readLong();
+            index.blocks = input.readInt();
+            index.blockOffsets = new long[index.blocks];
+            index.blockMinTimes = new long[index.blocks];
+            index.blockMaxTimes = new long[index.blocks];
+            for (int i = 0; i < index.blocks; i++) {
+                index.blockOffsets[i] = input.readLong();
+                index.blockMinTimes[i] = input.readLong();
+                index.blockMaxTimes[i] = input.readLong();
+            }
+            for (Map<String, IntSet> postings : List.of(index.byTarget, index.byAdmin)) {
+                int keys = input.readInt();
+                for (int k = 0; k < keys; k++) {
+                    String key = input.readUTF();
+                    int size = input.readInt();
+                    IntSet blocks = new IntSet(size);
+                    for (int i = 0; i < size; i++) blocks.add(input.readInt());
+                    postings.put(key, blocks);
+                }
+            }
+        }
+        return index;
+    }
+
+    private File segmentFile(int id) {
+        return new File(folder, id + ".log");
+    }
+
+    private File indexFile(int id) {
+        return new File(folder, id + ".idx");
+    }
+}
@@ -0,0 +1,33 @@
+package gateways;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of one read or write of a data file by a gateway. Started and ended by GatewayMetrics.
+ */
+@Name("tradeprogram.GatewayIO")
+@Label("Gateway I/O")
+@Category({"TradeProgram", "Persistence"})
+@Description("A read or write of a data file by a gateway")
+class GatewayIOEvent extends jdk.jfr.Event {
+    @Label("Gateway")
+    String gateway;
+
+    @Label("Operation")
+    @Description("read or write")
+    String operation;
+
+    @Label("File")
+    String file;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    // what the timer of the gateway returned when the read or write started; transient, so it is not recorded
+    transient long started;
+}
@@ -0,0 +1,75 @@
+package gateways;
+
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.Timer;
+
+/**
+ * The metrics of the reads and writes of one gateway: how long they take, and how many bytes they move. They are
+ * named gateway.NAME.read, gateway.NAME.write, gateway.NAME.bytesRead and gateway.NAME.bytesWritten.
+ * Every read and write is also a tradeprogram.GatewayIO event when the flight recorder is on.
+ */
+class GatewayMetrics {
+    private final String name;
+    private final Timer read;
+    private final Timer write;
+    private final Counter bytesRead;
+    private final Counter bytesWritten;
+
+    /**
+     * Getter for the metrics of a gateway, shared by every instance of it with the same name
+     * @param name the name of the gateway
+     */
+    GatewayMetrics(String name) {
+        this.name = name;
+        read = Metrics.timer("gateway." + name + ".read");
+        write = Metrics.timer("gateway." + name + ".write");
+        bytesRead = Metrics.counter("gateway." + name + ".bytesRead");
+        bytesWritten = Metrics.counter("gateway." + name + ".bytesWritten");
+    }
+
+    /**
+     * Starts timing a read or a write
+     * @return what to pass to read() or written() when it ends
+     */
+    GatewayIOEvent start() {
+        GatewayIOEvent io = new GatewayIOEvent();
+        io.started = read.start();
+        io.begin();
+        return io;
+    }
+
+    /**
+     * Records a read that has ended
+     * @param io what start() returned
+     * @param file the path of the file read
+     * @param bytes the number of bytes read
+     */
+    void read(GatewayIOEvent io, String file, long bytes) {
+        read.stop(io.started);
+        bytesRead.add(bytes);
+        commit(io, "read", file, bytes);
+    }
+
+    /**
+     * Records a write that has ended
+     * @param io what start() returned
+     * @param file the path of the file written
+     * @param bytes the number of bytes written
+     */
+    void written(GatewayIOEvent io, String file, long bytes) {
+        write.stop(io.started);
+        bytesWritten.add(bytes);
+        commit(io, "write", file, bytes);
+    }
+
+    private void commit(GatewayIOEvent io, String operation, String file, long bytes) {
+        io.end();
+        if (!io.shouldCommit()) return;
+        io.gateway = name;
+        io.operation = operation;
+        io.file = file;
+        io.bytes = bytes;
+        io.commit();
+    }
+}
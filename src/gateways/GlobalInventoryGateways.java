@@ -1,25 +1,46 @@
 package gateways;
 
 import entities.GlobalInventory;
+import entities.UsernameTable;
 import use_cases.GlobalInventoryManager;
 
 import java.io.*;
 
 public class GlobalInventoryGateways implements Serializable{
+    private static final GatewayMetrics METRICS = new GatewayMetrics("GlobalInventoryGateways");
+
     private String filePath;
     private GlobalInventory globalInventory;
+    private final UsernameTable usernames;
 
     /**
      * Creates a new gateway that loads GlobalInventory in a .ser file\
+     * The items are kept in a memory-mapped file next to the .ser file instead of on the heap when the system
+     * property tradeprogram.mappedInventory is true, or when the inventory was saved that way before.
      * @param filePath filePath of the ser file containing the serialized GlobalInventory
+     * @param usernames the table the owners' usernames of the items are kept in
      * @throws IOException If something is wrong with the filepath or file
      * @throws ClassNotFoundException If the class cannot be found
      */
-    public GlobalInventoryGateways(String filePath) throws IOException, ClassNotFoundException{
+    public GlobalInventoryGateways(String filePath, UsernameTable usernames) throws IOException, ClassNotFoundException{
+        this(filePath, Boolean.getBoolean("tradeprogram.mappedInventory"), usernames);
+    }
+
+    /**
+     * Creates a new gateway that loads GlobalInventory in a .ser file\
+     * @param filePath filePath of the ser file containing the serialized GlobalInventory
+     * @param mapped whether to keep the items in a memory-mapped file, an inventory saved as mapped always is
+     * @param usernames the table the owners' usernames of the items are kept in
+     * @throws IOException If something is wrong with the filepath or file
+     * @throws ClassNotFoundException If the class cannot be found
+     */
+    public GlobalInventoryGateways(String filePath, boolean mapped, UsernameTable usernames)
+            throws IOException, ClassNotFoundException{
         this.filePath = filePath;
+        this.usernames = usernames;
 
         File file = new File(filePath);
-        if (file.exists()) {
+        if (file.exists() && file.length() > 0) {
             readFromFile();
             if(globalInventory == null) {
                 globalInventory = new GlobalInventory();
@@ -29,6 +50,12 @@ public class GlobalInventoryGateways implements Serializable{
             globalInventory = new GlobalInventory();
 
         }
+
+        if (globalInventory instanceof MappedGlobalInventory) {
+            ((MappedGlobalInventory) globalInventory).open(mappedFilePath(), false, usernames);
+        } else if (mapped) {
+            globalInventory = MappedGlobalInventory.copyOf(globalInventory, mappedFilePath(), usernames);
+        }
     }
 
     /**
@@ -38,13 +65,18 @@ public class GlobalInventoryGateways implements Serializable{
      * @throws ClassNotFoundException If the class cannot be found
      */
     public void readFromFile() throws IOException, ClassNotFoundException{
-        InputStream file = new FileInputStream(filePath);
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            InputStream file = new FileInputStream(filePath);
+            InputStream buffer = new BufferedInputStream(file);
+            ObjectInput input = usernames.objectInput(buffer);
 
-        // deserialize the Map
-        globalInventory = (GlobalInventory) input.readObject();
-        input.close();
+            // deserialize the Map
+            globalInventory = (GlobalInventory) input.readObject();
+            input.close();
+        } finally {
+            METRICS.read(io, filePath, new File(filePath).length());
+        }
     }
 
     /**
@@ -54,14 +86,23 @@ public class GlobalInventoryGateways implements Serializable{
      */
 
     public void writeToFile(GlobalInventory gi) throws IOException{
-        OutputStream file = new FileOutputStream(filePath);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            if (gi instanceof MappedGlobalInventory) {
+                // the items themselves are in the mapped file, only the IDs and removed items go in the .ser file
+                ((MappedGlobalInventory) gi).force();
+            }
+            OutputStream file = new FileOutputStream(filePath);
 
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutput output = new ObjectOutputStream(buffer);
+            OutputStream buffer = new BufferedOutputStream(file);
+            ObjectOutput output = new ObjectOutputStream(buffer);
 
-        globalInventory = gi;
-        output.writeObject(gi);
-        output.close();
+            globalInventory = gi;
+            output.writeObject(gi);
+            output.close();
+        } finally {
+            METRICS.written(io, filePath, new File(filePath).length());
+        }
     }
 
     /**
@@ -71,5 +112,10 @@ public class GlobalInventoryGateways implements Serializable{
     public GlobalInventory getGlobalInventory() {
         return globalInventory;
     }
+
+    private String mappedFilePath() {
+        String basePath = filePath.endsWith(".ser") ? filePath.substring(0, filePath.length() - 4) : filePath;
+        return basePath + ".items";
+    }
 }
 
@@ -1,28 +1,33 @@
 package gateways;
 
 import entities.GlobalWishlist;
+import entities.UsernameTable;
 
 import java.io.*;
 public class GlobalWishlistGateway implements Serializable{
+    private static final GatewayMetrics METRICS = new GatewayMetrics("GlobalWishlistGateway");
 
     GlobalWishlist wishlist;
+    private final UsernameTable usernames;
 
     /**
      * Creates a new gateway that loads in the GlobalWishlist stored in a .ser file
      * @param filepath the directory where the .ser file is stored
+     * @param usernames the table the usernames of the users who want items are kept in
      * @throws IOException If something is wrong with the filepath or file
      * @throws ClassNotFoundException If the class cannot be found
      */
-    public GlobalWishlistGateway(String filepath)  throws IOException, ClassNotFoundException{
+    public GlobalWishlistGateway(String filepath, UsernameTable usernames)  throws IOException, ClassNotFoundException{
+        this.usernames = usernames;
         File file = new File(filepath);
-        if (file.exists()) {
+        if (file.exists() && file.length() > 0) {
             wishlist = readFromFile(filepath);
             if(wishlist == null) {
-                wishlist = new GlobalWishlist();
+                wishlist = new GlobalWishlist(usernames);
             }
         } else {
             file.createNewFile();
-            wishlist = new GlobalWishlist();
+            wishlist = new GlobalWishlist(usernames);
         }
     }
     /**
@@ -33,17 +38,22 @@ public class GlobalWishlistGateway implements Serializable{
      * @throws ClassNotFoundException If the class cannot be found
      */
     public GlobalWishlist readFromFile(String filepath) throws IOException, ClassNotFoundException{
-        GlobalWishlist wishItems;
+        GatewayIOEvent io = METRICS.start();
+        try {
+            GlobalWishlist wishItems;
 
-        // load in the objects
-        InputStream file = new FileInputStream(filepath);
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+            // load in the objects
+            InputStream file = new FileInputStream(filepath);
+            InputStream buffer = new BufferedInputStream(file);
+            ObjectInput input = usernames.objectInput(buffer);
 
-        // deserialize the hashmap of user objects
-        wishItems = (GlobalWishlist) input.readObject();
-        input.close();
-        return wishItems;
+            // deserialize the hashmap of user objects
+            wishItems = (GlobalWishlist) input.readObject();
+            input.close();
+            return wishItems;
+        } finally {
+            METRICS.read(io, filepath, new File(filepath).length());
+        }
     }
 
     /**
@@ -53,15 +63,20 @@ public class GlobalWishlistGateway implements Serializable{
      * @throws IOException when an error occur when serializing
      */
     public void writeToFile(String filepath, GlobalWishlist wishlistItems2) throws IOException{
-        // load allUsers onto the file at designed path
-        FileOutputStream file = new FileOutputStream(filepath);
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutputStream output = new ObjectOutputStream(buffer);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            // load allUsers onto the file at designed path
+            FileOutputStream file = new FileOutputStream(filepath);
+            OutputStream buffer = new BufferedOutputStream(file);
+            ObjectOutputStream output = new ObjectOutputStream(buffer);
 
-        // serialize objects
-        wishlist = wishlistItems2;
-        output.writeObject(wishlistItems2);
-        output.close();
+            // serialize objects
+            wishlist = wishlistItems2;
+            output.writeObject(wishlistItems2);
+            output.close();
+        } finally {
+            METRICS.written(io, filepath, new File(filepath).length());
+        }
     }
 
     /**
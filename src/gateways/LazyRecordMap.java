@@ -0,0 +1,224 @@
+package gateways;
+
+import use_cases.Pinnable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * A map whose values live in a RecordStore and are only deserialized the first time they are accessed. Values that
+ * have been accessed stay in memory until more than maxResident of them are loaded or the heap is getting full; the
+ * least recently used ones are then written back to the store and dropped, so changes made to a value after it was
+ * evicted are lost; a value should be fetched again with get() rather than kept across other accesses, unless its
+ * key is pinned, as pinned values are never dropped.
+ * @param <V> the type of the values
+ */
+public class LazyRecordMap<V> extends AbstractMap<String, V> implements Pinnable {
+    private static final double HEAP_PRESSURE = 0.75;
+
+    private final RecordStore store;
+    private final int maxResident;
+    private final Set<String> keys;
+    private final LinkedHashMap<String, V> resident = new LinkedHashMap<>(16, 0.75f, true);
+    // how many times every pinned key was pinned
+    private final Map<String, Integer> pins = new HashMap<>();
+
+    /**
+     * Creates a map backed by the given store. Only the keys of the store are loaded.
+     * @param store the store holding one record per key
+     * @param maxResident the maximum number of values kept in memory at the same time
+     */
+    public LazyRecordMap(RecordStore store, int maxResident) {
+        this.store = store;
+        this.maxResident = Math.max(1, maxResident);
+        this.keys = store.keys();
+    }
+
+    /**
+     * Loads the value of this key into memory if it is not already, without returning it
+     * @param key the key to load
+     */
+    public void load(String key) { get(key); }
+
+    @Override
+    public synchronized void pin(String key) {
+        pins.merge(key, 1, Integer::sum);
+        get(key);
+    }
+
+    @Override
+    public synchronized void unpin(String key) {
+        if (pins.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null) == null) evictIfNeeded();
+    }
+
+    /**
+     * Writes the value of this key back to the store and drops it from memory, unless the key is pinned
+     * @param key the key to evict
+     * @throws IOException If the value cannot be written
+     */
+    public synchronized void evict(String key) throws IOException {
+        V value = pins.containsKey(key) ? resident.get(key) : resident.remove(key);
+        if (value != null) store.write(key, value);
+    }
+
+    /**
+     * Writes every value in memory back to the store and makes the store durable. Values whose serialized form did
+     * not change since they were loaded are not rewritten.
+     * @throws IOException If the values or the index cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        for (Map.Entry<String, V> entry : resident.entrySet()) {
+            store.write(entry.getKey(), entry.getValue());
+        }
+        store.flush();
+    }
+
+    /**
+     * Getter for the number of values currently held in memory
+     * @return the number of resident values
+     */
+    public synchronized int residentCount() { return resident.size(); }
+
+    @Override
+    public synchronized V get(Object key) {
+        V value = resident.get(key);
+        if (value != null || !keys.contains(key)) return value;
+        try {
+            value = (V) store.read((String) key);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (value != null) {
+            resident.put((String) key, value);
+            evictIfNeeded();
+        }
+        return value;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) { return keys.contains(key); }
+
+    @Override
+    public synchronized V put(String key, V value) {
+        V old = keys.contains(key) ? get(key) : null;
+        keys.add(key);
+        resident.put(key, value);
+        evictIfNeeded();
+        return old;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        if (!keys.contains(key)) return null;
+        V old = get(key);
+        keys.remove(key);
+        resident.remove(key);
+        pins.remove(key);
+        store.remove((String) key);
+        return old;
+    }
+
+    @Override
+    public synchronized int size() { return keys.size(); }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() { return new KeyIterator(); }
+
+            @Override
+            public int size() { return LazyRecordMap.this.size(); }
+
+            @Override
+            public boolean contains(Object key) { return containsKey(key); }
+        };
+    }
+
+    /**
+     * Iterating over the entries loads every value one after another; values loaded earlier may be evicted while
+     * the iteration goes on.
+     */
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                KeyIterator keyIterator = new KeyIterator();
+                return new Iterator<Map.Entry<String, V>>() {
+                    @Override
+                    public boolean hasNext() { return keyIterator.hasNext(); }
+
+                    @Override
+                    public Map.Entry<String, V> next() {
+                        String key = keyIterator.next();
+                        return new SimpleEntry<String, V>(key, get(key)) {
+                            @Override
+                            public V setValue(V value) {
+                                super.setValue(value);
+                                return put(key, value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() { keyIterator.remove(); }
+                };
+            }
+
+            @Override
+            public int size() { return LazyRecordMap.this.size(); }
+        };
+    }
+
+    private void evictIfNeeded() {
+        int target = maxResident;
+        Runtime runtime = Runtime.getRuntime();
+        // memory is only given back once the collector runs, so under pressure drop a quarter at once
+        if (runtime.totalMemory() - runtime.freeMemory() > runtime.maxMemory() * HEAP_PRESSURE) {
+            target = Math.min(target, resident.size() - Math.max(1, resident.size() / 4));
+        }
+        // from the least recently used, going through the entries does not change their order
+        Iterator<Map.Entry<String, V>> eldest = resident.entrySet().iterator();
+        while (resident.size() > Math.max(1, target) && eldest.hasNext()) {
+            Map.Entry<String, V> entry = eldest.next();
+            if (pins.containsKey(entry.getKey())) continue;
+            eldest.remove();
+            try {
+                store.write(entry.getKey(), entry.getValue());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private class KeyIterator implements Iterator<String> {
+        private final Iterator<String> snapshot;
+        private String current;
+
+        private KeyIterator() {
+            synchronized (LazyRecordMap.this) {
+                snapshot = new ArrayList<>(keys).iterator();
+            }
+        }
+
+        @Override
+        public boolean hasNext() { return snapshot.hasNext(); }
+
+        @Override
+        public String next() {
+            current = snapshot.next();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) throw new IllegalStateException();
+            LazyRecordMap.this.remove(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package gateways;
+
+import entities.GlobalInventory;
+import entities.Item;
+import entities.UsernameTable;
+import entities.ItemId;
+import metrics.Metrics;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A GlobalInventory that keeps its items in a memory-mapped file instead of as objects on the heap, for inventories
+ * too large to hold as Item objects. Every item is one record made of a fixed-size header followed by its name, owner
+ * name and description; an open-addressing index from item ID to record offset is kept off the heap as well.
+ * Items returned by this inventory are built from their record on every call, so changes made to them are not kept.
+ * Item IDs must be positive numbers, as generated by GlobalInventoryManager.
+ *
+ * Only the ID collection and the removed items are serialized with this object, the items themselves live in the
+ * mapped file which has to be opened again with open() after deserializing.
+ */
+public class MappedGlobalInventory extends GlobalInventory {
+    private static final GatewayMetrics METRICS = new GatewayMetrics("MappedGlobalInventory");
+    private static final int MAGIC = 0x54504749;
+    private static final int VERSION = 1;
+    // file header: int magic, int version, long end of the last record
+    private static final int FILE_HEADER = 16;
+    // record header: int record length, int item ID, byte live, byte unused, short name length, short owner length,
+    // short unused; the description takes the rest of the record
+    private static final int RECORD_HEADER = 16;
+    private static final int INITIAL_FILE_SIZE = 1 << 20;
+    private static final int INITIAL_INDEX_SLOTS = 1 << 10;
+    // index slot: int item ID, int record offset
+    private static final int SLOT = 8;
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+
+    private transient FileChannel channel;
+    private transient MappedByteBuffer map;
+    private transient ByteBuffer index;
+    private transient int indexSlots;
+    private transient int usedSlots;
+    private transient int end;
+    private transient int liveCount;
+    private transient long deadBytes;
+    private transient String path;
+    private transient UsernameTable usernames;
+
+    /**
+     * Creates an inventory backed by the mapped file at the given path, creating the file if it does not exist.
+     * @param path the path of the mapped item file
+     * @param usernames the table the owners' usernames of the items built from the records are kept in
+     * @throws IOException If the file cannot be mapped or is not a mapped inventory file
+     */
+    public MappedGlobalInventory(String path, UsernameTable usernames) throws IOException {
+        super();
+        open(path, true, usernames);
+    }
+
+    /**
+     * Creates a mapped inventory holding a copy of every item, item ID and removed item of another inventory.
+     * Any existing file at the path is replaced.
+     * @param source the inventory to copy
+     * @param path the path of the mapped item file
+     * @param usernames the table the owners' usernames of the items built from the records are kept in
+     * @return the new mapped inventory
+     * @throws IOException If the file cannot be created
+     */
+    public static MappedGlobalInventory copyOf(GlobalInventory source, String path, UsernameTable usernames)
+            throws IOException {
+        new File(path).delete();
+        MappedGlobalInventory copy = new MappedGlobalInventory(path, usernames);
+        for (String itemID : source.getItemIdCollection()) {
+            copy.addItemIdToCollection(itemID);
+            Item item = source.getItem(itemID);
+            if (item != null) copy.addItem(itemID, item);
+        }
+        copy.getRemovedItems().addAll(source.getRemovedItems());
+        return copy;
+    }
+
+    /**
+     * Maps the item file at the given path and rebuilds the index from it. Called by the constructor, and by the
+     * gateway after this inventory has been deserialized.
+     * @param path the path of the mapped item file
+     * @param create whether to create the file when it does not exist
+     * @param usernames the table the owners' usernames of the items built from the records are kept in
+     * @throws IOException If the file is missing, cannot be mapped or is corrupted
+     */
+    public synchronized void open(String path, boolean create, UsernameTable usernames) throws IOException {
+        Metrics.gauge("gateway.MappedGlobalInventory.items", this::size);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            File file = new File(path);
+            if (!file.exists() && !create) throw new FileNotFoundException(path);
+            this.path = path;
+            this.usernames = usernames;
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.indexSlots = INITIAL_INDEX_SLOTS;
+            this.index = ByteBuffer.allocateDirect(indexSlots * SLOT);
+            this.usedSlots = 0;
+            this.liveCount = 0;
+            this.deadBytes = 0;
+
+            if (channel.size() == 0) {
+                mapFile(INITIAL_FILE_SIZE);
+                map.putInt(0, MAGIC);
+                map.putInt(4, VERSION);
+                end = FILE_HEADER;
+                map.putLong(8, end);
+                return;
+            }
+
+            mapFile(channel.size());
+            long storedEnd = map.getLong(8);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || storedEnd < FILE_HEADER
+                    || storedEnd > map.capacity()) {
+                throw new IOException("Not a mapped inventory file: " + path);
+            }
+            end = (int) storedEnd;
+            for (int offset = FILE_HEADER; offset < end; offset += map.getInt(offset)) {
+                int length = map.getInt(offset);
+                if (length < RECORD_HEADER || offset + length > end) {
+                    throw new IOException("Corrupted record at " + offset + " in " + path);
+                }
+                if (map.get(offset + 8) == 1) {
+                    indexPut(map.getInt(offset + 4), offset);
+                    liveCount++;
+                } else {
+                    deadBytes += length;
+                }
+            }
+            if (deadBytes > end - FILE_HEADER - deadBytes && deadBytes > INITIAL_FILE_SIZE) {
+                compact();
+            }
+        } finally {
+            METRICS.read(io, path, end);
+        }
+    }
+
+    /**
+     * Writes every change made to the mapped file back to disk.
+     */
+    public synchronized void force() {
+        GatewayIOEvent io = METRICS.start();
+        try {
+            map.putLong(8, end);
+            map.force();
+        } finally {
+            // which pages are written back is up to the operating system, so no bytes are counted
+            METRICS.written(io, path, 0);
+        }
+    }
+
+    /**
+     * Getter for the number of items currently in this inventory
+     * @return the number of items
+     */
+    public synchronized int size() { return liveCount; }
+
+    @Override
+    public synchronized Item getItem(String itemID) {
+        int offset = indexGet(ItemId.toKey(itemID));
+        return offset < 0 ? null : readItem(offset);
+    }
+
+    @Override
+    public synchronized void addItem(String itemID, Item item) {
+        int id = ItemId.toKey(itemID);
+        if (id <= 0) throw new IllegalArgumentException("Item ID must be a positive number: " + itemID);
+        int old = indexGet(id);
+        if (old >= 0) markRemoved(old);
+        else liveCount++;
+        indexPut(id, append(id, item));
+    }
+
+    @Override
+    public synchronized void removeItemAndAddToGarbageBin(String itemID) {
+        getRemovedItems().add(getItem(itemID));
+        removeItemOnly(itemID);
+    }
+
+    @Override
+    public synchronized void removeItemOnly(String itemID) {
+        int id = ItemId.toKey(itemID);
+        int offset = indexGet(id);
+        if (offset < 0) return;
+        markRemoved(offset);
+        indexRemove(id);
+        liveCount--;
+    }
+
+    @Override
+    public synchronized void undoDeleteItem(String userid) {
+        List<Item> removedItems = getRemovedItems();
+        for (int j = removedItems.size() - 1; j >= 0; j--) {
+            if (removedItems.get(j).getOwnerName().equals(userid)) {
+                Item restore = removedItems.remove(j);
+                addItem(restore.getItemID(), restore);
+                break;
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean containsKey(String itemID) {
+        return indexGet(ItemId.toKey(itemID)) >= 0;
+    }
+
+    @Override
+    public synchronized List<Item> searchByOwnerName(String ownerName) {
+        // compare the owner bytes in place so only the matching records are turned into Items
+        byte[] owner = ownerName.getBytes(StandardCharsets.UTF_8);
+        List<Item> personalInventory = new ArrayList<>();
+        for (int offset = FILE_HEADER; offset < end; offset += map.getInt(offset)) {
+            if (map.get(offset + 8) == 1 && ownerMatches(offset, owner)) {
+                personalInventory.add(readItem(offset));
+            }
+        }
+        return personalInventory;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder i = new StringBuilder();
+        for (int offset = FILE_HEADER; offset < end; offset += map.getInt(offset)) {
+            if (map.get(offset + 8) == 1) {
+                i.append(map.getInt(offset + 4)).append(readItem(offset)).append("\n");
+            }
+        }
+        return i.toString();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return liveCount == 0;
+    }
+
+    private int append(int id, Item item) {
+        byte[] name = item.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] owner = item.getOwnerName().getBytes(StandardCharsets.UTF_8);
+        byte[] description = item.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF || owner.length > 0xFFFF) {
+            throw new IllegalArgumentException("Item name or owner name is too long");
+        }
+        int length = RECORD_HEADER + name.length + owner.length + description.length;
+        ensureCapacity(length);
+
+        int offset = end;
+        map.putInt(offset, length);
+        map.putInt(offset + 4, id);
+        map.put(offset + 8, (byte) 1);
+        map.put(offset + 9, (byte) 0);
+        map.putShort(offset + 10, (short) name.length);
+        map.putShort(offset + 12, (short) owner.length);
+        map.putShort(offset + 14, (short) 0);
+        ByteBuffer strings = map.duplicate();
+        strings.position(offset + RECORD_HEADER);
+        strings.put(name).put(owner).put(description);
+
+        // the end is only moved once the record is complete, so a torn write loses at most this record
+        end += length;
+        map.putLong(8, end);
+        return offset;
+    }
+
+    private Item readItem(int offset) {
+        int length = map.getInt(offset);
+        int nameLength = map.getShort(offset + 10) & 0xFFFF;
+        int ownerLength = map.getShort(offset + 12) & 0xFFFF;
+        int start = offset + RECORD_HEADER;
+        String name = readString(start, nameLength);
+        String owner = readString(start + nameLength, ownerLength);
+        String description = readString(start + nameLength + ownerLength,
+                length - RECORD_HEADER - nameLength - ownerLength);
+        Item item = new Item(name, owner, description, usernames);
+        item.setItemID(Integer.toString(map.getInt(offset + 4)));
+        return item;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = map.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean ownerMatches(int offset, byte[] owner) {
+        int nameLength = map.getShort(offset + 10) & 0xFFFF;
+        int ownerLength = map.getShort(offset + 12) & 0xFFFF;
+        if (ownerLength != owner.length) return false;
+        int start = offset + RECORD_HEADER + nameLength;
+        for (int i = 0; i < ownerLength; i++) {
+            if (map.get(start + i) != owner[i]) return false;
+        }
+        return true;
+    }
+
+    private void markRemoved(int offset) {
+        map.put(offset + 8, (byte) 0);
+        deadBytes += map.getInt(offset);
+    }
+
+    private void ensureCapacity(int length) {
+        if ((long) end + length <= map.capacity()) return;
+        long size = Math.max(2L * map.capacity(), (long) end + length);
+        try {
+            mapFile(Math.min(size, Integer.MAX_VALUE));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not grow " + path, ex);
+        }
+        if ((long) end + length > map.capacity()) {
+            throw new IllegalStateException("Mapped inventory is full: " + path);
+        }
+    }
+
+    private void mapFile(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new IOException("Mapped inventory file is too large: " + path);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private void compact() throws IOException {
+        File temp = new File(path + ".tmp");
+        FileChannel target = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putLong(end - deadBytes).flip();
+        target.write(header);
+        for (int offset = FILE_HEADER; offset < end; offset += map.getInt(offset)) {
+            if (map.get(offset + 8) == 1) {
+                ByteBuffer record = map.duplicate();
+                record.position(offset).limit(offset + map.getInt(offset));
+                while (record.hasRemaining()) target.write(record);
+            }
+        }
+        target.force(true);
+        target.close();
+        channel.close();
+        Files.move(temp.toPath(), new File(path).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        open(path, false, usernames);
+    }
+
+    // Off-heap open-addressing index with linear probing
+
+    private int slotOf(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (indexSlots - 1);
+    }
+
+    private int indexGet(int id) {
+        if (id <= 0) return -1;
+        for (int slot = slotOf(id); ; slot = (slot + 1) & (indexSlots - 1)) {
+            int key = index.getInt(slot * SLOT);
+            if (key == EMPTY) return -1;
+            if (key == id) return index.getInt(slot * SLOT + 4);
+        }
+    }
+
+    private void indexPut(int id, int offset) {
+        if ((usedSlots + 1) * 2 > indexSlots) {
+            rehash(liveCount * 4 > indexSlots ? indexSlots * 2 : indexSlots);
+        }
+        int firstRemoved = -1;
+        for (int slot = slotOf(id); ; slot = (slot + 1) & (indexSlots - 1)) {
+            int key = index.getInt(slot * SLOT);
+            if (key == id) {
+                index.putInt(slot * SLOT + 4, offset);
+                return;
+            }
+            if (key == REMOVED && firstRemoved < 0) firstRemoved = slot;
+            if (key == EMPTY) {
+                if (firstRemoved >= 0) slot = firstRemoved;
+                else usedSlots++;
+                index.putInt(slot * SLOT, id);
+                index.putInt(slot * SLOT + 4, offset);
+                return;
+            }
+        }
+    }
+
+    private void indexRemove(int id) {
+        for (int slot = slotOf(id); ; slot = (slot + 1) & (indexSlots - 1)) {
+            int key = index.getInt(slot * SLOT);
+            if (key == EMPTY) return;
+            if (key == id) {
+                index.putInt(slot * SLOT, REMOVED);
+                return;
+            }
+        }
+    }
+
+    private void rehash(int newSlots) {
+        ByteBuffer old = index;
+        int oldSlots = indexSlots;
+        index = ByteBuffer.allocateDirect(newSlots * SLOT);
+        indexSlots = newSlots;
+        usedSlots = 0;
+        for (int slot = 0; slot < oldSlots; slot++) {
+            int key = old.getInt(slot * SLOT);
+            if (key != EMPTY && key != REMOVED) {
+                indexPut(key, old.getInt(slot * SLOT + 4));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package gateways;
+
+import entities.PendingMeetings;
+
+import java.io.*;
+
+public class PendingMeetingsGateway {
+    private static final GatewayMetrics METRICS = new GatewayMetrics("PendingMeetingsGateway");
+
+    private PendingMeetings pendingMeetings;
+
+    /**
+     * Creates a new gateway that loads in the meetings of the unanswered trade requests stored in a .ser file
+     * @param filepath the directory where the .ser file is stored
+     * @throws IOException If something is wrong with the filepath or file
+     * @throws ClassNotFoundException If the class cannot be found
+     */
+    public PendingMeetingsGateway(String filepath) throws IOException, ClassNotFoundException {
+        File file = new File(filepath);
+        if (file.exists() && file.length() > 0) {
+            pendingMeetings = readFromFile(filepath);
+        }
+        if (pendingMeetings == null) {
+            pendingMeetings = new PendingMeetings();
+        }
+    }
+
+    /**
+     * Deserializes the meetings of the unanswered trade requests
+     * @param filepath Filepath to the .ser file storing the PendingMeetings
+     * @return the deserialized PendingMeetings
+     * @throws IOException If the file cannot be read
+     * @throws ClassNotFoundException If the class cannot be found
+     */
+    public PendingMeetings readFromFile(String filepath) throws IOException, ClassNotFoundException {
+        GatewayIOEvent io = METRICS.start();
+        try (ObjectInput input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filepath)))) {
+            return (PendingMeetings) input.readObject();
+        } finally {
+            METRICS.read(io, filepath, new File(filepath).length());
+        }
+    }
+
+    /**
+     * Serializes the meetings of the unanswered trade requests
+     * @param filepath where this file will be stored
+     * @param pendingMeetings2 the PendingMeetings to overwrite the previous ones with
+     * @throws IOException when an error occur when serializing
+     */
+    public void writeToFile(String filepath, PendingMeetings pendingMeetings2) throws IOException {
+        GatewayIOEvent io = METRICS.start();
+        try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(
+                new FileOutputStream(filepath)))) {
+            pendingMeetings = pendingMeetings2;
+            output.writeObject(pendingMeetings2);
+        } finally {
+            METRICS.written(io, filepath, new File(filepath).length());
+        }
+    }
+
+    /**
+     * Returns the meetings of the unanswered trade requests
+     * @return the PendingMeetings presently saved in the serialized file
+     */
+    public PendingMeetings getPendingMeetings() {
+        return pendingMeetings;
+    }
+}
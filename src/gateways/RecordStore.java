@@ -0,0 +1,215 @@
+package gateways;
+
+import entities.UsernameTable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Stores serialized objects as separate records inside one append-only file, so that a single object can be read or
+ * rewritten without touching the others. A small index file maps every key to the offset, length and checksum of its
+ * latest record; only the index is read when the store is opened.
+ */
+public class RecordStore {
+    private final String basePath;
+    private final GatewayMetrics metrics;
+    private final UsernameTable usernames;
+    private final File indexFile;
+    private final Map<String, RecordEntry> index = new HashMap<>();
+    private int generation;
+    private long liveBytes;
+    private RandomAccessFile records;
+
+    /**
+     * Opens the store kept at the given base path, creating it if it does not exist yet.
+     * @param basePath path of the store without extension, the files basePath.index and basePath.N.records are used
+     * @param usernames the table the usernames held by the stored objects are interned into when they are read
+     * @throws IOException If the index cannot be read or is corrupted
+     */
+    public RecordStore(String basePath, UsernameTable usernames) throws IOException {
+        this.basePath = basePath;
+        this.usernames = usernames;
+        this.metrics = new GatewayMetrics("RecordStore." + new File(basePath).getName());
+        this.indexFile = new File(basePath + ".index");
+        if (indexFile.exists() && indexFile.length() > 0) {
+            readIndex();
+        }
+        records = new RandomAccessFile(recordsFile(generation), "rw");
+    }
+
+    /**
+     * Returns whether there is a record for this key
+     * @param key the key of the record
+     * @return true if a record is stored for this key
+     */
+    public synchronized boolean contains(String key) { return index.containsKey(key); }
+
+    /**
+     * Getter for the keys of every stored record
+     * @return a copy of the set of keys
+     */
+    public synchronized Set<String> keys() { return new HashSet<>(index.keySet()); }
+
+    /**
+     * Reads and deserializes the record stored for this key.
+     * @param key the key of the record
+     * @return the deserialized object, or null if there is no record for this key
+     * @throws IOException If the record cannot be read
+     * @throws ClassNotFoundException If the class of the record cannot be found
+     */
+    public synchronized Object read(String key) throws IOException, ClassNotFoundException {
+        RecordEntry entry = index.get(key);
+        if (entry == null) return null;
+        GatewayIOEvent io = metrics.start();
+        byte[] bytes = new byte[entry.length];
+        records.seek(entry.offset);
+        records.readFully(bytes);
+        ObjectInput input = usernames.objectInput(new ByteArrayInputStream(bytes));
+        Object value = input.readObject();
+        input.close();
+        metrics.read(io, basePath, entry.length);
+        return value;
+    }
+
+    /**
+     * Serializes the object and appends it as the new record of this key. Nothing is written when the serialized
+     * form is identical to the record that is already stored.
+     * @param key the key of the record
+     * @param value the object to store
+     * @return true if a new record was written
+     * @throws IOException If the object cannot be serialized or written
+     */
+    public synchronized boolean write(String key, Object value) throws IOException {
+        GatewayIOEvent io = metrics.start();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(value);
+        output.close();
+        byte[] data = bytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        RecordEntry old = index.get(key);
+        if (old != null && old.length == data.length && old.crc == crc.getValue()) {
+            metrics.written(io, basePath, 0);
+            return false;
+        }
+
+        long offset = records.length();
+        records.seek(offset);
+        records.write(data);
+        if (old != null) liveBytes -= old.length;
+        liveBytes += data.length;
+        index.put(key, new RecordEntry(offset, data.length, crc.getValue()));
+        metrics.written(io, basePath, data.length);
+        return true;
+    }
+
+    /**
+     * Removes the record of this key. The space it used is reclaimed the next time the store is compacted.
+     * @param key the key of the record
+     */
+    public synchronized void remove(String key) {
+        RecordEntry old = index.remove(key);
+        if (old != null) liveBytes -= old.length;
+    }
+
+    /**
+     * Makes every record written so far durable by writing the index to disk. If more than half of the records file
+     * is taken by outdated records, the live records are first copied into a new, compacted file.
+     * @throws IOException If the records or the index cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        if (records.length() > 2 * liveBytes && records.length() > 64 * 1024) {
+            compact();
+        }
+        records.getFD().sync();
+        writeIndex();
+    }
+
+    private void compact() throws IOException {
+        int newGeneration = generation + 1;
+        File newFile = recordsFile(newGeneration);
+        RandomAccessFile compacted = new RandomAccessFile(newFile, "rw");
+        compacted.setLength(0);
+        Map<String, RecordEntry> moved = new HashMap<>();
+        for (Map.Entry<String, RecordEntry> entry : index.entrySet()) {
+            RecordEntry old = entry.getValue();
+            byte[] bytes = new byte[old.length];
+            records.seek(old.offset);
+            records.readFully(bytes);
+            moved.put(entry.getKey(), new RecordEntry(compacted.length(), old.length, old.crc));
+            compacted.seek(compacted.length());
+            compacted.write(bytes);
+        }
+        compacted.getFD().sync();
+
+        // the index is only switched to the new file once it is complete, so a crash keeps the old file in use
+        File oldFile = recordsFile(generation);
+        records.close();
+        records = compacted;
+        generation = newGeneration;
+        index.putAll(moved);
+        writeIndex();
+        oldFile.delete();
+    }
+
+    private void readIndex() throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            generation = input.readInt();
+            int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                RecordEntry entry = new RecordEntry(input.readLong(), input.readInt(), input.readLong());
+                index.put(input.readUTF(), entry);
+                liveBytes += entry.length;
+            }
+        } finally {
+            input.close();
+        }
+        if (!recordsFile(generation).exists()) {
+            throw new FileNotFoundException(recordsFile(generation).getPath());
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        File temp = new File(basePath + ".index.tmp");
+        FileOutputStream file = new FileOutputStream(temp);
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file));
+        output.writeInt(generation);
+        output.writeInt(index.size());
+        for (Map.Entry<String, RecordEntry> entry : index.entrySet()) {
+            output.writeLong(entry.getValue().offset);
+            output.writeInt(entry.getValue().length);
+            output.writeLong(entry.getValue().crc);
+            output.writeUTF(entry.getKey());
+        }
+        output.flush();
+        file.getFD().sync();
+        output.close();
+        Files.move(temp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private File recordsFile(int generation) {
+        return new File(basePath + "." + generation + ".records");
+    }
+
+    private static class RecordEntry {
+        private final long offset;
+        private final int length;
+        private final long crc;
+
+        private RecordEntry(long offset, int length, long crc) {
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+}
@@ -1,29 +1,44 @@
 package gateways;
 
 import entities.User;
+import entities.UsernameTable;
+import metrics.Metrics;
 
 import java.io.*;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 public class UserGateway {
-    private Map<String, User> mapOfUsers;
+    private static final int MAX_RESIDENT_USERS = 1024;
+    private static final GatewayMetrics METRICS = new GatewayMetrics("UserGateway");
+
+    private final LazyRecordMap<User> mapOfUsers;
+    private final UsernameTable usernames;
 
     /**
-     * Creates a new gateway that loads in the HashMap of user objects for an .ser file.
+     * Creates a new gateway for the users stored next to the given .ser file. Each user is kept as its own record,
+     * only the index of usernames is read here and a user is deserialized the first time it is accessed.
+     * A map of users serialized by an older version in the .ser file is moved into the records, and the file is kept
+     * until deleteOldFile() is called.
      * @param filepath the directory where the .ser file is stored
+     * @param usernames the table the usernames held by the stored objects are kept in
      * @throws IOException If the path is not valid or an error happened when reading or writing the file
      * @throws ClassNotFoundException If the class cannot be found
      */
-    public UserGateway(String filepath) throws IOException, ClassNotFoundException{
+    public UserGateway(String filepath, UsernameTable usernames) throws IOException, ClassNotFoundException{
+        this.usernames = usernames;
+        this.mapOfUsers = new LazyRecordMap<>(new RecordStore(basePath(filepath), usernames), MAX_RESIDENT_USERS);
+        Metrics.gauge("gateway.UserGateway.users", mapOfUsers::size);
+        Metrics.gauge("gateway.UserGateway.resident", mapOfUsers::residentCount);
+
+        // the records of a map moved in on an earlier start are at least as new as the .ser file it came from
         File file = new File(filepath);
-        if (file.exists()) {
-            this.mapOfUsers = readFromFile(filepath);
-        } else {
-            file.createNewFile();
-        }
-        if(this.mapOfUsers == null) {
-            this.mapOfUsers = new HashMap<>();
+        if (this.mapOfUsers.isEmpty() && file.exists() && file.length() > 0) {
+            Map<String, User> oldUsers = readFromFile(filepath);
+            if (oldUsers != null) {
+                this.mapOfUsers.putAll(oldUsers);
+            }
+            this.mapOfUsers.flush();
         }
     }
     /**
@@ -34,39 +49,58 @@ public class UserGateway {
      * @throws ClassNotFoundException If the class cannot be found
      */
     public Map<String, User> readFromFile(String filepath) throws IOException, ClassNotFoundException{
-        Map<String, User> userObjects;
-        // load in the objects
-        InputStream file = new FileInputStream(filepath);
-        InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+        GatewayIOEvent io = METRICS.start();
+        try {
+            Map<String, User> userObjects;
+            // load in the objects
+            InputStream file = new FileInputStream(filepath);
+            InputStream buffer = new BufferedInputStream(file);
+            ObjectInput input = usernames.objectInput(buffer);
 
-        // deserialize the hashmap of user objects
-        userObjects = (Map<String, User>) input.readObject();
-        input.close();
-        return userObjects;
+            // deserialize the hashmap of user objects
+            userObjects = (Map<String, User>) input.readObject();
+            input.close();
+            return userObjects;
+        } finally {
+            METRICS.read(io, filepath, new File(filepath).length());
+        }
     }
 
     /**
-     * Serializes the arraylist of user objects.
+     * Serializes the user objects, each one into its own record. Users that were never loaded are not rewritten.
      * @param filepath where this file will be stored
      * @param userObjects HashMap with Users and their respective usernames that we want to serialize.
      * @throws IOException when an error occur when serializing
      */
     public void writeToFile(String filepath, Map<String, User> userObjects) throws IOException{
-        // load allUsers onto the file at designed path
-        FileOutputStream file = new FileOutputStream(filepath);
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutputStream output = new ObjectOutputStream(buffer);
-
-        // serialize objects
-        this.mapOfUsers = userObjects;
-        output.writeObject(userObjects);
-        output.close();
+        GatewayIOEvent io = METRICS.start();
+        try {
+            if (userObjects != this.mapOfUsers) {
+                for (String username : new HashSet<>(this.mapOfUsers.keySet())) {
+                    if (!userObjects.containsKey(username)) this.mapOfUsers.remove(username);
+                }
+                this.mapOfUsers.putAll(userObjects);
+            }
+            this.mapOfUsers.flush();
+        } finally {
+            METRICS.written(io, filepath, 0);
+        }
     }
 
     /**
-     * Returns the now deserialized map of user objects
+     * Returns the map of user objects, users are loaded from disk when they are first accessed
      * @return the HashMap of user objects
      */
     public Map<String, User> getMapOfUsers() { return this.mapOfUsers; }
+
+    /**
+     * Deletes the .ser file the users were serialized in by an older version. Must only be called once every gateway
+     * has been saved, so that the file is still there if loading or saving any of them fails before.
+     * @param filepath the directory where the .ser file is stored
+     */
+    public void deleteOldFile(String filepath) { new File(filepath).delete(); }
+
+    private static String basePath(String filepath) {
+        return filepath.endsWith(".ser") ? filepath.substring(0, filepath.length() - 4) : filepath;
+    }
 }
@@ -0,0 +1,68 @@
+package gateways;
+
+import entities.UserLimits;
+
+import java.io.*;
+
+public class UserLimitsGateway {
+    private static final GatewayMetrics METRICS = new GatewayMetrics("UserLimitsGateway");
+
+    private UserLimits userLimits;
+
+    /**
+     * Creates a new gateway that loads in the limits of every user stored in a .ser file
+     * @param filepath the directory where the .ser file is stored
+     * @throws IOException If something is wrong with the filepath or file
+     * @throws ClassNotFoundException If the class cannot be found
+     */
+    public UserLimitsGateway(String filepath) throws IOException, ClassNotFoundException {
+        File file = new File(filepath);
+        if (file.exists() && file.length() > 0) {
+            userLimits = readFromFile(filepath);
+        }
+        if (userLimits == null) {
+            userLimits = new UserLimits();
+        }
+    }
+
+    /**
+     * Deserializes the limits of every user
+     * @param filepath Filepath to the .ser file storing the UserLimits
+     * @return the deserialized UserLimits
+     * @throws IOException If the file cannot be read
+     * @throws ClassNotFoundException If the class cannot be found
+     */
+    public UserLimits readFromFile(String filepath) throws IOException, ClassNotFoundException {
+        GatewayIOEvent io = METRICS.start();
+        try (ObjectInput input = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filepath)))) {
+            return (UserLimits) input.readObject();
+        } finally {
+            METRICS.read(io, filepath, new File(filepath).length());
+        }
+    }
+
+    /**
+     * Serializes the limits of every user
+     * @param filepath where this file will be stored
+     * @param userLimits2 the UserLimits to overwrite the previous ones with
+     * @throws IOException when an error occur when serializing
+     */
+    public void writeToFile(String filepath, UserLimits userLimits2) throws IOException {
+        GatewayIOEvent io = METRICS.start();
+        try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(
+                new FileOutputStream(filepath)))) {
+            userLimits = userLimits2;
+            output.writeObject(userLimits2);
+        } finally {
+            METRICS.written(io, filepath, new File(filepath).length());
+        }
+    }
+
+    /**
+     * Returns the limits of every user who does not have their own
+     * @return the UserLimits presently saved in the serialized file
+     */
+    public UserLimits getUserLimits() {
+        return userLimits;
+    }
+}
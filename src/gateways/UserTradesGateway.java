@@ -1,32 +1,46 @@
 package gateways;
 
 import entities.Trade;
+import entities.UsernameTable;
+import metrics.Metrics;
 
 import java.io.*;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
 public class UserTradesGateway {
+    private static final int MAX_RESIDENT_USERS = 1024;
+    private static final GatewayMetrics METRICS = new GatewayMetrics("UserTradesGateway");
 
-    Map<String, List<Trade>> userTrades;
+    LazyRecordMap<List<Trade>> userTrades;
+    private final UsernameTable usernames;
 
     /**
-     * Creates a new gateway that loads in the HashMap of users and their respective trades for an .ser file.
+     * Creates a new gateway for the trades stored next to the given .ser file. The trades of each user are kept as
+     * their own record and are only deserialized the first time that user's trades are accessed.
+     * A map of trades serialized by an older version in the .ser file is moved into the records, and the file is kept
+     * until deleteOldFile() is called.
      * @param filepath the directory where the .ser file is stored
+     * @param usernames the table the usernames held by the stored objects are kept in
      * @throws IOException If something is wrong with the filepath or file
      * @throws ClassNotFoundException If the class cannot be found
      */
-    public UserTradesGateway(String filepath) throws IOException, ClassNotFoundException{
+    public UserTradesGateway(String filepath, UsernameTable usernames) throws IOException, ClassNotFoundException{
+        this.usernames = usernames;
+        userTrades = new LazyRecordMap<>(new RecordStore(basePath(filepath), usernames), MAX_RESIDENT_USERS);
+        Metrics.gauge("gateway.UserTradesGateway.users", userTrades::size);
+        Metrics.gauge("gateway.UserTradesGateway.resident", userTrades::residentCount);
+
+        // the records of a map moved in on an earlier start are at least as new as the .ser file it came from
         File file = new File(filepath);
-        if (file.exists()) {
-            userTrades = readFromFile(filepath);
-            if(userTrades == null) {
-                userTrades = new HashMap<>();
+        if (userTrades.isEmpty() && file.exists() && file.length() > 0) {
+            Map<String, List<Trade>> oldTrades = readFromFile(filepath);
+            if(oldTrades != null) {
+                userTrades.putAll(oldTrades);
             }
-        } else {
-            file.createNewFile();
-            userTrades = new HashMap<>();
+            userTrades.flush();
         }
     }
     /**
@@ -37,41 +51,61 @@ public class UserTradesGateway {
      * @throws ClassNotFoundException If the class cannot be found
      */
     public Map<String, List<Trade>> readFromFile(String filepath) throws IOException, ClassNotFoundException{
-        Map<String, List<Trade>> userTrades2 = new HashMap<>();
+        GatewayIOEvent io = METRICS.start();
+        try {
+            Map<String, List<Trade>> userTrades2 = new HashMap<>();
 
-        // load in the objects
-        InputStream file = new FileInputStream(filepath);InputStream buffer = new BufferedInputStream(file);
-        ObjectInput input = new ObjectInputStream(buffer);
+            // load in the objects
+            InputStream file = new FileInputStream(filepath);InputStream buffer = new BufferedInputStream(file);
+            ObjectInput input = usernames.objectInput(buffer);
 
-        // deserialize the hashmap of user objects
-        userTrades2 = (Map<String, List<Trade>>) input.readObject();
-        input.close();
-        return userTrades2;
+            // deserialize the hashmap of user objects
+            userTrades2 = (Map<String, List<Trade>>) input.readObject();
+            input.close();
+            return userTrades2;
+        } finally {
+            METRICS.read(io, filepath, new File(filepath).length());
+        }
     }
 
     /**
-     * Serializes the HashMap of usernames and their trades
+     * Serializes the trades of every user, each user's trades into their own record. The trades of users that were
+     * never loaded are not rewritten.
      * @param filepath where this file will be stored
      * @param userTrades3 HashMap of the trades for all users.
      * @throws IOException when an error occur when serializing
      */
     public void writeToFile(String filepath, Map<String, List<Trade>> userTrades3) throws IOException{
-        // load allUsers onto the file at designed path
-        FileOutputStream file = new FileOutputStream(filepath);
-        OutputStream buffer = new BufferedOutputStream(file);
-        ObjectOutputStream output = new ObjectOutputStream(buffer);
-
-        // serialize objects
-        userTrades = userTrades3;
-        output.writeObject(userTrades3);
-        output.close();
+        GatewayIOEvent io = METRICS.start();
+        try {
+            if (userTrades3 != userTrades) {
+                for (String username : new HashSet<>(userTrades.keySet())) {
+                    if (!userTrades3.containsKey(username)) userTrades.remove(username);
+                }
+                userTrades.putAll(userTrades3);
+            }
+            userTrades.flush();
+        } finally {
+            METRICS.written(io, filepath, 0);
+        }
     }
 
     /**
-     * returns the HashMap of trades for all users.
+     * returns the HashMap of trades for all users, the trades of a user are loaded when they are first accessed.
      * @return HashMap of trades for all users that is presently serialized.
      */
     public Map<String, List<Trade>> getUserTrades() {
         return userTrades;
     }
+
+    /**
+     * Deletes the .ser file the trades were serialized in by an older version. Must only be called once every gateway
+     * has been saved, so that the file is still there if loading or saving any of them fails before.
+     * @param filepath the directory where the .ser file is stored
+     */
+    public void deleteOldFile(String filepath) { new File(filepath).delete(); }
+
+    private static String basePath(String filepath) {
+        return filepath.endsWith(".ser") ? filepath.substring(0, filepath.length() - 4) : filepath;
+    }
 }
@@ -0,0 +1,80 @@
+package gateways;
+
+import entities.UsernameTable;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UsernameTableGateway {
+    private static final GatewayMetrics METRICS = new GatewayMetrics("UsernameTableGateway");
+
+    private final UsernameTable usernameTable;
+
+    /**
+     * Creates a new gateway that loads the UsernameTable saved in a .ser file, so that every username gets back the
+     * ID it had when the table was saved. The other gateways are given this table to read their files into.
+     * @param filepath the directory where the .ser file is stored
+     * @throws IOException If something is wrong with the filepath or file
+     * @throws ClassNotFoundException If the class cannot be found
+     */
+    public UsernameTableGateway(String filepath) throws IOException, ClassNotFoundException {
+        File file = new File(filepath);
+        List<String> usernames = null;
+        if (file.exists() && file.length() > 0) {
+            usernames = readFromFile(filepath);
+        } else {
+            file.createNewFile();
+        }
+        usernameTable = usernames == null ? new UsernameTable() : new UsernameTable(usernames);
+    }
+
+    /**
+     * Deserializes the list of usernames, in the order of their IDs.
+     * @param filepath Filepath to the .ser file storing the usernames
+     * @return the list of usernames, where the username with ID i is at index i
+     * @throws IOException If the file cannot be read
+     * @throws ClassNotFoundException If the class cannot be found
+     */
+    public List<String> readFromFile(String filepath) throws IOException, ClassNotFoundException {
+        GatewayIOEvent io = METRICS.start();
+        try {
+            InputStream file = new FileInputStream(filepath);
+            InputStream buffer = new BufferedInputStream(file);
+            ObjectInput input = new ObjectInputStream(buffer);
+
+            List<String> usernames = (List<String>) input.readObject();
+            input.close();
+            return usernames;
+        } finally {
+            METRICS.read(io, filepath, new File(filepath).length());
+        }
+    }
+
+    /**
+     * Serializes every username of the UsernameTable loaded by this gateway in the order of their IDs.
+     * @param filepath where this file will be stored
+     * @throws IOException when an error occur when serializing
+     */
+    public void writeToFile(String filepath) throws IOException {
+        GatewayIOEvent io = METRICS.start();
+        try {
+            FileOutputStream file = new FileOutputStream(filepath);
+            OutputStream buffer = new BufferedOutputStream(file);
+            ObjectOutputStream output = new ObjectOutputStream(buffer);
+
+            output.writeObject(new ArrayList<>(usernameTable.getUsernames()));
+            output.close();
+        } finally {
+            METRICS.written(io, filepath, new File(filepath).length());
+        }
+    }
+
+    /**
+     * Getter for the table of all usernames, loaded from the .ser file
+     * @return the UsernameTable
+     */
+    public UsernameTable getUsernameTable() {
+        return usernameTable;
+    }
+}
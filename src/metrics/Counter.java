@@ -0,0 +1,38 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that only goes up, such as the number of bytes written. Adding to it takes no lock.
+ */
+public class Counter extends Metric implements CounterMBean {
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        super(name);
+    }
+
+    /**
+     * Adds one to the count
+     */
+    public void increment() {
+        if (Metrics.isEnabled()) count.increment();
+    }
+
+    /**
+     * Adds to the count
+     * @param n how much to add
+     */
+    public void add(long n) {
+        if (Metrics.isEnabled()) count.add(n);
+    }
+
+    @Override
+    public long getCount() { return count.sum(); }
+
+    @Override
+    public String getType() { return "Counter"; }
+
+    @Override
+    public String describe() { return Long.toString(getCount()); }
+}
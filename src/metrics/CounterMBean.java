@@ -0,0 +1,11 @@
+package metrics;
+
+/**
+ * What JMX shows of a counter
+ */
+public interface CounterMBean {
+    /**
+     * @return the current count
+     */
+    long getCount();
+}
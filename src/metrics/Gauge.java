@@ -0,0 +1,38 @@
+package metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A value read when it is asked for, such as the number of users in memory. Nothing is recorded on the hot path.
+ */
+public class Gauge extends Metric implements GaugeMBean {
+    private volatile LongSupplier value;
+
+    Gauge(String name, LongSupplier value) {
+        super(name);
+        this.value = value;
+    }
+
+    /**
+     * Replaces where the value is read from, as when the object it is read from is loaded again
+     * @param value the new source of the value
+     */
+    void setValue(LongSupplier value) {
+        this.value = value;
+    }
+
+    @Override
+    public long getValue() { return value.getAsLong(); }
+
+    @Override
+    public String getType() { return "Gauge"; }
+
+    @Override
+    public String describe() {
+        try {
+            return Long.toString(getValue());
+        } catch (RuntimeException ex) {
+            return "unavailable (" + ex.getClass().getSimpleName() + ")";
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package metrics;
+
+/**
+ * What JMX shows of a gauge
+ */
+public interface GaugeMBean {
+    /**
+     * @return the current value
+     */
+    long getValue();
+}
@@ -0,0 +1,31 @@
+package metrics;
+
+/**
+ * Something measured while the program runs, known by a name unique among all metrics
+ */
+public abstract class Metric {
+    private final String name;
+
+    /**
+     * Creates a metric
+     * @param name the name of the metric
+     */
+    protected Metric(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the metric
+     */
+    public String getName() { return name; }
+
+    /**
+     * @return the kind of metric, as shown in snapshots and in the JMX object names
+     */
+    public abstract String getType();
+
+    /**
+     * @return the current value of the metric, as one line of a snapshot
+     */
+    public abstract String describe();
+}
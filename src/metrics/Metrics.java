@@ -0,0 +1,130 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The registry of every metric of the program. Metrics are created once, usually in a static field of the class they
+ * measure, and are published as JMX MBeans under the domain TradeProgram as they are created, so that JConsole or
+ * VisualVM can watch them while the program runs. snapshot() gives all of them as plain text.
+ * Recording can be turned off with the system property tradeprogram.metrics=false, or with setEnabled(); the metrics
+ * then keep what they recorded before. Timers are meant for boundaries, such as a gateway read or the reply to a
+ * message, that take long enough for reading the clock twice not to matter.
+ * The reads and writes of the gateways, the changes to trades, the replies to messages and the scene switches are also
+ * flight recorder events, named tradeprogram.*; tradeprogram.jfc next to this class has the settings to record them.
+ */
+public class Metrics {
+    /**
+     * The JMX domain of the metrics
+     */
+    public static final String DOMAIN = "TradeProgram";
+
+    private static final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getProperty("tradeprogram.metrics", "true"));
+
+    private Metrics() {}
+
+    /**
+     * Getter for the counter with this name, created the first time it is asked for
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        return get(name, Counter.class, () -> new Counter(name));
+    }
+
+    /**
+     * Getter for the timer with this name, created the first time it is asked for
+     * @param name the name of the timer
+     * @return the timer
+     */
+    public static Timer timer(String name) {
+        return get(name, Timer.class, () -> new Timer(name));
+    }
+
+    /**
+     * Registers a gauge, or changes where an existing gauge with this name is read from
+     * @param name the name of the gauge
+     * @param value where the value of the gauge is read from
+     * @return the gauge
+     */
+    public static Gauge gauge(String name, LongSupplier value) {
+        Gauge gauge = get(name, Gauge.class, () -> new Gauge(name, value));
+        gauge.setValue(value);
+        return gauge;
+    }
+
+    /**
+     * @return true if metrics are being recorded
+     */
+    public static boolean isEnabled() { return enabled; }
+
+    /**
+     * Turns recording on or off
+     * @param enabled whether to record metrics
+     */
+    public static void setEnabled(boolean enabled) { Metrics.enabled = enabled; }
+
+    /**
+     * Getter for the current value of every metric, one per line, sorted by name
+     * @return the values as plain text
+     */
+    public static String snapshot() {
+        StringBuilder snapshot = new StringBuilder("# metrics at ").append(LocalDateTime.now()).append('\n');
+        for (Metric metric : new TreeMap<>(metrics).values()) {
+            snapshot.append(metric.getType().toLowerCase()).append(' ').append(metric.getName()).append(' ')
+                    .append(metric.describe()).append('\n');
+        }
+        return snapshot.toString();
+    }
+
+    /**
+     * Writes the current value of every metric to a text file, replacing what it held
+     * @param path the path of the file
+     * @throws IOException If the file cannot be written
+     */
+    public static void writeSnapshot(String path) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(path))) {
+            out.print(snapshot());
+        }
+    }
+
+    //----------------Helpers----------------//
+    private interface Factory<T extends Metric> {
+        T create();
+    }
+
+    private static <T extends Metric> T get(String name, Class<T> type, Factory<T> factory) {
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            metric = metrics.computeIfAbsent(name, key -> register(factory.create()));
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(name + " is a " + metric.getType() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    private static Metric register(Metric metric) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + metric.getType() + ",name="
+                    + ObjectName.quote(metric.getName()));
+            if (!server.isRegistered(objectName)) server.registerMBean(metric, objectName);
+        } catch (JMException | SecurityException ex) {
+            // the metric is still recorded and in the snapshots, only not visible over JMX
+        }
+        return metric;
+    }
+}
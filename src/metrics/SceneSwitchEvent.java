@@ -0,0 +1,58 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a controller opening another screen: loading its FXML file, creating its controller and
+ * showing its window. A call is recorded as:
+ * <pre>
+ * SceneSwitchEvent sceneSwitch = SceneSwitchEvent.start();
+ * ...
+ * window.show();
+ * sceneSwitch.commit(this, filename, loader.getController());
+ * </pre>
+ */
+@Name("tradeprogram.SceneSwitch")
+@Label("Scene Switch")
+@Category({"TradeProgram", "User Interface"})
+@Description("A controller opening another screen")
+public class SceneSwitchEvent extends jdk.jfr.Event {
+    @Label("From")
+    @Description("The controller of the screen the new one was opened from")
+    String from;
+
+    @Label("FXML File")
+    String fxmlFile;
+
+    @Label("Controller")
+    @Description("The controller of the new screen")
+    String controller;
+
+    /**
+     * Starts timing a scene switch
+     * @return the event to commit once the new screen is shown
+     */
+    public static SceneSwitchEvent start() {
+        SceneSwitchEvent event = new SceneSwitchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and records it, if the flight recorder wants it
+     * @param from the controller the new screen was opened from
+     * @param fxmlFile the FXML file of the new screen
+     * @param controller the controller of the new screen, or null if it has none
+     */
+    public void commit(Object from, String fxmlFile, Object controller) {
+        end();
+        if (!shouldCommit()) return;
+        this.from = from.getClass().getSimpleName();
+        this.fxmlFile = fxmlFile;
+        this.controller = controller == null ? null : controller.getClass().getSimpleName();
+        commit();
+    }
+}
@@ -0,0 +1,87 @@
+package metrics;
+
+import java.util.Locale;
+
+/**
+ * Counts calls and times them into a latency histogram. A call is timed as:
+ * <pre>
+ * long start = TIMER.start();
+ * try {
+ *     ...
+ * } finally {
+ *     TIMER.stop(start);
+ * }
+ * </pre>
+ * Neither start() nor stop() takes a lock or allocates, and neither reads the clock while metrics are disabled.
+ */
+public class Timer extends Metric implements TimerMBean {
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    Timer(String name) {
+        super(name);
+    }
+
+    /**
+     * Starts timing a call
+     * @return what to pass to stop() when the call ends, 0 while metrics are disabled
+     */
+    public long start() {
+        return Metrics.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Ends timing a call
+     * @param start what start() returned at the start of the call
+     */
+    public void stop(long start) {
+        if (start != 0) latency.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records a call timed some other way
+     * @param nanos how long it took, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (Metrics.isEnabled()) latency.record(nanos);
+    }
+
+    /**
+     * @return the histogram of the times of the calls, in nanoseconds
+     */
+    public LatencyHistogram getLatency() { return latency; }
+
+    @Override
+    public long getCount() { return latency.getCount(); }
+
+    @Override
+    public double getMeanMillis() { return latency.getMean() / 1_000_000; }
+
+    @Override
+    public double get50thPercentileMillis() { return millisAt(50); }
+
+    @Override
+    public double get90thPercentileMillis() { return millisAt(90); }
+
+    @Override
+    public double get99thPercentileMillis() { return millisAt(99); }
+
+    @Override
+    public double get999thPercentileMillis() { return millisAt(99.9); }
+
+    @Override
+    public double getMaxMillis() { return latency.getMax() / 1_000_000.0; }
+
+    @Override
+    public String getType() { return "Timer"; }
+
+    @Override
+    public String describe() {
+        return String.format(Locale.ROOT, "count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms "
+                        + "max=%.3fms", getCount(), getMeanMillis(), get50thPercentileMillis(),
+                get90thPercentileMillis(), get99thPercentileMillis(), get999thPercentileMillis(), getMaxMillis());
+    }
+
+    private double millisAt(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,41 @@
+package metrics;
+
+/**
+ * What JMX shows of a timer, with every time in milliseconds
+ */
+public interface TimerMBean {
+    /**
+     * @return the number of calls
+     */
+    long getCount();
+
+    /**
+     * @return the average time of a call
+     */
+    double getMeanMillis();
+
+    /**
+     * @return the median time of a call
+     */
+    double get50thPercentileMillis();
+
+    /**
+     * @return the time 90% of the calls took at most
+     */
+    double get90thPercentileMillis();
+
+    /**
+     * @return the time 99% of the calls took at most
+     */
+    double get99thPercentileMillis();
+
+    /**
+     * @return the time 99.9% of the calls took at most
+     */
+    double get999thPercentileMillis();
+
+    /**
+     * @return the longest time of a call
+     */
+    double getMaxMillis();
+}
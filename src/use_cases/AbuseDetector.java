@@ -0,0 +1,305 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.Message;
+import entities.PrivateMessage;
+import entities.ReportRequest;
+import entities.Trade;
+import entities.TradeRequest;
+import entities.UsernameTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Watches what users do for signs of abuse: being reported, failing trades, and sending many private messages or
+ * trade requests, and asks the admins to freeze a user when they did one of them too often within the last window.
+ * Every kind of signal is counted per user in a count-min sketch split into buckets of time, so that memory does not
+ * grow with the number of users and old buckets are dropped as the window slides. A sketch can only count too high,
+ * never too low, and counts are updated conservatively to keep that small. The users with the highest counts of each
+ * signal are also kept in a small table, so that the worst offenders can be listed without going through every user.
+ * A user is flagged at most once per window, and the freeze request is put in the admin inbox by how far over the
+ * thresholds the user is, above the messages that are not prioritized.
+ */
+public class AbuseDetector implements TradeSystemListener {
+    /**
+     * The default length of the window signals are counted over, an hour
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 60L * 60 * 1000;
+    /**
+     * The number of users with the highest counts kept for every signal
+     */
+    public static final int HEAVY_HITTERS = 32;
+
+    // the window is made of this many buckets, so it slides by a sixth of the window at once
+    private static final int BUCKETS = 6;
+    private static final int DEPTH = 4;
+    private static final int WIDTH_BITS = 14;
+
+    /**
+     * The signals of abuse counted, with the number of times within the default window that gets a user flagged
+     */
+    public enum Signal {
+        REPORTED(5), FAILED_TRADE(3), PRIVATE_MESSAGE(300), TRADE_REQUEST(60);
+
+        private final int defaultThreshold;
+
+        Signal(int defaultThreshold) {
+            this.defaultThreshold = defaultThreshold;
+        }
+
+        /**
+         * @return the number of times within the default window that gets a user flagged
+         */
+        public int getDefaultThreshold() {
+            return defaultThreshold;
+        }
+    }
+
+    private final UserManager userManager;
+    private final AdminManager adminManager;
+    private final UsernameTable usernames;
+    private final MessageBuilder messageBuilder;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final Map<Signal, Integer> thresholds = new EnumMap<>(Signal.class);
+    private final Map<Signal, WindowedSketch> sketches = new EnumMap<>(Signal.class);
+    private final Map<Signal, HeavyHitters> heavyHitters = new EnumMap<>(Signal.class);
+    // by username ID, the time users were last flagged, only for the ones flagged within the window
+    private final IntObjectMap<Long> flagged = new IntObjectMap<>();
+    private long bucketStart;
+
+    /**
+     * Creates a detector with a window of DEFAULT_WINDOW_MILLIS and the default thresholds, and registers it as a
+     * listener of the managers
+     * @param userManager the user manager of the system
+     * @param adminManager the admin manager of the system, which freeze requests are sent to
+     * @param tradeManager the trade manager of the system
+     */
+    public AbuseDetector(UserManager userManager, AdminManager adminManager, TradeManager tradeManager) {
+        this(userManager, adminManager, tradeManager, DEFAULT_WINDOW_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a detector with the default thresholds, and registers it as a listener of the managers
+     * @param userManager the user manager of the system
+     * @param adminManager the admin manager of the system, which freeze requests are sent to
+     * @param tradeManager the trade manager of the system
+     * @param windowMillis the length of the window signals are counted over, in milliseconds
+     * @param clock gives the current time in milliseconds
+     */
+    public AbuseDetector(UserManager userManager, AdminManager adminManager, TradeManager tradeManager,
+                         long windowMillis, LongSupplier clock) {
+        this.userManager = userManager;
+        this.usernames = userManager.getUsernameTable();
+        this.messageBuilder = new MessageBuilder(usernames);
+        this.adminManager = adminManager;
+        this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        this.clock = clock;
+        this.bucketStart = clock.getAsLong();
+        for (Signal signal : Signal.values()) {
+            thresholds.put(signal, signal.getDefaultThreshold());
+            sketches.put(signal, new WindowedSketch());
+            heavyHitters.put(signal, new HeavyHitters());
+        }
+        userManager.addListener(this);
+        adminManager.addListener(this);
+        tradeManager.addListener(this);
+    }
+
+    /**
+     * Changes the number of times a signal within the window gets a user flagged
+     * @param signal the signal
+     * @param threshold the new threshold, at least 1
+     */
+    public synchronized void setThreshold(Signal signal, int threshold) {
+        thresholds.put(signal, Math.max(1, threshold));
+    }
+
+    /**
+     * Counts a signal of a user now, and asks the admins to freeze the user if it puts them over a threshold
+     * @param signal the signal
+     * @param username the user
+     */
+    public synchronized void record(Signal signal, String username) {
+        slide();
+        int id = usernames.intern(username);
+        int count = sketches.get(signal).add(id);
+        heavyHitters.get(signal).offer(id, count);
+        if (count >= thresholds.get(signal) && !flagged.containsKey(id)) flag(id, username);
+    }
+
+    /**
+     * Getter for about how many times a user gave a signal within the window
+     * @param signal the signal
+     * @param username the user
+     * @return the count, which may be a little too high but is never too low
+     */
+    public synchronized int getCount(Signal signal, String username) {
+        slide();
+        int id = usernames.idOf(username);
+        return id == UsernameTable.NONE ? 0 : sketches.get(signal).estimate(id);
+    }
+
+    /**
+     * Getter for the users who gave a signal the most within the window
+     * @param signal the signal
+     * @param n the largest number of users to return, at most HEAVY_HITTERS
+     * @return the usernames of up to n users, the most first
+     */
+    public synchronized List<String> getHeavyHitters(Signal signal, int n) {
+        slide();
+        return heavyHitters.get(signal).top(n, usernames);
+    }
+
+    @Override
+    public void messageSent(Message message, String recipient) {
+        if (message instanceof ReportRequest) record(Signal.REPORTED, ((ReportRequest) message).getReportedPerson());
+        else if (message instanceof TradeRequest) record(Signal.TRADE_REQUEST, message.getSender());
+        else if (message instanceof PrivateMessage) record(Signal.PRIVATE_MESSAGE, message.getSender());
+    }
+
+    @Override
+    public void tradeFailed(Trade trade) {
+        // the trade does not record who made it fail, so it counts for both traders
+        record(Signal.FAILED_TRADE, trade.getTraderA());
+        record(Signal.FAILED_TRADE, trade.getTraderB());
+    }
+
+    //----------------Helpers----------------//
+    private void flag(int id, String username) {
+        // admins and the system can be reported too, but only users can be frozen
+        flagged.put(id, clock.getAsLong());
+        if (!userManager.isValidUser(username) || userManager.getUserFrozenStatus(username)) return;
+        // how far over the thresholds the user is, summed over every signal
+        double priority = 0;
+        StringBuilder reasons = new StringBuilder();
+        for (Signal signal : Signal.values()) {
+            int count = sketches.get(signal).estimate(id);
+            if (count == 0) continue;
+            priority += (double) count / thresholds.get(signal);
+            reasons.append(String.format("%n%s: %d", signal.name().toLowerCase().replace('_', ' '), count));
+        }
+        adminManager.addMessage(messageBuilder.getFreezeRequest(String.format(
+                "Automatic abuse alert (priority %.1f): user %s was flagged for what they did in the last %d " +
+                        "minutes.%s", priority, username, bucketMillis * BUCKETS / 60000, reasons), username),
+                priority);
+    }
+
+    // drops the buckets that fell out of the window
+    private void slide() {
+        long now = clock.getAsLong();
+        long elapsed = (now - bucketStart) / bucketMillis;
+        if (elapsed <= 0) return;
+        bucketStart += elapsed * bucketMillis;
+        int steps = (int) Math.min(elapsed, BUCKETS);
+        for (Signal signal : Signal.values()) {
+            WindowedSketch sketch = sketches.get(signal);
+            for (int i = 0; i < steps; i++) sketch.advance();
+            heavyHitters.get(signal).refresh(sketch);
+        }
+        long windowStart = now - bucketMillis * BUCKETS;
+        for (int id : flagged.keys()) {
+            if (flagged.get(id) < windowStart) flagged.remove(id);
+        }
+    }
+
+    // a count-min sketch for every bucket of the window, where a count is the sum over the buckets
+    private static class WindowedSketch {
+        private final int[][] counts = new int[BUCKETS][DEPTH << WIDTH_BITS];
+        private final int[] cells = new int[DEPTH];
+        private int current;
+
+        // counts one more for the ID in the current bucket, and returns its count over the window
+        int add(int id) {
+            int[] bucket = counts[current];
+            int smallest = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                cells[row] = (row << WIDTH_BITS) + hash(id, row);
+                smallest = Math.min(smallest, bucket[cells[row]]);
+            }
+            // only the rows at the smallest count can be exact, the others are already too high
+            for (int row = 0; row < DEPTH; row++) {
+                if (bucket[cells[row]] == smallest) bucket[cells[row]]++;
+            }
+            return estimate(id);
+        }
+
+        int estimate(int id) {
+            int smallest = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                int cell = (row << WIDTH_BITS) + hash(id, row);
+                int sum = 0;
+                for (int[] bucket : counts) sum += bucket[cell];
+                smallest = Math.min(smallest, sum);
+            }
+            return smallest;
+        }
+
+        // starts a new bucket in place of the oldest one
+        void advance() {
+            current = (current + 1) % BUCKETS;
+            Arrays.fill(counts[current], 0);
+        }
+
+        private static int hash(int id, int row) {
+            int h = id * 0x9E3779B9 + row * 0x85EBCA6B;
+            h ^= h >>> 16;
+            h *= 0x7FEB352D;
+            h ^= h >>> 15;
+            h *= 0x846CA68B;
+            h ^= h >>> 16;
+            return h >>> (32 - WIDTH_BITS);
+        }
+    }
+
+    // the IDs with the highest counts seen, with their counts as of when they were last seen or refreshed
+    private static class HeavyHitters {
+        private final int[] ids = new int[HEAVY_HITTERS];
+        private final int[] counts = new int[HEAVY_HITTERS];
+        private int size;
+
+        void offer(int id, int count) {
+            int lowest = 0;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    counts[i] = count;
+                    return;
+                }
+                if (counts[i] < counts[lowest]) lowest = i;
+            }
+            if (size < HEAVY_HITTERS) {
+                ids[size] = id;
+                counts[size++] = count;
+            } else if (count > counts[lowest]) {
+                ids[lowest] = id;
+                counts[lowest] = count;
+            }
+        }
+
+        // counts drop as buckets leave the window, and the ones down to 0 are gone
+        void refresh(WindowedSketch sketch) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int count = sketch.estimate(ids[i]);
+                if (count == 0) continue;
+                ids[kept] = ids[i];
+                counts[kept++] = count;
+            }
+            size = kept;
+        }
+
+        List<String> top(int n, UsernameTable usernames) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(counts[b], counts[a]));
+            List<String> top = new ArrayList<>();
+            for (int i = 0; i < Math.min(n, size); i++) top.add(usernames.name(ids[order[i]]));
+            return top;
+        }
+    }
+}
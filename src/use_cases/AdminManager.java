@@ -4,12 +4,17 @@ import entities.Admin;
 import entities.Message;
 import exceptions.InvalidUsernameException;
 
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class AdminManager{
     private Map<String, Admin> adminList;
     private List<Message> adminMessages;
+    private List<TradeSystemListener> listeners = new CopyOnWriteArrayList<>();
+    // the priorities of the messages added with one, the others are at 0
+    private Map<Message, Double> priorities = new IdentityHashMap<>();
 
     /**
      * Class constructor.
@@ -51,7 +56,6 @@ public class AdminManager{
             throw new InvalidUsernameException();}
 
         adminList.put(username, new Admin(username, password));
-
     }
 
     /** Attempts to retrieve Messages shared by all admin accounts.
@@ -112,6 +116,31 @@ public class AdminManager{
 
     public void addMessage(Message message){
         adminMessages.add(message);
+        for (TradeSystemListener listener : listeners) listener.messageSent(message, null);
+    }
+
+    /**
+     * Adds a message to the shared admin Messages before every message of a lower priority, so that the most
+     * urgent ones are read first. Messages added without a priority are at 0.
+     * @param message the message to add
+     * @param priority the priority of the message, higher is more urgent
+     */
+    public void addMessage(Message message, double priority){
+        priorities.keySet().retainAll(adminMessages);
+        int position = 0;
+        while (position < adminMessages.size() &&
+                priorities.getOrDefault(adminMessages.get(position), 0.0) >= priority) position++;
+        adminMessages.add(position, message);
+        priorities.put(message, priority);
+        for (TradeSystemListener listener : listeners) listener.messageSent(message, null);
+    }
+
+    /**
+     * Register a listener that is told about every message sent to the admins from now on
+     * @param listener the listener
+     */
+    public void addListener(TradeSystemListener listener) {
+        listeners.add(listener);
     }
 
     public Map<String, Admin>  getAdminData(){
@@ -0,0 +1,89 @@
+package use_cases;
+
+import entities.AuditEntry;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Records what admins do to users and to the system, so that it can be looked back at later, and answers the usual
+ * questions about it, such as everything done to one user lately.
+ */
+public class AuditLogManager {
+    /**
+     * The longest details kept for an entry, longer ones are cut
+     */
+    public static final int MAX_DETAILS = 1000;
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final AuditLogStore store;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a manager that records into a store
+     * @param store where the log is kept
+     */
+    public AuditLogManager(AuditLogStore store) {
+        this(store, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a manager that records into a store
+     * @param store where the log is kept
+     * @param clock gives the current time in milliseconds
+     */
+    public AuditLogManager(AuditLogStore store, LongSupplier clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    /**
+     * Records an action an admin took just now
+     * @param admin the username of the admin
+     * @param action the kind of action
+     * @param target the username of the user the action was taken on, or AuditEntry.ALL_USERS
+     * @param details what was changed, in words
+     */
+    public void record(String admin, AuditEntry.Action action, String target, String details) {
+        if (details.length() > MAX_DETAILS) details = details.substring(0, MAX_DETAILS);
+        store.append(new AuditEntry(clock.getAsLong(), admin, action, target, details));
+    }
+
+    /**
+     * Getter for the actions taken on a user lately
+     * @param target the username of the user
+     * @param days how many days back to look
+     * @param limit the largest number of actions to return
+     * @return up to limit actions, the latest first
+     */
+    public List<AuditEntry> getRecentActionsOn(String target, int days, int limit) {
+        long now = clock.getAsLong();
+        return store.find(target, null, now - days * DAY_MILLIS, now, limit);
+    }
+
+    /**
+     * Getter for the actions an admin took lately
+     * @param admin the username of the admin
+     * @param days how many days back to look
+     * @param limit the largest number of actions to return
+     * @return up to limit actions, the latest first
+     */
+    public List<AuditEntry> getRecentActionsBy(String admin, int days, int limit) {
+        long now = clock.getAsLong();
+        return store.find(null, admin, now - days * DAY_MILLIS, now, limit);
+    }
+
+    /**
+     * Getter for the actions that match every condition given
+     * @param target the user the actions were taken on, or null for any
+     * @param admin the admin who took the actions, or null for any
+     * @param fromMillis the earliest time of the actions, in milliseconds since the epoch
+     * @param toMillis the latest time of the actions, in milliseconds since the epoch
+     * @param limit the largest number of actions to return
+     * @return up to limit actions, the latest first
+     */
+    public List<AuditEntry> find(String target, String admin, long fromMillis, long toMillis, int limit) {
+        return store.find(target, admin, fromMillis, toMillis, limit);
+    }
+}
@@ -0,0 +1,28 @@
+package use_cases;
+
+import entities.AuditEntry;
+
+import java.util.List;
+
+/**
+ * Where the audit log is kept. Entries can only be added, and are found by target, admin and time without going
+ * through the whole log. Errors of the storage underneath are thrown as unchecked exceptions.
+ */
+public interface AuditLogStore {
+    /**
+     * Adds an entry at the end of the log
+     * @param entry the entry
+     */
+    void append(AuditEntry entry);
+
+    /**
+     * Finds the entries that match every condition given
+     * @param target the user the actions were taken on, or null for any
+     * @param admin the admin who took the actions, or null for any
+     * @param fromMillis the earliest time of the actions, in milliseconds since the epoch
+     * @param toMillis the latest time of the actions, in milliseconds since the epoch
+     * @param limit the largest number of entries to return
+     * @return up to limit entries, the latest written first
+     */
+    List<AuditEntry> find(String target, String admin, long fromMillis, long toMillis, int limit);
+}
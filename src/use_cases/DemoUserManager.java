@@ -2,12 +2,15 @@ package use_cases;
 
 import entities.DemoUser;
 import entities.Item;
+import entities.UsernameTable;
 
 import java.util.List;
 
 public class DemoUserManager {
 
     private DemoUser demoUser;
+    // the demo user's items are never saved, so their owner is kept apart from the table of the system
+    private final UsernameTable usernames = new UsernameTable();
 
     /**
      * Constructs a new DemoUserManager and stores an instance of DemoUser as an instance variable
@@ -23,13 +26,17 @@ public class DemoUserManager {
      * Get this demo user's inventory
      * @return return this user's inventory
      */
-    public List<Item> getUserInventory() { return this.demoUser.getPersonalInventory(); }
+    public List<Item> getUserInventory() {
+        return this.demoUser.getPersonalInventory();
+    }
 
     /**
      * Return this user's wishlist
      * @return return this user's wishlist
      */
-    public List<Item> getUserWishlist() { return this.demoUser.getWishlist(); }
+    public List<Item> getUserWishlist() {
+        return this.demoUser.getWishlist();
+    }
 
     /**
      * Add to the wishlist
@@ -53,5 +60,15 @@ public class DemoUserManager {
      * Set a new password
      * @param password Sets a new password
      */
-    public void setPassword(String password) { demoUser.setPassword(password); }
+    public void setPassword(String password) {
+        demoUser.setPassword(password);
+    }
+
+    /**
+     * Getter for the UsernameTable the demo user's own items are kept in
+     * @return the UsernameTable of the demo user
+     */
+    public UsernameTable getUsernameTable() {
+        return usernames;
+    }
 }
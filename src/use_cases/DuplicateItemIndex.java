@@ -0,0 +1,205 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.IntSet;
+import entities.Item;
+import entities.ItemId;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Finds the items in the global inventory that are probably the same as a given item, by name and description.
+ * Every item is turned into a set of shingles: the 3 letter pieces of its name and the words of its description.
+ * The similarity of two items is the share of shingles they have in common (their Jaccard similarity), which is
+ * estimated from a MinHash signature of each item. The signatures are split into bands, and items are only compared
+ * when they have a whole band in common, so a lookup only looks at a handful of items however large the inventory is.
+ * The index is kept up to date by listening to the global inventory manager.
+ */
+public class DuplicateItemIndex implements TradeSystemListener {
+    /**
+     * The default smallest similarity for two items to be reported as duplicates
+     */
+    public static final double DEFAULT_THRESHOLD = 0.5;
+
+    // 8 bands of 4 hashes: items with a similarity of 0.5 share a band 4 times out of 10, and 0.8 almost always
+    private static final int BANDS = 8;
+    private static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+    private static final long[] SEEDS = new SplittableRandom(0x5EED).longs(HASHES).toArray();
+
+    private final GlobalInventoryManager globalInventoryManager;
+    private final double threshold;
+    private final IntObjectMap<int[]> signatures = new IntObjectMap<>();
+    private final Map<Long, IntSet> buckets = new HashMap<>();
+
+    /**
+     * Creates an index reporting items with a similarity of at least DEFAULT_THRESHOLD
+     * @param globalInventoryManager the global inventory manager of the system
+     */
+    public DuplicateItemIndex(GlobalInventoryManager globalInventoryManager) {
+        this(globalInventoryManager, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates the index from the items in the global inventory, and registers it as a listener of the manager
+     * @param globalInventoryManager the global inventory manager of the system
+     * @param threshold the smallest similarity, from 0 to 1, for two items to be reported as duplicates
+     */
+    public DuplicateItemIndex(GlobalInventoryManager globalInventoryManager, double threshold) {
+        this.globalInventoryManager = globalInventoryManager;
+        this.threshold = threshold;
+        synchronized (this) {
+            for (String itemId : globalInventoryManager.getGlobalInventoryData().getItemIdCollection()) {
+                Item item = globalInventoryManager.getItemFromGI(itemId);
+                if (item != null) itemAdded(item);
+            }
+        }
+        globalInventoryManager.addListener(this);
+    }
+
+    /**
+     * Getter for the items in the global inventory that are probably the same as an item
+     * @param item the item, which does not have to be in the global inventory
+     * @return the items with a similarity of at least the threshold, most similar first, without the item itself
+     */
+    public List<Item> findDuplicates(Item item) {
+        int[] signature = signature(item);
+        List<Item> duplicates = new ArrayList<>();
+        if (signature == null) return duplicates;
+        int self = ItemId.toKey(item.getItemID());
+        Map<Item, Double> similarities = new IdentityHashMap<>();
+        synchronized (this) {
+            IntSet compared = new IntSet();
+            for (int band = 0; band < BANDS; band++) {
+                IntSet bucket = buckets.get(bucketKey(signature, band));
+                if (bucket == null) continue;
+                for (int i = 0; i < bucket.size(); i++) {
+                    int other = bucket.get(i);
+                    if (other == self || !compared.add(other)) continue;
+                    double similarity = similarity(signature, signatures.get(other));
+                    if (similarity < threshold) continue;
+                    Item duplicate = globalInventoryManager.getItemFromGI(ItemId.toId(other));
+                    if (duplicate != null) {
+                        duplicates.add(duplicate);
+                        similarities.put(duplicate, similarity);
+                    }
+                }
+            }
+        }
+        duplicates.sort(Comparator.comparingDouble(similarities::get).reversed());
+        return duplicates;
+    }
+
+    /**
+     * Estimates how alike two items are by name and description
+     * @param item an item
+     * @param other another item
+     * @return the estimated share of shingles they have in common, from 0 to 1
+     */
+    public static double similarity(Item item, Item other) {
+        int[] signature = signature(item);
+        int[] otherSignature = signature(other);
+        if (signature == null || otherSignature == null) return 0;
+        return similarity(signature, otherSignature);
+    }
+
+    /**
+     * @param item the item
+     * @param other another item
+     * @return true if the two items are alike enough to be reported as duplicates by this index
+     */
+    public boolean isDuplicate(Item item, Item other) {
+        return similarity(item, other) >= threshold;
+    }
+
+    @Override
+    public synchronized void itemAdded(Item item) {
+        int key = ItemId.toKey(item.getItemID());
+        int[] signature = signature(item);
+        if (signature == null || key == ItemId.INVALID || signatures.containsKey(key)) return;
+        signatures.put(key, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bucketKey(signature, band), b -> new IntSet(2)).add(key);
+        }
+    }
+
+    @Override
+    public synchronized void itemRemoved(Item item) {
+        int key = ItemId.toKey(item.getItemID());
+        int[] signature = signatures.remove(key);
+        if (signature == null) return;
+        for (int band = 0; band < BANDS; band++) {
+            long bucketKey = bucketKey(signature, band);
+            IntSet bucket = buckets.get(bucketKey);
+            if (bucket != null && bucket.remove(key) && bucket.isEmpty()) buckets.remove(bucketKey);
+        }
+    }
+
+    //----------------Helpers----------------//
+    private static double similarity(int[] signature, int[] otherSignature) {
+        int same = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (signature[i] == otherSignature[i]) same++;
+        }
+        return (double) same / HASHES;
+    }
+
+    // the smallest hash of the shingles for every hash function, or null if the item has no shingles
+    private static int[] signature(Item item) {
+        IntSet shingles = shingles(item);
+        if (shingles.isEmpty()) return null;
+        int[] signature = new int[HASHES];
+        for (int h = 0; h < HASHES; h++) {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < shingles.size(); i++) {
+                min = Math.min(min, (int) mix(shingles.get(i) ^ SEEDS[h]));
+            }
+            signature[h] = min;
+        }
+        return signature;
+    }
+
+    private static IntSet shingles(Item item) {
+        IntSet shingles = new IntSet();
+        String name = " " + normalize(item.getName()) + " ";
+        if (!name.isBlank()) {
+            for (int i = 0; i + 3 <= name.length(); i++) shingles.add(name.substring(i, i + 3).hashCode());
+        }
+        String description = normalize(item.getDescription());
+        if (!description.isEmpty()) {
+            for (String word : description.split(" ")) {
+                // marked so that a word never matches a piece of a name
+                if (word.length() > 1) shingles.add(("#" + word).hashCode());
+            }
+        }
+        return shingles;
+    }
+
+    // lower case letters and digits, with anything else turned into single spaces
+    private static String normalize(String text) {
+        if (text == null) return "";
+        return text.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static long bucketKey(int[] signature, int band) {
+        long key = band;
+        for (int r = band * ROWS; r < (band + 1) * ROWS; r++) key = mix(key * 31 + signature[r]);
+        return key;
+    }
+
+    // the 64 bit finalizer of MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
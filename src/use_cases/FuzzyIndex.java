@@ -0,0 +1,211 @@
+package use_cases;
+
+import entities.IntSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An index of strings that finds the ones within an edit distance of MAX_DISTANCE of a query, ignoring case.
+ * Every string is cut into MAX_DISTANCE + 1 parts by its length. MAX_DISTANCE edits can change at most MAX_DISTANCE
+ * of the parts, so a string close to the query has a part that appears unchanged in the query, at most MAX_DISTANCE
+ * characters away from where it is in the string. The parts are kept in a hash table, so a search only looks up a
+ * few parts of the query and computes the edit distance of the few strings found, however many strings there are.
+ * A string added more than once is counted, and only forgotten once it has been removed as many times.
+ */
+public class FuzzyIndex {
+    /**
+     * The largest edit distance of a string found by search
+     */
+    public static final int MAX_DISTANCE = 2;
+
+    private static final int PARTS = MAX_DISTANCE + 1;
+    private static final int EMPTY = -1;
+
+    private final Map<String, Integer> idOf = new HashMap<>();
+    private String[] strings = new String[16];
+    private String[] lowered = new String[16];
+    private int[] counts = new int[16];
+    private int size;
+
+    // hash table from part to the first entry of the strings with that part, followed through next
+    private long[] partKeys = new long[64];
+    private int[] firstEntry = new int[64];
+    private int parts;
+    private int[] entryString = new int[64];
+    private int[] nextEntry = new int[64];
+    private int entries;
+
+    /**
+     * Creates an empty index
+     */
+    public FuzzyIndex() {
+        Arrays.fill(firstEntry, EMPTY);
+    }
+
+    /**
+     * Adds a string to the index, or counts it once more if it is already in it
+     * @param string the string
+     */
+    public synchronized void add(String string) {
+        Integer id = idOf.get(string);
+        if (id != null) {
+            counts[id]++;
+            return;
+        }
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+            lowered = Arrays.copyOf(lowered, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        id = size++;
+        idOf.put(string, id);
+        strings[id] = string;
+        lowered[id] = string.toLowerCase(Locale.ROOT);
+        counts[id] = 1;
+        int length = lowered[id].length();
+        for (int part = 0; part < PARTS; part++) {
+            int start = partStart(length, part);
+            addEntry(partKey(length, part, lowered[id], start, partStart(length, part + 1) - start), id);
+        }
+    }
+
+    /**
+     * Counts a string once less, it is no longer found once it has been removed as many times as it was added
+     * @param string the string
+     */
+    public synchronized void remove(String string) {
+        Integer id = idOf.get(string);
+        if (id != null && counts[id] > 0) counts[id]--;
+    }
+
+    /**
+     * Finds the strings in the index within MAX_DISTANCE edits of a query, ignoring case
+     * @param query the query
+     * @param limit the largest number of strings to return
+     * @return the strings, closest first. Strings as close as each other come by the number of times they were added,
+     * then in alphabetical order
+     */
+    public List<String> search(String query, int limit) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        int length = lowerQuery.length();
+        List<int[]> found = new ArrayList<>();
+        synchronized (this) {
+            IntSet seen = new IntSet();
+            for (int other = Math.max(0, length - MAX_DISTANCE); other <= length + MAX_DISTANCE; other++) {
+                for (int part = 0; part < PARTS; part++) {
+                    int start = partStart(other, part);
+                    int partLength = partStart(other, part + 1) - start;
+                    for (int shift = -MAX_DISTANCE; shift <= MAX_DISTANCE; shift++) {
+                        if (start + shift < 0 || start + shift + partLength > length) continue;
+                        int slot = slotOf(partKey(other, part, lowerQuery, start + shift, partLength));
+                        for (int e = firstEntry[slot]; e != EMPTY; e = nextEntry[e]) {
+                            int id = entryString[e];
+                            if (counts[id] == 0 || lowered[id].length() != other || !seen.add(id)) continue;
+                            int distance = distance(lowerQuery, lowered[id]);
+                            if (distance <= MAX_DISTANCE) found.add(new int[]{id, distance, counts[id]});
+                        }
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.<int[]>comparingInt(f -> f[1]).thenComparingInt(f -> -f[2])
+                .thenComparing(f -> strings[f[0]]));
+        List<String> closest = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, found.size()); i++) closest.add(strings[found.get(i)[0]]);
+        return closest;
+    }
+
+    /**
+     * @return the number of different strings in the index
+     */
+    public synchronized int size() {
+        int different = 0;
+        for (int id = 0; id < size; id++) {
+            if (counts[id] > 0) different++;
+        }
+        return different;
+    }
+
+    //----------------Helpers----------------//
+    private static int partStart(int length, int part) {
+        return part * length / PARTS;
+    }
+
+    // the part of a string of a given length, hashed with its length and number so parts of other strings differ
+    private static long partKey(int length, int part, String string, int start, int partLength) {
+        long key = (long) length * PARTS + part;
+        for (int i = start; i < start + partLength; i++) key = key * 0x100000001B3L + string.charAt(i);
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // the slot of a part key, or the free slot it would go in
+    private int slotOf(long key) {
+        int mask = partKeys.length - 1;
+        int slot = (int) key & mask;
+        while (firstEntry[slot] != EMPTY && partKeys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void addEntry(long key, int id) {
+        if (entries == entryString.length) {
+            entryString = Arrays.copyOf(entryString, entries * 2);
+            nextEntry = Arrays.copyOf(nextEntry, entries * 2);
+        }
+        int slot = slotOf(key);
+        if (firstEntry[slot] == EMPTY) {
+            if (++parts * 2 > partKeys.length) {
+                growTable();
+                slot = slotOf(key);
+            }
+            partKeys[slot] = key;
+        }
+        entryString[entries] = id;
+        nextEntry[entries] = firstEntry[slot];
+        firstEntry[slot] = entries++;
+    }
+
+    // keeps the table at most half full
+    private void growTable() {
+        long[] oldKeys = partKeys;
+        int[] oldFirst = firstEntry;
+        partKeys = new long[oldKeys.length * 2];
+        firstEntry = new int[oldKeys.length * 2];
+        Arrays.fill(firstEntry, EMPTY);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldFirst[slot] == EMPTY) continue;
+            int newSlot = slotOf(oldKeys[slot]);
+            partKeys[newSlot] = oldKeys[slot];
+            firstEntry[newSlot] = oldFirst[slot];
+        }
+    }
+
+    // the Levenshtein distance of two strings, or MAX_DISTANCE + 1 if it is larger than MAX_DISTANCE
+    private static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > MAX_DISTANCE) return MAX_DISTANCE + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], MAX_DISTANCE + 1);
+    }
+}
@@ -0,0 +1,68 @@
+package use_cases;
+
+import entities.Item;
+
+import java.util.List;
+
+/**
+ * Typo tolerant lookup of usernames and item names, for "did you mean" suggestions when an exact lookup fails.
+ * Both are kept in a FuzzyIndex, built from the users and the global inventory and kept up to date by listening to
+ * the user manager and the global inventory manager.
+ */
+public class FuzzyLookup implements TradeSystemListener {
+    /**
+     * The default number of suggestions
+     */
+    public static final int DEFAULT_SUGGESTIONS = 5;
+
+    private final FuzzyIndex usernames = new FuzzyIndex();
+    private final FuzzyIndex itemNames = new FuzzyIndex();
+
+    /**
+     * Creates the lookup from the current users and items, and registers it as a listener of both managers
+     * @param userManager the user manager of the system
+     * @param globalInventoryManager the global inventory manager of the system
+     */
+    public FuzzyLookup(UserManager userManager, GlobalInventoryManager globalInventoryManager) {
+        for (String username : userManager.getUserData().keySet()) usernames.add(username);
+        for (String itemId : globalInventoryManager.getGlobalInventoryData().getItemIdCollection()) {
+            Item item = globalInventoryManager.getItemFromGI(itemId);
+            if (item != null) itemNames.add(item.getName());
+        }
+        userManager.addListener(this);
+        globalInventoryManager.addListener(this);
+    }
+
+    /**
+     * Getter for the usernames closest to one that may have a typo
+     * @param username the username as typed
+     * @return up to DEFAULT_SUGGESTIONS usernames within FuzzyIndex.MAX_DISTANCE edits, closest first
+     */
+    public List<String> suggestUsernames(String username) {
+        return usernames.search(username, DEFAULT_SUGGESTIONS);
+    }
+
+    /**
+     * Getter for the names of the items in the global inventory closest to one that may have a typo
+     * @param itemName the item name as typed
+     * @return up to DEFAULT_SUGGESTIONS item names within FuzzyIndex.MAX_DISTANCE edits, closest first
+     */
+    public List<String> suggestItemNames(String itemName) {
+        return itemNames.search(itemName, DEFAULT_SUGGESTIONS);
+    }
+
+    @Override
+    public void userAdded(String username) {
+        usernames.add(username);
+    }
+
+    @Override
+    public void itemAdded(Item item) {
+        itemNames.add(item.getName());
+    }
+
+    @Override
+    public void itemRemoved(Item item) {
+        itemNames.remove(item.getName());
+    }
+}
@@ -7,11 +7,13 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class GlobalInventoryManager implements Serializable {
 
     // gI is the GlobalInventory we want to modify.
     private GlobalInventory globalInventory;
+    private transient List<TradeSystemListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * construct the Use Case class to do some changes on globalinventory.
@@ -50,7 +52,7 @@ public class GlobalInventoryManager implements Serializable {
         Random rand = new Random();
         int id = rand.nextInt(900000000) + 100000000;
         String ID = Integer.toString(id);
-        while (globalInventory.getItemIdCollection().contains(ID)) {
+        while (globalInventory.isItemIdUsed(ID)) {
             id = rand.nextInt(900000000) + 100000000;
             ID = Integer.toString(id);
         }
@@ -67,7 +69,6 @@ public class GlobalInventoryManager implements Serializable {
      */
 
     public void addItemToHashMap(Item item) {
-
         if (!item.hasID()) {
             globalInventory.addItem(item.getItemID(), item);
         }
@@ -82,6 +83,7 @@ public class GlobalInventoryManager implements Serializable {
 
 
         }
+        for (TradeSystemListener listener : listeners) listener.itemAdded(item);
     }
 
 
@@ -92,7 +94,9 @@ public class GlobalInventoryManager implements Serializable {
      */
 
     public void removeItemAndAddToGarbageBin(String itemID) {
+        Item item = globalInventory.getItem(itemID);
         globalInventory.removeItemAndAddToGarbageBin(itemID);
+        itemRemoved(item);
     }
 
     /**
@@ -100,7 +104,15 @@ public class GlobalInventoryManager implements Serializable {
      * @param userid The user who's last deleted item will be brought back
      */
     public void undoDeleteItem(String userid){
+        List<Item> removedItems = globalInventory.getRemovedItems();
+        Item restored = null;
+        for (int j = removedItems.size() - 1; j >= 0 && restored == null; j--) {
+            if (removedItems.get(j).getOwnerName().equals(userid)) restored = removedItems.get(j);
+        }
         globalInventory.undoDeleteItem(userid);
+        if (restored != null) {
+            for (TradeSystemListener listener : listeners) listener.itemAdded(restored);
+        }
     }
 
     /**
@@ -110,7 +122,14 @@ public class GlobalInventoryManager implements Serializable {
      */
 
     public void removeItemOnly(String itemID){
+        Item item = globalInventory.getItem(itemID);
         globalInventory.removeItemOnly(itemID);
+        itemRemoved(item);
+    }
+
+    private void itemRemoved(Item item) {
+        if (item == null) return;
+        for (TradeSystemListener listener : listeners) listener.itemRemoved(item);
     }
 
 
@@ -119,7 +138,9 @@ public class GlobalInventoryManager implements Serializable {
      * @param ownerName is the name of item the user want to search
      * @return an arraylist of Item belongs to the specific owner
      */
-    public List<Item> getPersonInventory (String ownerName){ return globalInventory.searchByOwnerName(ownerName); }
+    public List<Item> getPersonInventory (String ownerName){
+        return globalInventory.searchByOwnerName(ownerName);
+    }
 
     /**
      * returns whether the global inventory contains an item
@@ -141,7 +162,16 @@ public class GlobalInventoryManager implements Serializable {
 
     public boolean hasNoItem() {
         return globalInventory.isEmpty();
+    }
+
 
+    /**
+     * Register a listener that is told about every item added to or removed from the global inventory from now on
+     * @param listener the listener
+     */
+    public void addListener(TradeSystemListener listener){
+        if (listeners == null) listeners = new CopyOnWriteArrayList<>();
+        listeners.add(listener);
     }
 
 
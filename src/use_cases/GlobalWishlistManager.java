@@ -5,11 +5,14 @@ import entities.Item;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class GlobalWishlistManager implements Serializable {
 
      // globalWishlist is the GlobalWishlist we want to modify.
     private GlobalWishlist globalWishlist;
+    private transient List<TradeSystemListener> listeners = new CopyOnWriteArrayList<>();
+    private transient TrendingIndex trendingIndex;
 
     /**
      * constructor for the class
@@ -17,6 +20,7 @@ public class GlobalWishlistManager implements Serializable {
      */
     public GlobalWishlistManager(GlobalWishlist globalWishlist) {
         this.globalWishlist = globalWishlist;
+        getTrendingIndex();
     }
 
     /**
@@ -35,7 +39,10 @@ public class GlobalWishlistManager implements Serializable {
      */
 
     public void addWish(String itemid, String userid) {
+        int before = globalWishlist.getInterestCount(itemid);
         globalWishlist.addWish(itemid, userid);
+        if (globalWishlist.getInterestCount(itemid) > before) getTrendingIndex().wishAdded(itemid);
+        for (TradeSystemListener listener : listeners) listener.wishAdded(itemid, userid);
     }
 
 
@@ -47,7 +54,10 @@ public class GlobalWishlistManager implements Serializable {
      */
 
     public void removeWish(String itemid, String userid) {
+        int before = globalWishlist.getInterestCount(itemid);
         globalWishlist.removeWish(itemid, userid);
+        if (globalWishlist.getInterestCount(itemid) < before) getTrendingIndex().wishRemoved(itemid);
+        for (TradeSystemListener listener : listeners) listener.wishRemoved(itemid, userid);
     }
 
 
@@ -59,6 +69,8 @@ public class GlobalWishlistManager implements Serializable {
 
     public void removeItem(String itemid) {
         globalWishlist.removeItem(itemid);
+        getTrendingIndex().removeItem(itemid);
+        for (TradeSystemListener listener : listeners) listener.allWishesRemoved(itemid);
     }
 
     /**
@@ -91,10 +103,58 @@ public class GlobalWishlistManager implements Serializable {
         return globalWishlist.getPersonWishlist(userid);
     }
 
+    /**
+     * Return the ids of all items that at least one user wants
+     * @return list of the ids of all wanted items
+     */
+    public List<String> getWantedItems(){
+        return globalWishlist.getWantedItems();
+    }
+
+    /**
+     * Return all users who want an item
+     * @param itemid - id of the item
+     * @return list of the users who want this item, in the order they added their wish
+     */
+    public List<String> getAllInterestedUsers(String itemid){
+        return globalWishlist.getAllInterestedUsers(itemid);
+    }
+
+    /**
+     * Return the items that the most users have wished for lately. Recent wishes weigh more than old ones, a wish
+     * weighing half as much every TrendingIndex.DEFAULT_HALF_LIFE_MILLIS
+     * @param n - the largest number of items to return
+     * @return the ids of up to n items, the most trending first
+     */
+    public List<String> trending(int n){
+        return getTrendingIndex().top(n);
+    }
+
+    /**
+     * Register a listener that is told about every wish added or removed from now on
+     * @param listener the listener
+     */
+    public void addListener(TradeSystemListener listener){
+        if (listeners == null) listeners = new CopyOnWriteArrayList<>();
+        listeners.add(listener);
+    }
+
     public GlobalWishlist getGlobalWishlistData(){
         return globalWishlist;
     }
 
+    // built from the wishes already made, which all count as made now, or on first use after being deserialized
+    private synchronized TrendingIndex getTrendingIndex(){
+        if (trendingIndex == null) {
+            TrendingIndex index = new TrendingIndex();
+            for (String itemid : globalWishlist.getWantedItems()) {
+                index.setCount(itemid, globalWishlist.getInterestCount(itemid));
+            }
+            trendingIndex = index;
+        }
+        return trendingIndex;
+    }
+
     /**
      * Return all itemids of the items that are in userB's wishlist
      * Make sure you ALWAYS call isValidUser() before calling this.
@@ -0,0 +1,450 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.IntSet;
+import entities.Item;
+import entities.ItemId;
+import entities.Trade;
+import entities.UsernameTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Recommends items to users from what similar users wanted: users who wished for or received an item X also wished
+ * for Y, so Y is recommended to someone who has X. The items a user has are the ones in their wishlist and the ones
+ * they received in trades, and each other user sharing one of them adds to the score of every item that user wants.
+ * Items shared by many users count for less, and so do items wanted by many, so the most popular items do not come
+ * first for everyone.
+ * The top items of every user are computed in a parallel batch by refreshAll and then read straight from memory.
+ * When a user's wishes change only their recommendations are computed again, in the background.
+ * The trade histories are never read all at once: the items received in trades are followed as trades are added,
+ * removed or fail, and the items a user received before are read once, when they first ask for recommendations.
+ */
+public class ItemRecommender implements WantGraph.GraphListener, TradeSystemListener {
+    /**
+     * The default number of items recommended to each user
+     */
+    public static final int DEFAULT_TOP_K = 10;
+
+    // only this many users who have an item, and this many wishes of each of them, are followed
+    private static final int MAX_NEIGHBOURS = 200;
+    private static final int MAX_WISHES_FOLLOWED = 200;
+    private static final int[] NONE = new int[0];
+    // the scores of one user are added up in a table reused by each thread
+    private static final ThreadLocal<ScoreTable> SCORE_TABLES = ThreadLocal.withInitial(ScoreTable::new);
+
+    private final WantGraph wantGraph;
+    private final TradeManager tradeManager;
+    private final int topK;
+
+    // everything below is guarded by wantGraph
+    private final IntObjectMap<IntSet> wishes = new IntObjectMap<>();
+    private final IntObjectMap<IntSet> received = new IntObjectMap<>();
+    private final IntObjectMap<IntSet> receivers = new IntObjectMap<>();
+    private final IntObjectMap<int[]> recommended = new IntObjectMap<>();
+    // users whose received items were read from their trade history
+    private final IntSet seeded = new IntSet();
+    // users whose wishes changed since their recommendations were computed
+    private IntSet stale = new IntSet();
+    private boolean refreshScheduled;
+    // users whose wishes changed while refreshAll runs, computed again once it is done
+    private IntSet changedDuringBatch;
+
+    /**
+     * Creates a recommender for DEFAULT_TOP_K items per user
+     * @param wantGraph the graph of who wants what from whom
+     * @param tradeManager the trade manager of the system
+     */
+    public ItemRecommender(WantGraph wantGraph, TradeManager tradeManager) {
+        this(wantGraph, tradeManager, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Creates a recommender that follows the wishes in a want graph and the trades of a trade manager. Nothing is
+     * recommended until refreshAll is called or a user asks for recommendations.
+     * @param wantGraph the graph of who wants what from whom
+     * @param tradeManager the trade manager of the system
+     * @param topK the number of items recommended to each user
+     */
+    public ItemRecommender(WantGraph wantGraph, TradeManager tradeManager, int topK) {
+        this.wantGraph = wantGraph;
+        this.tradeManager = tradeManager;
+        this.topK = topK;
+        synchronized (wantGraph) {
+            for (int itemKey : wantGraph.wantedItemKeys()) {
+                IntSet wanters = wantGraph.wanters(itemKey);
+                for (int i = 0; i < wanters.size(); i++) addTo(wishes, wanters.get(i), itemKey);
+            }
+            wantGraph.addGraphListener(this);
+        }
+        tradeManager.addListener(this);
+    }
+
+    /**
+     * Copies the wishes and received items known so far on the calling thread, then computes the recommendations of
+     * every user who has any of them in the background, in parallel. Users with neither, like the admins, are skipped.
+     * @return a future completed with the number of users with recommendations once they are all computed
+     */
+    public CompletableFuture<Integer> refreshAll() {
+        int[] users;
+        Snapshot snapshot;
+        synchronized (wantGraph) {
+            users = union(keySet(wishes), keySet(received));
+            snapshot = new Snapshot(users, wantGraph.usernames().size());
+            changedDuringBatch = new IntSet();
+        }
+        return CompletableFuture.supplyAsync(() -> computeAll(users, snapshot));
+    }
+
+    /**
+     * Getter for the items recommended to a user, best first. Items the user has wished for since the
+     * recommendations were computed are left out. The first time a user asks, the items they received in their
+     * trades are read, and their recommendations are computed again in the background with them.
+     * @param username the user
+     * @return the IDs of the recommended items, which may no longer be in the global inventory
+     */
+    public List<String> getRecommendations(String username) {
+        List<String> itemIds = new ArrayList<>();
+        int user = wantGraph.usernames().idOf(username);
+        if (user == UsernameTable.NONE) return itemIds;
+        seed(username, user);
+        synchronized (wantGraph) {
+            int[] items = recommended.get(user);
+            if (items == null) return itemIds;
+            IntSet wished = wishes.get(user);
+            for (int itemKey : items) {
+                if (wished == null || !wished.contains(itemKey)) itemIds.add(ItemId.toId(itemKey));
+            }
+        }
+        return itemIds;
+    }
+
+    @Override
+    public void wantAdded(int itemKey, int wanter) {
+        addTo(wishes, wanter, itemKey);
+        markStale(wanter);
+    }
+
+    @Override
+    public void wantRemoved(int itemKey, int wanter) {
+        removeFrom(wishes, wanter, itemKey);
+        markStale(wanter);
+    }
+
+    @Override
+    public void tradeAdded(Trade trade) {
+        received(trade, true);
+    }
+
+    @Override
+    public void tradeRemoved(Trade trade) {
+        received(trade, false);
+    }
+
+    @Override
+    public void tradeFailed(Trade trade) {
+        // the items of a failed trade are not received
+        received(trade, false);
+    }
+
+    //----------------Helpers----------------//
+    private void seed(String username, int user) {
+        synchronized (wantGraph) {
+            if (seeded.contains(user)) return;
+        }
+        // the trade history is read without holding the graph, as it may have to be loaded
+        List<Item> items = tradeManager.getReceivedItems(username);
+        synchronized (wantGraph) {
+            if (!seeded.add(user)) return;
+            for (Item item : items) addReceived(user, ItemId.toKey(item.getItemID()));
+            if (!items.isEmpty()) markStale(user);
+        }
+    }
+
+    private void received(Trade trade, boolean add) {
+        int traderA = wantGraph.usernames().idOf(trade.getTraderA());
+        int traderB = wantGraph.usernames().idOf(trade.getTraderB());
+        synchronized (wantGraph) {
+            // each trader lends their own items, so they receive the items of the other trader
+            for (Item item : trade.getTraderBItemsToTrade()) received(traderA, item, add);
+            for (Item item : trade.getTraderAItemsToTrade()) received(traderB, item, add);
+            if (traderA != UsernameTable.NONE) markStale(traderA);
+            if (traderB != UsernameTable.NONE) markStale(traderB);
+        }
+    }
+
+    private void received(int user, Item item, boolean add) {
+        if (user == UsernameTable.NONE) return;
+        int itemKey = ItemId.toKey(item.getItemID());
+        if (add) {
+            addReceived(user, itemKey);
+        } else if (itemKey != ItemId.INVALID) {
+            removeFrom(received, user, itemKey);
+            removeFrom(receivers, itemKey, user);
+        }
+    }
+
+    private void addReceived(int user, int itemKey) {
+        if (itemKey == ItemId.INVALID) return;
+        addTo(received, user, itemKey);
+        addTo(receivers, itemKey, user);
+    }
+
+    private void markStale(int user) {
+        stale.add(user);
+        if (changedDuringBatch != null) changedDuringBatch.add(user);
+        if (!refreshScheduled) {
+            refreshScheduled = true;
+            CompletableFuture.runAsync(this::refreshStale);
+        }
+    }
+
+    private void refreshStale() {
+        synchronized (wantGraph) {
+            IntSet users = stale;
+            stale = new IntSet();
+            refreshScheduled = false;
+            Source live = new LiveSource();
+            for (int i = 0; i < users.size(); i++) recommended.put(users.get(i), recommend(users.get(i), live));
+        }
+    }
+
+    private int computeAll(int[] users, Snapshot snapshot) {
+        int[][] computed = new int[users.length][];
+        IntStream.range(0, users.length).parallel().forEach(i -> computed[i] = recommend(users[i], snapshot));
+
+        synchronized (wantGraph) {
+            recommended.clear();
+            for (int i = 0; i < users.length; i++) {
+                if (computed[i].length > 0) recommended.put(users[i], computed[i]);
+            }
+            for (int i = 0; i < changedDuringBatch.size(); i++) markStale(changedDuringBatch.get(i));
+            changedDuringBatch = null;
+            return recommended.size();
+        }
+    }
+
+    // the topK items with the highest score for a user, best first
+    private int[] recommend(int user, Source source) {
+        int[] has = source.has(user);
+        if (has.length == 0) return NONE;
+        ScoreTable scores = SCORE_TABLES.get();
+        scores.clear();
+        // the user's own items get a score of NaN, which stays NaN and is never recommended
+        for (int itemKey : has) scores.add(itemKey, Double.NaN);
+        for (int itemKey : has) {
+            int[] neighbours = source.holders(itemKey);
+            double weight = 1 / Math.sqrt(neighbours.length);
+            for (int n = 0; n < Math.min(neighbours.length, MAX_NEIGHBOURS); n++) {
+                if (neighbours[n] == user) continue;
+                int[] wanted = source.wishes(neighbours[n]);
+                for (int w = 0; w < Math.min(wanted.length, MAX_WISHES_FOLLOWED); w++) {
+                    scores.add(wanted[w], weight);
+                }
+            }
+        }
+
+        // keep the best topK, best first, by insertion into a short sorted array
+        int[] best = new int[topK];
+        double[] bestScore = new double[topK];
+        int count = 0;
+        for (int i = 0; i < scores.size; i++) {
+            int candidate = scores.used[i];
+            double s = scores.get(candidate);
+            if (Double.isNaN(s)) continue;
+            s /= Math.sqrt(Math.max(1, source.holders(candidate).length));
+            // compare before looking up the owner, as most candidates do not make it into the top
+            if (count == topK && (bestScore[topK - 1] > s || bestScore[topK - 1] == s && best[topK - 1] < candidate)) {
+                continue;
+            }
+            if (source.owner(candidate) == user) continue;
+            int at = count;
+            while (at > 0 && (bestScore[at - 1] < s || bestScore[at - 1] == s && best[at - 1] > candidate)) at--;
+            int last = Math.min(count, topK - 1);
+            System.arraycopy(best, at, best, at + 1, last - at);
+            System.arraycopy(bestScore, at, bestScore, at + 1, last - at);
+            best[at] = candidate;
+            bestScore[at] = s;
+            if (count < topK) count++;
+        }
+        return Arrays.copyOf(best, count);
+    }
+
+    private static void addTo(IntObjectMap<IntSet> sets, int key, int element) {
+        IntSet set = sets.get(key);
+        if (set == null) {
+            set = new IntSet(4);
+            sets.put(key, set);
+        }
+        set.add(element);
+    }
+
+    private static void removeFrom(IntObjectMap<IntSet> sets, int key, int element) {
+        IntSet set = sets.get(key);
+        if (set != null && set.remove(element) && set.isEmpty()) sets.remove(key);
+    }
+
+    private static IntSet keySet(IntObjectMap<IntSet> sets) {
+        int[] keys = sets.keys();
+        IntSet keySet = new IntSet(keys.length);
+        for (int key : keys) keySet.add(key);
+        return keySet;
+    }
+
+    private static int[] union(IntSet a, IntSet b) {
+        if (a == null) return b == null ? NONE : b.toArray();
+        if (b == null) return a.toArray();
+        IntSet both = new IntSet(a.size() + b.size());
+        for (int i = 0; i < a.size(); i++) both.add(a.get(i));
+        for (int i = 0; i < b.size(); i++) both.add(b.get(i));
+        return both.toArray();
+    }
+
+    /**
+     * An open addressing map from item keys to scores, cleared in time proportional to what was added
+     */
+    private static class ScoreTable {
+        private int[] keys = new int[1024];
+        private double[] scores = new double[1024];
+        private boolean[] taken = new boolean[1024];
+        // the keys added since the last clear, in order
+        private int[] used = new int[512];
+        private int size;
+
+        // in the reverse order the keys were added, so every key is still found along its probe
+        private void clear() {
+            for (int i = size - 1; i >= 0; i--) taken[slot(used[i])] = false;
+            size = 0;
+        }
+
+        private void add(int key, double score) {
+            int slot = slot(key);
+            if (taken[slot]) {
+                scores[slot] += score;
+                return;
+            }
+            if (size == used.length) {
+                grow();
+                slot = slot(key);
+            }
+            taken[slot] = true;
+            keys[slot] = key;
+            scores[slot] = score;
+            used[size++] = key;
+        }
+
+        private double get(int key) {
+            return scores[slot(key)];
+        }
+
+        // the slot of a key, or the free slot it would go in
+        private int slot(int key) {
+            return slot(keys, taken, key);
+        }
+
+        private static int slot(int[] keys, boolean[] taken, int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (taken[slot] && keys[slot] != key) slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        // keeps the table at most half full, adding the keys again in the order they were first added
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldScores = scores;
+            boolean[] oldTaken = taken;
+            keys = new int[oldKeys.length * 2];
+            scores = new double[oldKeys.length * 2];
+            taken = new boolean[oldKeys.length * 2];
+            for (int i = 0; i < size; i++) {
+                int slot = slot(used[i]);
+                taken[slot] = true;
+                keys[slot] = used[i];
+                scores[slot] = oldScores[slot(oldKeys, oldTaken, used[i])];
+            }
+            used = Arrays.copyOf(used, used.length * 2);
+        }
+    }
+
+    /**
+     * What the scores are computed from
+     */
+    private interface Source {
+        // the items a user wished for or received
+        int[] has(int user);
+
+        // the users who wished for or received an item
+        int[] holders(int itemKey);
+
+        // the items a user wishes for
+        int[] wishes(int user);
+
+        int owner(int itemKey);
+    }
+
+    // reads the current state, must be used while holding wantGraph
+    private class LiveSource implements Source {
+        @Override
+        public int[] has(int user) { return union(wishes.get(user), received.get(user)); }
+
+        @Override
+        public int[] holders(int itemKey) { return union(wantGraph.wanters(itemKey), receivers.get(itemKey)); }
+
+        @Override
+        public int[] wishes(int user) {
+            IntSet wished = wishes.get(user);
+            return wished == null ? NONE : wished.toArray();
+        }
+
+        @Override
+        public int owner(int itemKey) { return wantGraph.ownerOf(itemKey); }
+    }
+
+    // a copy of the state, taken while holding wantGraph and then read by many threads
+    private class Snapshot implements Source {
+        private final int[][] has;
+        private final int[][] wishes;
+        private final IntObjectMap<int[]> holders = new IntObjectMap<>();
+        private final IntObjectMap<Integer> owners = new IntObjectMap<>();
+
+        private Snapshot(int[] users, int tableSize) {
+            has = new int[tableSize][];
+            wishes = new int[tableSize][];
+            Source live = new LiveSource();
+            for (int user : users) {
+                has[user] = live.has(user);
+                wishes[user] = live.wishes(user);
+                for (int itemKey : has[user]) {
+                    if (!holders.containsKey(itemKey)) holders.put(itemKey, live.holders(itemKey));
+                }
+                for (int itemKey : wishes[user]) {
+                    if (!owners.containsKey(itemKey)) owners.put(itemKey, live.owner(itemKey));
+                }
+            }
+        }
+
+        @Override
+        public int[] has(int user) { return has[user] == null ? NONE : has[user]; }
+
+        @Override
+        public int[] holders(int itemKey) {
+            int[] users = holders.get(itemKey);
+            return users == null ? NONE : users;
+        }
+
+        @Override
+        public int[] wishes(int user) { return wishes[user] == null ? NONE : wishes[user]; }
+
+        @Override
+        public int owner(int itemKey) {
+            Integer owner = owners.get(itemKey);
+            return owner == null ? UsernameTable.NONE : owner;
+        }
+    }
+}
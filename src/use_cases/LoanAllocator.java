@@ -0,0 +1,429 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.IntSet;
+import entities.Item;
+import entities.ItemId;
+import entities.UsernameTable;
+import exceptions.UserFrozenException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Suggests who every wanted item should be lent to, so that as many wishes as possible are met at once.
+ * This is a maximum matching between the wanted items and the users who want them, where each item goes to one user
+ * and each user gets at most as many items as their LoanLimit allows. It is built lazily: when a lender asks for a
+ * loan, only their items search for an augmenting path, so only the limits of the users that search reaches are
+ * read, on the thread asking. Wishes that are added or removed search again from the items they touch.
+ * allocate() computes the matching of the whole WantGraph at once with the Hopcroft-Karp algorithm, after a first
+ * greedy pass that gives every item to the user who has wanted it the longest.
+ * When an item can go to several users, the one who wished for it first is tried first.
+ */
+public class LoanAllocator implements WantGraph.GraphListener {
+    private static final int UNKNOWN = -1;
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    /**
+     * The number of items a user may borrow right now
+     */
+    public interface LoanLimit {
+        int loansAllowed(String username);
+    }
+
+    private final WantGraph wantGraph;
+    private final LoanLimit loanLimit;
+
+    // everything below is guarded by wantGraph
+    private final IntObjectMap<Integer> borrowerOf = new IntObjectMap<>();
+    private final IntObjectMap<IntSet> loansOf = new IntObjectMap<>();
+    private final IntObjectMap<Integer> limits = new IntObjectMap<>();
+    // items whose wishes changed since the last augmenting path search
+    private IntSet dirty = new IntSet();
+
+    /**
+     * Creates an allocator that follows the changes of a want graph. No limits are read until a loan is asked for.
+     * @param wantGraph the graph of who wants what from whom
+     * @param loanLimit the number of items every user may borrow
+     */
+    public LoanAllocator(WantGraph wantGraph, LoanLimit loanLimit) {
+        this.wantGraph = wantGraph;
+        this.loanLimit = loanLimit;
+        synchronized (wantGraph) {
+            wantGraph.addGraphListener(this);
+        }
+    }
+
+    /**
+     * The loan limit of the trading rules: a user who cannot trade (UserManager.getCanTrade) may borrow nothing,
+     * and any other user may borrow until they reach their borrow threshold, their weekly trade limit or their
+     * limit of incomplete trades, whichever comes first.
+     * @param userManager the user manager of the system
+     * @param tradeManager the trade manager of the system
+     * @return the loan limit
+     */
+    public static LoanLimit limitOf(UserManager userManager, TradeManager tradeManager) {
+        return username -> {
+            if (!userManager.isValidUser(username)) return 0;
+            int borrowed = tradeManager.getBorrowedTimes(username);
+            int lent = tradeManager.getLendTimes(username);
+            int incomplete = tradeManager.getIncompleteTimes(username);
+            int thisWeek = tradeManager.numberOfTradesCreatedThisWeek(username);
+            try {
+                if (!userManager.getCanTrade(username, borrowed, lent, incomplete, thisWeek)) return 0;
+            } catch (UserFrozenException e) {
+                return 0;
+            }
+            return Math.min(userManager.getUserThreshold(username) - (borrowed - lent),
+                    Math.min(userManager.getTradesPerWeekForUser(username) - thisWeek,
+                            userManager.getUserIncompleteTrades(username) - incomplete));
+        };
+    }
+
+    /**
+     * Computes the best allocation of the whole graph, replacing the allocation before. The loan limits of every user
+     * who wants an item are read again on the calling thread, as they read user and trade data that is only changed
+     * there; only the matching itself runs in the background. Wishes may change while it runs; those changes are
+     * applied to the result.
+     * @return a future completed with the number of suggested loans once the allocation is done
+     */
+    public CompletableFuture<Integer> allocate() {
+        int[] itemKeys;
+        int[] edgeStart;
+        int[] edgeUsers;
+        synchronized (wantGraph) {
+            itemKeys = wantGraph.wantedItemKeys();
+            edgeStart = new int[itemKeys.length + 1];
+            for (int i = 0; i < itemKeys.length; i++) {
+                edgeStart[i + 1] = edgeStart[i] + wantGraph.wanters(itemKeys[i]).size();
+            }
+            edgeUsers = new int[edgeStart[itemKeys.length]];
+            for (int i = 0; i < itemKeys.length; i++) {
+                IntSet wanters = wantGraph.wanters(itemKeys[i]);
+                for (int j = 0; j < wanters.size(); j++) edgeUsers[edgeStart[i] + j] = wanters.get(j);
+            }
+        }
+        int[] limit = new int[wantGraph.usernames().size()];
+        Arrays.fill(limit, UNKNOWN);
+        for (int user : edgeUsers) {
+            if (limit[user] == UNKNOWN) {
+                limit[user] = Math.max(0, loanLimit.loansAllowed(wantGraph.usernames().name(user)));
+            }
+        }
+        return CompletableFuture.supplyAsync(
+                () -> apply(itemKeys, limit, new Matching(edgeStart, edgeUsers, limit).solve()));
+    }
+
+    /**
+     * Getter for a loan a user could make: the first of their items that is allocated to someone, together with the
+     * user it is allocated to. An item that is not allocated yet looks for a borrower first. The limit of the
+     * borrower is checked again, in case they traded since. Reads user and trade data, so it has to be called on
+     * the thread that changes them.
+     * @param lenderItems the items of the lender
+     * @return a list of 2 strings, the id of the item and the username of the borrower, or an empty list if no item
+     * of the lender is allocated
+     */
+    public List<String> suggestLoan(List<Item> lenderItems) {
+        List<String> loan = new ArrayList<>();
+        synchronized (wantGraph) {
+            update();
+            for (Item item : lenderItems) {
+                int key = ItemId.toKey(item.getItemID());
+                augmentFrom(key);
+                Integer borrower = borrowerOf.get(key);
+                while (borrower != null && !stillAllowed(borrower)) {
+                    unassign(key);
+                    augmentFrom(key);
+                    borrower = borrowerOf.get(key);
+                }
+                if (borrower != null) {
+                    loan.add(item.getItemID());
+                    loan.add(wantGraph.usernames().name(borrower));
+                    return loan;
+                }
+            }
+        }
+        return loan;
+    }
+
+    /**
+     * Getter for the number of loans suggested right now. Looks for borrowers of the items whose wishes changed first,
+     * so it has to be called on the thread that changes user and trade data.
+     * @return the number of loans suggested right now
+     */
+    public int getSuggestedLoanCount() {
+        synchronized (wantGraph) {
+            update();
+            return borrowerOf.size();
+        }
+    }
+
+    @Override
+    public void wantAdded(int itemKey, int wanter) {
+        dirty.add(itemKey);
+    }
+
+    @Override
+    public void wantRemoved(int itemKey, int wanter) {
+        Integer borrower = borrowerOf.get(itemKey);
+        if (borrower != null && borrower == wanter) unassign(itemKey);
+        dirty.add(itemKey);
+    }
+
+    //----------------Helpers----------------//
+    private void update() {
+        if (dirty.isEmpty()) return;
+        IntSet items = dirty;
+        dirty = new IntSet();
+        for (int i = 0; i < items.size(); i++) augmentFrom(items.get(i));
+    }
+
+    private boolean stillAllowed(int user) {
+        limits.remove(user);
+        IntSet loans = loansOf.get(user);
+        return loans == null || loans.size() <= limitOf(user);
+    }
+
+    private int limitOf(int user) {
+        Integer limit = limits.get(user);
+        if (limit == null) {
+            limit = Math.max(0, loanLimit.loansAllowed(wantGraph.usernames().name(user)));
+            limits.put(user, limit);
+        }
+        return limit;
+    }
+
+    private int loadOf(int user) {
+        IntSet loans = loansOf.get(user);
+        return loans == null ? 0 : loans.size();
+    }
+
+    private void assign(int itemKey, int user) {
+        unassign(itemKey);
+        borrowerOf.put(itemKey, user);
+        IntSet loans = loansOf.get(user);
+        if (loans == null) {
+            loans = new IntSet(2);
+            loansOf.put(user, loans);
+        }
+        loans.add(itemKey);
+    }
+
+    private void unassign(int itemKey) {
+        Integer borrower = borrowerOf.remove(itemKey);
+        if (borrower == null) return;
+        IntSet loans = loansOf.get(borrower);
+        loans.remove(itemKey);
+        if (loans.isEmpty()) loansOf.remove(borrower);
+    }
+
+    // breadth first search for an augmenting path from a free item, on the live graph
+    private void augmentFrom(int root) {
+        if (borrowerOf.containsKey(root) || wantGraph.wanters(root) == null) return;
+        // the items reached, in the order they were reached, so it is also the queue
+        IntSet reached = new IntSet();
+        IntSet usersSeen = new IntSet();
+        // item to the item it was reached from and the user in between, who is its borrower
+        IntObjectMap<int[]> parent = new IntObjectMap<>();
+        reached.add(root);
+        for (int head = 0; head < reached.size(); head++) {
+            int item = reached.get(head);
+            IntSet wanters = wantGraph.wanters(item);
+            if (wanters == null) continue;
+            for (int i = 0; i < wanters.size(); i++) {
+                int user = wanters.get(i);
+                if (!usersSeen.add(user)) continue;
+                if (loadOf(user) < limitOf(user)) {
+                    // every item on the path moves to the user after it, the last one to the user with room
+                    while (item != root) {
+                        int[] from = parent.get(item);
+                        assign(item, user);
+                        user = from[1];
+                        item = from[0];
+                    }
+                    assign(root, user);
+                    return;
+                }
+                IntSet loans = loansOf.get(user);
+                if (loans == null) continue;
+                for (int j = 0; j < loans.size(); j++) {
+                    if (reached.add(loans.get(j))) parent.put(loans.get(j), new int[]{item, user});
+                }
+            }
+        }
+    }
+
+    private int apply(int[] itemKeys, int[] limit, int[] borrower) {
+        synchronized (wantGraph) {
+            borrowerOf.clear();
+            loansOf.clear();
+            limits.clear();
+            for (int user = 0; user < limit.length; user++) {
+                if (limit[user] != UNKNOWN) limits.put(user, limit[user]);
+            }
+            for (int i = 0; i < itemKeys.length; i++) {
+                IntSet wanters = wantGraph.wanters(itemKeys[i]);
+                if (borrower[i] == UsernameTable.NONE) continue;
+                // the wish may have been removed while the matching was computed
+                if (wanters != null && wanters.contains(borrower[i])) assign(itemKeys[i], borrower[i]);
+                else dirty.add(itemKeys[i]);
+            }
+            return borrowerOf.size();
+        }
+    }
+
+    /**
+     * Hopcroft-Karp on a snapshot of the graph, where every user has as many slots as their limit.
+     * Items are numbered by their position in the snapshot and users by their ID.
+     */
+    private static class Matching {
+        private final int[] edgeStart;
+        private final int[] edgeUsers;
+        private final int[] limit;
+        private final int[] slotStart;
+        private final int[] load;
+        private final int[] slotItem;
+        private final int[] slotUser;
+        private final int[] itemSlot;
+        private final int[] dist;
+        private final int[] edgeCursor;
+        private final int[] slotCursor;
+        private final int[] stack;
+
+        private Matching(int[] edgeStart, int[] edgeUsers, int[] limit) {
+            int items = edgeStart.length - 1;
+            this.edgeStart = edgeStart;
+            this.edgeUsers = edgeUsers;
+            this.limit = limit;
+            // a user never needs more slots than the items they want
+            int[] wanted = new int[limit.length];
+            for (int user : edgeUsers) wanted[user]++;
+            slotStart = new int[limit.length + 1];
+            for (int user = 0; user < limit.length; user++) {
+                slotStart[user + 1] = slotStart[user] + Math.min(Math.max(limit[user], 0), wanted[user]);
+            }
+            load = new int[limit.length];
+            slotItem = new int[slotStart[limit.length]];
+            slotUser = new int[slotItem.length];
+            for (int user = 0; user < limit.length; user++) {
+                for (int s = slotStart[user]; s < slotStart[user + 1]; s++) slotUser[s] = user;
+            }
+            itemSlot = new int[items];
+            Arrays.fill(itemSlot, -1);
+            dist = new int[items];
+            edgeCursor = new int[items];
+            slotCursor = new int[items];
+            stack = new int[items];
+        }
+
+        // the user every item is lent to, or UsernameTable.NONE
+        private int[] solve() {
+            int items = itemSlot.length;
+            // greedy start: every item goes to the first user who wanted it and still has room
+            for (int i = 0; i < items; i++) {
+                for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                    if (hasRoom(edgeUsers[e])) {
+                        take(i, slotStart[edgeUsers[e]] + load[edgeUsers[e]]++);
+                        break;
+                    }
+                }
+            }
+            while (layer()) {
+                for (int i = 0; i < items; i++) {
+                    edgeCursor[i] = edgeStart[i];
+                    slotCursor[i] = 0;
+                }
+                for (int i = 0; i < items; i++) {
+                    if (itemSlot[i] == -1 && dist[i] == 0) augment(i);
+                }
+            }
+            int[] borrower = new int[items];
+            for (int i = 0; i < items; i++) borrower[i] = itemSlot[i] == -1 ? UsernameTable.NONE : slotUser[itemSlot[i]];
+            return borrower;
+        }
+
+        private boolean hasRoom(int user) {
+            return load[user] < slotStart[user + 1] - slotStart[user];
+        }
+
+        private void take(int item, int slot) {
+            slotItem[slot] = item;
+            itemSlot[item] = slot;
+        }
+
+        // breadth first layering from the free items, true if any of them can reach a user with room
+        private boolean layer() {
+            int items = itemSlot.length;
+            int[] queue = stack;
+            int head = 0;
+            int tail = 0;
+            for (int i = 0; i < items; i++) {
+                if (itemSlot[i] == -1 && edgeStart[i] < edgeStart[i + 1]) {
+                    dist[i] = 0;
+                    queue[tail++] = i;
+                } else {
+                    dist[i] = INFINITE;
+                }
+            }
+            boolean found = false;
+            while (head < tail) {
+                int i = queue[head++];
+                for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                    int user = edgeUsers[e];
+                    if (hasRoom(user)) {
+                        found = true;
+                        continue;
+                    }
+                    for (int s = slotStart[user]; s < slotStart[user + 1]; s++) {
+                        int j = slotItem[s];
+                        if (dist[j] == INFINITE) {
+                            dist[j] = dist[i] + 1;
+                            queue[tail++] = j;
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+
+        // depth first search along the layers, without recursion as the paths can be long
+        private void augment(int root) {
+            int top = 0;
+            stack[0] = root;
+            while (top >= 0) {
+                int i = stack[top];
+                if (edgeCursor[i] == edgeStart[i + 1]) {
+                    dist[i] = INFINITE;
+                    top--;
+                    continue;
+                }
+                int user = edgeUsers[edgeCursor[i]];
+                if (hasRoom(user)) {
+                    // every item on the path moves into the slot the item after it leaves
+                    int slot = slotStart[user] + load[user]++;
+                    for (int k = top; k >= 0; k--) {
+                        int left = itemSlot[stack[k]];
+                        take(stack[k], slot);
+                        slot = left;
+                    }
+                    return;
+                }
+                int slots = slotStart[user + 1] - slotStart[user];
+                boolean pushed = false;
+                while (slotCursor[i] < slots && !pushed) {
+                    int j = slotItem[slotStart[user] + slotCursor[i]++];
+                    if (dist[j] == dist[i] + 1) {
+                        stack[++top] = j;
+                        pushed = true;
+                    }
+                }
+                if (!pushed) {
+                    edgeCursor[i]++;
+                    slotCursor[i] = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.Message;
+import entities.PendingMeetings;
+import entities.TempTrade;
+import entities.Trade;
+import entities.TradeRequest;
+import entities.UsernameTable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the meetings every user has coming up, so that a new meeting can be checked against them before it is set.
+ * A user's meetings are the meetings of their trades that are not done yet, both meetings of a temporary trade, and
+ * the meetings asked for in the trade requests they sent or received that are not answered yet. Two meetings of a user
+ * conflict when they are less than MEETING_MINUTES apart.
+ * Meetings are kept in a sorted set per user, so checking a time is a range query in O(log n). The meetings of trades
+ * are read from a user's trade history the first time they are asked for, and then kept up to date by listening to
+ * the managers. The meetings of trade requests are saved on their own as PendingMeetings, so no inbox is read: a
+ * request is counted when it is sent and stops counting when requestClosed is called, and a request is told apart by
+ * its users and the time of its meeting, as the copy in an inbox may be read again from disk.
+ */
+public class MeetingScheduler implements TradeSystemListener {
+    /**
+     * How long a meeting is thought to take, so no other meeting of the same users can be set closer to it
+     */
+    public static final int MEETING_MINUTES = 60;
+    /**
+     * The time between the times tried when looking for a free one
+     */
+    public static final int STEP_MINUTES = 30;
+    /**
+     * How far from the time asked for a free time is looked for, in days
+     */
+    public static final int HORIZON_DAYS = 14;
+    /**
+     * The largest number of free times suggested
+     */
+    public static final int SUGGESTIONS = 3;
+
+    private final TradeManager tradeManager;
+    private final UsernameTable usernames;
+    private final LongSupplier clock;
+    // by username ID, the meetings of the trades of a user, only for the ones whose history has been read
+    private final IntObjectMap<TreeSet<Slot>> tradeSlots = new IntObjectMap<>();
+    private final PendingMeetings pendingMeetings;
+    // by username ID, the meetings of the trade requests of a user
+    private final IntObjectMap<TreeSet<Slot>> requestSlots = new IntObjectMap<>();
+    // the slots of every meeting of a trade request, one for every request asking for it
+    private final Map<PendingMeetings.Meeting, List<Slot>> requests = new HashMap<>();
+    private long nextSeq;
+
+    /**
+     * Creates a scheduler, and registers it as a listener of the managers
+     * @param tradeManager the trade manager of the system
+     * @param userManager the user manager of the system
+     * @param pendingMeetings the meetings of the trade requests that are not answered yet, kept up to date from now on
+     */
+    public MeetingScheduler(TradeManager tradeManager, UserManager userManager, PendingMeetings pendingMeetings) {
+        this(tradeManager, userManager, pendingMeetings, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a scheduler, and registers it as a listener of the managers. The meetings of trade requests that are
+     * over are forgotten.
+     * @param tradeManager the trade manager of the system
+     * @param userManager the user manager of the system
+     * @param pendingMeetings the meetings of the trade requests that are not answered yet, kept up to date from now on
+     * @param clock gives the current time in milliseconds
+     */
+    public MeetingScheduler(TradeManager tradeManager, UserManager userManager, PendingMeetings pendingMeetings,
+                            LongSupplier clock) {
+        this.tradeManager = tradeManager;
+        this.usernames = userManager.getUsernameTable();
+        this.pendingMeetings = pendingMeetings;
+        this.clock = clock;
+        pendingMeetings.removeBefore(now().minusMinutes(MEETING_MINUTES));
+        for (PendingMeetings.Meeting meeting : pendingMeetings.getMeetings()) index(meeting);
+        tradeManager.addListener(this);
+        userManager.addListener(this);
+    }
+
+    /**
+     * Getter for the meetings of a user that a meeting at a time would conflict with
+     * @param username the user
+     * @param time the time of the meeting
+     * @param ignore a trade request whose meeting is not counted, as it is the one being changed, or null
+     * @return the times of the conflicting meetings, earliest first
+     */
+    public synchronized List<LocalDateTime> getConflicts(String username, LocalDateTime time, TradeRequest ignore) {
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        for (Slot slot : around(tradeSlotsOf(username), time)) conflicts.add(slot.time);
+        for (Slot slot : requestsAround(username, time, ignore)) conflicts.add(slot.time);
+        conflicts.sort(null);
+        return conflicts;
+    }
+
+    /**
+     * Getter for which of two users already have a meeting too close to a time
+     * @param userA one of the users
+     * @param userB the other user
+     * @param time the time of the meeting
+     * @param ignore a trade request whose meeting is not counted, as it is the one being changed, or null
+     * @return the usernames of the users who are busy, empty if both are free
+     */
+    public synchronized List<String> getBusyUsers(String userA, String userB, LocalDateTime time,
+                                                  TradeRequest ignore) {
+        List<String> busy = new ArrayList<>();
+        if (!isFree(userA, time, ignore)) busy.add(userA);
+        if (!isFree(userB, time, ignore)) busy.add(userB);
+        return busy;
+    }
+
+    /**
+     * Getter for the times closest to a time when both users are free, trying every STEP_MINUTES later and earlier in
+     * turn, up to HORIZON_DAYS away, and only in the future
+     * @param userA one of the users
+     * @param userB the other user
+     * @param time the time asked for
+     * @param ignore a trade request whose meeting is not counted, as it is the one being changed, or null
+     * @return up to SUGGESTIONS free times, closest first
+     */
+    public synchronized List<LocalDateTime> suggestFreeTimes(String userA, String userB, LocalDateTime time,
+                                                             TradeRequest ignore) {
+        LocalDateTime now = now();
+        List<LocalDateTime> free = new ArrayList<>();
+        int steps = HORIZON_DAYS * 24 * 60 / STEP_MINUTES;
+        for (int step = 1; step <= steps && free.size() < SUGGESTIONS; step++) {
+            for (int sign : new int[]{1, -1}) {
+                LocalDateTime candidate = time.plusMinutes((long) sign * step * STEP_MINUTES);
+                if (free.size() < SUGGESTIONS && candidate.isAfter(now) && isFree(userA, candidate, ignore) &&
+                        isFree(userB, candidate, ignore)) {
+                    free.add(candidate);
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Stops counting the meeting of a trade request, once it has been confirmed, rejected or deleted, or before it is
+     * edited and sent again
+     * @param request the trade request
+     */
+    public synchronized void requestClosed(TradeRequest request) {
+        PendingMeetings.Meeting meeting = meetingOf(request);
+        if (meeting == null || !pendingMeetings.remove(meeting)) return;
+        List<Slot> slots = requests.get(meeting);
+        Slot slot = slots.remove(slots.size() - 1);
+        if (slots.isEmpty()) requests.remove(meeting);
+        unindex(slot);
+    }
+
+    @Override
+    public synchronized void messageSent(Message message, String recipient) {
+        if (recipient == null || !(message instanceof TradeRequest)) return;
+        PendingMeetings.Meeting meeting = meetingOf((TradeRequest) message);
+        if (meeting == null) return;
+        pendingMeetings.add(meeting);
+        index(meeting);
+    }
+
+    @Override
+    public synchronized void tradeAdded(Trade trade) {
+        addTrade(trade.getTraderAId(), trade);
+        addTrade(trade.getTraderBId(), trade);
+    }
+
+    @Override
+    public synchronized void tradeRemoved(Trade trade) {
+        forgetTrades(trade);
+    }
+
+    @Override
+    public synchronized void tradeCompleted(Trade trade) {
+        forgetTrades(trade);
+    }
+
+    @Override
+    public synchronized void tradeFailed(Trade trade) {
+        forgetTrades(trade);
+    }
+
+    //----------------Helpers----------------//
+    // a meeting, ordered by time, then by when it was added so that meetings at the same time are all kept
+    private static class Slot implements Comparable<Slot> {
+        final LocalDateTime time;
+        final long seq;
+        // the meeting of the trade request it is for, null for the meeting of a trade
+        final PendingMeetings.Meeting meeting;
+
+        Slot(LocalDateTime time, long seq, PendingMeetings.Meeting meeting) {
+            this.time = time;
+            this.seq = seq;
+            this.meeting = meeting;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : Long.compare(seq, other.seq);
+        }
+    }
+
+    private boolean isFree(String username, LocalDateTime time, TradeRequest ignore) {
+        return around(tradeSlotsOf(username), time).isEmpty() && requestsAround(username, time, ignore).isEmpty();
+    }
+
+    // the meetings of trade requests of a user around a time, without one meeting of the request being changed
+    private List<Slot> requestsAround(String username, LocalDateTime time, TradeRequest ignore) {
+        TreeSet<Slot> slots = requestSlots.get(usernames.idOf(username));
+        if (slots == null) return new ArrayList<>();
+        List<Slot> found = new ArrayList<>(around(slots, time));
+        PendingMeetings.Meeting ignored = meetingOf(ignore);
+        if (ignored == null) return found;
+        Iterator<Slot> iterator = found.iterator();
+        while (iterator.hasNext()) {
+            if (ignored.equals(iterator.next().meeting)) {
+                iterator.remove();
+                break;
+            }
+        }
+        return found;
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.getAsLong()), ZoneId.systemDefault());
+    }
+
+    // the meetings strictly less than MEETING_MINUTES away from a time
+    private static NavigableSet<Slot> around(TreeSet<Slot> slots, LocalDateTime time) {
+        return slots.subSet(new Slot(time.minusMinutes(MEETING_MINUTES), Long.MAX_VALUE, null), false,
+                new Slot(time.plusMinutes(MEETING_MINUTES), Long.MIN_VALUE, null), false);
+    }
+
+    // the meetings of the trades of a user, read from their trade history if they have not been yet
+    private TreeSet<Slot> tradeSlotsOf(String username) {
+        int id = usernames.intern(username);
+        TreeSet<Slot> slots = tradeSlots.get(id);
+        if (slots != null) return slots;
+        slots = new TreeSet<>();
+        tradeSlots.put(id, slots);
+        for (Trade trade : tradeManager.getTradeHistory(username)) addTrade(id, trade);
+        return slots;
+    }
+
+    private void addTrade(int id, Trade trade) {
+        // only traders whose history was read need it, the others read it with the rest of their history
+        TreeSet<Slot> slots = tradeSlots.get(id);
+        if (slots == null || trade.getCompleted() || trade.getFailed()) return;
+        slots.add(new Slot(trade.getStartDate(), nextSeq++, null));
+        if (trade instanceof TempTrade) slots.add(new Slot(((TempTrade) trade).getFinishDate(), nextSeq++, null));
+    }
+
+    // a trade is done or gone, so both traders read their history again when it is next needed
+    private void forgetTrades(Trade trade) {
+        tradeSlots.remove(trade.getTraderAId());
+        tradeSlots.remove(trade.getTraderBId());
+    }
+
+    // the meeting a trade request asks for, or null if it has none
+    private static PendingMeetings.Meeting meetingOf(TradeRequest request) {
+        if (request == null || request.getDate() == null) return null;
+        return new PendingMeetings.Meeting(request.getUserA(), request.getUserB(), request.getDate());
+    }
+
+    // counts the meeting of one more trade request
+    private void index(PendingMeetings.Meeting meeting) {
+        Slot slot = new Slot(meeting.getTime(), nextSeq++, meeting);
+        requests.computeIfAbsent(meeting, key -> new ArrayList<>()).add(slot);
+        for (int id : new int[]{usernames.intern(meeting.getUserA()), usernames.intern(meeting.getUserB())}) {
+            TreeSet<Slot> slots = requestSlots.get(id);
+            if (slots == null) {
+                slots = new TreeSet<>();
+                requestSlots.put(id, slots);
+            }
+            slots.add(slot);
+        }
+    }
+
+    private void unindex(Slot slot) {
+        for (String username : new String[]{slot.meeting.getUserA(), slot.meeting.getUserB()}) {
+            TreeSet<Slot> slots = requestSlots.get(usernames.idOf(username));
+            if (slots != null) slots.remove(slot);
+        }
+    }
+}
@@ -4,6 +4,15 @@ import entities.*;
 import java.util.List;
 
 public class MessageBuilder {
+    private final UsernameTable usernames;
+
+    /**
+     * Creates a builder of messages whose usernames are kept in the given table
+     * @param usernames the UsernameTable of the system
+     */
+    public MessageBuilder(UsernameTable usernames) {
+        this.usernames = usernames;
+    }
 
     /**
      * Return a ContentMessage with a specified user.
@@ -12,7 +21,7 @@ public class MessageBuilder {
      * @return the ContentMessage
      */
     public Message getPrivateMessage(String content, String sender){
-        return new PrivateMessage(content, sender);
+        return new PrivateMessage(content, sender, usernames);
     }
 
     /**
@@ -21,7 +30,7 @@ public class MessageBuilder {
      * @return the ContentMessage message
      */
     public Message getSystemMessage(String content){
-        return new SystemMessage(content);
+        return new SystemMessage(content, usernames);
     }
 
     /**
@@ -41,7 +50,7 @@ public class MessageBuilder {
      * @return the FreezeRequest message
      */
     public Message getFreezeRequest(String content, String username){
-        return new FreezeRequest(content, username);
+        return new FreezeRequest(content, username, usernames);
     }
 
     /**
@@ -57,7 +66,7 @@ public class MessageBuilder {
      */
     public Message getTradeRequest(String content, String sender, String userA, String userB,  List<Item> itemA,
                                    List<Item> itemB, boolean perm){
-        return new TradeRequest(content, sender, userA, userB, itemA, itemB, perm);
+        return new TradeRequest(content, sender, userA, userB, itemA, itemB, perm, usernames);
     }
 
     /**
@@ -67,7 +76,7 @@ public class MessageBuilder {
      * @return the UnfreezeRequest message
      */
     public Message getUnfreezeRequest(String content, String username){
-        return new UnfreezeRequest(content, username);
+        return new UnfreezeRequest(content, username, usernames);
     }
 
     /**
@@ -77,7 +86,7 @@ public class MessageBuilder {
      * @return the UnbanRequest message
      */
     public Message getUnbanRequest(String content, String username) {
-        return new UnbanRequest(content, username);
+        return new UnbanRequest(content, username, usernames);
     }
 
     /**
@@ -89,7 +98,7 @@ public class MessageBuilder {
      * @return the ReportRequest message
      */
     public Message getReportRequest(String content, String sender, String contentReported, String reportPerson) {
-        return new ReportRequest(content, sender, contentReported, reportPerson);
+        return new ReportRequest(content, sender, contentReported, reportPerson, usernames);
     }
 
 }
@@ -0,0 +1,96 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.IntSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every pair of users who could make a two-way trade right now: each of them wants at least one item the other
+ * owns. These are the edges of the WantGraph that go both ways, so a pair is added when the second of its two edges
+ * appears and removed when either edge goes away. A change to the graph only touches the partners of the two users
+ * of its edge, and the partners of a user are read straight from the index.
+ */
+public class MutualMatchIndex implements WantGraph.GraphListener {
+    private final WantGraph wantGraph;
+    // user to the users they can swap with, guarded by wantGraph
+    private final IntObjectMap<IntSet> partners = new IntObjectMap<>();
+
+    /**
+     * Creates the index from the current edges of a want graph and keeps it up to date with its changes
+     * @param wantGraph the graph of who wants what from whom
+     */
+    public MutualMatchIndex(WantGraph wantGraph) {
+        this.wantGraph = wantGraph;
+        synchronized (wantGraph) {
+            int[][] graph = wantGraph.snapshot();
+            for (int user = 0; user < graph.length; user++) {
+                for (int owner : graph[user]) {
+                    if (user < owner && wantGraph.hasEdge(owner, user)) addPair(user, owner);
+                }
+            }
+            wantGraph.addGraphListener(this);
+        }
+    }
+
+    /**
+     * Getter for the users a user can make a two-way trade with right now
+     * @param username the user
+     * @return the usernames of every user who wants one of this user's items and owns one this user wants
+     */
+    public List<String> getPartners(String username) {
+        List<String> names = new ArrayList<>();
+        synchronized (wantGraph) {
+            IntSet ids = partners.get(wantGraph.usernames().idOf(username));
+            if (ids != null) {
+                for (int i = 0; i < ids.size(); i++) names.add(wantGraph.usernames().name(ids.get(i)));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @param username the user
+     * @return the number of users this user can make a two-way trade with right now
+     */
+    public int getPartnerCount(String username) {
+        synchronized (wantGraph) {
+            IntSet ids = partners.get(wantGraph.usernames().idOf(username));
+            return ids == null ? 0 : ids.size();
+        }
+    }
+
+    @Override
+    public void edgeAdded(int wanter, int owner) {
+        if (wantGraph.hasEdge(owner, wanter)) addPair(wanter, owner);
+    }
+
+    @Override
+    public void edgeRemoved(int wanter, int owner) {
+        if (wantGraph.hasEdge(owner, wanter)) {
+            removePartner(wanter, owner);
+            removePartner(owner, wanter);
+        }
+    }
+
+    //----------------Helpers----------------//
+    private void addPair(int userA, int userB) {
+        addPartner(userA, userB);
+        addPartner(userB, userA);
+    }
+
+    private void addPartner(int user, int partner) {
+        IntSet ids = partners.get(user);
+        if (ids == null) {
+            ids = new IntSet(2);
+            partners.put(user, ids);
+        }
+        ids.add(partner);
+    }
+
+    private void removePartner(int user, int partner) {
+        IntSet ids = partners.get(user);
+        if (ids != null && ids.remove(partner) && ids.isEmpty()) partners.remove(user);
+    }
+}
@@ -0,0 +1,20 @@
+package use_cases;
+
+/**
+ * A map of records that only keeps some of them in memory and writes the others back to where they are stored.
+ * A pinned record stays in memory, so the objects handed out for it are the ones that are changed and saved even
+ * when they are kept across other accesses, like the records of a user who is logged in.
+ */
+public interface Pinnable {
+    /**
+     * Loads the record of a key if it is not in memory yet, and keeps it there until it is unpinned as many times
+     * @param key the key of the record, which may not have a record yet
+     */
+    void pin(String key);
+
+    /**
+     * Lets the record of a key be written back and dropped from memory again once it is no longer pinned
+     * @param key the key of the record
+     */
+    void unpin(String key);
+}
@@ -0,0 +1,259 @@
+package use_cases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A radix tree of strings, each with an activity, that finds the most active strings starting with a prefix.
+ * Chains of nodes with a single child are merged into one node labelled with the whole chain, so there are fewer than
+ * two nodes per string. The nodes are kept in int arrays and their labels are pieces of one shared char array, and
+ * splitting a node only points the two halves at different pieces of the same label, so a string costs at most two
+ * nodes of 24 bytes and the characters it does not share with other strings.
+ * Every node also keeps the largest activity below it, so a completion only visits the branches that can still hold
+ * one of the most active strings.
+ */
+public class PrefixTrie {
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+
+    private char[] chars = new char[256];
+    private int charCount;
+
+    private int[] labelStart = new int[64];
+    private int[] labelLength = new int[64];
+    private int[] firstChild = new int[64];
+    private int[] nextSibling = new int[64];
+    // activity of the string ending at the node, or NONE if no string ends there
+    private int[] activity = new int[64];
+    // largest activity of the strings ending at or below the node
+    private int[] best = new int[64];
+    private int nodes;
+    private int size;
+
+    /**
+     * Creates an empty trie
+     */
+    public PrefixTrie() {
+        newNode(0, 0);
+    }
+
+    /**
+     * Adds a string to the trie, or sets its activity if it is already in it
+     * @param string the string
+     * @param activity how active it is, at least 0. The most active strings are completed first
+     */
+    public synchronized void add(String string, int activity) {
+        int node = ROOT;
+        int depth = 0;
+        int[] path = new int[string.length() + 1];
+        int pathLength = 0;
+        path[pathLength++] = node;
+        while (depth < string.length()) {
+            int child = childStartingWith(node, string.charAt(depth));
+            if (child == NONE) {
+                int leaf = newNode(append(string, depth), string.length() - depth);
+                addChild(node, leaf);
+                node = leaf;
+                depth = string.length();
+                break;
+            }
+            int common = commonLength(child, string, depth);
+            if (common < labelLength[child]) child = split(node, child, common);
+            node = child;
+            depth += common;
+            path[pathLength++] = node;
+        }
+        int previous = this.activity[node];
+        if (previous == NONE) size++;
+        this.activity[node] = activity;
+        if (path[pathLength - 1] != node) path[pathLength++] = node;
+        for (int i = pathLength - 1; i >= 0; i--) {
+            // only a lower activity can lower the best of the nodes above, and needs their children looked at again
+            if (activity >= previous) best[path[i]] = Math.max(best[path[i]], activity);
+            else updateBest(path[i]);
+        }
+    }
+
+    /**
+     * @param string the string
+     * @return true if the string is in the trie
+     */
+    public synchronized boolean contains(String string) {
+        int node = find(string);
+        return node != NONE && activity[node] != NONE;
+    }
+
+    /**
+     * Getter for the activity of a string
+     * @param string the string
+     * @return its activity, or -1 if it is not in the trie
+     */
+    public synchronized int getActivity(String string) {
+        int node = find(string);
+        return node == NONE ? NONE : activity[node];
+    }
+
+    /**
+     * Finds the most active strings starting with a prefix
+     * @param prefix the prefix
+     * @param limit the largest number of strings to return
+     * @return the strings, most active first. Strings as active as each other come in alphabetical order
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        List<String> completions = new ArrayList<>();
+        if (limit <= 0) return completions;
+        // the highest node whose strings all start with the prefix, and the string it ends at
+        int node = ROOT;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            int child = childStartingWith(node, prefix.charAt(depth));
+            if (child == NONE) return completions;
+            int common = commonLength(child, prefix, depth);
+            if (common < labelLength[child] && depth + common < prefix.length()) return completions;
+            node = child;
+            depth += labelLength[child];
+        }
+        String start = prefix.substring(0, depth - labelLength[node])
+                + new String(chars, labelStart[node], labelLength[node]);
+        // best first search, where a string comes out before a branch only when no string in the branch can beat it
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start, node, best[node], false));
+        while (!queue.isEmpty() && completions.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.isString) {
+                completions.add(candidate.text);
+                continue;
+            }
+            int n = candidate.node;
+            if (activity[n] != NONE) queue.add(new Candidate(candidate.text, n, activity[n], true));
+            for (int child = firstChild[n]; child != NONE; child = nextSibling[child]) {
+                queue.add(new Candidate(candidate.text + new String(chars, labelStart[child], labelLength[child]),
+                        child, best[child], false));
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * @return the number of strings in the trie
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    //----------------Helpers----------------//
+    private static class Candidate implements Comparable<Candidate> {
+        final String text;
+        final int node;
+        final int activity;
+        final boolean isString;
+
+        Candidate(String text, int node, int activity, boolean isString) {
+            this.text = text;
+            this.node = node;
+            this.activity = activity;
+            this.isString = isString;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (activity != other.activity) return Integer.compare(other.activity, activity);
+            int byText = text.compareTo(other.text);
+            if (byText != 0) return byText;
+            return Boolean.compare(other.isString, isString);
+        }
+    }
+
+    // the node a string ends exactly at, or NONE
+    private int find(String string) {
+        int node = ROOT;
+        int depth = 0;
+        while (depth < string.length()) {
+            int child = childStartingWith(node, string.charAt(depth));
+            if (child == NONE || commonLength(child, string, depth) < labelLength[child]) return NONE;
+            node = child;
+            depth += labelLength[child];
+        }
+        return node;
+    }
+
+    private int childStartingWith(int node, char c) {
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            if (chars[labelStart[child]] == c) return child;
+        }
+        return NONE;
+    }
+
+    // the number of characters at the start of a node's label that match the string from depth
+    private int commonLength(int node, String string, int depth) {
+        int length = Math.min(labelLength[node], string.length() - depth);
+        int start = labelStart[node];
+        int common = 0;
+        while (common < length && chars[start + common] == string.charAt(depth + common)) common++;
+        return common;
+    }
+
+    // splits a child after length characters of its label, and returns the new node holding the first part
+    private int split(int parent, int child, int length) {
+        int top = newNode(labelStart[child], length);
+        replaceChild(parent, child, top);
+        labelStart[child] += length;
+        labelLength[child] -= length;
+        nextSibling[child] = NONE;
+        firstChild[top] = child;
+        best[top] = best[child];
+        return top;
+    }
+
+    private void addChild(int parent, int child) {
+        nextSibling[child] = firstChild[parent];
+        firstChild[parent] = child;
+    }
+
+    private void replaceChild(int parent, int child, int replacement) {
+        nextSibling[replacement] = nextSibling[child];
+        if (firstChild[parent] == child) {
+            firstChild[parent] = replacement;
+            return;
+        }
+        int previous = firstChild[parent];
+        while (nextSibling[previous] != child) previous = nextSibling[previous];
+        nextSibling[previous] = replacement;
+    }
+
+    private void updateBest(int node) {
+        int max = activity[node];
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) max = Math.max(max, best[child]);
+        best[node] = max;
+    }
+
+    // copies the rest of a string from depth into the shared label array, and returns where it starts
+    private int append(String string, int depth) {
+        int length = string.length() - depth;
+        if (charCount + length > chars.length) chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + length));
+        string.getChars(depth, string.length(), chars, charCount);
+        charCount += length;
+        return charCount - length;
+    }
+
+    private int newNode(int start, int length) {
+        if (nodes == labelStart.length) {
+            int capacity = nodes * 2;
+            labelStart = Arrays.copyOf(labelStart, capacity);
+            labelLength = Arrays.copyOf(labelLength, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            activity = Arrays.copyOf(activity, capacity);
+            best = Arrays.copyOf(best, capacity);
+        }
+        labelStart[nodes] = start;
+        labelLength[nodes] = length;
+        firstChild[nodes] = NONE;
+        nextSibling[nodes] = NONE;
+        activity[nodes] = NONE;
+        best[nodes] = NONE;
+        return nodes++;
+    }
+}
@@ -0,0 +1,207 @@
+package use_cases;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how often something can be done per key, with a token bucket for every key: a bucket holds up to the limit
+ * of tokens, doing the thing takes one, and the bucket fills back up over one period.
+ * Buckets are kept in open-addressing tables of longs, where the tokens and the time they were counted at are packed
+ * in one long, so taking a token is a single compare-and-set, without locks or allocating anything.
+ * A bucket left alone for a whole period is full again, which is the same as having no bucket at all, so idle buckets
+ * are dropped by table: every period, or when the table fills up, a new table takes the new buckets, buckets still in
+ * use move to it when they are next used, and a table is dropped once it has not been used for a whole period.
+ * When a table is switched while a key is being used, the key may at worst get an extra token.
+ */
+public class RateLimiter {
+    /**
+     * The largest limit, as the tokens of a bucket are packed in 24 bits
+     */
+    public static final int MAX_LIMIT = (1 << 24) / RateLimiter.UNIT - 1;
+
+    // a token is counted in 1024ths, so that buckets fill up smoothly
+    private static final int UNIT = 1024;
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final int MIN_CAPACITY = 1 << 10;
+    // a slot that was never used has key 0, and a bucket that was never used has state 0, which means full
+    private static final long EMPTY = 0;
+
+    private final long periodMillis;
+    private final LongSupplier clock;
+    // times are counted from the creation of the limiter, so that they fit in 40 bits
+    private final long origin;
+    private final AtomicReference<Table> head;
+
+    /**
+     * Creates a rate limiter without any bucket
+     * @param periodMillis the time for an empty bucket to fill up, in milliseconds
+     * @param clock gives the current time in milliseconds
+     */
+    public RateLimiter(long periodMillis, LongSupplier clock) {
+        this.periodMillis = Math.max(1, periodMillis);
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.head = new AtomicReference<>(new Table(MIN_CAPACITY, origin));
+    }
+
+    /**
+     * Takes a token from the bucket of a key, if there is one
+     * @param key the key, anything but 0
+     * @param limit the number of tokens the bucket holds when full, from 1 to MAX_LIMIT
+     * @return 0 if a token was taken, otherwise the time until there is one, in milliseconds
+     */
+    public long tryAcquire(long key, int limit) {
+        long now = clock.getAsLong();
+        long capacity = (long) Math.max(1, Math.min(limit, MAX_LIMIT)) * UNIT;
+        Table table = tableAt(now);
+        int slot = table.slot(key);
+        while (slot < 0) {
+            table = replace(table, now, table.keys.length() * 2);
+            slot = table.slot(key);
+        }
+        while (true) {
+            long state = table.states.get(slot);
+            long refilled = refill(state, capacity, now);
+            long tokens = refilled & TOKEN_MASK;
+            if (tokens < UNIT) {
+                // the time the missing part of a token takes to come in
+                long counted = (refilled >>> TOKEN_BITS) - 1 + origin;
+                long wait = counted + ceilDiv((UNIT - tokens) * periodMillis, capacity) - now;
+                return Math.max(1, wait);
+            }
+            if (table.states.compareAndSet(slot, state, refilled - UNIT)) return 0;
+        }
+    }
+
+    /**
+     * Puts back a token taken from the bucket of a key, when what it was taken for did not happen after all
+     * @param key the key
+     * @param limit the number of tokens the bucket holds when full, from 1 to MAX_LIMIT
+     */
+    public void release(long key, int limit) {
+        long now = clock.getAsLong();
+        long capacity = (long) Math.max(1, Math.min(limit, MAX_LIMIT)) * UNIT;
+        Table table = head.get();
+        int slot = table.find(key);
+        if (slot < 0) return;
+        while (true) {
+            long state = table.states.get(slot);
+            if (state == EMPTY) return;
+            long refilled = refill(state, capacity, now);
+            long tokens = Math.min(capacity, (refilled & TOKEN_MASK) + UNIT);
+            if (table.states.compareAndSet(slot, state, (refilled & ~TOKEN_MASK) | tokens)) return;
+        }
+    }
+
+    /**
+     * @return the number of buckets in the table new buckets go in, which are the ones used lately
+     */
+    public int size() {
+        return head.get().size.get();
+    }
+
+    //----------------Helpers----------------//
+    private static class Table {
+        final AtomicLongArray keys;
+        final AtomicLongArray states;
+        final AtomicInteger size = new AtomicInteger();
+        final long createdAt;
+        // the table the buckets were in before this one, if it may still have some in use
+        volatile Table older;
+        // the time a newer table took over, after which the buckets in this one are only read
+        volatile long retiredAt = Long.MAX_VALUE;
+
+        Table(int capacity, long createdAt) {
+            keys = new AtomicLongArray(capacity);
+            states = new AtomicLongArray(capacity);
+            this.createdAt = createdAt;
+        }
+
+        // the slot of a key, added and moved from an older table if it is not in this one, or -1 if this one is full
+        int slot(long key) {
+            int mask = keys.length() - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                long found = keys.get(i);
+                if (found == key) return i;
+                if (found != EMPTY) continue;
+                if (size.get() >= keys.length() / 4 * 3) return -1;
+                if (!keys.compareAndSet(i, EMPTY, key)) {
+                    if (keys.get(i) == key) return i;
+                    continue;
+                }
+                size.incrementAndGet();
+                for (Table table = older; table != null; table = table.older) {
+                    int slot = table.find(key);
+                    if (slot < 0) continue;
+                    long state = table.states.get(slot);
+                    if (state != EMPTY) states.compareAndSet(i, EMPTY, state);
+                    break;
+                }
+                return i;
+            }
+        }
+
+        // the slot of a key, or -1 if it is not in this table
+        int find(long key) {
+            int mask = keys.length() - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                long found = keys.get(i);
+                if (found == key) return i;
+                if (found == EMPTY) return -1;
+            }
+        }
+    }
+
+    // the table new buckets go in, after switching to a new one if the current one is a period old
+    private Table tableAt(long now) {
+        Table table = head.get();
+        if (now - table.createdAt < periodMillis) return table;
+        return replace(table, now, Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, table.size.get())) << 2));
+    }
+
+    private Table replace(Table table, long now, int capacity) {
+        Table newer = new Table(capacity, now);
+        newer.older = table;
+        if (!head.compareAndSet(table, newer)) return head.get();
+        table.retiredAt = now;
+        // every bucket only in a table retired a period ago is full by now
+        for (Table t = newer; t.older != null; t = t.older) {
+            if (now - t.older.retiredAt >= periodMillis) {
+                t.older = null;
+                break;
+            }
+        }
+        return newer;
+    }
+
+    // the state of a bucket with the tokens that came in since it was counted, as of now
+    private long refill(long state, long capacity, long now) {
+        long nowTime = now - origin + 1;
+        if (state == EMPTY) return (nowTime << TOKEN_BITS) | capacity;
+        long time = state >>> TOKEN_BITS;
+        long tokens = Math.min(state & TOKEN_MASK, capacity);
+        long elapsed = nowTime - time;
+        if (elapsed <= 0) return (time << TOKEN_BITS) | tokens;
+        if (elapsed >= periodMillis) return (nowTime << TOKEN_BITS) | capacity;
+        long added = elapsed * capacity / periodMillis;
+        if (tokens + added >= capacity) return (nowTime << TOKEN_BITS) | capacity;
+        // only the time the added tokens took is counted, so that the part of a token coming in is not lost
+        return ((time + added * periodMillis / capacity) << TOKEN_BITS) | (tokens + added);
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,72 @@
+package use_cases;
+
+/**
+ * How reliable a trader has been lately: their completed, failed and overdue trades, each weighing less the older it
+ * is, and a reliability worked out from them.
+ */
+public final class Reputation {
+    private final String username;
+    private final double completed;
+    private final double failed;
+    private final double overdue;
+    private final double reliability;
+
+    /**
+     * Creates a reputation
+     * @param username the trader
+     * @param completed the weight of their completed trades
+     * @param failed the weight of their failed trades
+     * @param overdue the weight of their trades in which they did not return what they borrowed
+     * @param reliability their reliability, from 0 to 1
+     */
+    Reputation(String username, double completed, double failed, double overdue, double reliability) {
+        this.username = username;
+        this.completed = completed;
+        this.failed = failed;
+        this.overdue = overdue;
+        this.reliability = reliability;
+    }
+
+    /**
+     * @return the username of the trader
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return the weight of their completed trades, where a trade counts 1 when new and less as it gets older
+     */
+    public double getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return the weight of their failed trades, where a trade counts 1 when new and less as it gets older
+     */
+    public double getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the weight of their trades in which they did not return what they borrowed, where a trade counts 1 when
+     * new and less as it gets older
+     */
+    public double getOverdue() {
+        return overdue;
+    }
+
+    /**
+     * @return their reliability, from 0 to 1. A trader without any trades is at one half
+     */
+    public double getReliability() {
+        return reliability;
+    }
+
+    /**
+     * @return true if the trader has any trades that count
+     */
+    public boolean hasTrades() {
+        return completed + failed + overdue > 0;
+    }
+}
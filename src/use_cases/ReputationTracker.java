@@ -0,0 +1,180 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.TempTrade;
+import entities.Trade;
+import entities.UsernameTable;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps how reliable every trader has been lately, from the outcome of their trades.
+ * A completed trade counts for both traders, a trade that failed at its first meeting counts against both of them, as
+ * the trade does not record who made it fail, and a temporary trade that failed when the items were to be returned
+ * counts as overdue against the traders who borrowed. Every outcome weighs half as much every half-life.
+ * A trader's scores are worked out from their trade history the first time they are asked for, and then kept up to
+ * date in constant time by listening to the trade manager, so the trade histories on disk are only read once.
+ */
+public class ReputationTracker implements TradeSystemListener {
+    /**
+     * The default time for the weight of an outcome to halve, about three months
+     */
+    public static final long DEFAULT_HALF_LIFE_MILLIS = 90L * 24 * 60 * 60 * 1000;
+
+    // not giving back what was borrowed is worse than a trade falling through
+    private static final double OVERDUE_WEIGHT = 2;
+
+    private final TradeManager tradeManager;
+    private final UsernameTable usernames;
+    private final long halfLifeMillis;
+    private final LongSupplier clock;
+    // by username ID, only for the traders whose history has been read
+    private final IntObjectMap<Scores> scores = new IntObjectMap<>();
+
+    /**
+     * Creates a tracker with a half-life of DEFAULT_HALF_LIFE_MILLIS, and registers it as a listener of the manager
+     * @param tradeManager the trade manager of the system
+     * @param usernames the username table of the system
+     */
+    public ReputationTracker(TradeManager tradeManager, UsernameTable usernames) {
+        this(tradeManager, usernames, DEFAULT_HALF_LIFE_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a tracker, and registers it as a listener of the manager
+     * @param tradeManager the trade manager of the system
+     * @param usernames the username table of the system
+     * @param halfLifeMillis the time for the weight of an outcome to halve, in milliseconds
+     * @param clock gives the current time in milliseconds
+     */
+    public ReputationTracker(TradeManager tradeManager, UsernameTable usernames, long halfLifeMillis,
+                             LongSupplier clock) {
+        this.tradeManager = tradeManager;
+        this.usernames = usernames;
+        this.halfLifeMillis = halfLifeMillis;
+        this.clock = clock;
+        tradeManager.addListener(this);
+    }
+
+    /**
+     * Getter for the reputation of a trader
+     * @param username the username of the trader
+     * @return their reputation now
+     */
+    public synchronized Reputation getReputation(String username) {
+        return reputation(username, scoresOf(username), clock.getAsLong());
+    }
+
+    /**
+     * Getter for the most reliable traders, among the ones with trades whose history has been read, which are the
+     * traders whose reputation was asked for. No trade history is read by it.
+     * @param n the largest number of traders to return
+     * @return the reputations of up to n traders, most reliable first. Traders as reliable as each other come by the
+     * weight of their trades, then in alphabetical order
+     */
+    public synchronized List<Reputation> mostReliable(int n) {
+        long now = clock.getAsLong();
+        Comparator<Reputation> order = Comparator.comparingDouble(Reputation::getReliability)
+                .thenComparingDouble(r -> r.getCompleted() + r.getFailed() + r.getOverdue())
+                .thenComparing(Reputation::getUsername, Comparator.reverseOrder());
+        // the least reliable of the best n so far is on top, to be replaced by a better one
+        PriorityQueue<Reputation> best = new PriorityQueue<>(order);
+        scores.forEach((id, s) -> {
+            if (n <= 0) return;
+            Reputation reputation = reputation(usernames.name(id), s, now);
+            if (!reputation.hasTrades()) return;
+            if (best.size() < n) best.add(reputation);
+            else if (order.compare(reputation, best.peek()) > 0) {
+                best.poll();
+                best.add(reputation);
+            }
+        });
+        List<Reputation> ranked = new ArrayList<>(best);
+        ranked.sort(Collections.reverseOrder(order));
+        return ranked;
+    }
+
+    @Override
+    public synchronized void tradeCompleted(Trade trade) {
+        outcomeNow(trade, trade.getTraderA());
+        outcomeNow(trade, trade.getTraderB());
+    }
+
+    @Override
+    public synchronized void tradeFailed(Trade trade) {
+        outcomeNow(trade, trade.getTraderA());
+        outcomeNow(trade, trade.getTraderB());
+    }
+
+    //----------------Helpers----------------//
+    private static class Scores {
+        double completed;
+        double failed;
+        double overdue;
+        // the time the scores weigh as of
+        long time;
+    }
+
+    // the scores of a trader, read from their trade history if they have not been yet
+    private Scores scoresOf(String username) {
+        int id = usernames.intern(username);
+        Scores s = scores.get(id);
+        if (s != null) return s;
+        s = new Scores();
+        s.time = clock.getAsLong();
+        for (Trade trade : tradeManager.getTradeHistory(username)) {
+            add(s, trade, username, trade.getStartDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        scores.put(id, s);
+        return s;
+    }
+
+    // a trade's outcome changed just now, which only needs counting for traders whose history was read before it did
+    private void outcomeNow(Trade trade, String username) {
+        Scores s = scores.get(usernames.idOf(username));
+        if (s != null) add(s, trade, username, clock.getAsLong());
+    }
+
+    private void add(Scores s, Trade trade, String username, long at) {
+        if (!trade.getCompleted() && !trade.getFailed()) return;
+        decay(s, at);
+        double weight = Math.pow(2, -(double) (s.time - at) / halfLifeMillis);
+        if (trade.getCompleted()) s.completed += weight;
+        else if (trade.getFailed()) {
+            if (!failedOnReturn(trade)) s.failed += weight;
+            else if (trade.isBorrowed(username)) s.overdue += weight;
+        }
+    }
+
+    // a temporary trade whose first meeting both traders confirmed, so it failed when the items were to be returned
+    private static boolean failedOnReturn(Trade trade) {
+        return trade instanceof TempTrade &&
+                Math.max(trade.getTraderAConfirmTimes(), trade.getTraderBConfirmTimes()) == 2;
+    }
+
+    private void decay(Scores s, long now) {
+        if (now <= s.time) return;
+        double factor = Math.pow(2, -(double) (now - s.time) / halfLifeMillis);
+        s.completed *= factor;
+        s.failed *= factor;
+        s.overdue *= factor;
+        s.time = now;
+    }
+
+    private Reputation reputation(String username, Scores s, long now) {
+        // as of now, without changing the scores
+        double factor = now <= s.time ? 1 : Math.pow(2, -(double) (now - s.time) / halfLifeMillis);
+        double completed = s.completed * factor;
+        double failed = s.failed * factor;
+        double overdue = s.overdue * factor;
+        // one completed and one failed trade are assumed before any, so a single trade does not say everything
+        double reliability = (completed + 1) / (completed + failed + OVERDUE_WEIGHT * overdue + 2);
+        return new Reputation(username, completed, failed, overdue, reliability);
+    }
+}
@@ -0,0 +1,77 @@
+package use_cases;
+
+import entities.UsernameTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A cycle of users where every user wants an item owned by the next one, and the last user wants an item owned by the
+ * first. If every user gives that item to the user before them, each of them gets an item they wanted.
+ * The users are kept as their IDs in the UsernameTable, starting from the smallest ID, so that the same cycle found
+ * from different users is equal.
+ */
+public class TradeCycle {
+    private final int[] users;
+    private final UsernameTable usernames;
+
+    /**
+     * Creates a cycle through the given users, in the order the wants go
+     * @param users the IDs of the users, users[i] wants an item owned by users[i + 1]
+     * @param usernames the table the IDs of the users come from
+     */
+    TradeCycle(int[] users, UsernameTable usernames) {
+        this.usernames = usernames;
+        int first = 0;
+        for (int i = 1; i < users.length; i++) {
+            if (users[i] < users[first]) first = i;
+        }
+        this.users = new int[users.length];
+        for (int i = 0; i < users.length; i++) this.users[i] = users[(first + i) % users.length];
+    }
+
+    /**
+     * @return the number of users, and of trades, in this cycle
+     */
+    public int size() { return users.length; }
+
+    /**
+     * Getter for the usernames in this cycle, in the order the wants go
+     * @return the usernames, each one wants an item owned by the next and the last wants an item owned by the first
+     */
+    public List<String> getUsernames() {
+        List<String> names = new ArrayList<>(users.length);
+        for (int user : users) names.add(usernames.name(user));
+        return names;
+    }
+
+    /**
+     * @param username the username
+     * @return true if this user is part of the cycle
+     */
+    public boolean contains(String username) {
+        int id = usernames.idOf(username);
+        for (int user : users) {
+            if (user == id) return true;
+        }
+        return false;
+    }
+
+    int wanter(int i) { return users[i]; }
+
+    int owner(int i) { return users[(i + 1) % users.length]; }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TradeCycle && Arrays.equals(users, ((TradeCycle) o).users);
+    }
+
+    @Override
+    public int hashCode() { return Arrays.hashCode(users); }
+
+    @Override
+    public String toString() {
+        return String.join(" -> ", getUsernames()) + " -> " + usernames.name(users[0]);
+    }
+}
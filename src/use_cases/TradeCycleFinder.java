@@ -0,0 +1,308 @@
+package use_cases;
+
+import entities.IntSet;
+import entities.Item;
+import entities.ItemId;
+import entities.TradeRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Finds trade cycles: groups of users where each one wants an item owned by the next, so that everyone in the group
+ * gets something they want even when no two of them want each other's items.
+ * The cycles are the simple cycles of up to maxLength users in the WantGraph. They are all found by a search from
+ * every user that only visits users with a larger ID, so each cycle is found once, from its smallest user; the
+ * searches run in parallel. After that, a new edge in the graph only adds the cycles going through it, and a removed
+ * edge drops the cycles that used it, so the cycles stay up to date without searching the whole graph again.
+ */
+public class TradeCycleFinder implements WantGraph.GraphListener {
+    /**
+     * The default longest cycle looked for
+     */
+    public static final int DEFAULT_MAX_LENGTH = 4;
+
+    // the chance that any one user goes through with their part of a cycle, used to rank the cycles
+    private static final double ACCEPT_PROBABILITY = 0.7;
+    // the search stops once this many cycles are found, so a dense graph cannot use up the memory
+    private static final int MAX_CYCLES = 100_000;
+
+    private final WantGraph wantGraph;
+    private final GlobalInventoryManager globalInventoryManager;
+    private final int maxLength;
+
+    // everything below is guarded by wantGraph
+    private final Set<TradeCycle> cycles = new HashSet<>();
+    private final Map<Long, Set<TradeCycle>> cyclesByEdge = new HashMap<>();
+    private final Set<TradeCycle> proposed = new HashSet<>();
+    // edges added while a search is running, searched again once it is done
+    private List<Long> addedDuringSearch;
+    private boolean searched;
+
+    /**
+     * Creates a finder for cycles of up to DEFAULT_MAX_LENGTH users
+     * @param wantGraph the graph of who wants what from whom
+     * @param globalInventoryManager the global inventory manager of the system
+     */
+    public TradeCycleFinder(WantGraph wantGraph, GlobalInventoryManager globalInventoryManager) {
+        this(wantGraph, globalInventoryManager, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Creates a finder that follows the changes of a want graph. No cycles are known until findAll is called.
+     * @param wantGraph the graph of who wants what from whom
+     * @param globalInventoryManager the global inventory manager of the system
+     * @param maxLength the largest number of users in a cycle, at least 2
+     */
+    public TradeCycleFinder(WantGraph wantGraph, GlobalInventoryManager globalInventoryManager, int maxLength) {
+        if (maxLength < 2) throw new IllegalArgumentException("A cycle has at least 2 users: " + maxLength);
+        this.wantGraph = wantGraph;
+        this.globalInventoryManager = globalInventoryManager;
+        this.maxLength = maxLength;
+        synchronized (wantGraph) {
+            wantGraph.addGraphListener(this);
+        }
+    }
+
+    /**
+     * Searches the whole graph for cycles in the background, replacing the cycles found before. Wishes and items
+     * may change while the search runs; those changes are applied to the result before it is used.
+     * @return a future completed with the number of cycles known once the search is done
+     */
+    public CompletableFuture<Integer> findAll() {
+        return CompletableFuture.supplyAsync(this::search);
+    }
+
+    /**
+     * Getter for the best cycles that have not been proposed yet, best first. A cycle ranks higher when more wishes
+     * are expected to be met by it: every user in it gets an item, but every extra user is also another person who
+     * may say no. Cycles that rank the same are ordered by how many items each trade in them could use.
+     * @param username only return cycles with this user in them, or null for all cycles
+     * @param limit the largest number of cycles to return
+     * @return the cycles, best first
+     */
+    public List<TradeCycle> getCycles(String username, int limit) {
+        Comparator<TradeCycle> ranking = Comparator.comparingDouble(this::expectedWishesMet)
+                .thenComparingInt(this::fewestItemChoices).reversed();
+        synchronized (wantGraph) {
+            return cycles.stream()
+                    .filter(cycle -> !proposed.contains(cycle) && (username == null || cycle.contains(username)))
+                    .sorted(ranking)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return true if findAll has finished at least once
+     */
+    public boolean hasSearched() {
+        synchronized (wantGraph) {
+            return searched;
+        }
+    }
+
+    /**
+     * Turns a cycle into one trade request for each of its trades, linked by the list of users in the cycle and an ID
+     * shared by all of them. In each request the user who wants the item borrows it for good from its owner; the
+     * request comes from the proposer and has to be sent to the owner. As every user takes part in two of the trades, the meetings follow each
+     * other MeetingScheduler.MEETING_MINUTES apart at the same place. The cycle is not returned by getCycles again,
+     * unless it is withdrawn.
+     * @param cycle the cycle, as returned by getCycles
+     * @param proposer the user or admin proposing the cycle, who sends every trade request of it
+     * @param date the meeting date of the first trade
+     * @param place the meeting place of every trade
+     * @return the trade requests in the order of their meetings, or an empty list if the cycle no longer exists
+     */
+    public List<TradeRequest> propose(TradeCycle cycle, String proposer, LocalDateTime date, String place) {
+        List<TradeRequest> requests = new ArrayList<>();
+        long cycleId;
+        do {
+            cycleId = ThreadLocalRandom.current().nextLong();
+        } while (cycleId == 0);
+        synchronized (wantGraph) {
+            if (!cycles.contains(cycle)) return requests;
+            List<String> usernames = cycle.getUsernames();
+            for (int i = 0; i < cycle.size(); i++) {
+                String wanter = wantGraph.usernames().name(cycle.wanter(i));
+                String owner = wantGraph.usernames().name(cycle.owner(i));
+                // give the item the wanter asked for first
+                Item item = globalInventoryManager.getItemFromGI(
+                        ItemId.toId(wantGraph.itemsWanted(cycle.wanter(i), cycle.owner(i)).get(0)));
+                List<Item> wanted = new ArrayList<>();
+                wanted.add(item);
+                TradeRequestManager request = new TradeRequestManager(proposer + " proposes that " + wanter +
+                        " gets your " + item.getName() + " as part of a trade between " + cycle.size() + " users.",
+                        proposer, wanter, owner, new ArrayList<>(), wanted, true, wantGraph.usernames());
+                request.setDateAndPlaceFirst(date.plusMinutes((long) i * MeetingScheduler.MEETING_MINUTES), place);
+                request.getTradeRequest().setCycle(usernames, cycleId);
+                requests.add(request.getTradeRequest());
+            }
+            proposed.add(cycle);
+        }
+        return requests;
+    }
+
+    /**
+     * Lets a proposed cycle be returned by getCycles again, when its trade requests could not all be sent
+     * @param cycle the cycle, as passed to propose
+     */
+    public void withdraw(TradeCycle cycle) {
+        synchronized (wantGraph) {
+            proposed.remove(cycle);
+        }
+    }
+
+    @Override
+    public void edgeAdded(int wanter, int owner) {
+        if (addedDuringSearch != null) addedDuringSearch.add(WantGraph.edge(wanter, owner));
+        if (searched) findThrough(wanter, owner);
+    }
+
+    @Override
+    public void edgeRemoved(int wanter, int owner) {
+        Set<TradeCycle> broken = cyclesByEdge.remove(WantGraph.edge(wanter, owner));
+        if (broken != null) {
+            for (TradeCycle cycle : broken) removeCycle(cycle);
+        }
+    }
+
+    //----------------Helpers----------------//
+    private double expectedWishesMet(TradeCycle cycle) {
+        return cycle.size() * Math.pow(ACCEPT_PROBABILITY, cycle.size());
+    }
+
+    private int fewestItemChoices(TradeCycle cycle) {
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < cycle.size(); i++) {
+            IntSet items = wantGraph.itemsWanted(cycle.wanter(i), cycle.owner(i));
+            fewest = Math.min(fewest, items == null ? 0 : items.size());
+        }
+        return fewest;
+    }
+
+    // adds every cycle that goes through the new edge: the paths back from owner to wanter
+    private void findThrough(int wanter, int owner) {
+        int[] path = new int[maxLength];
+        path[0] = wanter;
+        path[1] = owner;
+        findPathsBack(path, 2);
+    }
+
+    private void findPathsBack(int[] path, int length) {
+        IntSet next = wantGraph.successors(path[length - 1]);
+        if (next == null) return;
+        for (int i = 0; i < next.size(); i++) {
+            int user = next.get(i);
+            if (user == path[0]) {
+                addCycle(new TradeCycle(Arrays.copyOf(path, length), wantGraph.usernames()));
+            } else if (length < maxLength && !onPath(path, length, user)) {
+                path[length] = user;
+                findPathsBack(path, length + 1);
+            }
+        }
+    }
+
+    private void addCycle(TradeCycle cycle) {
+        if (cycles.size() >= MAX_CYCLES || !cycles.add(cycle)) return;
+        for (int i = 0; i < cycle.size(); i++) {
+            cyclesByEdge.computeIfAbsent(WantGraph.edge(cycle.wanter(i), cycle.owner(i)), e -> new HashSet<>()).add(cycle);
+        }
+    }
+
+    private void removeCycle(TradeCycle cycle) {
+        cycles.remove(cycle);
+        proposed.remove(cycle);
+        for (int i = 0; i < cycle.size(); i++) {
+            Set<TradeCycle> through = cyclesByEdge.get(WantGraph.edge(cycle.wanter(i), cycle.owner(i)));
+            if (through != null) {
+                through.remove(cycle);
+                if (through.isEmpty()) cyclesByEdge.remove(WantGraph.edge(cycle.wanter(i), cycle.owner(i)));
+            }
+        }
+    }
+
+    private static boolean onPath(int[] path, int length, int user) {
+        for (int i = 0; i < length; i++) {
+            if (path[i] == user) return true;
+        }
+        return false;
+    }
+
+    private int search() {
+        int[][] graph;
+        synchronized (wantGraph) {
+            addedDuringSearch = new ArrayList<>();
+            graph = wantGraph.snapshot();
+        }
+
+        AtomicInteger budget = new AtomicInteger(MAX_CYCLES);
+        int[][] snapshot = graph;
+        List<TradeCycle> found = IntStream.range(0, graph.length).parallel()
+                .mapToObj(start -> searchFrom(snapshot, start, budget))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        synchronized (wantGraph) {
+            cycles.clear();
+            cyclesByEdge.clear();
+            for (TradeCycle cycle : found) {
+                if (stillExists(cycle)) addCycle(cycle);
+            }
+            proposed.retainAll(cycles);
+            for (long edge : addedDuringSearch) {
+                if (wantGraph.hasEdge((int) (edge >>> 32), (int) edge)) findThrough((int) (edge >>> 32), (int) edge);
+            }
+            addedDuringSearch = null;
+            searched = true;
+            return cycles.size();
+        }
+    }
+
+    private List<TradeCycle> searchFrom(int[][] graph, int start, AtomicInteger budget) {
+        List<TradeCycle> found = new ArrayList<>();
+        int[] path = new int[maxLength];
+        path[0] = start;
+        searchFrom(graph, path, 1, found, budget);
+        return found;
+    }
+
+    private void searchFrom(int[][] graph, int[] path, int length, List<TradeCycle> found, AtomicInteger budget) {
+        int start = path[0];
+        int[] next = graph[path[length - 1]];
+        // only users from the start on are visited, so each cycle is found once, from its smallest user
+        int first = Arrays.binarySearch(next, start);
+        for (int i = first >= 0 ? first : -first - 1; i < next.length; i++) {
+            if (budget.get() <= 0) return;
+            int user = next[i];
+            if (user == start) {
+                if (length >= 2) {
+                    found.add(new TradeCycle(Arrays.copyOf(path, length), wantGraph.usernames()));
+                    budget.decrementAndGet();
+                }
+            } else if (length < maxLength && !onPath(path, length, user)) {
+                path[length] = user;
+                searchFrom(graph, path, length + 1, found, budget);
+            }
+        }
+    }
+
+    private boolean stillExists(TradeCycle cycle) {
+        for (int i = 0; i < cycle.size(); i++) {
+            if (!wantGraph.hasEdge(cycle.wanter(i), cycle.owner(i))) return false;
+        }
+        return true;
+    }
+}
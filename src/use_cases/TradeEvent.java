@@ -0,0 +1,97 @@
+package use_cases;
+
+import entities.Item;
+import entities.Trade;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Flight recorder event of a change in the lifecycle of a trade: its creation, a confirmation by one of its traders,
+ * or an admin undoing it. Trades have no ID of their own, so they are known by the IDs of their traders and items and
+ * by when they were created.
+ */
+@Name("tradeprogram.Trade")
+@Label("Trade")
+@Category({"TradeProgram", "Trades"})
+@Description("A trade created, confirmed by a trader, or undone by an admin")
+class TradeEvent extends jdk.jfr.Event {
+    static final String CREATE = "create";
+    static final String CONFIRM = "confirm";
+    static final String UNDO = "undo";
+
+    @Label("Action")
+    @Description("create, confirm or undo")
+    String action;
+
+    @Label("Trade Type")
+    String tradeType;
+
+    @Label("Trader A")
+    String traderA;
+
+    @Label("Trader A ID")
+    int traderAId;
+
+    @Label("Trader B")
+    String traderB;
+
+    @Label("Trader B ID")
+    int traderBId;
+
+    @Label("Item IDs")
+    @Description("The IDs of the items of trader A, then after a | those of trader B")
+    String itemIDs;
+
+    @Label("Creation Date")
+    String creationDate;
+
+    @Label("Confirmed By")
+    String confirmedBy;
+
+    @Label("Confirmation")
+    boolean confirmation;
+
+    /**
+     * Starts timing a change to a trade
+     * @return the event to commit once the change is done
+     */
+    static TradeEvent start() {
+        TradeEvent event = new TradeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event and records it, if the flight recorder wants it
+     * @param action what was done to the trade
+     * @param trade the trade
+     * @param confirmedBy the trader who confirmed the trade, or null if it was not confirmed
+     * @param confirmation what the trader confirmed
+     */
+    void commit(String action, Trade trade, String confirmedBy, boolean confirmation) {
+        end();
+        if (!shouldCommit()) return;
+        this.action = action;
+        this.tradeType = trade.getClass().getSimpleName();
+        this.traderA = trade.getTraderA();
+        this.traderAId = trade.getTraderAId();
+        this.traderB = trade.getTraderB();
+        this.traderBId = trade.getTraderBId();
+        this.itemIDs = itemIDs(trade.getTraderAItemsToTrade()) + " | " + itemIDs(trade.getTraderBItemsToTrade());
+        this.creationDate = String.valueOf(trade.getCreationDate());
+        this.confirmedBy = confirmedBy;
+        this.confirmation = confirmation;
+        commit();
+    }
+
+    private static String itemIDs(List<Item> items) {
+        StringJoiner itemIDs = new StringJoiner(", ");
+        for (Item item : items) itemIDs.add(item.getItemID());
+        return itemIDs.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package use_cases;
 
+import entities.Item;
 import entities.TempTrade;
 import entities.Trade;
 
@@ -10,9 +11,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class TradeManager {
     private Map<String, List<Trade>> tradeHistory;
+    private List<TradeSystemListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Class constructor.
@@ -35,6 +38,23 @@ public class TradeManager {
         return tradeHistory.get(username);
     }
 
+    /**
+     * Keeps the trade history of a user in memory while they are logged in, when the trade histories are stored on
+     * disk and only loaded on demand, so that the trades handed out for them stay the ones that are changed and saved
+     * @param username the user who logged in
+     */
+    public void pinTradeHistory(String username) {
+        if(tradeHistory instanceof Pinnable) ((Pinnable) tradeHistory).pin(username);
+    }
+
+    /**
+     * Lets the trade history of a user who logged out be written back and dropped from memory again
+     * @param username the user who logged out
+     */
+    public void unpinTradeHistory(String username) {
+        if(tradeHistory instanceof Pinnable) ((Pinnable) tradeHistory).unpin(username);
+    }
+
     /**
      * Getter of the n most recent trade from the trade history of a user.
      * Trade history is the list of trades that the user is involved in
@@ -144,28 +164,34 @@ public class TradeManager {
      * @param trade the trade added to the system
      */
     public void addTrade(Trade trade){
-        //Adding the trade to TraderA's history
-        if(tradeHistory.containsKey(trade.getTraderA())) {
-            List<Trade> temp = tradeHistory.get(trade.getTraderA());
-            temp.add(trade);
-            tradeHistory.put(trade.getTraderA(), temp);
-        }
-        else{
-            List<Trade> temp = new ArrayList<>();
-            temp.add(trade);
-            tradeHistory.put(trade.getTraderA(), temp);
-        }
+        TradeEvent event = TradeEvent.start();
+        try {
+            //Adding the trade to TraderA's history
+            if(tradeHistory.containsKey(trade.getTraderA())) {
+                List<Trade> temp = tradeHistory.get(trade.getTraderA());
+                temp.add(trade);
+                tradeHistory.put(trade.getTraderA(), temp);
+            }
+            else{
+                List<Trade> temp = new ArrayList<>();
+                temp.add(trade);
+                tradeHistory.put(trade.getTraderA(), temp);
+            }
 
-        //Adding the trade to TraderB's history
-        if(tradeHistory.containsKey(trade.getTraderB())) {
-            List<Trade> temp = tradeHistory.get(trade.getTraderB());
-            temp.add(trade);
-            tradeHistory.put(trade.getTraderB(), temp);
-        }
-        else{
-            List<Trade> temp = new ArrayList<>();
-            temp.add(trade);
-            tradeHistory.put(trade.getTraderB(), temp);
+            //Adding the trade to TraderB's history
+            if(tradeHistory.containsKey(trade.getTraderB())) {
+                List<Trade> temp = tradeHistory.get(trade.getTraderB());
+                temp.add(trade);
+                tradeHistory.put(trade.getTraderB(), temp);
+            }
+            else{
+                List<Trade> temp = new ArrayList<>();
+                temp.add(trade);
+                tradeHistory.put(trade.getTraderB(), temp);
+            }
+            for(TradeSystemListener listener : listeners) listener.tradeAdded(trade);
+        } finally {
+            event.commit(TradeEvent.CREATE, trade, null, false);
         }
     }
 
@@ -202,6 +228,23 @@ public class TradeManager {
         return sum;
     }
 
+    /**
+     * Getter for the items a user got from the other trader in their trades that did not fail.
+     * Trade history is the list of trades that the user is involved in
+     * @param username The user's username
+     * @return the items this user received, from the oldest trade to the most recent one
+     */
+    public List<Item> getReceivedItems(String username) {
+        List<Item> received = new ArrayList<>();
+        for(Trade t: getTradeHistory(username)){
+            if(t.getFailed())continue;
+            // each trader lends their own items, so they receive the items of the other trader
+            if(username.equals(t.getTraderA()))received.addAll(t.getTraderBItemsToTrade());
+            else if(username.equals(t.getTraderB()))received.addAll(t.getTraderAItemsToTrade());
+        }
+        return received;
+    }
+
     /**
      * Returns the number of trades that are in the user's trade history that are created in this week.
      * Trade history is the list of trades that the user is involved in
@@ -244,10 +287,34 @@ public class TradeManager {
      * @param status the confirmation status from the user
      */
     public void setConfirm(String username, Trade trade, boolean status) {
-        List<Trade> temp = getTradeHistory(username);
-        for(Trade t1: temp){
-            if(t1.equals(trade)){
-                t1.setConfirm(username, status);
+        TradeEvent event = TradeEvent.start();
+        try {
+            List<Trade> temp = getTradeHistory(username);
+            for(Trade t1: temp){
+                if(isSameTrade(t1, trade)){
+                    boolean wasCompleted = t1.getCompleted(), wasFailed = t1.getFailed();
+                    t1.setConfirm(username, status);
+                    confirmPartnerCopy(username, t1, status);
+                    if(!wasCompleted && t1.getCompleted()){
+                        for(TradeSystemListener listener : listeners) listener.tradeCompleted(t1);
+                    }
+                    if(!wasFailed && t1.getFailed()){
+                        for(TradeSystemListener listener : listeners) listener.tradeFailed(t1);
+                    }
+                    return;
+                }
+            }
+        } finally {
+            event.commit(TradeEvent.CONFIRM, trade, username, status);
+        }
+    }
+
+    private void confirmPartnerCopy(String username, Trade trade, boolean status) {
+        //The trade histories of both traders are stored separately, so the partner may hold a copy of this trade
+        String partner = username.equals(trade.getTraderA()) ? trade.getTraderB() : trade.getTraderA();
+        for(Trade t2: getTradeHistory(partner)){
+            if(t2 != trade && isSameTrade(t2, trade)){
+                t2.setConfirm(username, status);
                 return;
             }
         }
@@ -258,14 +325,27 @@ public class TradeManager {
      * @param trade the trade to be removed from the system
      */
     public void removeTrade(Trade trade){
-        if(tradeHistory.containsKey(trade.getTraderA())){
-            tradeHistory.get(trade.getTraderA()).remove(trade);
-        }
-        if(tradeHistory.containsKey(trade.getTraderB())){
-            tradeHistory.get(trade.getTraderB()).remove(trade);
+        TradeEvent event = TradeEvent.start();
+        try {
+            if(tradeHistory.containsKey(trade.getTraderA())){
+                tradeHistory.get(trade.getTraderA()).removeIf(t -> isSameTrade(t, trade));
+            }
+            if(tradeHistory.containsKey(trade.getTraderB())){
+                tradeHistory.get(trade.getTraderB()).removeIf(t -> isSameTrade(t, trade));
+            }
+            for(TradeSystemListener listener : listeners) listener.tradeRemoved(trade);
+        } finally {
+            event.commit(TradeEvent.UNDO, trade, null, false);
         }
     }
 
+    private boolean isSameTrade(Trade t1, Trade t2) {
+        //A trade loaded from disk is a copy, so it is matched by its traders and dates rather than by reference
+        if(t1 == t2) return true;
+        return t1.getTraderAId() == t2.getTraderAId() && t1.getTraderBId() == t2.getTraderBId() &&
+                t1.getCreationDate().equals(t2.getCreationDate()) && t1.getStartDate().equals(t2.getStartDate());
+    }
+
     /**
      * Returns the list of all unstarted trades in a user's trade history
      * Trade history is the list of trades that the user is involved in
@@ -281,6 +361,14 @@ public class TradeManager {
         return unstartTrades;
     }
 
+    /**
+     * Register a listener that is told about every trade added, removed, completed or failed from now on
+     * @param listener the listener
+     */
+    public void addListener(TradeSystemListener listener) {
+        listeners.add(listener);
+    }
+
     /**
      * Getter of the data stored in this manager
      * @return the data stored in this manager
@@ -0,0 +1,293 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.IntSet;
+import entities.Trade;
+import entities.UsernameTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Works out the shape of the trading network, where two users are linked when they have traded with each other.
+ * The groups of users who only trade among themselves are the connected components of the network, kept in a
+ * union-find that is updated as trades are added, so the number of groups is always known. The analysis itself copies
+ * the network into arrays and works in parallel: the number of trading partners of every trader, and how central the
+ * traders are, by their betweenness, the share of the shortest paths between other traders that go through them.
+ * Betweenness is estimated from the shortest paths from a sample of SAMPLES traders, which are followed in parallel.
+ * Trade histories are stored on disk and loaded on demand, so they are only all read the first time the network is
+ * analysed, and again after a trade has been removed, as a union-find cannot split a group.
+ */
+public class TradeNetworkAnalyzer implements TradeSystemListener {
+    /**
+     * The number of traders the shortest paths are followed from to estimate betweenness
+     */
+    public static final int SAMPLES = 64;
+    /**
+     * The number of hubs, largest groups and users who never traded in a report
+     */
+    public static final int SHOWN = 10;
+
+    private final TradeManager tradeManager;
+    private final UserManager userManager;
+    private final UsernameTable usernames;
+    // by username ID, the users each trader has traded with
+    private final IntObjectMap<IntSet> partners = new IntObjectMap<>();
+    private int[] parent = new int[0];
+    private int[] componentSize = new int[0];
+    private int components;
+    private boolean loaded;
+
+    /**
+     * Creates the analyzer, and registers it as a listener of the trade manager
+     * @param tradeManager the trade manager of the system
+     * @param userManager the user manager of the system
+     */
+    public TradeNetworkAnalyzer(TradeManager tradeManager, UserManager userManager) {
+        this.tradeManager = tradeManager;
+        this.userManager = userManager;
+        this.usernames = userManager.getUsernameTable();
+        tradeManager.addListener(this);
+    }
+
+    /**
+     * Analyses the trading network in the background
+     * @return the report, once it is done
+     */
+    public CompletableFuture<TradeNetworkReport> analyze() {
+        return CompletableFuture.supplyAsync(this::report);
+    }
+
+    /**
+     * @return the number of groups of traders who only trade among themselves, or -1 if the network has not been
+     * analysed yet
+     */
+    public synchronized int getComponentCount() {
+        return loaded ? components : -1;
+    }
+
+    @Override
+    public synchronized void tradeAdded(Trade trade) {
+        // before the first analysis, the trade is read with the rest of the history
+        if (loaded) link(trade.getTraderAId(), trade.getTraderBId());
+    }
+
+    @Override
+    public synchronized void tradeRemoved(Trade trade) {
+        loaded = false;
+    }
+
+    //----------------Helpers----------------//
+    private TradeNetworkReport report() {
+        long start = System.nanoTime();
+        int[] ids;
+        int[] offsets;
+        int[] targets;
+        int[] roots;
+        int componentCount;
+        // copy the network so that the analysis does not hold up trades being added
+        synchronized (this) {
+            if (!loaded) load();
+            ids = partners.keys();
+            Arrays.sort(ids);
+            offsets = new int[ids.length + 1];
+            for (int i = 0; i < ids.length; i++) offsets[i + 1] = offsets[i] + partners.get(ids[i]).size();
+            targets = new int[offsets[ids.length]];
+            roots = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                IntSet set = partners.get(ids[i]);
+                for (int j = 0; j < set.size(); j++) targets[offsets[i] + j] = Arrays.binarySearch(ids, set.get(j));
+                roots[i] = find(ids[i]);
+            }
+            componentCount = components;
+        }
+        int n = ids.length;
+
+        // users who never traded
+        int userCount = 0;
+        int isolatedCount = 0;
+        List<String> isolatedSample = new ArrayList<>();
+        for (String username : userManager.getUserData().keySet()) {
+            userCount++;
+            int id = usernames.idOf(username);
+            if (id == UsernameTable.NONE || Arrays.binarySearch(ids, id) < 0) {
+                isolatedCount++;
+                if (isolatedSample.size() < SHOWN) isolatedSample.add(username);
+            }
+        }
+
+        // the largest groups, and a few of their users
+        IntObjectMap<int[]> sizeAndSample = new IntObjectMap<>();
+        for (int i = 0; i < n; i++) {
+            int[] group = sizeAndSample.get(roots[i]);
+            if (group == null) {
+                group = new int[]{0, -1, -1, -1};
+                sizeAndSample.put(roots[i], group);
+            }
+            if (group[0] < 3) group[group[0] + 1] = ids[i];
+            group[0]++;
+        }
+        List<int[]> groups = new ArrayList<>();
+        sizeAndSample.forEach((root, group) -> groups.add(group));
+        groups.sort((a, b) -> Integer.compare(b[0], a[0]));
+        List<Integer> componentSizes = new ArrayList<>();
+        List<List<String>> componentSamples = new ArrayList<>();
+        for (int[] group : groups.subList(0, Math.min(SHOWN, groups.size()))) {
+            componentSizes.add(group[0]);
+            List<String> sample = new ArrayList<>();
+            for (int k = 1; k <= 3 && group[k] != -1; k++) sample.add(usernames.name(group[k]));
+            componentSamples.add(sample);
+        }
+
+        // the number of traders by their number of trading partners, in powers of two
+        long[] degreeHistogram = IntStream.range(0, n).parallel().collect(() -> new long[32],
+                (histogram, i) -> histogram[31 - Integer.numberOfLeadingZeros(offsets[i + 1] - offsets[i])]++,
+                (a, b) -> { for (int k = 0; k < a.length; k++) a[k] += b[k]; });
+        int buckets = degreeHistogram.length;
+        while (buckets > 0 && degreeHistogram[buckets - 1] == 0) buckets--;
+        degreeHistogram = Arrays.copyOf(degreeHistogram, buckets);
+
+        // the most central traders
+        double[] betweenness = betweenness(offsets, targets);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(betweenness[b], betweenness[a]));
+        List<String> hubs = new ArrayList<>();
+        List<Integer> hubDegrees = new ArrayList<>();
+        List<Double> hubCentralities = new ArrayList<>();
+        for (int k = 0; k < Math.min(SHOWN, n) && betweenness[order[k]] > 0; k++) {
+            hubs.add(usernames.name(ids[order[k]]));
+            hubDegrees.add(offsets[order[k] + 1] - offsets[order[k]]);
+            hubCentralities.add(betweenness[order[k]]);
+        }
+
+        return new TradeNetworkReport(userCount, n, isolatedCount, isolatedSample, componentCount, componentSizes,
+                componentSamples, degreeHistogram, hubs, hubDegrees, hubCentralities,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // reads every trade history, which happens with the lock held so trades added meanwhile wait for it
+    private void load() {
+        partners.clear();
+        parent = new int[0];
+        componentSize = new int[0];
+        components = 0;
+        for (List<Trade> trades : tradeManager.getTradeData().values()) {
+            for (Trade trade : trades) {
+                link(trade.getTraderAId(), trade.getTraderBId());
+            }
+        }
+        loaded = true;
+    }
+
+    private void link(int a, int b) {
+        if (a == b) return;
+        addPartner(a, b);
+        addPartner(b, a);
+        int rootA = find(a), rootB = find(b);
+        if (rootA == rootB) return;
+        // the smaller group goes under the larger one, so the trees stay shallow
+        if (componentSize[rootA] < componentSize[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        componentSize[rootA] += componentSize[rootB];
+        components--;
+    }
+
+    private void addPartner(int id, int partner) {
+        IntSet set = partners.get(id);
+        if (set == null) {
+            set = new IntSet(2);
+            partners.put(id, set);
+            if (id >= parent.length) {
+                int capacity = Math.max(id + 1, parent.length * 2);
+                int old = parent.length;
+                parent = Arrays.copyOf(parent, capacity);
+                componentSize = Arrays.copyOf(componentSize, capacity);
+                for (int i = old; i < capacity; i++) parent[i] = i;
+            }
+            parent[id] = id;
+            componentSize[id] = 1;
+            components++;
+        }
+        set.add(partner);
+    }
+
+    private int find(int id) {
+        int root = id;
+        while (parent[root] != root) root = parent[root];
+        while (parent[id] != root) {
+            int next = parent[id];
+            parent[id] = root;
+            id = next;
+        }
+        return root;
+    }
+
+    // estimated normalized betweenness, from the shortest paths from a sample of traders (Brandes and Pich)
+    private static double[] betweenness(int[] offsets, int[] targets) {
+        int n = offsets.length - 1;
+        double[] total = new double[n];
+        if (n < 3) return total;
+        int samples = Math.min(SAMPLES, n);
+        int[] sources = new SplittableRandom(n).ints(0, n).distinct().limit(samples).toArray();
+        int chunks = Math.min(samples, ForkJoinPool.getCommonPoolParallelism() + 1);
+        // every chunk adds up the dependencies of its sources in its own array, the arrays are added up after
+        List<double[]> parts = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            double[] dependency = new double[n];
+            double[] sum = new double[n];
+            double[] paths = new double[n];
+            int[] distance = new int[n];
+            int[] visited = new int[n];
+            Arrays.fill(distance, -1);
+            for (int s = chunk; s < samples; s += chunks) {
+                int source = sources[s];
+                int count = 0;
+                visited[count++] = source;
+                distance[source] = 0;
+                paths[source] = 1;
+                for (int head = 0; head < count; head++) {
+                    int v = visited[head];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (distance[w] < 0) {
+                            distance[w] = distance[v] + 1;
+                            visited[count++] = w;
+                        }
+                        if (distance[w] == distance[v] + 1) paths[w] += paths[v];
+                    }
+                }
+                for (int i = count - 1; i >= 0; i--) {
+                    int w = visited[i];
+                    for (int e = offsets[w]; e < offsets[w + 1]; e++) {
+                        int v = targets[e];
+                        if (distance[v] == distance[w] - 1) dependency[v] += paths[v] / paths[w] * (1 + dependency[w]);
+                    }
+                    if (w != source) sum[w] += dependency[w];
+                }
+                for (int i = 0; i < count; i++) {
+                    int w = visited[i];
+                    distance[w] = -1;
+                    paths[w] = 0;
+                    dependency[w] = 0;
+                }
+            }
+            return sum;
+        }).collect(Collectors.toList());
+        // every pair of other traders is reached from both ends, out of (n - 1)(n - 2) / 2 pairs
+        double scale = (double) n / samples / ((double) (n - 1) * (n - 2));
+        for (double[] part : parts) {
+            for (int v = 0; v < n; v++) total[v] += part[v] * scale;
+        }
+        return total;
+    }
+}
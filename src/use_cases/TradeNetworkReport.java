@@ -0,0 +1,126 @@
+package use_cases;
+
+import java.util.List;
+
+/**
+ * The shape of the trading network at one point in time, as worked out by TradeNetworkAnalyzer: who trades with whom,
+ * which groups of users only trade among themselves, the users the others go through, and the users who never traded.
+ */
+public final class TradeNetworkReport {
+    private final int userCount;
+    private final int traderCount;
+    private final int isolatedCount;
+    private final List<String> isolatedSample;
+    private final int componentCount;
+    private final List<Integer> componentSizes;
+    private final List<List<String>> componentSamples;
+    private final long[] degreeHistogram;
+    private final List<String> hubs;
+    private final List<Integer> hubDegrees;
+    private final List<Double> hubCentralities;
+    private final long millis;
+
+    TradeNetworkReport(int userCount, int traderCount, int isolatedCount, List<String> isolatedSample,
+                       int componentCount, List<Integer> componentSizes, List<List<String>> componentSamples,
+                       long[] degreeHistogram, List<String> hubs, List<Integer> hubDegrees,
+                       List<Double> hubCentralities, long millis) {
+        this.userCount = userCount;
+        this.traderCount = traderCount;
+        this.isolatedCount = isolatedCount;
+        this.isolatedSample = isolatedSample;
+        this.componentCount = componentCount;
+        this.componentSizes = componentSizes;
+        this.componentSamples = componentSamples;
+        this.degreeHistogram = degreeHistogram;
+        this.hubs = hubs;
+        this.hubDegrees = hubDegrees;
+        this.hubCentralities = hubCentralities;
+        this.millis = millis;
+    }
+
+    /**
+     * @return the number of user accounts
+     */
+    public int getUserCount() {
+        return userCount;
+    }
+
+    /**
+     * @return the number of users with at least one trade
+     */
+    public int getTraderCount() {
+        return traderCount;
+    }
+
+    /**
+     * @return the number of users who never traded
+     */
+    public int getIsolatedCount() {
+        return isolatedCount;
+    }
+
+    /**
+     * @return a few of the users who never traded
+     */
+    public List<String> getIsolatedSample() {
+        return isolatedSample;
+    }
+
+    /**
+     * @return the number of groups of traders who only trade among themselves, directly or through each other
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @return the sizes of the largest groups, largest first
+     */
+    public List<Integer> getComponentSizes() {
+        return componentSizes;
+    }
+
+    /**
+     * @return a few of the users of each of the largest groups, in the same order as getComponentSizes
+     */
+    public List<List<String>> getComponentSamples() {
+        return componentSamples;
+    }
+
+    /**
+     * @return the number of traders by the number of users they traded with, where index i counts the traders with
+     * 2^i to 2^(i+1) - 1 trading partners
+     */
+    public long[] getDegreeHistogram() {
+        return degreeHistogram.clone();
+    }
+
+    /**
+     * @return the users the most trading paths go through, most central first
+     */
+    public List<String> getHubs() {
+        return hubs;
+    }
+
+    /**
+     * @return the number of trading partners of each hub, in the same order as getHubs
+     */
+    public List<Integer> getHubDegrees() {
+        return hubDegrees;
+    }
+
+    /**
+     * @return the estimated share of the shortest trading paths between other traders that go through each hub, from
+     * 0 to 1, in the same order as getHubs
+     */
+    public List<Double> getHubCentralities() {
+        return hubCentralities;
+    }
+
+    /**
+     * @return the time the analysis took, in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+}
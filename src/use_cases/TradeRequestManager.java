@@ -8,13 +8,16 @@ import java.util.List;
 public class TradeRequestManager {
     private TradeRequest tradeRequest;
     private Trade trade;
+    private final UsernameTable usernames;
 
     /**
      * a constructor for TradeRequestManager to edit the traderequet object
      * @param tradeRequest the traderequest that is been edit
+     * @param usernames the table the usernames of the trade are kept in
      */
-    public TradeRequestManager(TradeRequest tradeRequest) {
+    public TradeRequestManager(TradeRequest tradeRequest, UsernameTable usernames) {
         this.tradeRequest = tradeRequest;
+        this.usernames = usernames;
     }
 
     /**
@@ -26,10 +29,12 @@ public class TradeRequestManager {
      * @param itemA items belongs to userA
      * @param itemB items belongs to userB
      * @param perm perm or temp trade
+     * @param usernames the table the usernames of the trade request are kept in
      */
     public TradeRequestManager(String content, String sender, String userA, String userB,  List<Item> itemA,
-                               List<Item> itemB, boolean perm){
-        MessageBuilder temp = new MessageBuilder();
+                               List<Item> itemB, boolean perm, UsernameTable usernames){
+        this.usernames = usernames;
+        MessageBuilder temp = new MessageBuilder(usernames);
         this.tradeRequest = (TradeRequest) temp.getTradeRequest(content, sender, userA, userB, itemA, itemB, perm);
     }
 
@@ -73,12 +78,13 @@ public class TradeRequestManager {
     public Trade setConfirmation() {
         if (tradeRequest.isPerm()){
             this.trade = new PermTrade(tradeRequest.getUserA(), tradeRequest.getUserB(), tradeRequest.getItemA() ,
-                    tradeRequest.getItemB(), tradeRequest.getDate());
+                    tradeRequest.getItemB(), tradeRequest.getDate(), usernames);
             return this.trade;
         }
         else
             trade = new TempTrade(tradeRequest.getUserA(), tradeRequest.getUserB(), tradeRequest.getItemA(),
-                    tradeRequest.getItemB(), tradeRequest.getDate(), tradeRequest.getDate().plusDays(30));
+                    tradeRequest.getItemB(), tradeRequest.getDate(), tradeRequest.getDate().plusDays(30),
+                    usernames);
             return trade;
         // Once both user confirms, create a TemTrade, or entities.PermTrade based on t.isPerm
     }
@@ -0,0 +1,83 @@
+package use_cases;
+
+import entities.Item;
+import entities.Message;
+import entities.Trade;
+
+/**
+ * Listener told by the managers whenever the data it is registered on changes, so that anything computed from that
+ * data can be updated instead of computed again from scratch. Every method does nothing by default, a listener only
+ * overrides the changes it cares about.
+ * The methods are called on the thread that made the change, after the change is done.
+ */
+public interface TradeSystemListener {
+
+    /**
+     * Called when a user adds an item to their wishlist
+     * @param itemId the ID of the item
+     * @param username the user who wants it
+     */
+    default void wishAdded(String itemId, String username) {}
+
+    /**
+     * Called when a user removes an item from their wishlist
+     * @param itemId the ID of the item
+     * @param username the user who no longer wants it
+     */
+    default void wishRemoved(String itemId, String username) {}
+
+    /**
+     * Called when an item is removed from every wishlist at once
+     * @param itemId the ID of the item
+     */
+    default void allWishesRemoved(String itemId) {}
+
+    /**
+     * Called when an item is added to the global inventory, or brought back into it
+     * @param item the item
+     */
+    default void itemAdded(Item item) {}
+
+    /**
+     * Called when an item is removed from the global inventory
+     * @param item the item that was removed
+     */
+    default void itemRemoved(Item item) {}
+
+    /**
+     * Called when a new user account is created
+     * @param username the username of the new user
+     */
+    default void userAdded(String username) {}
+
+    /**
+     * Called when a trade is added to the trade histories of its traders
+     * @param trade the trade
+     */
+    default void tradeAdded(Trade trade) {}
+
+    /**
+     * Called when a trade is removed from the trade histories of its traders
+     * @param trade the trade that was removed
+     */
+    default void tradeRemoved(Trade trade) {}
+
+    /**
+     * Called when both traders have confirmed every meeting of a trade
+     * @param trade the trade, as stored in the trade history of the trader who confirmed last
+     */
+    default void tradeCompleted(Trade trade) {}
+
+    /**
+     * Called when a trader says a meeting of a trade did not happen
+     * @param trade the trade, as stored in the trade history of the trader who said so
+     */
+    default void tradeFailed(Trade trade) {}
+
+    /**
+     * Called when a message is put in the inbox of a user, or in the inbox shared by the admins
+     * @param message the message
+     * @param recipient the username of the user it was sent to, or null if it was sent to the admins
+     */
+    default void messageSent(Message message, String recipient) {}
+}
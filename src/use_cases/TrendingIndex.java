@@ -0,0 +1,161 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.ItemId;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongSupplier;
+
+/**
+ * A ranking of the wanted items by how many users want them, where recent wishes weigh more than old ones.
+ * A wish's weight halves every half-life. Instead of lowering every score as time passes, which would touch every
+ * item, the weight of a new wish grows by the same rate, so that scores only change when a wish is added or removed
+ * and the order of the items is the same. When the weights get too large, every score is scaled back down at once.
+ * The items are kept in a skip list ordered by score, so the top items are read in order without sorting anything.
+ */
+public class TrendingIndex {
+    /**
+     * The default time for the weight of a wish to halve, a week
+     */
+    public static final long DEFAULT_HALF_LIFE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    // scores are scaled back down before a weight gets anywhere near the largest double
+    private static final double MAX_WEIGHT = 1e100;
+
+    private final long halfLifeMillis;
+    private final LongSupplier clock;
+    private final IntObjectMap<Entry> entries = new IntObjectMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(
+            Comparator.comparingDouble((Entry e) -> -e.score).thenComparingInt(e -> e.itemKey));
+    // the time at which a wish weighs 1
+    private long epoch;
+
+    /**
+     * Creates an empty index with a half-life of DEFAULT_HALF_LIFE_MILLIS
+     */
+    public TrendingIndex() {
+        this(DEFAULT_HALF_LIFE_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates an empty index
+     * @param halfLifeMillis the time for the weight of a wish to halve, in milliseconds
+     * @param clock gives the current time in milliseconds
+     */
+    public TrendingIndex(long halfLifeMillis, LongSupplier clock) {
+        this.halfLifeMillis = halfLifeMillis;
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+    }
+
+    /**
+     * Sets the number of users who want an item, as if they all wished for it now
+     * @param itemId the ID of the item
+     * @param count the number of users who want it
+     */
+    public synchronized void setCount(String itemId, int count) {
+        int key = ItemId.toKey(itemId);
+        if (key == ItemId.INVALID) return;
+        if (count <= 0) {
+            removeItem(itemId);
+            return;
+        }
+        Entry old = entries.get(key);
+        update(key, old, count * weightNow(), count);
+    }
+
+    /**
+     * Counts a new wish for an item, made now
+     * @param itemId the ID of the item
+     */
+    public synchronized void wishAdded(String itemId) {
+        int key = ItemId.toKey(itemId);
+        if (key == ItemId.INVALID) return;
+        double weight = weightNow();
+        Entry old = entries.get(key);
+        if (old == null) update(key, null, weight, 1);
+        else update(key, old, old.score + weight, old.count + 1);
+    }
+
+    /**
+     * Forgets a wish for an item. Which wish it was is not known, so the item loses its average wish
+     * @param itemId the ID of the item
+     */
+    public synchronized void wishRemoved(String itemId) {
+        int key = ItemId.toKey(itemId);
+        Entry old = entries.get(key);
+        if (old == null) return;
+        if (old.count <= 1) removeItem(itemId);
+        else update(key, old, old.score - old.score / old.count, old.count - 1);
+    }
+
+    /**
+     * Forgets every wish for an item
+     * @param itemId the ID of the item
+     */
+    public synchronized void removeItem(String itemId) {
+        Entry old = entries.remove(ItemId.toKey(itemId));
+        if (old != null) ranking.remove(old);
+    }
+
+    /**
+     * Getter for the items trending the most. Safe to call while the index is being changed, without waiting for it
+     * @param n the largest number of items to return
+     * @return the IDs of up to n items, the most wanted recently first
+     */
+    public List<String> top(int n) {
+        List<String> top = new ArrayList<>(Math.max(0, Math.min(n, 64)));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (top.size() < n && iterator.hasNext()) top.add(ItemId.toId(iterator.next().itemKey));
+        return top;
+    }
+
+    /**
+     * @return the number of items with at least one wish
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    //----------------Helpers----------------//
+    // entries are never changed once in the ranking, an update replaces them
+    private static class Entry {
+        final int itemKey;
+        final double score;
+        final int count;
+
+        Entry(int itemKey, double score, int count) {
+            this.itemKey = itemKey;
+            this.score = score;
+            this.count = count;
+        }
+    }
+
+    private void update(int key, Entry old, double score, int count) {
+        if (old != null) ranking.remove(old);
+        Entry entry = new Entry(key, score, count);
+        entries.put(key, entry);
+        ranking.add(entry);
+    }
+
+    private double weightNow() {
+        long now = clock.getAsLong();
+        double weight = Math.pow(2, (double) (now - epoch) / halfLifeMillis);
+        if (weight < MAX_WEIGHT) return weight;
+        // move the epoch to now, which divides every score by the weight of a wish made now
+        List<Entry> rescaled = new ArrayList<>(entries.size());
+        entries.forEach((key, entry) -> rescaled.add(new Entry(key, entry.score / weight, entry.count)));
+        ranking.clear();
+        entries.clear();
+        for (Entry entry : rescaled) {
+            entries.put(entry.itemKey, entry);
+            ranking.add(entry);
+        }
+        epoch = now;
+        return 1;
+    }
+}
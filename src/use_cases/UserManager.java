@@ -2,24 +2,50 @@ package use_cases;
 
 import entities.*;
 import exceptions.*;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import exceptions.InvalidUsernameException;
 
 public class UserManager {
+    private static final long HOUR_MILLIS = 60L * 60 * 1000;
+    // one user can only send this share of their hourly limit to the same user
+    private static final int SHARE_PER_RECIPIENT = 4;
+
     private Map<String, User> allUsers;
+    private final UsernameTable usernames;
+    private final UserLimits limits;
+    private List<TradeSystemListener> listeners = new CopyOnWriteArrayList<>();
+    private RateLimiter messageLimiter = new RateLimiter(HOUR_MILLIS, System::currentTimeMillis);
+    private RateLimiter tradeRequestLimiter = new RateLimiter(HOUR_MILLIS, System::currentTimeMillis);
+
+    /**
+     * Constructs a UserManager object where the limits of every user were never changed
+     * @param allUsers the hashmap of all user objects
+     * @param usernames the table every username of the system is kept in
+     */
+    public UserManager(Map<String, User> allUsers, UsernameTable usernames) {
+        this(allUsers, usernames, new UserLimits());
+    }
 
     /**
      * Constructs a UserManager object
      * @param allUsers the hashmap of all user objects
+     * @param usernames the table every username of the system is kept in
+     * @param limits the limits of every user who does not have their own
      */
-    public UserManager(Map<String, User> allUsers) {
+    public UserManager(Map<String, User> allUsers, UsernameTable usernames, UserLimits limits) {
         this.allUsers = allUsers;
+        this.usernames = usernames;
+        this.limits = limits;
     }
 
     /**
      * Allows a user to login. Only use with user login option in main menu!
      * If the username does not match up with password
+     * Checking the password brings the user's data into memory when users are stored on disk and loaded on demand.
      * @param username the username input
      * @param password the password input
      * @return True if user logged in, false if invalid login
@@ -50,11 +76,20 @@ public class UserManager {
         }
         if(!(username.length() < 3)) {
             this.allUsers.put(username, new entities.User(username, password));
+            for (TradeSystemListener listener : listeners) listener.userAdded(username);
             return true;
         }
         return false;
     }
 
+    /**
+     * Register a listener that is told about every user account created from now on
+     * @param listener the listener
+     */
+    public void addListener(TradeSystemListener listener) {
+        listeners.add(listener);
+    }
+
     /**
      * Changes the password of a user
      * @param username String username
@@ -72,6 +107,39 @@ public class UserManager {
         return this.allUsers;
     }
 
+    /**
+     * Getter for the limits of every user who does not have their own, for saving them
+     * @return the UserLimits
+     */
+    public UserLimits getUserLimits() {
+        return this.limits;
+    }
+
+    /**
+     * Keeps a user in memory while they are logged in, when users are stored on disk and only loaded on demand, so
+     * that the messages and other objects handed out for them stay the ones that are saved
+     * @param username the user who logged in
+     */
+    public void pinUser(String username) {
+        if (this.allUsers instanceof Pinnable) ((Pinnable) this.allUsers).pin(username);
+    }
+
+    /**
+     * Lets a user who logged out be written back and dropped from memory again
+     * @param username the user who logged out
+     */
+    public void unpinUser(String username) {
+        if (this.allUsers instanceof Pinnable) ((Pinnable) this.allUsers).unpin(username);
+    }
+
+    /**
+     * Getter for the table every username of the system is kept in, to build entities and messages with
+     * @return the UsernameTable
+     */
+    public UsernameTable getUsernameTable() {
+        return this.usernames;
+    }
+
     /**
      * Checks to see if this username exists in the system of users and that the username is greater than 3 characters.
      * @param username The username to check
@@ -112,9 +180,9 @@ public class UserManager {
             throw new UserFrozenException();
         }
         // check borrows, num of incomplete trades, num of trades made this week
-        return (borrowedTimes - lendTimes) < this.allUsers.get(user).getThreshold() &&
-                numIncomplete < this.allUsers.get(user).getLimitOfIncompleteTrade() &&
-                numTradesMadeThisWeek < this.allUsers.get(user).getTradePerWeek();
+        return (borrowedTimes - lendTimes) < limitOf(user, UserLimits.Limit.THRESHOLD) &&
+                numIncomplete < limitOf(user, UserLimits.Limit.INCOMPLETE_TRADES) &&
+                numTradesMadeThisWeek < limitOf(user, UserLimits.Limit.TRADES_PER_WEEK);
     }
 
     /**
@@ -131,8 +199,8 @@ public class UserManager {
         if (this.allUsers.get(username).getIsFrozen()) {
             throw new UserFrozenException();
         }
-        return numIncomplete < this.allUsers.get(username).getLimitOfIncompleteTrade() &&
-                numTradesMadeThisWeek < this.allUsers.get(username).getTradePerWeek();
+        return numIncomplete < limitOf(username, UserLimits.Limit.INCOMPLETE_TRADES) &&
+                numTradesMadeThisWeek < limitOf(username, UserLimits.Limit.TRADES_PER_WEEK);
     }
 
     /**
@@ -159,7 +227,7 @@ public class UserManager {
      * @return the max num of incomplete trades for this user
      */
     public int getUserIncompleteTrades(String username) {
-        return this.allUsers.get(username).getLimitOfIncompleteTrade();
+        return limitOf(username, UserLimits.Limit.INCOMPLETE_TRADES);
     }
 
     /**
@@ -168,7 +236,9 @@ public class UserManager {
      * @return the number of trades this user can make
      */
 
-    public int getTradesPerWeekForUser(String username) { return this.allUsers.get(username).getTradePerWeek(); }
+    public int getTradesPerWeekForUser(String username) {
+        return limitOf(username, UserLimits.Limit.TRADES_PER_WEEK);
+    }
 
     /**
      * Returns the account information of a selected user.
@@ -176,7 +246,7 @@ public class UserManager {
      * @return The string representation of this user's account
      */
     public String getUserInfo(String username) {
-        return this.allUsers.get(username).accountInfo();
+        return this.allUsers.get(username).accountInfo(this.limits);
     }
 
     /**
@@ -203,7 +273,7 @@ public class UserManager {
      * @return the threshold of borrows v. loans
      */
     public int getUserThreshold(String username) {
-        return this.allUsers.get(username).getThreshold();
+        return limitOf(username, UserLimits.Limit.THRESHOLD);
     }
 
     /**
@@ -211,7 +281,66 @@ public class UserManager {
      * @param username the user to be accessed
      * @param message the message to add
      */
-    public void addUserMessage(String username, Message message) { this.allUsers.get(username).addMessages(message); }
+    public void addUserMessage(String username, Message message) {
+        this.allUsers.get(username).addMessages(message);
+        for (TradeSystemListener listener : listeners) listener.messageSent(message, username);
+    }
+
+    /**
+     * Sends a trade request or private message from one user to another, if the sender has not sent too many lately.
+     * A user can send up to their hourly limit of each kind, and a quarter of it to the same user.
+     * @param sender the user sending the message
+     * @param recipient the user the message is sent to
+     * @param message the message, whose kind is limited if it is a TradeRequest or PrivateMessage
+     * @throws RateLimitExceededException if the sender has to wait before sending one more of this kind
+     */
+    public void sendUserMessage(String sender, String recipient, Message message) throws RateLimitExceededException {
+        RateLimiter limiter;
+        int limit;
+        if (message instanceof TradeRequest) {
+            limiter = tradeRequestLimiter;
+            limit = limitOf(sender, UserLimits.Limit.TRADE_REQUESTS_PER_HOUR);
+        } else if (message instanceof PrivateMessage) {
+            limiter = messageLimiter;
+            limit = limitOf(sender, UserLimits.Limit.MESSAGES_PER_HOUR);
+        } else {
+            addUserMessage(recipient, message);
+            return;
+        }
+        long senderKey = (long) (usernames.intern(sender) + 1) << 32;
+        long pairKey = senderKey | (usernames.intern(recipient) + 1);
+        int pairLimit = Math.max(1, limit / SHARE_PER_RECIPIENT);
+        long wait = limiter.tryAcquire(pairKey, pairLimit);
+        if (wait > 0) throw new RateLimitExceededException(wait);
+        wait = limiter.tryAcquire(senderKey, limit);
+        if (wait > 0) {
+            limiter.release(pairKey, pairLimit);
+            throw new RateLimitExceededException(wait);
+        }
+        addUserMessage(recipient, message);
+    }
+
+    /**
+     * Takes the trade requests sent as part of the same proposal of a trade cycle as a trade request out of the
+     * inboxes of the users in the cycle, as the cycle cannot happen without all of them. Only the inboxes of the
+     * users in the cycle are read.
+     * @param request a trade request of the cycle
+     * @param skipUser a user whose inbox is left as it is, as their copy of it is being changed, or null
+     * @return the trade requests taken out, which may include the given one
+     */
+    public List<TradeRequest> withdrawCycleRequests(TradeRequest request, String skipUser) {
+        return cycleRequests(request, skipUser, true);
+    }
+
+    /**
+     * Finds the trade requests sent as part of the same proposal of a trade cycle as a trade request, in the inboxes
+     * of the users in the cycle, and leaves them there
+     * @param request a trade request of the cycle
+     * @return the trade requests of the cycle still in an inbox, which may include the given one
+     */
+    public List<TradeRequest> getCycleRequests(TradeRequest request) {
+        return cycleRequests(request, null, false);
+    }
 
     // ADMIN METHODS
 
@@ -248,9 +377,7 @@ public class UserManager {
      * @param newTradesPerWeek the new trades per week
      */
     public void setWeeklyTrades(int newTradesPerWeek) {
-        for (entities.User user: this.allUsers.values()) {
-            user.setTradePerWeek(newTradesPerWeek);
-        }
+        this.limits.set(UserLimits.Limit.TRADES_PER_WEEK, newTradesPerWeek);
     }
 
     /**
@@ -260,7 +387,7 @@ public class UserManager {
      * @param newTradesPerWeek the new trades per week limit
      */
     public void setWeeklyTradesForOneUser(String username, int newTradesPerWeek) {
-        this.allUsers.get(username).setTradePerWeek(newTradesPerWeek);
+        this.allUsers.get(username).setLimit(UserLimits.Limit.TRADES_PER_WEEK, newTradesPerWeek, this.limits);
     }
 
     /**
@@ -269,9 +396,7 @@ public class UserManager {
      * @param newLimit the new incomplete trades limit to set all users to
      */
     public void setLimitOfIncompleteTrades(int newLimit) {
-        for (entities.User user : this.allUsers.values()) {
-            user.setLimitOfIncompleteTrade(newLimit);
-        }
+        this.limits.set(UserLimits.Limit.INCOMPLETE_TRADES, newLimit);
     }
 
     /**
@@ -280,7 +405,7 @@ public class UserManager {
      * @param newLimit the new incomplete trades limit that one user will be set to
      */
     public void setLimitOfIncompleteTradesForOneUser(String username, int newLimit) {
-        this.allUsers.get(username).setLimitOfIncompleteTrade(newLimit);
+        this.allUsers.get(username).setLimit(UserLimits.Limit.INCOMPLETE_TRADES, newLimit, this.limits);
     }
 
     /**
@@ -289,9 +414,7 @@ public class UserManager {
      * @param newThreshold the new threshold to set
      */
     public void setNewThreshold(int newThreshold) {
-        for(entities.User user : this.allUsers.values()) {
-            user.setThreshold(newThreshold);
-        }
+        this.limits.set(UserLimits.Limit.THRESHOLD, newThreshold);
     }
 
     /**
@@ -301,6 +424,64 @@ public class UserManager {
      * @param newThreshold the new borrow v. loan threshold
      */
     public void setNewThresholdForOneUser(String username, int newThreshold) {
-        this.allUsers.get(username).setThreshold(newThreshold);
+        this.allUsers.get(username).setLimit(UserLimits.Limit.THRESHOLD, newThreshold, this.limits);
+    }
+
+    /**
+     * ADMIN ONLY
+     * Allows an admin to set a new limit of private messages sent per hour for all users
+     * @param newLimit the new limit, at least 1
+     */
+    public void setMessagesPerHour(int newLimit) {
+        this.limits.set(UserLimits.Limit.MESSAGES_PER_HOUR, newLimit);
+    }
+
+    /**
+     * ADMIN ONLY
+     * Allows an admin to set a new limit of private messages sent per hour for a single user
+     * @param username the user to be accessed
+     * @param newLimit the new limit, at least 1
+     */
+    public void setMessagesPerHourForOneUser(String username, int newLimit) {
+        this.allUsers.get(username).setLimit(UserLimits.Limit.MESSAGES_PER_HOUR, newLimit, this.limits);
+    }
+
+    /**
+     * ADMIN ONLY
+     * Allows an admin to set a new limit of trade requests sent per hour for all users
+     * @param newLimit the new limit, at least 1
+     */
+    public void setTradeRequestsPerHour(int newLimit) {
+        this.limits.set(UserLimits.Limit.TRADE_REQUESTS_PER_HOUR, newLimit);
+    }
+
+    /**
+     * ADMIN ONLY
+     * Allows an admin to set a new limit of trade requests sent per hour for a single user
+     * @param username the user to be accessed
+     * @param newLimit the new limit, at least 1
+     */
+    public void setTradeRequestsPerHourForOneUser(String username, int newLimit) {
+        this.allUsers.get(username).setLimit(UserLimits.Limit.TRADE_REQUESTS_PER_HOUR, newLimit, this.limits);
+    }
+
+    private int limitOf(String username, UserLimits.Limit limit) {
+        return this.allUsers.get(username).getLimit(limit, this.limits);
+    }
+
+    private List<TradeRequest> cycleRequests(TradeRequest request, String skipUser, boolean remove) {
+        List<TradeRequest> found = new ArrayList<>();
+        for (String username : request.getCycle()) {
+            if (username.equals(skipUser) || !this.allUsers.containsKey(username)) continue;
+            Iterator<Message> messages = this.allUsers.get(username).getMessages().iterator();
+            while (messages.hasNext()) {
+                Message message = messages.next();
+                if (message instanceof TradeRequest && request.isSameCycle((TradeRequest) message)) {
+                    if (remove) messages.remove();
+                    found.add((TradeRequest) message);
+                }
+            }
+        }
+        return found;
     }
-}
\ No newline at end of file
+}
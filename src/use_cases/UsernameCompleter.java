@@ -0,0 +1,73 @@
+package use_cases;
+
+import entities.Item;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Completes usernames as they are typed, most active users first.
+ * A user's activity is the number of items they have in the global inventory, the users with the most to trade being
+ * the ones most often looked for. The usernames are kept in a PrefixTrie, built from the users and the global
+ * inventory and kept up to date by listening to the user manager and the global inventory manager.
+ */
+public class UsernameCompleter implements TradeSystemListener {
+    /**
+     * The default number of completions
+     */
+    public static final int DEFAULT_COMPLETIONS = 8;
+
+    private final PrefixTrie usernames = new PrefixTrie();
+
+    /**
+     * Creates the completer from the current users and items, and registers it as a listener of both managers
+     * @param userManager the user manager of the system
+     * @param globalInventoryManager the global inventory manager of the system
+     */
+    public UsernameCompleter(UserManager userManager, GlobalInventoryManager globalInventoryManager) {
+        Map<String, Integer> itemCounts = new HashMap<>();
+        for (String itemId : globalInventoryManager.getGlobalInventoryData().getItemIdCollection()) {
+            Item item = globalInventoryManager.getItemFromGI(itemId);
+            if (item != null) itemCounts.merge(item.getOwnerName(), 1, Integer::sum);
+        }
+        for (String username : userManager.getUserData().keySet()) {
+            usernames.add(username, itemCounts.getOrDefault(username, 0));
+        }
+        userManager.addListener(this);
+        globalInventoryManager.addListener(this);
+    }
+
+    /**
+     * Getter for the usernames starting with what has been typed so far
+     * @param prefix what has been typed so far
+     * @return up to DEFAULT_COMPLETIONS usernames, most active first, or none if nothing has been typed
+     */
+    public List<String> complete(String prefix) {
+        if (prefix.isEmpty()) return List.of();
+        return usernames.complete(prefix, DEFAULT_COMPLETIONS);
+    }
+
+    @Override
+    public void userAdded(String username) {
+        usernames.add(username, 0);
+    }
+
+    @Override
+    public void itemAdded(Item item) {
+        changeActivity(item.getOwnerName(), 1);
+    }
+
+    @Override
+    public void itemRemoved(Item item) {
+        changeActivity(item.getOwnerName(), -1);
+    }
+
+    //----------------Helpers----------------//
+    private void changeActivity(String username, int change) {
+        synchronized (usernames) {
+            int activity = usernames.getActivity(username);
+            if (activity >= 0) usernames.add(username, Math.max(0, activity + change));
+        }
+    }
+}
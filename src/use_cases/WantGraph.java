@@ -0,0 +1,241 @@
+package use_cases;
+
+import entities.IntObjectMap;
+import entities.IntSet;
+import entities.Item;
+import entities.ItemId;
+import entities.UsernameTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The graph of who wants what from whom: there is an edge from a user to another user when the first one has an item
+ * of the second one in their wishlist. Users are nodes by their ID in the UsernameTable.
+ * The graph is built once from the wishlist and the global inventory, then kept up to date by listening to both
+ * managers, so every change only touches the edges of the item and users it is about. The use cases built on the
+ * graph are told about every want and edge added or removed.
+ * The graph is the lock for itself and for everything built on it: the package-private methods must be called while
+ * holding it, and graph listeners are called while it is held.
+ */
+public class WantGraph implements TradeSystemListener {
+    private final GlobalInventoryManager globalInventoryManager;
+    private final GlobalWishlistManager globalWishlistManager;
+    private final UsernameTable usernames;
+    private final List<GraphListener> graphListeners = new CopyOnWriteArrayList<>();
+
+    // item key to its owner and the users who want it, for every wanted item in the global inventory
+    private final IntObjectMap<WantedItem> wantedItems = new IntObjectMap<>();
+    // edge (wanter, owner) to the keys of the owner's items the wanter wants
+    private final Map<Long, IntSet> edgeItems = new HashMap<>();
+    // user to the owners of the items they want
+    private final IntObjectMap<IntSet> successors = new IntObjectMap<>();
+
+    /**
+     * Builds the graph from the current wishlist and global inventory, and registers it as a listener of both
+     * managers.
+     * @param globalInventoryManager the global inventory manager of the system
+     * @param globalWishlistManager the global wishlist manager of the system
+     * @param usernames the table every username of the system is kept in
+     */
+    public WantGraph(GlobalInventoryManager globalInventoryManager, GlobalWishlistManager globalWishlistManager,
+                     UsernameTable usernames) {
+        this.globalInventoryManager = globalInventoryManager;
+        this.globalWishlistManager = globalWishlistManager;
+        this.usernames = usernames;
+        synchronized (this) {
+            for (String itemId : globalWishlistManager.getWantedItems()) {
+                Item item = globalInventoryManager.getItemFromGI(itemId);
+                if (item != null) addWanters(item);
+            }
+        }
+        globalWishlistManager.addListener(this);
+        globalInventoryManager.addListener(this);
+    }
+
+    /**
+     * Getter for the items of one user that another user wants
+     * @param wanter the user who wants the items
+     * @param owner the user who owns them
+     * @return the IDs of the owner's items in the wanter's wishlist, in the order they were wished for
+     */
+    public synchronized List<String> getItemsWanted(String wanter, String owner) {
+        IntSet items = itemsWanted(usernames.idOf(wanter), usernames.idOf(owner));
+        List<String> itemIds = new ArrayList<>();
+        if (items != null) {
+            for (int i = 0; i < items.size(); i++) itemIds.add(ItemId.toId(items.get(i)));
+        }
+        return itemIds;
+    }
+
+    @Override
+    public synchronized void wishAdded(String itemId, String username) {
+        Item item = globalInventoryManager.getItemFromGI(itemId);
+        if (item != null) addWant(ItemId.toKey(itemId), item.getOwnerId(), usernames.idOf(username));
+    }
+
+    @Override
+    public synchronized void wishRemoved(String itemId, String username) {
+        WantedItem wantedItem = wantedItems.get(ItemId.toKey(itemId));
+        int wanter = usernames.idOf(username);
+        if (wantedItem != null && wantedItem.wanters.remove(wanter)) {
+            if (wantedItem.wanters.isEmpty()) wantedItems.remove(ItemId.toKey(itemId));
+            wantRemoved(ItemId.toKey(itemId), wantedItem.owner, wanter);
+        }
+    }
+
+    @Override
+    public synchronized void allWishesRemoved(String itemId) {
+        removeWantedItem(ItemId.toKey(itemId));
+    }
+
+    @Override
+    public synchronized void itemAdded(Item item) {
+        addWanters(item);
+    }
+
+    @Override
+    public synchronized void itemRemoved(Item item) {
+        removeWantedItem(ItemId.toKey(item.getItemID()));
+    }
+
+    // the table the users of the graph are kept in, for the use cases built on it
+    UsernameTable usernames() {
+        return usernames;
+    }
+
+    void addGraphListener(GraphListener listener) {
+        graphListeners.add(listener);
+    }
+
+    // the keys of every wanted item in the global inventory
+    int[] wantedItemKeys() {
+        return wantedItems.keys();
+    }
+
+    // the users who want an item in the order they wished for it, or null if no one does; must not be changed
+    IntSet wanters(int itemKey) {
+        WantedItem wantedItem = wantedItems.get(itemKey);
+        return wantedItem == null ? null : wantedItem.wanters;
+    }
+
+    // the owner of a wanted item, or UsernameTable.NONE if no one wants it
+    int ownerOf(int itemKey) {
+        WantedItem wantedItem = wantedItems.get(itemKey);
+        return wantedItem == null ? UsernameTable.NONE : wantedItem.owner;
+    }
+
+    boolean hasEdge(int wanter, int owner) {
+        return edgeItems.containsKey(edge(wanter, owner));
+    }
+
+    // the keys of the owner's items the wanter wants, or null if there are none; must not be changed
+    IntSet itemsWanted(int wanter, int owner) {
+        return edgeItems.get(edge(wanter, owner));
+    }
+
+    // the owners of the items a user wants, or null if there are none; must not be changed
+    IntSet successors(int user) {
+        return successors.get(user);
+    }
+
+    // the successors of every user, sorted, indexed by user ID
+    int[][] snapshot() {
+        int[][] graph = new int[usernames.size()][];
+        for (int user = 0; user < graph.length; user++) {
+            IntSet next = successors.get(user);
+            graph[user] = next == null ? new int[0] : next.toArray();
+            Arrays.sort(graph[user]);
+        }
+        return graph;
+    }
+
+    static long edge(int wanter, int owner) {
+        return ((long) wanter << 32) | (owner & 0xFFFFFFFFL);
+    }
+
+    //----------------Helpers----------------//
+    private void addWanters(Item item) {
+        int key = ItemId.toKey(item.getItemID());
+        // in the order they wished for it, so the users who waited longest come first
+        for (String user : globalWishlistManager.getAllInterestedUsers(item.getItemID())) {
+            addWant(key, item.getOwnerId(), usernames.idOf(user));
+        }
+    }
+
+    private void addWant(int itemKey, int owner, int wanter) {
+        if (owner == wanter || wanter == UsernameTable.NONE || itemKey == ItemId.INVALID) return;
+        WantedItem wantedItem = wantedItems.get(itemKey);
+        if (wantedItem == null) {
+            wantedItem = new WantedItem(owner);
+            wantedItems.put(itemKey, wantedItem);
+        }
+        if (!wantedItem.wanters.add(wanter)) return;
+
+        long edge = edge(wanter, owner);
+        IntSet items = edgeItems.get(edge);
+        if (items == null) {
+            items = new IntSet(2);
+            edgeItems.put(edge, items);
+            IntSet next = successors.get(wanter);
+            if (next == null) {
+                next = new IntSet(4);
+                successors.put(wanter, next);
+            }
+            next.add(owner);
+            items.add(itemKey);
+            for (GraphListener listener : graphListeners) listener.edgeAdded(wanter, owner);
+        } else {
+            items.add(itemKey);
+        }
+        for (GraphListener listener : graphListeners) listener.wantAdded(itemKey, wanter);
+    }
+
+    private void removeWantedItem(int itemKey) {
+        WantedItem wantedItem = wantedItems.remove(itemKey);
+        if (wantedItem == null) return;
+        for (int wanter : wantedItem.wanters.toArray()) wantRemoved(itemKey, wantedItem.owner, wanter);
+    }
+
+    private void wantRemoved(int itemKey, int owner, int wanter) {
+        removeEdgeItem(wanter, owner, itemKey);
+        for (GraphListener listener : graphListeners) listener.wantRemoved(itemKey, wanter);
+    }
+
+    private void removeEdgeItem(int wanter, int owner, int itemKey) {
+        long edge = edge(wanter, owner);
+        IntSet items = edgeItems.get(edge);
+        if (items == null || !items.remove(itemKey) || !items.isEmpty()) return;
+
+        edgeItems.remove(edge);
+        IntSet next = successors.get(wanter);
+        next.remove(owner);
+        if (next.isEmpty()) successors.remove(wanter);
+        for (GraphListener listener : graphListeners) listener.edgeRemoved(wanter, owner);
+    }
+
+    /**
+     * Told about every want and edge added to or removed from the graph, while the graph is locked.
+     * An edge is added before the first want along it, and removed before the last want along it.
+     */
+    interface GraphListener {
+        default void edgeAdded(int wanter, int owner) {}
+
+        default void edgeRemoved(int wanter, int owner) {}
+
+        default void wantAdded(int itemKey, int wanter) {}
+
+        default void wantRemoved(int itemKey, int wanter) {}
+    }
+
+    private static class WantedItem {
+        private final int owner;
+        private final IntSet wanters = new IntSet(2);
+
+        private WantedItem(int owner) { this.owner = owner; }
+    }
+}